@@ -0,0 +1,130 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Generador de carga de bucle cerrado: cada cliente lanza una petición, lee la respuesta entera y vuelve a
+ * empezar. Cada cliente es un hilo virtual, así que el generador aguanta miles de clientes sin ser él el cuello
+ * de botella. Requiere JDK 21:
+ *
+ * <pre>
+ * java carga/CargaConcurrente.java URL [clientes=5000] [segundos=60] [calentamiento=10] [cabecera: valor]...
+ * </pre>
+ *
+ * Imprime una línea con las solicitudes por segundo, los percentiles de latencia y los errores por código.
+ */
+public class CargaConcurrente {
+
+    // Histograma de 100 µs por cubeta hasta 60 s; lo que pase de ahí cae en la última
+    private static final long CUBETA_NANOS = 100_000;
+    private static final int CUBETAS = 600_000;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Uso: java CargaConcurrente.java URL [clientes] [segundos] [calentamiento] "
+                    + "[\"Cabecera: valor\"]...");
+            System.exit(2);
+        }
+        URI destino = URI.create(args[0]);
+        int clientes = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+        int segundos = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+        int calentamiento = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        HttpRequest.Builder plantilla = HttpRequest.newBuilder(destino).timeout(Duration.ofSeconds(30)).GET();
+        for (int i = 4; i < args.length; i++) {
+            int separador = args[i].indexOf(':');
+            plantilla.header(args[i].substring(0, separador).trim(), args[i].substring(separador + 1).trim());
+        }
+        HttpRequest peticion = plantilla.build();
+
+        try (ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor()) {
+            HttpClient cliente = HttpClient.newBuilder()
+                    .executor(hilos)
+                    .connectTimeout(Duration.ofSeconds(10))
+                    .build();
+            ejecutar(cliente, peticion, hilos, clientes, calentamiento);
+            Resultado resultado = ejecutar(cliente, peticion, hilos, clientes, segundos);
+            resultado.imprimir(destino, clientes, segundos);
+        }
+    }
+
+    private static Resultado ejecutar(HttpClient cliente, HttpRequest peticion, ExecutorService hilos,
+                                      int clientes, int segundos) throws Exception {
+        Resultado resultado = new Resultado();
+        long fin = System.nanoTime() + Duration.ofSeconds(segundos).toNanos();
+        List<Future<?>> tareas = new ArrayList<>(clientes);
+        for (int i = 0; i < clientes; i++) {
+            tareas.add(hilos.submit(() -> {
+                while (System.nanoTime() < fin) {
+                    long inicio = System.nanoTime();
+                    try {
+                        HttpResponse<Void> respuesta = cliente.send(peticion, HttpResponse.BodyHandlers.discarding());
+                        resultado.registrar(respuesta.statusCode(), System.nanoTime() - inicio);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    } catch (Exception e) {
+                        resultado.fallar(e);
+                    }
+                }
+            }));
+        }
+        for (Future<?> tarea : tareas) {
+            tarea.get();
+        }
+        return resultado;
+    }
+
+    private static final class Resultado {
+
+        private final AtomicLongArray histograma = new AtomicLongArray(CUBETAS);
+        private final AtomicLong correctas = new AtomicLong();
+        private final AtomicLong maximo = new AtomicLong();
+        private final Map<String, AtomicLong> errores = new ConcurrentHashMap<>();
+
+        void registrar(int estado, long nanos) {
+            if (estado >= 400) {
+                errores.computeIfAbsent("HTTP " + estado, k -> new AtomicLong()).incrementAndGet();
+                return;
+            }
+            correctas.incrementAndGet();
+            histograma.incrementAndGet((int) Math.min(nanos / CUBETA_NANOS, CUBETAS - 1));
+            maximo.accumulateAndGet(nanos, Math::max);
+        }
+
+        void fallar(Exception e) {
+            errores.computeIfAbsent(e.getClass().getSimpleName(), k -> new AtomicLong()).incrementAndGet();
+        }
+
+        // Límite superior de la cubeta donde cae el percentil, en milisegundos
+        double percentil(double percentil) {
+            long objetivo = (long) Math.ceil(percentil * correctas.get());
+            long acumuladas = 0;
+            for (int i = 0; i < CUBETAS; i++) {
+                acumuladas += histograma.get(i);
+                if (acumuladas >= objetivo && acumuladas > 0) {
+                    return (i + 1) * CUBETA_NANOS / 1_000_000.0;
+                }
+            }
+            return Double.NaN;
+        }
+
+        void imprimir(URI destino, int clientes, int segundos) {
+            System.out.printf("%s | %d clientes | %ds | %.1f req/s | p50 %.1f ms | p90 %.1f ms | p99 %.1f ms | "
+                            + "máx %.1f ms | errores %s%n", destino, clientes, segundos,
+                    correctas.get() / (double) segundos, percentil(0.50), percentil(0.90), percentil(0.99),
+                    maximo.get() / 1_000_000.0, new TreeMap<>(errores));
+        }
+    }
+}
@@ -0,0 +1,42 @@
+#!/usr/bin/env bash
+# Compara el pool de hilos de plataforma de Tomcat con el perfil "virtual" bajo la misma carga.
+# Arranca el jar dos veces (sin y con hilos virtuales), lanza CargaConcurrente contra cada ruta y deja
+# los resultados en carga/resultados-<fecha>.txt.
+#
+# Requisitos: JDK 21, el jar empaquetado (mvn -DskipTests package), MongoDB con datos de prueba en
+# MONGODB_URI, JWT_SECRET definido y un límite de descriptores alto (ulimit -n 65536).
+#
+#   CLIENTES=5000 SEGUNDOS=60 carga/comparar-hilos.sh [ruta]...
+#
+# Rutas por defecto: /api/actividades y /api/actividades/disponibles.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUTAS=("$@")
+if [ ${#RUTAS[@]} -eq 0 ]; then
+    RUTAS=(/api/actividades /api/actividades/disponibles)
+fi
+SALIDA="carga/resultados-$(date +%Y%m%d-%H%M%S).txt"
+. carga/comun.sh
+
+medir() {
+    local modo=$1
+    shift
+    echo "== $modo" | tee -a "$SALIDA"
+    java "$@" -jar "$JAR" "${ARGUMENTOS[@]}" >"carga/app-$modo.log" 2>&1 &
+    local pid=$!
+    trap 'kill $pid 2>/dev/null || true' EXIT
+    esperar_arranque
+    for ruta in "${RUTAS[@]}"; do
+        cargar "$ruta"
+    done
+    kill "$pid"
+    wait "$pid" 2>/dev/null || true
+    trap - EXIT
+}
+
+medir plataforma
+medir virtual -Djdk.tracePinnedThreads=short -Dspring.profiles.active=virtual
+
+echo "Resultados en $SALIDA"
@@ -0,0 +1,54 @@
+#!/usr/bin/env bash
+# Compara las lecturas bloqueantes (/api/...) con las reactivas (/api/reactivo/...) sobre los mismos datos.
+# Arranca el jar una vez, inicia sesión con CORREO/PASSWORD y lanza
+# CargaConcurrente contra cada par de rutas, una detrás de otra. Deja los resultados en
+# carga/resultados-<fecha>.txt.
+#
+# Requisitos: los de comparar-hilos.sh, más un usuario de prueba con notificaciones.
+#
+#   CORREO=... PASSWORD=... CLIENTES=5000 carga/comparar-lecturas.sh
+#
+# Los listados bloqueantes de actividades salen de la cache de Caffeine y los reactivos van siempre a MongoDB.
+# Con SIN_CACHE=1 la cache de listas queda a tamaño 0 y ambos lados leen de la base de datos.
+# JAVA_OPTS admite opciones para la JVM de la aplicación, por ejemplo -Dspring.profiles.active=virtual.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+: "${CORREO:?Define CORREO y PASSWORD de un usuario de prueba}"
+: "${PASSWORD:?Define CORREO y PASSWORD de un usuario de prueba}"
+SALIDA="carga/resultados-$(date +%Y%m%d-%H%M%S).txt"
+. carga/comun.sh
+if [ "${SIN_CACHE:-0}" = 1 ]; then
+    ARGUMENTOS+=(--actividades.cache.listas-tamano-maximo=0)
+fi
+
+# shellcheck disable=SC2086
+java ${JAVA_OPTS:-} -jar "$JAR" "${ARGUMENTOS[@]}" >carga/app-lecturas.log 2>&1 &
+PID=$!
+trap 'kill $PID 2>/dev/null || true' EXIT
+esperar_arranque
+
+TOKEN=$(curl -fs -H 'Content-Type: application/json' \
+    -d "{\"correo\":\"$CORREO\",\"password\":\"$PASSWORD\"}" \
+    "http://localhost:$PUERTO/api/auth/login" | sed -n 's/.*"token":"\([^"]*\)".*/\1/p')
+if [ -z "$TOKEN" ]; then
+    echo "No se pudo iniciar sesión con $CORREO" >&2
+    exit 1
+fi
+# Todas las rutas llevan el token, para que el filtro JWT cueste lo mismo en ambos lados de cada par
+AUTORIZACION="Authorization: Bearer $TOKEN"
+
+echo "== actividades" | tee -a "$SALIDA"
+cargar /api/actividades "$AUTORIZACION"
+cargar /api/reactivo/actividades "$AUTORIZACION"
+cargar /api/actividades/disponibles "$AUTORIZACION"
+cargar /api/reactivo/actividades/disponibles "$AUTORIZACION"
+
+echo "== notificaciones" | tee -a "$SALIDA"
+cargar /api/notificaciones "$AUTORIZACION"
+cargar /api/reactivo/notificaciones "$AUTORIZACION"
+cargar /api/notificaciones/no-leidas "$AUTORIZACION"
+cargar /api/reactivo/notificaciones/no-leidas "$AUTORIZACION"
+
+echo "Resultados en $SALIDA"
@@ -0,0 +1,39 @@
+# Configuración común de los scripts de carga. Se incluye con ". carga/comun.sh" desde la raíz del proyecto,
+# después de definir SALIDA (archivo de resultados).
+
+CLIENTES=${CLIENTES:-5000}
+SEGUNDOS=${SEGUNDOS:-60}
+CALENTAMIENTO=${CALENTAMIENTO:-10}
+PUERTO=${PUERTO:-8080}
+JAR=${JAR:-target/plataforma-voluntariado-1.0.0.jar}
+
+ulimit -n 65536 2>/dev/null || echo "Aviso: no se pudo subir ulimit -n; con $CLIENTES clientes puede faltar" >&2
+
+# Todas las conexiones llegan desde la misma IP: se abre el límite por IP para medir el servidor, no el 429
+ARGUMENTOS=(
+    --server.port="$PUERTO"
+    --mongodb.change-streams.habilitado=false
+    --rate-limit.publico.capacidad=100000000
+    --rate-limit.publico.recarga-por-segundo=100000000
+    --server.tomcat.max-connections=20000
+    --server.tomcat.accept-count=5000
+)
+
+esperar_arranque() {
+    for _ in $(seq 1 120); do
+        if curl -fs "http://localhost:$PUERTO/actuator/health" >/dev/null; then
+            return 0
+        fi
+        sleep 1
+    done
+    echo "La aplicación no arrancó en 120 s" >&2
+    return 1
+}
+
+# cargar RUTA [cabecera]...: lanza el generador contra la aplicación local y añade la línea a SALIDA
+cargar() {
+    local ruta=$1
+    shift
+    java carga/CargaConcurrente.java "http://localhost:$PUERTO$ruta" "$CLIENTES" "$SEGUNDOS" "$CALENTAMIENTO" "$@" \
+        | tee -a "$SALIDA"
+}
@@ -0,0 +1,93 @@
+package com.voluntariado.plataforma.almacen;
+
+import com.cloudinary.Cloudinary;
+import com.cloudinary.Transformation;
+import com.cloudinary.utils.ObjectUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * Evidencias en Cloudinary. La subida va por trozos (uploadLarge): en memoria solo hay un trozo a la vez,
+ * sea cual sea el tamaño del archivo. La clave es "tipoRecurso:publicId", que es lo que pide su API después.
+ */
+@Component
+@ConditionalOnProperty(name = "evidencias.almacen", havingValue = "cloudinary", matchIfMissing = true)
+public class AlmacenCloudinary implements AlmacenEvidencias {
+
+    private static final String CARPETA = "evidencias";
+    private static final int LADO_MINIATURA = 300;
+
+    private final Cloudinary cloudinary;
+    private final int tamanoTrozo;
+
+    public AlmacenCloudinary(@Value("${cloudinary.cloud-name}") String cloudName,
+                             @Value("${cloudinary.api-key}") String apiKey,
+                             @Value("${cloudinary.api-secret}") String apiSecret,
+                             @Value("${evidencias.cloudinary.tamano-trozo-bytes:6000000}") int tamanoTrozo) {
+        this.cloudinary = new Cloudinary(ObjectUtils.asMap(
+                "cloud_name", cloudName,
+                "api_key", apiKey,
+                "api_secret", apiSecret,
+                "secure", true));
+        this.tamanoTrozo = tamanoTrozo;
+    }
+
+    @Override
+    public Guardado guardar(InputStream contenido, long tamano, String nombreOriginal) throws IOException {
+        // La firma ya se comprobó antes de llamar; JPG, PNG y PDF son "image" en Cloudinary, que así genera la
+        // miniatura y rechaza lo que no sepa abrir como imagen
+        Map<?, ?> respuesta = cloudinary.uploader().uploadLarge(contenido, ObjectUtils.asMap(
+                "resource_type", "image",
+                "folder", CARPETA,
+                "chunk_size", tamanoTrozo));
+        String clave = respuesta.get("resource_type") + ":" + respuesta.get("public_id");
+        return new Guardado(clave, (String) respuesta.get("secure_url"), ((Number) respuesta.get("bytes")).longValue());
+    }
+
+    @Override
+    public Inspeccion inspeccionar(String clave) throws IOException {
+        String[] partes = partes(clave);
+        try {
+            Map<?, ?> recurso = cloudinary.api().resource(partes[1], ObjectUtils.asMap("resource_type", partes[0]));
+            return new Inspeccion(FormatoEvidencia.deNombre((String) recurso.get("format")),
+                    ((Number) recurso.get("bytes")).longValue());
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("No se pudo consultar " + clave + " en Cloudinary", e);
+        }
+    }
+
+    // Transformación bajo demanda: Cloudinary la genera y la guarda en su CDN la primera vez que se pide
+    @Override
+    public String miniatura(String clave, FormatoEvidencia formato) {
+        String[] partes = partes(clave);
+        if (!"image".equals(partes[0])) {
+            return null;
+        }
+        return cloudinary.url()
+                .resourceType("image")
+                .transformation(new Transformation().width(LADO_MINIATURA).height(LADO_MINIATURA).crop("fill"))
+                .format("jpg")
+                .generate(partes[1]);
+    }
+
+    @Override
+    public void eliminar(String clave) throws IOException {
+        String[] partes = partes(clave);
+        cloudinary.uploader().destroy(partes[1], ObjectUtils.asMap("resource_type", partes[0]));
+    }
+
+    private static String[] partes(String clave) {
+        String[] partes = clave.split(":", 2);
+        if (partes.length != 2) {
+            throw new IllegalArgumentException("Clave de Cloudinary no válida: " + clave);
+        }
+        return partes;
+    }
+}
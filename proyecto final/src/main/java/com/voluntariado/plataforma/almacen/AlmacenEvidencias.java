@@ -0,0 +1,36 @@
+package com.voluntariado.plataforma.almacen;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Dónde viven los archivos de evidencia. La implementación se elige con {@code evidencias.almacen}; el
+ * resto de la aplicación solo conoce la clave que devuelve {@link #guardar}.
+ */
+public interface AlmacenEvidencias {
+
+    // Lee el flujo hasta el final sin cargarlo entero en memoria; tamano es el declarado por el cliente.
+    // Una URL null indica que el archivo se sirve desde la propia API
+    Guardado guardar(InputStream contenido, long tamano, String nombreOriginal) throws IOException;
+
+    // Formato detectado a partir del contenido, no de la extensión ni del Content-Type del cliente
+    Inspeccion inspeccionar(String clave) throws IOException;
+
+    // URL de una vista reducida, o null si el formato no la admite
+    String miniatura(String clave, FormatoEvidencia formato) throws IOException;
+
+    void eliminar(String clave) throws IOException;
+
+    // Archivo en el disco de esta instancia, si el almacén es local; si no, se descarga desde la URL
+    default Optional<Path> archivoLocal(String clave) {
+        return Optional.empty();
+    }
+
+    record Guardado(String clave, String url, long bytes) {
+    }
+
+    record Inspeccion(FormatoEvidencia formato, long bytes) {
+    }
+}
@@ -0,0 +1,259 @@
+package com.voluntariado.plataforma.almacen;
+
+import com.voluntariado.plataforma.lock.Arrendamiento;
+import com.voluntariado.plataforma.lock.ArrendamientoMongo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Evidencias en disco local (evidencias.almacen=local), direccionadas por su SHA-256: la clave es el hash y
+ * el archivo vive en dir/ab/cd/abcd…, así que subir dos veces el mismo contenido solo ocupa una copia. Se
+ * escribe a un temporal mientras se calcula el hash y se mueve con un rename atómico; un archivo visible
+ * siempre está completo. Una tarea periódica recalcula los hashes y aparta los que no coinciden.
+ * <p>
+ * El directorio es de una sola instancia salvo que sea un volumen compartido por todas
+ * (evidencias.local.compartido=true). Sin él, la instancia toma un arrendamiento al arrancar y una segunda
+ * con este almacén no arranca: sus archivos no serían visibles para la otra.
+ */
+@Component
+@ConditionalOnProperty(name = "evidencias.almacen", havingValue = "local")
+@Slf4j
+public class AlmacenLocal implements AlmacenEvidencias {
+
+    private static final Pattern CLAVE = Pattern.compile("[0-9a-f]{64}");
+    private static final String TEMPORALES = "tmp";
+    private static final String CORRUPTOS = "corruptos";
+    // Trozo que se proyecta en memoria al verificar: archivos grandes no ocupan su tamaño entero
+    private static final long TROZO_VERIFICACION = 64L * 1024 * 1024;
+    private static final String ARRENDAMIENTO = "almacen-evidencias-local";
+    private static final Duration DURACION_ARRENDAMIENTO = Duration.ofSeconds(30);
+
+    private final Path raiz;
+    private final Counter corruptos;
+    private final ArrendamientoMongo arrendamientoMongo;
+    private final boolean compartido;
+
+    private volatile Arrendamiento arrendamiento;
+
+    public AlmacenLocal(@Value("${evidencias.local.directorio:evidencias}") String directorio,
+                        @Value("${evidencias.local.compartido:false}") boolean compartido,
+                        ArrendamientoMongo arrendamientoMongo, MeterRegistry registry) throws IOException {
+        this.raiz = Path.of(directorio).toAbsolutePath();
+        this.compartido = compartido;
+        this.arrendamientoMongo = arrendamientoMongo;
+        Files.createDirectories(raiz.resolve(TEMPORALES));
+        this.corruptos = Counter.builder("evidencias.integridad.corruptos")
+                .description("Archivos de evidencia cuyo contenido ya no coincide con su SHA-256")
+                .register(registry);
+    }
+
+    // Tras una caída el arrendamiento anterior sigue vigente hasta vencer: se espera como mucho ese tiempo
+    @PostConstruct
+    public void reservar() throws InterruptedException {
+        if (compartido) {
+            return;
+        }
+        Instant limite = Instant.now().plus(DURACION_ARRENDAMIENTO).plusSeconds(5);
+        Optional<Arrendamiento> obtenido = arrendamientoMongo.adquirir(ARRENDAMIENTO, DURACION_ARRENDAMIENTO);
+        while (obtenido.isEmpty()) {
+            if (Instant.now().isAfter(limite)) {
+                throw new IllegalStateException("Otra instancia ya usa el almacén local de evidencias. Con varias "
+                        + "instancias hace falta un volumen compartido (evidencias.local.compartido=true) "
+                        + "u otro almacén");
+            }
+            Thread.sleep(1000);
+            obtenido = arrendamientoMongo.adquirir(ARRENDAMIENTO, DURACION_ARRENDAMIENTO);
+        }
+        arrendamiento = obtenido.get();
+    }
+
+    @Scheduled(fixedDelay = 10000, initialDelay = 10000)
+    public void renovarReserva() {
+        if (compartido) {
+            return;
+        }
+        Arrendamiento actual = arrendamiento;
+        try {
+            arrendamiento = (actual != null ? arrendamientoMongo.renovar(actual, DURACION_ARRENDAMIENTO)
+                    : Optional.<Arrendamiento>empty())
+                    .or(() -> arrendamientoMongo.adquirir(ARRENDAMIENTO, DURACION_ARRENDAMIENTO))
+                    .orElse(null);
+        } catch (RuntimeException e) {
+            log.warn("No se pudo renovar el arrendamiento del almacén local: {}", e.getMessage());
+            return;
+        }
+        if (arrendamiento == null) {
+            log.error("Otra instancia ha tomado el almacén local de evidencias; los archivos de {} no le son visibles",
+                    raiz);
+        }
+    }
+
+    @PreDestroy
+    public void liberarReserva() {
+        Arrendamiento actual = arrendamiento;
+        arrendamiento = null;
+        if (actual != null) {
+            arrendamientoMongo.liberar(actual);
+        }
+    }
+
+    @Override
+    public Guardado guardar(InputStream contenido, long tamano, String nombreOriginal) throws IOException {
+        MessageDigest sha = sha256();
+        Path temporal = Files.createTempFile(raiz.resolve(TEMPORALES), "subida", ".tmp");
+        try {
+            long bytes;
+            try (OutputStream salida = new DigestOutputStream(Files.newOutputStream(temporal), sha)) {
+                bytes = contenido.transferTo(salida);
+            }
+            String clave = HexFormat.of().formatHex(sha.digest());
+            Path destino = ruta(clave);
+            if (!Files.exists(destino)) {
+                Files.createDirectories(destino.getParent());
+                try {
+                    Files.move(temporal, destino, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    // Otra subida del mismo contenido llegó antes; su copia es idéntica
+                }
+            }
+            return new Guardado(clave, null, bytes);
+        } finally {
+            Files.deleteIfExists(temporal);
+        }
+    }
+
+    @Override
+    public Inspeccion inspeccionar(String clave) throws IOException {
+        Path archivo = ruta(clave);
+        byte[] cabecera;
+        try (InputStream entrada = Files.newInputStream(archivo)) {
+            cabecera = entrada.readNBytes(FormatoEvidencia.LONGITUD_FIRMA);
+        }
+        return new Inspeccion(FormatoEvidencia.detectar(cabecera), Files.size(archivo));
+    }
+
+    // Sin servicio de transformaciones: la vista previa es el propio archivo, que se sirve por rangos
+    @Override
+    public String miniatura(String clave, FormatoEvidencia formato) {
+        return null;
+    }
+
+    @Override
+    public void eliminar(String clave) throws IOException {
+        Files.deleteIfExists(ruta(clave));
+    }
+
+    @Override
+    public Optional<Path> archivoLocal(String clave) {
+        Path archivo = ruta(clave);
+        return Files.isReadable(archivo) ? Optional.of(archivo) : Optional.empty();
+    }
+
+    // Cada instancia revisa su directorio; también limpia temporales de subidas interrumpidas
+    @Scheduled(fixedDelayString = "${evidencias.local.verificacion-ms:86400000}",
+            initialDelayString = "${evidencias.local.verificacion-ms:86400000}")
+    public void verificarIntegridad() {
+        AtomicLong revisados = new AtomicLong();
+        AtomicLong danados = new AtomicLong();
+        try (Stream<Path> archivos = Files.walk(raiz, 3)) {
+            // Solo los de dir/ab/cd/clave: ni temporales ni los ya apartados
+            archivos.filter(archivo -> raiz.relativize(archivo).getNameCount() == 3 && Files.isRegularFile(archivo))
+                    .filter(archivo -> CLAVE.matcher(archivo.getFileName().toString()).matches())
+                    .forEach(archivo -> {
+                        revisados.incrementAndGet();
+                        if (!verificar(archivo)) {
+                            danados.incrementAndGet();
+                        }
+                    });
+            limpiarTemporales();
+        } catch (IOException e) {
+            log.error("Error al recorrer el almacén de evidencias {}: {}", raiz, e.getMessage(), e);
+        }
+        log.info("Integridad de evidencias: {} archivos revisados, {} dañados", revisados.get(), danados.get());
+    }
+
+    private boolean verificar(Path archivo) {
+        String clave = archivo.getFileName().toString();
+        try {
+            if (clave.equals(hash(archivo))) {
+                return true;
+            }
+            Path apartado = raiz.resolve(CORRUPTOS).resolve(clave);
+            Files.createDirectories(apartado.getParent());
+            Files.move(archivo, apartado, StandardCopyOption.REPLACE_EXISTING);
+            corruptos.increment();
+            log.error("Evidencia {} dañada: el contenido no coincide con su hash; apartada en {}", clave, apartado);
+        } catch (IOException e) {
+            log.warn("No se pudo verificar la evidencia {}: {}", clave, e.getMessage());
+        }
+        return false;
+    }
+
+    // Hash sobre trozos proyectados en memoria: sin copias al heap ni búfer propio
+    private static String hash(Path archivo) throws IOException {
+        MessageDigest sha = sha256();
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            long tamano = canal.size();
+            for (long posicion = 0; posicion < tamano; posicion += TROZO_VERIFICACION) {
+                MappedByteBuffer trozo = canal.map(FileChannel.MapMode.READ_ONLY, posicion,
+                        Math.min(TROZO_VERIFICACION, tamano - posicion));
+                sha.update(trozo);
+            }
+        }
+        return HexFormat.of().formatHex(sha.digest());
+    }
+
+    private void limpiarTemporales() throws IOException {
+        Instant limite = Instant.now().minus(Duration.ofDays(1));
+        try (Stream<Path> temporales = Files.list(raiz.resolve(TEMPORALES))) {
+            for (Path temporal : (Iterable<Path>) temporales::iterator) {
+                if (Files.getLastModifiedTime(temporal).toInstant().isBefore(limite)) {
+                    Files.deleteIfExists(temporal);
+                }
+            }
+        }
+    }
+
+    private Path ruta(String clave) {
+        if (!CLAVE.matcher(clave).matches()) {
+            throw new IllegalArgumentException("Clave de evidencia no válida: " + clave);
+        }
+        return raiz.resolve(clave.substring(0, 2)).resolve(clave.substring(2, 4)).resolve(clave);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.voluntariado.plataforma.almacen;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sustituto de Cloudinary para desarrollo local sin credenciales (evidencias.almacen=memoria): guarda los
+ * archivos en un mapa y no sobrevive a un reinicio. Detecta el formato por la cabecera igual que haría el
+ * almacén real.
+ */
+@Component
+@ConditionalOnProperty(name = "evidencias.almacen", havingValue = "memoria")
+public class AlmacenMemoria implements AlmacenEvidencias {
+
+    private static final String ESQUEMA = "memoria:";
+
+    private final Map<String, byte[]> archivos = new ConcurrentHashMap<>();
+
+    @Override
+    public Guardado guardar(InputStream contenido, long tamano, String nombreOriginal) throws IOException {
+        byte[] bytes = contenido.readAllBytes();
+        String clave = UUID.randomUUID().toString();
+        archivos.put(clave, bytes);
+        return new Guardado(clave, ESQUEMA + clave, bytes.length);
+    }
+
+    @Override
+    public Inspeccion inspeccionar(String clave) throws IOException {
+        byte[] bytes = archivos.get(clave);
+        if (bytes == null) {
+            throw new IOException("No existe la evidencia " + clave);
+        }
+        byte[] cabecera = Arrays.copyOf(bytes, Math.min(bytes.length, FormatoEvidencia.LONGITUD_FIRMA));
+        return new Inspeccion(FormatoEvidencia.detectar(cabecera), bytes.length);
+    }
+
+    @Override
+    public String miniatura(String clave, FormatoEvidencia formato) {
+        return formato.isImagen() ? ESQUEMA + clave : null;
+    }
+
+    @Override
+    public void eliminar(String clave) {
+        archivos.remove(clave);
+    }
+}
@@ -0,0 +1,120 @@
+package com.voluntariado.plataforma.almacen;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Envía un archivo del disco sin pasar su contenido por el heap. Con Tomcat (NIO) se le delega el envío por
+ * sendfile; si el conector no lo admite, se usa FileChannel.transferTo hacia la salida de la respuesta.
+ * Admite un rango (206 Partial Content); con varios rangos se envía el archivo entero, como permite HTTP.
+ */
+public final class EnvioArchivo {
+
+    private static final String SENDFILE_SOPORTADO = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_ARCHIVO = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_INICIO = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_FIN = "org.apache.tomcat.sendfile.end";
+
+    private EnvioArchivo() {
+    }
+
+    // etag debe identificar el contenido; con almacenamiento direccionado por hash, el propio hash
+    public static void enviar(Path archivo, String tipoContenido, String etag, HttpServletRequest request,
+                              HttpServletResponse response) throws IOException {
+        long longitud = Files.size(archivo);
+        String etagEntrecomillado = "\"" + etag + "\"";
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.ETAG, etagEntrecomillado);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=31536000, immutable");
+
+        if (coincideEtag(request.getHeader(HttpHeaders.IF_NONE_MATCH), etagEntrecomillado)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long inicio = 0;
+        long fin = longitud - 1;
+        String cabeceraRango = request.getHeader(HttpHeaders.RANGE);
+        if (cabeceraRango != null) {
+            List<HttpRange> rangos;
+            try {
+                rangos = HttpRange.parseRanges(cabeceraRango);
+                if (rangos.size() == 1) {
+                    inicio = rangos.get(0).getRangeStart(longitud);
+                    fin = rangos.get(0).getRangeEnd(longitud);
+                }
+            } catch (IllegalArgumentException e) {
+                rangos = null;
+            }
+            // HttpRange no rechaza "bytes=-0" ni un inicio más allá del final: los dos dejan el rango vacío
+            if (rangos == null || inicio > fin) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + longitud);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (rangos.size() == 1) {
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + inicio + "-" + fin + "/" + longitud);
+            }
+        }
+
+        long cantidad = fin - inicio + 1;
+        response.setContentType(tipoContenido);
+        response.setContentLengthLong(cantidad);
+        if ("HEAD".equals(request.getMethod()) || cantidad <= 0) {
+            return;
+        }
+
+        // Tomcat hace el sendfile al terminar la petición, con el rango en [inicio, fin)
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SOPORTADO))) {
+            request.setAttribute(SENDFILE_ARCHIVO, archivo.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_INICIO, inicio);
+            request.setAttribute(SENDFILE_FIN, fin + 1);
+            return;
+        }
+
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            WritableByteChannel salida = Channels.newChannel(response.getOutputStream());
+            long enviados = 0;
+            while (enviados < cantidad) {
+                // Con una salida bloqueante solo devuelve 0 si la posición ya está más allá del final: el archivo
+                // se acortó tras medirlo y el Content-Length anunciado no se puede cumplir
+                long transferidos = canal.transferTo(inicio + enviados, cantidad - enviados, salida);
+                if (transferidos == 0) {
+                    throw new EOFException("El archivo " + archivo.getFileName() + " terminó tras " + enviados
+                            + " de " + cantidad + " bytes");
+                }
+                enviados += transferidos;
+            }
+        }
+    }
+
+    // If-None-Match admite "*" o una lista de etiquetas; la comparación es débil, así que W/ no cuenta
+    private static boolean coincideEtag(String cabecera, String etag) {
+        if (cabecera == null) {
+            return false;
+        }
+        for (String candidata : cabecera.split(",")) {
+            String limpia = candidata.trim();
+            if (limpia.startsWith("W/")) {
+                limpia = limpia.substring(2);
+            }
+            if (limpia.equals("*") || limpia.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
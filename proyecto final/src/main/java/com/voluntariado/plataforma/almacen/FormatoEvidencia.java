@@ -0,0 +1,56 @@
+package com.voluntariado.plataforma.almacen;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+// Formatos admitidos y su firma de los primeros bytes
+public enum FormatoEvidencia {
+
+    JPG(new byte[] {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF}, true, "image/jpeg"),
+    PNG(new byte[] {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'}, true, "image/png"),
+    PDF(new byte[] {'%', 'P', 'D', 'F', '-'}, false, "application/pdf");
+
+    // Bytes de cabecera que hay que leer para reconocer cualquiera de los formatos
+    public static final int LONGITUD_FIRMA = 8;
+
+    private final byte[] firma;
+    private final boolean imagen;
+    private final String tipoContenido;
+
+    FormatoEvidencia(byte[] firma, boolean imagen, String tipoContenido) {
+        this.firma = firma;
+        this.imagen = imagen;
+        this.tipoContenido = tipoContenido;
+    }
+
+    public boolean isImagen() {
+        return imagen;
+    }
+
+    public String getTipoContenido() {
+        return tipoContenido;
+    }
+
+    // null si la cabecera no corresponde a ningún formato admitido
+    public static FormatoEvidencia detectar(byte[] cabecera) {
+        for (FormatoEvidencia formato : values()) {
+            if (cabecera.length >= formato.firma.length
+                    && Arrays.equals(cabecera, 0, formato.firma.length, formato.firma, 0, formato.firma.length)) {
+                return formato;
+            }
+        }
+        return null;
+    }
+
+    // Nombre de formato de un servicio externo ("jpg", "jpeg", "png", "pdf"); null si no se admite
+    public static FormatoEvidencia deNombre(String nombre) {
+        if (nombre == null) {
+            return null;
+        }
+        String normalizado = nombre.toUpperCase(Locale.ROOT);
+        if ("JPEG".equals(normalizado)) {
+            return JPG;
+        }
+        return Arrays.stream(values()).filter(f -> f.name().equals(normalizado)).findFirst().orElse(null);
+    }
+}
@@ -0,0 +1,52 @@
+package com.voluntariado.plataforma.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.SimpleAsyncTaskExecutorBuilder;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+
+    @Value("${email.envio.hilos:4}")
+    private int hilos;
+
+    @Value("${email.envio.cola-maxima:500}")
+    private int colaMaxima;
+
+    // Spring Boot 3.2 no crea su executor por defecto si ya hay otro Executor en el contexto (emailExecutor,
+    // el pool de BCrypt), así que se declara aquí con sus mismos builders: @Async sin calificador, MVC async
+    // y StreamingResponseBody lo usan, y con el perfil "virtual" trabaja con hilos virtuales
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    public AsyncTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder poolBuilder,
+                                                     SimpleAsyncTaskExecutorBuilder virtualBuilder,
+                                                     Environment environment) {
+        if (environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)) {
+            return virtualBuilder.build();
+        }
+        return poolBuilder.build();
+    }
+
+    // El envío SMTP de Jakarta Mail usa métodos synchronized (SMTPTransport): en un hilo virtual
+    // fijaría el hilo portador durante toda la conversación con el servidor. Por eso los correos
+    // salen siempre por un pool pequeño de hilos de plataforma, con o sin hilos virtuales.
+    @Bean
+    public ThreadPoolTaskExecutor emailExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(hilos);
+        executor.setMaxPoolSize(hilos);
+        executor.setQueueCapacity(colaMaxima);
+        executor.setThreadNamePrefix("email-");
+        // Con la cola llena se rechaza (AbortPolicy): EmailService guarda el correo para reintentarlo, así el
+        // hilo de la petición nunca hace el envío SMTP ni fija su portador con el perfil "virtual"
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
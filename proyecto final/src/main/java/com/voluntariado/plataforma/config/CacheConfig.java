@@ -0,0 +1,76 @@
+package com.voluntariado.plataforma.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.voluntariado.plataforma.service.VersionCatalogoActividades;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String ACTIVIDADES = "actividades";
+    public static final String ACTIVIDADES_LISTAS = "actividadesListas";
+    public static final String CLAVE_CATALOGO = "claveCatalogoActividades";
+
+    @Value("${actividades.cache.tamano-maximo:5000}")
+    private long tamanoMaximo;
+
+    @Value("${actividades.cache.listas-tamano-maximo:200}")
+    private long listasTamanoMaximo;
+
+    // Red de seguridad: aunque se pierda una invalidación, ninguna entrada vive más que esto
+    @Value("${actividades.cache.expiracion-minutos:10}")
+    private long expiracionMinutos;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.registerCustomCache(ACTIVIDADES, Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfterWrite(Duration.ofMinutes(expiracionMinutos))
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(ACTIVIDADES_LISTAS, Caffeine.newBuilder()
+                .maximumSize(listasTamanoMaximo)
+                .expireAfterWrite(Duration.ofMinutes(expiracionMinutos))
+                .recordStats()
+                .build());
+        // Solo existen las caches declaradas aquí
+        cacheManager.setCacheNames(List.of());
+        return cacheManager;
+    }
+
+    // Los listados se guardan bajo la versión actual del catálogo: una escritura cambia la versión y las
+    // entradas anteriores dejan de usarse sin tener que vaciar la cache (ni competir con cargas en curso)
+    @Bean(CLAVE_CATALOGO)
+    public KeyGenerator claveCatalogoActividades(VersionCatalogoActividades versionCatalogo) {
+        return (target, method, params) -> versionCatalogo.versionActual() + ":" + method.getName() + ":"
+                + Arrays.deepToString(params);
+    }
+
+    // cache.gets / cache.evictions los publica Spring Boot; aquí se agrega la tasa de aciertos directa
+    @Bean
+    public MeterBinder tasaAciertosCache(CacheManager cacheManager) {
+        return registry -> cacheManager.getCacheNames().forEach(nombre -> {
+            if (cacheManager.getCache(nombre) instanceof CaffeineCache cache) {
+                Gauge.builder("cache.hit.ratio", cache.getNativeCache(), c -> c.stats().hitRate())
+                        .tag("cache", nombre)
+                        .description("Proporción de lecturas servidas desde la cache")
+                        .register(registry);
+            }
+        });
+    }
+}
@@ -0,0 +1,33 @@
+package com.voluntariado.plataforma.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ajustes que solo aplican con {@code spring.threads.virtual.enabled=true} (perfil "virtual").
+ * Sin el tope de hilos de Tomcat, el pool de conexiones de MongoDB pasa a ser la cola real de la aplicación.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class HilosVirtualesConfig {
+
+    @Value("${mongodb.pool.tamano-maximo:100}")
+    private int tamanoMaximo;
+
+    @Value("${mongodb.pool.espera-maxima-ms:2000}")
+    private long esperaMaximaMs;
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer poolConexionesHilosVirtuales() {
+        // Por defecto el driver deja esperar 2 minutos por una conexión; con miles de hilos
+        // virtuales eso se traduce en solicitudes colgadas en lugar de un error rápido
+        return builder -> builder.applyToConnectionPoolSettings(pool -> pool
+                .maxSize(tamanoMaximo)
+                .maxWaitTime(esperaMaximaMs, TimeUnit.MILLISECONDS));
+    }
+}
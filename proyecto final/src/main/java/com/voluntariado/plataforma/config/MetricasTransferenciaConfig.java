@@ -0,0 +1,244 @@
+package com.voluntariado.plataforma.config;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Diagnóstico de bytes por petición: lo que devuelve MongoDB y lo que se serializa al cliente, por ruta.
+ * Solo para comparar antes/después (p. ej. proyecciones de listados); re-codifica las respuestas de MongoDB, así
+ * que no debe quedar activo en producción. El cuerpo HTTP se cuenta al pasar, sin almacenarlo ni tocar cabeceras,
+ * de modo que los 304/206 y los archivos enviados por sendfile salen igual. Las lecturas reactivas y las
+ * respuestas asíncronas no se atribuyen a la ruta.
+ */
+@Configuration
+@ConditionalOnProperty(name = "diagnostico.transferencia.habilitado", havingValue = "true")
+public class MetricasTransferenciaConfig {
+
+    // El driver síncrono avisa al CommandListener en el hilo que hace la consulta
+    private static final ThreadLocal<long[]> BYTES_MONGO_PETICION = new ThreadLocal<>();
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer medidorRespuestasMongo(MeterRegistry registry) {
+        return builder -> builder.addCommandListener(new MedidorRespuestasMongo(registry));
+    }
+
+    @Bean
+    public FilterRegistrationBean<OncePerRequestFilter> medidorBytesPeticion(MeterRegistry registry) {
+        FilterRegistrationBean<OncePerRequestFilter> registro =
+                new FilterRegistrationBean<>(new MedidorBytesPeticion(registry));
+        registro.addUrlPatterns("/api/*");
+        return registro;
+    }
+
+    private static final class MedidorRespuestasMongo implements CommandListener {
+
+        private final MeterRegistry registry;
+        private final Map<Integer, String> coleccionPorPeticion = new ConcurrentHashMap<>();
+
+        private MedidorRespuestasMongo(MeterRegistry registry) {
+            this.registry = registry;
+        }
+
+        @Override
+        public void commandStarted(CommandStartedEvent event) {
+            BsonDocument comando = event.getCommand();
+            BsonValue objetivo = "getMore".equals(event.getCommandName())
+                    ? comando.get("collection")
+                    : comando.get(event.getCommandName());
+            coleccionPorPeticion.put(event.getRequestId(),
+                    objetivo != null && objetivo.isString() ? objetivo.asString().getValue() : "-");
+        }
+
+        @Override
+        public void commandSucceeded(CommandSucceededEvent event) {
+            String coleccion = coleccionPorPeticion.remove(event.getRequestId());
+            BsonDocument respuesta = event.getResponse();
+            long bytes = respuesta instanceof RawBsonDocument raw
+                    ? raw.getByteBuffer().remaining()
+                    : new RawBsonDocument(respuesta, new BsonDocumentCodec()).getByteBuffer().remaining();
+
+            DistributionSummary.builder("mongodb.respuesta.bytes")
+                    .baseUnit("bytes")
+                    .tag("comando", event.getCommandName())
+                    .tag("coleccion", coleccion == null ? "-" : coleccion)
+                    .register(registry)
+                    .record(bytes);
+
+            long[] acumulado = BYTES_MONGO_PETICION.get();
+            if (acumulado != null) {
+                acumulado[0] += bytes;
+            }
+        }
+
+        @Override
+        public void commandFailed(CommandFailedEvent event) {
+            coleccionPorPeticion.remove(event.getRequestId());
+        }
+    }
+
+    private static final class MedidorBytesPeticion extends OncePerRequestFilter {
+
+        private static final String SENDFILE_INICIO = "org.apache.tomcat.sendfile.start";
+        private static final String SENDFILE_FIN = "org.apache.tomcat.sendfile.end";
+
+        private final MeterRegistry registry;
+
+        private MedidorBytesPeticion(MeterRegistry registry) {
+            this.registry = registry;
+        }
+
+        // Los flujos NDJSON se escriben en un dispatch asíncrono y no se pueden almacenar enteros
+        @Override
+        protected boolean shouldNotFilter(HttpServletRequest request) {
+            return request.getRequestURI().startsWith(request.getContextPath() + "/api/reactivo/");
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                throws ServletException, IOException {
+            RespuestaContada respuesta = new RespuestaContada(response);
+            long[] bytesMongo = new long[1];
+            BYTES_MONGO_PETICION.set(bytesMongo);
+            try {
+                chain.doFilter(request, respuesta);
+                respuesta.vaciarEscritor();
+            } finally {
+                BYTES_MONGO_PETICION.remove();
+                Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                String uri = patron == null ? "DESCONOCIDA" : patron.toString();
+
+                registrar("http.peticion.mongo.bytes", request.getMethod(), uri, bytesMongo[0]);
+                // Con un dispatch asíncrono el cuerpo se escribe después: la cuenta estaría incompleta
+                if (!request.isAsyncStarted()) {
+                    registrar("http.peticion.respuesta.bytes", request.getMethod(), uri,
+                            respuesta.bytes + bytesSendfile(request));
+                }
+            }
+        }
+
+        // Tomcat envía el archivo al terminar la petición, sin pasar por la salida de la respuesta
+        private static long bytesSendfile(HttpServletRequest request) {
+            return request.getAttribute(SENDFILE_INICIO) instanceof Long inicio
+                    && request.getAttribute(SENDFILE_FIN) instanceof Long fin ? fin - inicio : 0;
+        }
+
+        private void registrar(String nombre, String metodo, String uri, long bytes) {
+            DistributionSummary.builder(nombre)
+                    .baseUnit("bytes")
+                    .tag("method", metodo)
+                    .tag("uri", uri)
+                    .register(registry)
+                    .record(bytes);
+        }
+    }
+
+    // Cuenta los bytes escritos en la salida y los deja pasar tal cual
+    private static final class RespuestaContada extends HttpServletResponseWrapper {
+
+        private long bytes;
+        private ServletOutputStream salida;
+        private PrintWriter escritor;
+
+        private RespuestaContada(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (salida == null) {
+                salida = new SalidaContada(super.getOutputStream());
+            }
+            return salida;
+        }
+
+        // Sobre la salida contada, así los caracteres se cuentan ya codificados
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (escritor == null) {
+                escritor = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+            }
+            return escritor;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            vaciarEscritor();
+            super.flushBuffer();
+        }
+
+        private void vaciarEscritor() {
+            if (escritor != null) {
+                escritor.flush();
+            }
+        }
+
+        private final class SalidaContada extends ServletOutputStream {
+
+            private final ServletOutputStream destino;
+
+            private SalidaContada(ServletOutputStream destino) {
+                this.destino = destino;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                destino.write(b);
+                bytes++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                destino.write(b, off, len);
+                bytes += len;
+            }
+
+            @Override
+            public void flush() throws IOException {
+                destino.flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                destino.close();
+            }
+
+            @Override
+            public boolean isReady() {
+                return destino.isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener listener) {
+                destino.setWriteListener(listener);
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.voluntariado.plataforma.config;
+
+import com.voluntariado.plataforma.lock.BloqueoDistribuido;
+import com.voluntariado.plataforma.model.Actividad;
+import com.voluntariado.plataforma.model.Evidencia;
+import com.voluntariado.plataforma.model.MigracionAplicada;
+import com.voluntariado.plataforma.model.Notificacion;
+import com.voluntariado.plataforma.model.ReferenciaArchivo;
+import com.voluntariado.plataforma.model.Usuario;
+import com.voluntariado.plataforma.model.enums.EstadoEvidencia;
+import com.voluntariado.plataforma.model.enums.FrecuenciaEmail;
+import com.voluntariado.plataforma.repository.MigracionAplicadaRepository;
+import com.voluntariado.plataforma.service.MensajeService;
+import com.voluntariado.plataforma.service.PropagacionNombresService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.Fields;
+import org.springframework.data.mongodb.core.aggregation.StringOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Migraciones de datos que se ejecutan una sola vez tras el arranque. El bloqueo distribuido evita que dos
+ * instancias las corran a la vez y la colección "migraciones" recuerda cuáles ya se aplicaron.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MigracionesDatos {
+
+    static final String NOMBRES_DESNORMALIZADOS = "2026-nombres-desnormalizados";
+    static final String CONVERSACIONES = "2026-conversaciones";
+    static final String DESCRIPCION_CORTA = "2026-actividades-descripcion-corta";
+    static final String FECHA_LECTURA_NOTIFICACIONES = "2026-notificaciones-fecha-lectura";
+    static final String ESTADO_EVIDENCIAS = "2026-evidencias-estado";
+    static final String FRECUENCIA_EMAIL = "2026-usuarios-frecuencia-email";
+    static final String REFERENCIAS_ARCHIVOS = "2026-evidencias-referencias-archivos";
+
+    private final MigracionAplicadaRepository migracionAplicadaRepository;
+    private final MongoTemplate mongoTemplate;
+    private final PropagacionNombresService propagacionNombresService;
+    private final MensajeService mensajeService;
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    @BloqueoDistribuido(nombre = "migraciones", duracionMaxima = "PT30M")
+    public void aplicarPendientes() {
+        aplicar(NOMBRES_DESNORMALIZADOS, this::rellenarNombres);
+        aplicar(CONVERSACIONES, mensajeService::reconstruirConversaciones);
+        aplicar(DESCRIPCION_CORTA, this::rellenarDescripcionCorta);
+        aplicar(FECHA_LECTURA_NOTIFICACIONES, this::rellenarFechaLectura);
+        aplicar(ESTADO_EVIDENCIAS, this::rellenarEstadoEvidencias);
+        aplicar(FRECUENCIA_EMAIL, this::rellenarFrecuenciaEmail);
+        aplicar(REFERENCIAS_ARCHIVOS, this::contarReferenciasArchivos);
+    }
+
+    private void aplicar(String nombre, LongSupplier migracion) {
+        if (migracionAplicadaRepository.existsById(nombre)) {
+            return;
+        }
+        log.info("Aplicando migración de datos {}", nombre);
+        long modificados = migracion.getAsLong();
+        migracionAplicadaRepository.save(MigracionAplicada.builder()
+                .id(nombre)
+                .documentosModificados(modificados)
+                .fechaAplicacion(LocalDateTime.now())
+                .build());
+        log.info("Migración {} aplicada: {} documentos actualizados", nombre, modificados);
+    }
+
+    // Los listados de actividades proyectan descripcionCorta; se calcula en el servidor para las existentes
+    private long rellenarDescripcionCorta() {
+        AggregationUpdate recorte = AggregationUpdate.update()
+                .set("descripcionCorta")
+                .toValue(StringOperators.valueOf("descripcion").substringCP(0, Actividad.LONGITUD_DESCRIPCION_CORTA));
+        return mongoTemplate.updateMulti(
+                new Query(Criteria.where("descripcion").type(JsonSchemaObject.Type.STRING)
+                        .and("descripcionCorta").exists(false)),
+                recorte, Actividad.class).getModifiedCount();
+    }
+
+    // Sin fechaLectura el TTL no alcanza a las leídas antes de existir el campo; se toma la de creación
+    private long rellenarFechaLectura() {
+        return mongoTemplate.updateMulti(
+                new Query(Criteria.where("leida").is(true).and("fechaLectura").exists(false)
+                        .and("fechaCreacion").exists(true)),
+                AggregationUpdate.update().set("fechaLectura").toValueOf(Fields.field("fechaCreacion")),
+                Notificacion.class).getModifiedCount();
+    }
+
+    // Evidencias anteriores al campo estado: las aprobadas quedan APROBADA y el resto entra en la cola de revisión
+    private long rellenarEstadoEvidencias() {
+        long aprobadas = mongoTemplate.updateMulti(
+                new Query(Criteria.where("estado").exists(false).and("aprobada").is(true)),
+                new Update().set("estado", EstadoEvidencia.APROBADA), Evidencia.class).getModifiedCount();
+        long pendientes = mongoTemplate.updateMulti(
+                new Query(Criteria.where("estado").exists(false)),
+                new Update().set("estado", EstadoEvidencia.PENDIENTE), Evidencia.class).getModifiedCount();
+        return aprobadas + pendientes;
+    }
+
+    // Los usuarios anteriores al resumen siguen recibiendo los avisos al momento; el resumen se elige en el perfil
+    private long rellenarFrecuenciaEmail() {
+        return mongoTemplate.updateMulti(new Query(Criteria.where("frecuenciaEmail").exists(false)),
+                new Update().set("frecuenciaEmail", FrecuenciaEmail.INMEDIATA), Usuario.class).getModifiedCount();
+    }
+
+    // Cuenta las evidencias que usan cada archivo. Las rechazadas por la validación ya no lo usan (no tienen
+    // revisor); las rechazadas por un coordinador siguen enlazándolo. $max respeta lo que ya sumaron subidas nuevas
+    private long contarReferenciasArchivos() {
+        Criteria enUso = new Criteria().orOperator(
+                Criteria.where("estado").ne(EstadoEvidencia.RECHAZADA),
+                Criteria.where("revisadaPor").ne(null));
+        List<ReferenciaArchivo> cuentas = mongoTemplate.aggregate(Aggregation.newAggregation(
+                        Aggregation.match(Criteria.where("clave").ne(null).andOperator(enUso)),
+                        Aggregation.group("clave").count().as("referencias")),
+                Evidencia.class, ReferenciaArchivo.class).getMappedResults();
+        if (cuentas.isEmpty()) {
+            return 0;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ReferenciaArchivo.class);
+        cuentas.forEach(cuenta -> bulk.upsert(new Query(Criteria.where("_id").is(cuenta.getClave())),
+                new Update().max("referencias", cuenta.getReferencias())));
+        bulk.execute();
+        return cuentas.size();
+    }
+
+    // Copia el nombre actual de cada usuario en mensajes, historial y actividades existentes
+    private long rellenarNombres() {
+        Query query = new Query();
+        query.fields().include("id", "nombre");
+        AtomicLong modificados = new AtomicLong();
+        try (Stream<Usuario> usuarios = mongoTemplate.stream(query, Usuario.class)) {
+            usuarios.filter(usuario -> usuario.getNombre() != null)
+                    .forEach(usuario -> modificados.addAndGet(
+                            propagacionNombresService.aplicarNombre(usuario.getId(), usuario.getNombre())));
+        }
+        return modificados.get();
+    }
+}
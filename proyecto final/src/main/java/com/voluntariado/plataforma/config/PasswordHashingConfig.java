@@ -0,0 +1,49 @@
+package com.voluntariado.plataforma.config;
+
+import com.voluntariado.plataforma.security.PasswordEncoderAislado;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+public class PasswordHashingConfig {
+
+    @Value("${seguridad.bcrypt.costo:10}")
+    private int costo;
+
+    @Value("${seguridad.bcrypt.hilos:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}")
+    private int hilos;
+
+    @Value("${seguridad.bcrypt.cola-maxima:100}")
+    private int colaMaxima;
+
+    @Value("${seguridad.bcrypt.espera-maxima-ms:2000}")
+    private long esperaMaximaMs;
+
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor passwordHashingExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(colaMaxima),
+                new CustomizableThreadFactory("bcrypt-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        executor.prestartAllCoreThreads();
+        return executor;
+    }
+
+    @Bean
+    public PasswordEncoder passwordEncoder(ThreadPoolExecutor passwordHashingExecutor, MeterRegistry registry) {
+        // executor.queued / executor.active / executor.completed con la etiqueta name=bcrypt
+        ExecutorService ejecutorMedido = ExecutorServiceMetrics.monitor(registry, passwordHashingExecutor, "bcrypt");
+        return new PasswordEncoderAislado(new BCryptPasswordEncoder(costo), ejecutorMedido, esperaMaximaMs, registry);
+    }
+}
@@ -1,6 +1,9 @@
 package com.voluntariado.plataforma.config;
 
+import com.voluntariado.plataforma.security.CustomUserDetailsService;
 import com.voluntariado.plataforma.security.JwtAuthenticationFilter;
+import com.voluntariado.plataforma.security.RateLimitFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -14,8 +17,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -33,7 +34,9 @@ import java.util.List;
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthFilter;
-    private final UserDetailsService userDetailsService;
+    private final CustomUserDetailsService userDetailsService;
+    private final RateLimitFilter rateLimitFilter;
+    private final PasswordEncoder passwordEncoder;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -41,6 +44,9 @@ public class SecurityConfig {
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
+                        // Despachos asíncronos (descargas en streaming): la petición original ya fue autorizada
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // Páginas públicas
                         .requestMatchers("/", "/login", "/registro", "/actividades", "/dashboard", "/perfil", "/admin", "/calendario", "/recuperar-password").permitAll()
                         .requestMatchers("/css/**", "/js/**", "/images/**").permitAll()
@@ -49,13 +55,18 @@ public class SecurityConfig {
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/public/**").permitAll()
                         .requestMatchers("/swagger-ui/**", "/api-docs/**", "/swagger-ui.html").permitAll()
-                        .requestMatchers(HttpMethod.GET, "/api/actividades").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
+                        // Antes que "/api/actividades/*": depende del usuario
+                        .requestMatchers(HttpMethod.GET, "/api/actividades/recomendadas").authenticated()
+                        .requestMatchers(HttpMethod.GET, "/api/actividades", "/api/actividades/*").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/reactivo/actividades").permitAll()
                         .requestMatchers("/api/certificados/verificar/**").permitAll()
 
                         // Endpoints de administrador
                         .requestMatchers("/api/admin/**").hasRole("ADMINISTRADOR")
                         .requestMatchers("/api/organizaciones/**").hasRole("ADMINISTRADOR")
                         .requestMatchers("/api/auditoria/**").hasRole("ADMINISTRADOR")
+                        .requestMatchers("/actuator/**").hasRole("ADMINISTRADOR")
 
                         // Endpoints de coordinador
                         .requestMatchers(HttpMethod.POST, "/api/actividades").hasAnyRole("COORDINADOR", "ADMINISTRADOR")
@@ -71,6 +82,8 @@ public class SecurityConfig {
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 )
                 .authenticationProvider(authenticationProvider())
+                // El limitador va primero para rechazar ráfagas antes de cualquier otro trabajo
+                .addFilterBefore(rateLimitFilter, UsernamePasswordAuthenticationFilter.class)
                 .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
@@ -93,7 +106,9 @@ public class SecurityConfig {
     public AuthenticationProvider authenticationProvider() {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
+        // Rehash transparente al iniciar sesión cuando cambia el costo de BCrypt
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         return authProvider;
     }
 
@@ -101,9 +116,4 @@ public class SecurityConfig {
     public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
         return config.getAuthenticationManager();
     }
-
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
 }
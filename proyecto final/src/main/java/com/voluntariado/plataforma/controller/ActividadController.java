@@ -1,23 +1,35 @@
 package com.voluntariado.plataforma.controller;
 
 import com.voluntariado.plataforma.dto.ActividadDTO;
+import com.voluntariado.plataforma.dto.ActividadResumenDTO;
 import com.voluntariado.plataforma.dto.ApiResponse;
+import com.voluntariado.plataforma.dto.CalendarioDTO;
 import com.voluntariado.plataforma.model.enums.EstadoActividad;
 import com.voluntariado.plataforma.security.CustomUserDetails;
 import com.voluntariado.plataforma.service.ActividadService;
+import com.voluntariado.plataforma.service.CalendarioActividadesService;
+import com.voluntariado.plataforma.service.VersionCatalogoActividades;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/actividades")
@@ -26,58 +38,80 @@ import java.util.List;
 public class ActividadController {
 
     private final ActividadService actividadService;
+    private final VersionCatalogoActividades versionCatalogo;
+    private final CalendarioActividadesService calendarioService;
+
+    @Value("${actividades.cache.max-age-segundos:30}")
+    private long maxAgeSegundos;
 
     @GetMapping
     @Operation(summary = "Listar todas las actividades")
-    public ResponseEntity<ApiResponse<List<ActividadDTO>>> listarTodas() {
-        List<ActividadDTO> actividades = actividadService.listarTodas();
-        return ResponseEntity.ok(ApiResponse.success(actividades));
+    public ResponseEntity<ApiResponse<List<ActividadResumenDTO>>> listarTodas(WebRequest request) {
+        return respuestaCatalogo(request, actividadService::listarTodas);
     }
 
     @GetMapping("/disponibles")
     @Operation(summary = "Listar actividades disponibles (con cupos)")
-    public ResponseEntity<ApiResponse<List<ActividadDTO>>> listarDisponibles() {
-        List<ActividadDTO> actividades = actividadService.listarDisponibles();
-        return ResponseEntity.ok(ApiResponse.success(actividades));
+    public ResponseEntity<ApiResponse<List<ActividadResumenDTO>>> listarDisponibles(WebRequest request) {
+        return respuestaCatalogo(request, actividadService::listarDisponibles);
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Obtener actividad por ID")
-    public ResponseEntity<ApiResponse<ActividadDTO>> obtenerPorId(@PathVariable String id) {
+    public ResponseEntity<ApiResponse<ActividadDTO>> obtenerPorId(@PathVariable String id, WebRequest request) {
+        // Si ya conocemos la versión de la actividad, el 304 se responde sin ir a la base de datos
+        Optional<String> etagConocido = versionCatalogo.etagActividad(id);
+        if (etagConocido.isPresent() && request.checkNotModified(etagConocido.get())) {
+            return noModificado(etagConocido.get());
+        }
+
         ActividadDTO actividad = actividadService.obtenerPorId(id);
-        return ResponseEntity.ok(ApiResponse.success(actividad));
+        String etag = versionCatalogo.registrarVersion(id, actividad.getFechaActualizacion());
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl())
+                .body(ApiResponse.success(actividad));
     }
 
     @GetMapping("/estado/{estado}")
     @Operation(summary = "Listar actividades por estado")
-    public ResponseEntity<ApiResponse<List<ActividadDTO>>> listarPorEstado(@PathVariable EstadoActividad estado) {
-        List<ActividadDTO> actividades = actividadService.listarPorEstado(estado);
-        return ResponseEntity.ok(ApiResponse.success(actividades));
+    public ResponseEntity<ApiResponse<List<ActividadResumenDTO>>> listarPorEstado(
+            @PathVariable EstadoActividad estado, WebRequest request) {
+        return respuestaCatalogo(request, () -> actividadService.listarPorEstado(estado));
     }
 
     @GetMapping("/buscar")
     @Operation(summary = "Buscar actividades por título o lugar")
-    public ResponseEntity<ApiResponse<List<ActividadDTO>>> buscar(
+    public ResponseEntity<ApiResponse<List<ActividadResumenDTO>>> buscar(
             @RequestParam(required = false) String titulo,
-            @RequestParam(required = false) String lugar) {
-        List<ActividadDTO> actividades;
-        if (titulo != null && !titulo.isEmpty()) {
-            actividades = actividadService.buscarPorTitulo(titulo);
-        } else if (lugar != null && !lugar.isEmpty()) {
-            actividades = actividadService.buscarPorLugar(lugar);
-        } else {
-            actividades = actividadService.listarTodas();
-        }
-        return ResponseEntity.ok(ApiResponse.success(actividades));
+            @RequestParam(required = false) String lugar,
+            WebRequest request) {
+        return respuestaCatalogo(request, () -> {
+            if (titulo != null && !titulo.isEmpty()) {
+                return actividadService.buscarPorTitulo(titulo);
+            } else if (lugar != null && !lugar.isEmpty()) {
+                return actividadService.buscarPorLugar(lugar);
+            }
+            return actividadService.listarTodas();
+        });
     }
 
     @GetMapping("/fecha")
     @Operation(summary = "Listar actividades por rango de fechas")
-    public ResponseEntity<ApiResponse<List<ActividadDTO>>> listarPorFecha(
+    public ResponseEntity<ApiResponse<List<ActividadResumenDTO>>> listarPorFecha(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fin) {
-        List<ActividadDTO> actividades = actividadService.listarPorRangoFechas(inicio, fin);
-        return ResponseEntity.ok(ApiResponse.success(actividades));
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fin,
+            WebRequest request) {
+        return respuestaCatalogo(request, () -> actividadService.listarPorRangoFechas(inicio, fin));
+    }
+
+    @GetMapping("/calendario")
+    @Operation(summary = "Actividades de una ventana del calendario (mes o semana), agrupadas por día")
+    public ResponseEntity<ApiResponse<CalendarioDTO>> calendario(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            WebRequest request) {
+        return respuestaCatalogo(request, () -> calendarioService.obtener(desde, hasta));
     }
 
     @PostMapping
@@ -130,9 +164,42 @@ public class ActividadController {
     @PreAuthorize("hasAnyRole('COORDINADOR', 'ADMINISTRADOR')")
     @SecurityRequirement(name = "bearerAuth")
     @Operation(summary = "Listar actividades del coordinador actual")
-    public ResponseEntity<ApiResponse<List<ActividadDTO>>> misActividades(
+    public ResponseEntity<ApiResponse<List<ActividadResumenDTO>>> misActividades(
             @AuthenticationPrincipal CustomUserDetails userDetails) {
-        List<ActividadDTO> actividades = actividadService.listarPorCoordinador(userDetails.getId());
+        List<ActividadResumenDTO> actividades = actividadService.listarPorCoordinador(userDetails.getId());
         return ResponseEntity.ok(ApiResponse.success(actividades));
     }
+
+    @GetMapping("/recomendadas")
+    @PreAuthorize("isAuthenticated()")
+    @SecurityRequirement(name = "bearerAuth")
+    @Operation(summary = "Actividades recomendadas según habilidades e intereses del usuario actual")
+    public ResponseEntity<ApiResponse<List<ActividadResumenDTO>>> recomendadas(
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        List<ActividadResumenDTO> actividades = actividadService.listarRecomendadas(userDetails.getId());
+        return ResponseEntity.ok(ApiResponse.success(actividades));
+    }
+
+    // El ETag se toma antes de consultar: si hay una escritura en medio, queda un ETag viejo, nunca uno adelantado
+    private <T> ResponseEntity<ApiResponse<T>> respuestaCatalogo(WebRequest request, Supplier<T> consulta) {
+        String etag = versionCatalogo.etagColeccion();
+        if (request.checkNotModified(etag)) {
+            return noModificado(etag);
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl())
+                .body(ApiResponse.success(consulta.get()));
+    }
+
+    private <T> ResponseEntity<T> noModificado(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(cacheControl())
+                .build();
+    }
+
+    private CacheControl cacheControl() {
+        return CacheControl.maxAge(maxAgeSegundos, TimeUnit.SECONDS).cachePublic();
+    }
 }
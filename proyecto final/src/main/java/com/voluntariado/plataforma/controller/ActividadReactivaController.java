@@ -0,0 +1,86 @@
+package com.voluntariado.plataforma.controller;
+
+import com.voluntariado.plataforma.dto.ActividadDTO;
+import com.voluntariado.plataforma.dto.ActividadResumenDTO;
+import com.voluntariado.plataforma.dto.ApiResponse;
+import com.voluntariado.plataforma.model.enums.EstadoActividad;
+import com.voluntariado.plataforma.security.CustomUserDetails;
+import com.voluntariado.plataforma.service.ActividadReactivaService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+// Los listados se emiten como NDJSON (un objeto por línea) a medida que llegan del cursor de MongoDB
+@RestController
+@RequestMapping("/api/reactivo/actividades")
+@RequiredArgsConstructor
+@Tag(name = "Actividades (reactivo)", description = "Lectura de actividades en streaming")
+public class ActividadReactivaController {
+
+    private final ActividadReactivaService actividadService;
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Listar todas las actividades (streaming)")
+    public Flux<ActividadResumenDTO> listarTodas() {
+        return actividadService.listarTodas();
+    }
+
+    @GetMapping(value = "/disponibles", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Listar actividades disponibles (streaming)")
+    public Flux<ActividadResumenDTO> listarDisponibles() {
+        return actividadService.listarDisponibles();
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Obtener actividad por ID")
+    public Mono<ResponseEntity<ApiResponse<ActividadDTO>>> obtenerPorId(@PathVariable String id) {
+        return actividadService.obtenerPorId(id)
+                .map(actividad -> ResponseEntity.ok(ApiResponse.success(actividad)));
+    }
+
+    @GetMapping(value = "/estado/{estado}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Listar actividades por estado (streaming)")
+    public Flux<ActividadResumenDTO> listarPorEstado(@PathVariable EstadoActividad estado) {
+        return actividadService.listarPorEstado(estado);
+    }
+
+    @GetMapping(value = "/buscar", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Buscar actividades por título o lugar (streaming)")
+    public Flux<ActividadResumenDTO> buscar(
+            @RequestParam(required = false) String titulo,
+            @RequestParam(required = false) String lugar) {
+        if (titulo != null && !titulo.isEmpty()) {
+            return actividadService.buscarPorTitulo(titulo);
+        } else if (lugar != null && !lugar.isEmpty()) {
+            return actividadService.buscarPorLugar(lugar);
+        }
+        return actividadService.listarTodas();
+    }
+
+    @GetMapping(value = "/fecha", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Listar actividades por rango de fechas (streaming)")
+    public Flux<ActividadResumenDTO> listarPorFecha(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fin) {
+        return actividadService.listarPorRangoFechas(inicio, fin);
+    }
+
+    @GetMapping(value = "/mis-actividades", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAnyRole('COORDINADOR', 'ADMINISTRADOR')")
+    @SecurityRequirement(name = "bearerAuth")
+    @Operation(summary = "Listar actividades del coordinador actual (streaming)")
+    public Flux<ActividadResumenDTO> misActividades(@AuthenticationPrincipal CustomUserDetails userDetails) {
+        return actividadService.listarPorCoordinador(userDetails.getId());
+    }
+}
@@ -1,6 +1,7 @@
 package com.voluntariado.plataforma.controller;
 
 import com.voluntariado.plataforma.dto.ApiResponse;
+import com.voluntariado.plataforma.dto.AuditoriaLogResumenDTO;
 import com.voluntariado.plataforma.dto.EstadisticasDTO;
 import com.voluntariado.plataforma.dto.InscripcionDTO;
 import com.voluntariado.plataforma.dto.UsuarioDTO;
@@ -43,31 +44,37 @@ public class AdminController {
 
     @GetMapping("/auditoria")
     @Operation(summary = "Obtener logs de auditoría")
-    public ResponseEntity<ApiResponse<List<AuditoriaLog>>> obtenerLogs() {
-        List<AuditoriaLog> logs = auditoriaService.obtenerLogs();
+    public ResponseEntity<ApiResponse<List<AuditoriaLogResumenDTO>>> obtenerLogs() {
+        List<AuditoriaLogResumenDTO> logs = auditoriaService.obtenerLogs();
         return ResponseEntity.ok(ApiResponse.success(logs));
     }
 
+    @GetMapping("/auditoria/{id}")
+    @Operation(summary = "Obtener un log de auditoría con sus detalles")
+    public ResponseEntity<ApiResponse<AuditoriaLog>> obtenerLog(@PathVariable String id) {
+        return ResponseEntity.ok(ApiResponse.success(auditoriaService.obtenerLog(id)));
+    }
+
     @GetMapping("/auditoria/usuario/{usuarioId}")
     @Operation(summary = "Obtener logs de un usuario específico")
-    public ResponseEntity<ApiResponse<List<AuditoriaLog>>> logsPorUsuario(@PathVariable String usuarioId) {
-        List<AuditoriaLog> logs = auditoriaService.obtenerLogsPorUsuario(usuarioId);
+    public ResponseEntity<ApiResponse<List<AuditoriaLogResumenDTO>>> logsPorUsuario(@PathVariable String usuarioId) {
+        List<AuditoriaLogResumenDTO> logs = auditoriaService.obtenerLogsPorUsuario(usuarioId);
         return ResponseEntity.ok(ApiResponse.success(logs));
     }
 
     @GetMapping("/auditoria/fecha")
     @Operation(summary = "Obtener logs por rango de fechas")
-    public ResponseEntity<ApiResponse<List<AuditoriaLog>>> logsPorFecha(
+    public ResponseEntity<ApiResponse<List<AuditoriaLogResumenDTO>>> logsPorFecha(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime inicio,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime fin) {
-        List<AuditoriaLog> logs = auditoriaService.obtenerLogsPorFecha(inicio, fin);
+        List<AuditoriaLogResumenDTO> logs = auditoriaService.obtenerLogsPorFecha(inicio, fin);
         return ResponseEntity.ok(ApiResponse.success(logs));
     }
 
     @GetMapping("/auditoria/accion/{accion}")
     @Operation(summary = "Obtener logs por tipo de acción")
-    public ResponseEntity<ApiResponse<List<AuditoriaLog>>> logsPorAccion(@PathVariable String accion) {
-        List<AuditoriaLog> logs = auditoriaService.obtenerLogsPorAccion(accion);
+    public ResponseEntity<ApiResponse<List<AuditoriaLogResumenDTO>>> logsPorAccion(@PathVariable String accion) {
+        List<AuditoriaLogResumenDTO> logs = auditoriaService.obtenerLogsPorAccion(accion);
         return ResponseEntity.ok(ApiResponse.success(logs));
     }
 
@@ -9,6 +9,7 @@ import com.voluntariado.plataforma.dto.auth.RestablecerPasswordRequest;
 import com.voluntariado.plataforma.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -33,8 +34,10 @@ public class AuthController {
 
     @PostMapping("/login")
     @Operation(summary = "Iniciar sesión")
-    public ResponseEntity<ApiResponse<AuthResponse>> login(@Valid @RequestBody LoginRequest request) {
-        AuthResponse response = authService.login(request);
+    public ResponseEntity<ApiResponse<AuthResponse>> login(@Valid @RequestBody LoginRequest request,
+                                                           HttpServletRequest peticion) {
+        // Con server.forward-headers-strategy=native, getRemoteAddr ya es el cliente real
+        AuthResponse response = authService.login(request, peticion.getRemoteAddr());
         return ResponseEntity.ok(ApiResponse.success("Login exitoso", response));
     }
 
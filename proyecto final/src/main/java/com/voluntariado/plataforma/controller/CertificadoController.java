@@ -2,20 +2,24 @@ package com.voluntariado.plataforma.controller;
 
 import com.voluntariado.plataforma.dto.ApiResponse;
 import com.voluntariado.plataforma.dto.CertificadoDTO;
+import com.voluntariado.plataforma.model.Certificado;
 import com.voluntariado.plataforma.security.CustomUserDetails;
 import com.voluntariado.plataforma.service.CertificadoService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/certificados")
@@ -55,18 +59,28 @@ public class CertificadoController {
     @GetMapping("/{id}/descargar")
     @SecurityRequirement(name = "bearerAuth")
     @Operation(summary = "Descargar certificado en PDF")
-    public ResponseEntity<byte[]> descargarPDF(
+    public ResponseEntity<?> descargarPDF(
             @PathVariable String id,
             @AuthenticationPrincipal CustomUserDetails userDetails) {
-        byte[] pdfContent = certificadoService.descargarCertificado(id, userDetails.getId());
+        Certificado certificado = certificadoService.obtenerParaDescarga(id, userDetails.getId());
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_PDF);
         headers.setContentDispositionFormData("attachment", "certificado.pdf");
 
+        // Un PDF ya almacenado se sirve como recurso, con soporte de rangos (206 Partial Content)
+        Optional<Resource> almacenado = certificadoService.obtenerPDFAlmacenado(certificado);
+        if (almacenado.isPresent()) {
+            return ResponseEntity.ok()
+                    .headers(headers)
+                    .body(almacenado.get());
+        }
+
+        StreamingResponseBody pdf = salida -> certificadoService.escribirPDF(certificado, salida);
+
         return ResponseEntity.ok()
                 .headers(headers)
-                .body(pdfContent);
+                .body(pdf);
     }
 
     @PostMapping("/{id}/enviar-email")
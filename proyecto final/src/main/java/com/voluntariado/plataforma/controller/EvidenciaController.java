@@ -0,0 +1,109 @@
+package com.voluntariado.plataforma.controller;
+
+import com.voluntariado.plataforma.almacen.EnvioArchivo;
+import com.voluntariado.plataforma.dto.ApiResponse;
+import com.voluntariado.plataforma.dto.EvidenciaDTO;
+import com.voluntariado.plataforma.dto.RevisionEvidenciasDTO;
+import com.voluntariado.plataforma.model.enums.Rol;
+import com.voluntariado.plataforma.security.CustomUserDetails;
+import com.voluntariado.plataforma.service.EvidenciaService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/evidencias")
+@RequiredArgsConstructor
+@Tag(name = "Evidencias", description = "Evidencias de participación y su revisión")
+@SecurityRequirement(name = "bearerAuth")
+public class EvidenciaController {
+
+    private final EvidenciaService evidenciaService;
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Subir una evidencia de una actividad",
+            description = "La validación y la miniatura se hacen en segundo plano; el estado empieza en PROCESANDO")
+    public ResponseEntity<ApiResponse<EvidenciaDTO>> subir(
+            @RequestParam String actividadId,
+            @RequestParam(required = false) String descripcion,
+            @RequestPart("archivo") MultipartFile archivo,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        EvidenciaDTO evidencia = evidenciaService.subir(userDetails.getId(), actividadId, descripcion, archivo);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/evidencias/" + evidencia.getId()))
+                .body(ApiResponse.success("Evidencia recibida", evidencia));
+    }
+
+    @GetMapping("/mis-evidencias")
+    @Operation(summary = "Mis evidencias")
+    public ResponseEntity<ApiResponse<List<EvidenciaDTO>>> misEvidencias(
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        return ResponseEntity.ok(ApiResponse.success(evidenciaService.listarPorUsuario(userDetails.getId())));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Obtener una evidencia")
+    public ResponseEntity<ApiResponse<EvidenciaDTO>> obtener(
+            @PathVariable String id,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        Rol rol = userDetails.getUsuario().getRol();
+        return ResponseEntity.ok(ApiResponse.success(evidenciaService.obtener(id, userDetails.getId(), rol)));
+    }
+
+    @GetMapping("/{id}/archivo")
+    @Operation(summary = "Descargar el archivo de una evidencia",
+            description = "Con almacén local se sirve desde disco con ETag y rangos (206); si no, redirige al almacén")
+    public void archivo(
+            @PathVariable String id,
+            @AuthenticationPrincipal CustomUserDetails userDetails,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        Rol rol = userDetails.getUsuario().getRol();
+        EvidenciaService.ArchivoEvidencia archivo = evidenciaService.obtenerArchivo(id, userDetails.getId(), rol);
+        if (archivo.archivo() == null) {
+            response.sendRedirect(archivo.url());
+            return;
+        }
+        EnvioArchivo.enviar(archivo.archivo(), archivo.tipoContenido(), archivo.etag(), request, response);
+    }
+
+    @GetMapping("/pendientes")
+    @PreAuthorize("hasAnyRole('COORDINADOR', 'ADMINISTRADOR')")
+    @Operation(summary = "Cola de evidencias pendientes de revisión (Coordinador/Admin)",
+            description = "El coordinador solo ve las de sus actividades")
+    public ResponseEntity<ApiResponse<List<EvidenciaDTO>>> pendientes(
+            @RequestParam(required = false) String actividadId,
+            @RequestParam(defaultValue = "50") int limite,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        return ResponseEntity.ok(ApiResponse.success(evidenciaService.listarPendientes(actividadId, limite,
+                userDetails.getId(), userDetails.getUsuario().getRol())));
+    }
+
+    @PostMapping("/revision")
+    @PreAuthorize("hasAnyRole('COORDINADOR', 'ADMINISTRADOR')")
+    @Operation(summary = "Aprobar o rechazar varias evidencias a la vez (Coordinador/Admin)")
+    public ResponseEntity<ApiResponse<Map<String, Long>>> revisar(
+            @Valid @RequestBody RevisionEvidenciasDTO revision,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        long revisadas = evidenciaService.revisar(revision.getIds(), revision.isAprobar(), revision.getMotivo(),
+                userDetails.getId(), userDetails.getUsuario().getRol());
+        return ResponseEntity.ok(ApiResponse.success(
+                revision.isAprobar() ? "Evidencias aprobadas" : "Evidencias rechazadas",
+                Map.of("revisadas", revisadas)));
+    }
+}
@@ -1,6 +1,7 @@
 package com.voluntariado.plataforma.controller;
 
 import com.voluntariado.plataforma.dto.ApiResponse;
+import com.voluntariado.plataforma.dto.ConflictoHorarioDTO;
 import com.voluntariado.plataforma.dto.EvaluacionDTO;
 import com.voluntariado.plataforma.dto.InscripcionDTO;
 import com.voluntariado.plataforma.model.enums.EstadoInscripcion;
@@ -53,6 +54,14 @@ public class InscripcionController {
         return ResponseEntity.ok(ApiResponse.success(inscripciones));
     }
 
+    @GetMapping("/mis-conflictos")
+    @Operation(summary = "Inscripciones activas cuyos horarios se solapan")
+    public ResponseEntity<ApiResponse<List<ConflictoHorarioDTO>>> misConflictos(
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        List<ConflictoHorarioDTO> conflictos = inscripcionService.listarConflictos(userDetails.getId());
+        return ResponseEntity.ok(ApiResponse.success(conflictos));
+    }
+
     @GetMapping("/actividad/{actividadId}")
     @PreAuthorize("hasAnyRole('COORDINADOR', 'ADMINISTRADOR')")
     @Operation(summary = "Listar inscripciones de una actividad (Coordinador/Admin)")
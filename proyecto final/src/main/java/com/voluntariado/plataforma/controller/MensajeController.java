@@ -2,6 +2,9 @@ package com.voluntariado.plataforma.controller;
 
 import com.voluntariado.plataforma.dto.ApiResponse;
 import com.voluntariado.plataforma.dto.MensajeDTO;
+import com.voluntariado.plataforma.dto.MensajeResumenDTO;
+import com.voluntariado.plataforma.dto.PaginaCursor;
+import com.voluntariado.plataforma.dto.ResumenConversacionDTO;
 import com.voluntariado.plataforma.security.CustomUserDetails;
 import com.voluntariado.plataforma.service.MensajeService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -34,27 +37,56 @@ public class MensajeController {
         return ResponseEntity.ok(ApiResponse.success("Mensaje enviado", mensaje));
     }
 
+    @GetMapping("/conversaciones")
+    @Operation(summary = "Bandeja por conversaciones (último mensaje y no leídos)")
+    public ResponseEntity<ApiResponse<List<ResumenConversacionDTO>>> conversaciones(
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        List<ResumenConversacionDTO> conversaciones = mensajeService.obtenerConversaciones(userDetails.getId());
+        return ResponseEntity.ok(ApiResponse.success(conversaciones));
+    }
+
+    @GetMapping("/conversaciones/{conversacionId}")
+    @Operation(summary = "Mensajes de una conversación paginados por cursor")
+    public ResponseEntity<ApiResponse<PaginaCursor<MensajeDTO>>> mensajesConversacion(
+            @PathVariable String conversacionId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        PaginaCursor<MensajeDTO> pagina = mensajeService.obtenerMensajesConversacion(
+                conversacionId, userDetails.getId(), cursor, limite);
+        return ResponseEntity.ok(ApiResponse.success(pagina));
+    }
+
+    @PatchMapping("/conversaciones/{conversacionId}/leida")
+    @Operation(summary = "Marcar conversación como leída")
+    public ResponseEntity<ApiResponse<Void>> marcarConversacionLeida(
+            @PathVariable String conversacionId,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        mensajeService.marcarConversacionLeida(conversacionId, userDetails.getId());
+        return ResponseEntity.ok(ApiResponse.success("Conversación marcada como leída", null));
+    }
+
     @GetMapping("/bandeja-entrada")
     @Operation(summary = "Obtener bandeja de entrada")
-    public ResponseEntity<ApiResponse<List<MensajeDTO>>> bandejaEntrada(
+    public ResponseEntity<ApiResponse<List<MensajeResumenDTO>>> bandejaEntrada(
             @AuthenticationPrincipal CustomUserDetails userDetails) {
-        List<MensajeDTO> mensajes = mensajeService.obtenerBandejaSntrada(userDetails.getId());
+        List<MensajeResumenDTO> mensajes = mensajeService.obtenerBandejaSntrada(userDetails.getId());
         return ResponseEntity.ok(ApiResponse.success(mensajes));
     }
 
     @GetMapping("/enviados")
     @Operation(summary = "Obtener mensajes enviados")
-    public ResponseEntity<ApiResponse<List<MensajeDTO>>> mensajesEnviados(
+    public ResponseEntity<ApiResponse<List<MensajeResumenDTO>>> mensajesEnviados(
             @AuthenticationPrincipal CustomUserDetails userDetails) {
-        List<MensajeDTO> mensajes = mensajeService.obtenerEnviados(userDetails.getId());
+        List<MensajeResumenDTO> mensajes = mensajeService.obtenerEnviados(userDetails.getId());
         return ResponseEntity.ok(ApiResponse.success(mensajes));
     }
 
     @GetMapping("/no-leidos")
     @Operation(summary = "Obtener mensajes no leídos")
-    public ResponseEntity<ApiResponse<List<MensajeDTO>>> noLeidos(
+    public ResponseEntity<ApiResponse<List<MensajeResumenDTO>>> noLeidos(
             @AuthenticationPrincipal CustomUserDetails userDetails) {
-        List<MensajeDTO> mensajes = mensajeService.obtenerNoLeidos(userDetails.getId());
+        List<MensajeResumenDTO> mensajes = mensajeService.obtenerNoLeidos(userDetails.getId());
         return ResponseEntity.ok(ApiResponse.success(mensajes));
     }
 
@@ -68,9 +100,9 @@ public class MensajeController {
 
     @GetMapping("/archivados")
     @Operation(summary = "Obtener mensajes archivados")
-    public ResponseEntity<ApiResponse<List<MensajeDTO>>> archivados(
+    public ResponseEntity<ApiResponse<List<MensajeResumenDTO>>> archivados(
             @AuthenticationPrincipal CustomUserDetails userDetails) {
-        List<MensajeDTO> mensajes = mensajeService.obtenerArchivados(userDetails.getId());
+        List<MensajeResumenDTO> mensajes = mensajeService.obtenerArchivados(userDetails.getId());
         return ResponseEntity.ok(ApiResponse.success(mensajes));
     }
 
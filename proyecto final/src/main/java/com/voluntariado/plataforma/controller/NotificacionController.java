@@ -1,9 +1,14 @@
 package com.voluntariado.plataforma.controller;
 
 import com.voluntariado.plataforma.dto.ApiResponse;
+import com.voluntariado.plataforma.dto.ComunicadoDTO;
 import com.voluntariado.plataforma.dto.NotificacionDTO;
+import com.voluntariado.plataforma.dto.PaginaCursor;
+import com.voluntariado.plataforma.model.enums.Rol;
 import com.voluntariado.plataforma.security.CustomUserDetails;
+import com.voluntariado.plataforma.service.ComunicadoService;
 import com.voluntariado.plataforma.service.NotificacionService;
+import com.voluntariado.plataforma.service.RetencionNotificacionesService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -13,6 +18,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.net.URI;
 import java.util.List;
 import java.util.Map;
 
@@ -24,6 +30,8 @@ import java.util.Map;
 public class NotificacionController {
 
     private final NotificacionService notificacionService;
+    private final ComunicadoService comunicadoService;
+    private final RetencionNotificacionesService retencionNotificacionesService;
 
     @GetMapping
     @Operation(summary = "Obtener mis notificaciones")
@@ -41,6 +49,16 @@ public class NotificacionController {
         return ResponseEntity.ok(ApiResponse.success(notificaciones));
     }
 
+    @GetMapping("/archivo")
+    @Operation(summary = "Notificaciones archivadas, paginadas por cursor")
+    public ResponseEntity<ApiResponse<PaginaCursor<NotificacionDTO>>> archivo(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limite,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        return ResponseEntity.ok(ApiResponse.success(
+                retencionNotificacionesService.obtenerArchivo(userDetails.getId(), cursor, limite)));
+    }
+
     @GetMapping("/contador")
     @Operation(summary = "Contar notificaciones no leídas")
     public ResponseEntity<ApiResponse<Map<String, Long>>> contarNoLeidas(
@@ -51,8 +69,10 @@ public class NotificacionController {
 
     @PatchMapping("/{id}/leer")
     @Operation(summary = "Marcar notificación como leída")
-    public ResponseEntity<ApiResponse<Void>> marcarComoLeida(@PathVariable String id) {
-        notificacionService.marcarComoLeida(id);
+    public ResponseEntity<ApiResponse<Void>> marcarComoLeida(
+            @PathVariable String id,
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        notificacionService.marcarComoLeida(id, userDetails.getId());
         return ResponseEntity.ok(ApiResponse.success("Notificación marcada como leída", null));
     }
 
@@ -66,13 +86,26 @@ public class NotificacionController {
 
     @PostMapping("/comunicado")
     @PreAuthorize("hasAnyRole('COORDINADOR', 'ADMINISTRADOR')")
-    @Operation(summary = "Enviar comunicado a voluntarios (Coordinador/Admin)")
-    public ResponseEntity<ApiResponse<Void>> enviarComunicado(
+    @Operation(summary = "Enviar comunicado a voluntarios (Coordinador/Admin)",
+            description = "Destinatarios por id en el cuerpo, o por rol/organización. El reparto es asíncrono")
+    public ResponseEntity<ApiResponse<ComunicadoDTO>> enviarComunicado(
             @RequestParam String titulo,
             @RequestParam String mensaje,
-            @RequestBody List<String> destinatariosIds,
+            @RequestBody(required = false) List<String> destinatariosIds,
+            @RequestParam(required = false) Rol rol,
+            @RequestParam(required = false) String organizacionId,
             @AuthenticationPrincipal CustomUserDetails userDetails) {
-        notificacionService.enviarComunicado(titulo, mensaje, destinatariosIds, userDetails.getId());
-        return ResponseEntity.ok(ApiResponse.success("Comunicado enviado", null));
+        ComunicadoDTO comunicado = comunicadoService.iniciar(titulo, mensaje, destinatariosIds, rol, organizacionId,
+                userDetails.getId());
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/notificaciones/comunicados/" + comunicado.getId()))
+                .body(ApiResponse.success("Comunicado en curso", comunicado));
+    }
+
+    @GetMapping("/comunicados/{id}")
+    @PreAuthorize("hasAnyRole('COORDINADOR', 'ADMINISTRADOR')")
+    @Operation(summary = "Estado del envío de un comunicado (Coordinador/Admin)")
+    public ResponseEntity<ApiResponse<ComunicadoDTO>> estadoComunicado(@PathVariable String id) {
+        return ResponseEntity.ok(ApiResponse.success(comunicadoService.obtener(id)));
     }
 }
@@ -0,0 +1,50 @@
+package com.voluntariado.plataforma.controller;
+
+import com.voluntariado.plataforma.dto.ApiResponse;
+import com.voluntariado.plataforma.dto.NotificacionDTO;
+import com.voluntariado.plataforma.security.CustomUserDetails;
+import com.voluntariado.plataforma.service.NotificacionReactivaService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/reactivo/notificaciones")
+@RequiredArgsConstructor
+@Tag(name = "Notificaciones (reactivo)", description = "Lectura de notificaciones en streaming")
+@SecurityRequirement(name = "bearerAuth")
+public class NotificacionReactivaController {
+
+    private final NotificacionReactivaService notificacionService;
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Obtener mis notificaciones (streaming)")
+    public Flux<NotificacionDTO> misNotificaciones(@AuthenticationPrincipal CustomUserDetails userDetails) {
+        return notificacionService.obtenerNotificacionesUsuario(userDetails.getId());
+    }
+
+    @GetMapping(value = "/no-leidas", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Obtener notificaciones no leídas (streaming)")
+    public Flux<NotificacionDTO> noLeidas(@AuthenticationPrincipal CustomUserDetails userDetails) {
+        return notificacionService.obtenerNoLeidas(userDetails.getId());
+    }
+
+    @GetMapping("/contador")
+    @Operation(summary = "Contar notificaciones no leídas")
+    public Mono<ResponseEntity<ApiResponse<Map<String, Long>>>> contarNoLeidas(
+            @AuthenticationPrincipal CustomUserDetails userDetails) {
+        return notificacionService.contarNoLeidas(userDetails.getId())
+                .map(count -> ResponseEntity.ok(ApiResponse.success(Map.of("noLeidas", count))));
+    }
+}
@@ -0,0 +1,27 @@
+package com.voluntariado.plataforma.dto;
+
+import com.voluntariado.plataforma.model.enums.EstadoActividad;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Lo justo para pintar una celda del calendario; el detalle se pide con GET /api/actividades/{id}
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActividadCalendarioDTO {
+
+    private String id;
+    private String titulo;
+    private LocalDateTime fecha;
+    private LocalDateTime fechaFin;
+    private String lugar;
+    private String categoria;
+    private int cupos;
+    private int cuposDisponibles;
+    private EstadoActividad estado;
+}
@@ -61,5 +61,7 @@ public class ActividadDTO {
 
     private LocalDateTime fechaCreacion;
 
+    private LocalDateTime fechaActualizacion;
+
     private int inscritos;
 }
@@ -0,0 +1,35 @@
+package com.voluntariado.plataforma.dto;
+
+import com.voluntariado.plataforma.model.enums.EstadoActividad;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Fila de los listados de actividades; la descripción completa y los requisitos están en ActividadDTO (detalle)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActividadResumenDTO {
+
+    private String id;
+    private String titulo;
+    private String descripcionCorta;
+    private LocalDateTime fecha;
+    private LocalDateTime fechaFin;
+    private String lugar;
+    private int cupos;
+    private int cuposDisponibles;
+    private EstadoActividad estado;
+    private String coordinadorId;
+    private String coordinadorNombre;
+    private String organizacionId;
+    private List<String> categoriasActividad;
+    private int horasVoluntariado;
+    private LocalDateTime fechaActualizacion;
+    private int inscritos;
+}
@@ -0,0 +1,25 @@
+package com.voluntariado.plataforma.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Registro de auditoría en un listado, sin los detalles
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditoriaLogResumenDTO {
+
+    private String id;
+    private String usuarioId;
+    private String correoUsuario;
+    private String accion;
+    private String entidad;
+    private String entidadId;
+    private String ipAddress;
+    private LocalDateTime fecha;
+}
@@ -0,0 +1,22 @@
+package com.voluntariado.plataforma.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Ventana del calendario: cada actividad va una sola vez y los días solo llevan sus ids
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CalendarioDTO {
+
+    private LocalDate desde;
+    private LocalDate hasta;
+    private List<ActividadCalendarioDTO> actividades;
+    private List<DiaCalendarioDTO> dias;
+}
@@ -0,0 +1,29 @@
+package com.voluntariado.plataforma.dto;
+
+import com.voluntariado.plataforma.model.enums.EstadoComunicado;
+import com.voluntariado.plataforma.model.enums.Rol;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ComunicadoDTO {
+
+    private String id;
+    private String titulo;
+    private Rol rol;
+    private String organizacionId;
+    private int destinatariosSolicitados;
+    private EstadoComunicado estado;
+    private long destinatarios;
+    private long emailsEncolados;
+    private String error;
+    private LocalDateTime fechaCreacion;
+    private LocalDateTime fechaFinalizacion;
+}
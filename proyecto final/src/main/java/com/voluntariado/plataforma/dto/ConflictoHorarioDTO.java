@@ -0,0 +1,25 @@
+package com.voluntariado.plataforma.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Par de inscripciones activas del mismo voluntario cuyos horarios se solapan
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConflictoHorarioDTO {
+
+    private String actividadId;
+    private String actividadTitulo;
+    private LocalDateTime inicio;
+    private LocalDateTime fin;
+    private String conflictoActividadId;
+    private String conflictoActividadTitulo;
+    private LocalDateTime conflictoInicio;
+    private LocalDateTime conflictoFin;
+}
@@ -0,0 +1,20 @@
+package com.voluntariado.plataforma.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Solo se envían los días con actividades; actividadIds va ordenado por hora de inicio
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DiaCalendarioDTO {
+
+    private LocalDate fecha;
+    private List<String> actividadIds;
+}
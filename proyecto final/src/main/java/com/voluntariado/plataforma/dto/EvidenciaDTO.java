@@ -0,0 +1,31 @@
+package com.voluntariado.plataforma.dto;
+
+import com.voluntariado.plataforma.model.enums.EstadoEvidencia;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EvidenciaDTO {
+
+    private String id;
+    private String usuarioId;
+    private String actividadId;
+    private String inscripcionId;
+    private String urlArchivo;
+    private String urlMiniatura;
+    private String tipoArchivo;
+    private String nombreOriginal;
+    private long bytes;
+    private String descripcion;
+    private EstadoEvidencia estado;
+    private String motivoRechazo;
+    private LocalDateTime fechaSubida;
+    private LocalDateTime fechaRevision;
+}
@@ -16,6 +16,8 @@ public class MensajeDTO {
 
     private String id;
 
+    private String conversacionId;
+
     private String remitenteId;
 
     private String remitenteNombre;
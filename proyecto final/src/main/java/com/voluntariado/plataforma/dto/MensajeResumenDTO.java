@@ -0,0 +1,27 @@
+package com.voluntariado.plataforma.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Mensaje en un listado: sin contenido, que se obtiene con GET /api/mensajes/{id}
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MensajeResumenDTO {
+
+    private String id;
+    private String conversacionId;
+    private String remitenteId;
+    private String remitenteNombre;
+    private String destinatarioId;
+    private String destinatarioNombre;
+    private String asunto;
+    private boolean leido;
+    private boolean archivado;
+    private LocalDateTime fechaEnvio;
+}
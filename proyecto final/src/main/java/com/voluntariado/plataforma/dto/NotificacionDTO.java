@@ -21,5 +21,7 @@ public class NotificacionDTO {
     private TipoNotificacion tipo;
     private String actividadId;
     private boolean leida;
+    // Difusión compartida con otros usuarios (nueva actividad, comunicado por rol u organización)
+    private boolean difundida;
     private LocalDateTime fechaCreacion;
 }
@@ -0,0 +1,19 @@
+package com.voluntariado.plataforma.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Página de un listado por cursor: siguienteCursor es null cuando no quedan más elementos
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaCursor<T> {
+
+    private List<T> elementos;
+    private String siguienteCursor;
+}
@@ -0,0 +1,25 @@
+package com.voluntariado.plataforma.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumenConversacionDTO {
+
+    private String conversacionId;
+    private String otroUsuarioId;
+    private String otroUsuarioNombre;
+    private String ultimoMensajeId;
+    private String ultimoRemitenteId;
+    private String ultimoAsunto;
+    private String ultimoExtracto;
+    private LocalDateTime fechaUltimoMensaje;
+    private int noLeidos;
+}
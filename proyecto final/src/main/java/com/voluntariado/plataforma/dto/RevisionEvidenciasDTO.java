@@ -0,0 +1,26 @@
+package com.voluntariado.plataforma.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Decisión de un coordinador sobre varias evidencias de la cola a la vez
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevisionEvidenciasDTO {
+
+    @NotEmpty(message = "Indica al menos una evidencia")
+    @Size(max = 200, message = "Como máximo 200 evidencias por revisión")
+    private List<String> ids;
+
+    private boolean aprobar;
+
+    private String motivo;
+}
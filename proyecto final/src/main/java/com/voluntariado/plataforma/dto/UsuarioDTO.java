@@ -1,5 +1,6 @@
 package com.voluntariado.plataforma.dto;
 
+import com.voluntariado.plataforma.model.enums.FrecuenciaEmail;
 import com.voluntariado.plataforma.model.enums.Rol;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -26,6 +27,7 @@ public class UsuarioDTO {
     private boolean activo;
     private boolean verificado;
     private boolean notificacionesActivas;
+    private FrecuenciaEmail frecuenciaEmail;
     private String organizacionId;
     private LocalDateTime fechaCreacion;
     private LocalDateTime ultimoAcceso;
@@ -0,0 +1,16 @@
+package com.voluntariado.plataforma.evento;
+
+import java.time.LocalDateTime;
+
+/**
+ * Se publica cada vez que se escribe un documento de la colección "actividades".
+ * {@code fechaActualizacion} es la del documento ya guardado (null al eliminar).
+ */
+public record ActividadModificadaEvent(String actividadId, TipoCambio tipo, LocalDateTime fechaActualizacion) {
+
+    public enum TipoCambio {
+        CREADA,
+        ACTUALIZADA,
+        ELIMINADA
+    }
+}
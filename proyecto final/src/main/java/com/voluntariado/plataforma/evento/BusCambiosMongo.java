@@ -0,0 +1,243 @@
+package com.voluntariado.plataforma.evento;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.voluntariado.plataforma.evento.CambioDocumento.Operacion;
+import com.voluntariado.plataforma.model.Actividad;
+import com.voluntariado.plataforma.model.Certificado;
+import com.voluntariado.plataforma.model.ContadorUsuario;
+import com.voluntariado.plataforma.model.Inscripcion;
+import com.voluntariado.plataforma.model.LecturaDifundidas;
+import com.voluntariado.plataforma.model.Mensaje;
+import com.voluntariado.plataforma.model.Notificacion;
+import com.voluntariado.plataforma.model.NotificacionDifundida;
+import com.voluntariado.plataforma.model.TokenReanudacion;
+import com.voluntariado.plataforma.model.Usuario;
+import com.voluntariado.plataforma.repository.TokenReanudacionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bus de eventos interno alimentado por un único change stream a nivel de base de datos.
+ * Cada escritura en las colecciones observadas se publica como {@link CambioDocumento} tipado.
+ * Entrega al menos una vez: tras un reinicio la instancia retoma desde su último token guardado,
+ * así que los suscriptores deben ser idempotentes. Requiere un replica set (Atlas, o uno local de un nodo).
+ * Cada fallo del stream publica {@link CambiosPerdidosEvent} y deja {@link EstadoBusCambios} no disponible
+ * hasta reabrir el cursor; si el servidor no admite change streams, el bus se detiene sin reintentar.
+ */
+@Component
+@ConditionalOnProperty(name = "mongodb.change-streams.habilitado", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class BusCambiosMongo implements SmartLifecycle {
+
+    private static final List<Class<?>> TIPOS_OBSERVADOS = List.of(
+            Actividad.class, Inscripcion.class, Notificacion.class, Mensaje.class, Usuario.class,
+            ContadorUsuario.class, NotificacionDifundida.class, LecturaDifundidas.class, Certificado.class);
+
+    // ChangeStreamHistoryLost, ChangeStreamFatalError y CappedPositionLost: el token ya no sirve
+    private static final Set<Integer> CODIGOS_TOKEN_INVALIDO = Set.of(286, 280, 136);
+
+    // Sin replica set (40573) o servidor sin change streams (40324): reintentar no lo va a arreglar
+    private static final Set<Integer> CODIGOS_NO_SOPORTADO = Set.of(40573, 40324);
+
+    private static final long ESPERA_MAXIMA_REINTENTO_MS = 30_000;
+
+    private final MongoTemplate mongoTemplate;
+    private final TokenReanudacionRepository tokenRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EstadoBusCambios estado;
+
+    @Value("${app.instancia.id}")
+    private String instanciaId;
+
+    @Value("${mongodb.change-streams.token-intervalo-ms:1000}")
+    private long intervaloTokenMs;
+
+    private final Map<String, Class<?>> tiposPorColeccion = new LinkedHashMap<>();
+
+    private volatile boolean activo;
+    private Thread hilo;
+    private volatile BsonDocument ultimoToken;
+    private BsonDocument ultimoTokenGuardado;
+    private long ultimoGuardadoNanos;
+
+    @Override
+    public void start() {
+        TIPOS_OBSERVADOS.forEach(tipo -> tiposPorColeccion.put(mongoTemplate.getCollectionName(tipo), tipo));
+        ultimoToken = tokenRepository.findById(instanciaId)
+                .map(guardado -> BsonDocument.parse(guardado.getToken()))
+                .orElse(null);
+
+        activo = true;
+        hilo = new Thread(this::escuchar, "bus-cambios-mongo");
+        hilo.setDaemon(true);
+        hilo.start();
+        log.info("Bus de cambios iniciado para {} (instancia {}, {})", tiposPorColeccion.keySet(), instanciaId,
+                ultimoToken == null ? "desde ahora" : "reanudando");
+    }
+
+    @Override
+    public void stop() {
+        activo = false;
+        estado.marcar(false);
+        if (hilo != null) {
+            hilo.interrupt();
+            try {
+                hilo.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        guardarToken(true);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return activo;
+    }
+
+    private void escuchar() {
+        int fallosSeguidos = 0;
+        while (activo) {
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = abrirCursor()) {
+                fallosSeguidos = 0;
+                estado.marcar(true);
+                while (activo) {
+                    ChangeStreamDocument<Document> cambio = cursor.tryNext();
+                    if (cambio != null) {
+                        publicar(cambio);
+                    }
+                    // Incluso sin eventos el token avanza, así no se sale de la ventana del oplog
+                    if (cursor.getResumeToken() != null) {
+                        ultimoToken = cursor.getResumeToken();
+                    }
+                    guardarToken(false);
+                }
+            } catch (RuntimeException e) {
+                estado.marcar(false);
+                if (!activo) {
+                    return;
+                }
+                // Mientras el bus no entrega, lo que se escriba en otras instancias no llega: las caches que
+                // dependen de él deben volver a la base de datos
+                avisarPerdida(e.getMessage());
+                int codigo = e instanceof MongoException mongo ? mongo.getCode() : 0;
+                if (CODIGOS_NO_SOPORTADO.contains(codigo)) {
+                    log.error("El servidor no admite change streams ({}); el bus queda detenido y las caches "
+                            + "leen de MongoDB. Usar un replica set o mongodb.change-streams.habilitado=false",
+                            e.getMessage());
+                    return;
+                }
+                if (CODIGOS_TOKEN_INVALIDO.contains(codigo)) {
+                    log.warn("No se puede reanudar el change stream ({}); se continúa desde ahora", e.getMessage());
+                    ultimoToken = null;
+                    continue;
+                }
+                fallosSeguidos++;
+                long espera = Math.min(ESPERA_MAXIMA_REINTENTO_MS, 1000L << Math.min(fallosSeguidos, 5));
+                log.warn("Change stream interrumpido, reintento en {} ms: {}", espera, e.getMessage());
+                try {
+                    Thread.sleep(espera);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void avisarPerdida(String motivo) {
+        try {
+            eventPublisher.publishEvent(new CambiosPerdidosEvent(motivo));
+        } catch (RuntimeException e) {
+            log.error("Error al avisar de cambios perdidos: {}", e.getMessage(), e);
+        }
+    }
+
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> abrirCursor() {
+        ChangeStreamIterable<Document> stream = mongoTemplate.getDb()
+                .watch(List.of(Aggregates.match(Filters.and(
+                        Filters.in("ns.coll", tiposPorColeccion.keySet()),
+                        Filters.in("operationType", "insert", "update", "replace", "delete")))))
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .maxAwaitTime(1, TimeUnit.SECONDS);
+        if (ultimoToken != null) {
+            stream = stream.resumeAfter(ultimoToken);
+        }
+        return stream.cursor();
+    }
+
+    private void publicar(ChangeStreamDocument<Document> cambio) {
+        String coleccion = cambio.getNamespace() != null ? cambio.getNamespace().getCollectionName() : null;
+        Class<?> tipo = tiposPorColeccion.get(coleccion);
+        if (tipo == null || cambio.getDocumentKey() == null) {
+            return;
+        }
+
+        Operacion operacion = switch (cambio.getOperationType()) {
+            case INSERT -> Operacion.INSERCION;
+            case DELETE -> Operacion.ELIMINACION;
+            default -> Operacion.ACTUALIZACION;
+        };
+
+        try {
+            eventPublisher.publishEvent(crearEvento(coleccion, idComoTexto(cambio.getDocumentKey().get("_id")),
+                    operacion, cambio.getFullDocument(), tipo));
+        } catch (RuntimeException e) {
+            // Un suscriptor con error no debe detener el stream para el resto
+            log.error("Error al procesar un cambio en {}: {}", coleccion, e.getMessage(), e);
+        }
+    }
+
+    private <T> CambioDocumento<T> crearEvento(String coleccion, String id, Operacion operacion,
+                                               Document documento, Class<T> tipo) {
+        T entidad = documento == null ? null : mongoTemplate.getConverter().read(tipo, documento);
+        return new CambioDocumento<>(coleccion, id, operacion, entidad, tipo);
+    }
+
+    private void guardarToken(boolean forzar) {
+        BsonDocument token = ultimoToken;
+        long ahora = System.nanoTime();
+        if (token == null || token.equals(ultimoTokenGuardado)
+                || (!forzar && ahora - ultimoGuardadoNanos < TimeUnit.MILLISECONDS.toNanos(intervaloTokenMs))) {
+            return;
+        }
+        try {
+            tokenRepository.save(TokenReanudacion.builder()
+                    .instanciaId(instanciaId)
+                    .token(token.toJson())
+                    .fechaActualizacion(LocalDateTime.now())
+                    .build());
+            ultimoTokenGuardado = token;
+            ultimoGuardadoNanos = ahora;
+        } catch (RuntimeException e) {
+            log.warn("No se pudo guardar el token del change stream: {}", e.getMessage());
+        }
+    }
+
+    private static String idComoTexto(BsonValue id) {
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue();
+    }
+}
@@ -0,0 +1,24 @@
+package com.voluntariado.plataforma.evento;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.core.ResolvableTypeProvider;
+
+/**
+ * Escritura observada en una colección a través del change stream, hecha por esta u otra instancia.
+ * Se puede escuchar por tipo: {@code @EventListener void alCambiar(CambioDocumento<Inscripcion> cambio)}.
+ * {@code documento} es el estado actual tras la escritura (null al eliminar).
+ */
+public record CambioDocumento<T>(String coleccion, String documentoId, Operacion operacion, T documento,
+                                 Class<T> tipo) implements ResolvableTypeProvider {
+
+    public enum Operacion {
+        INSERCION,
+        ACTUALIZACION,
+        ELIMINACION
+    }
+
+    @Override
+    public ResolvableType getResolvableType() {
+        return ResolvableType.forClassWithGenerics(getClass(), ResolvableType.forClass(tipo));
+    }
+}
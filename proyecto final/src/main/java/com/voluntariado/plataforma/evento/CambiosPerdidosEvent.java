@@ -0,0 +1,8 @@
+package com.voluntariado.plataforma.evento;
+
+/**
+ * El change stream no pudo reanudarse desde el último token (historial del oplog agotado o token
+ * inválido): pudo haber escrituras que no se notificaron y los suscriptores deben descartar su estado.
+ */
+public record CambiosPerdidosEvent(String motivo) {
+}
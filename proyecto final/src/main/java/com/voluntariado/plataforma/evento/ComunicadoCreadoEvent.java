@@ -0,0 +1,5 @@
+package com.voluntariado.plataforma.evento;
+
+// Comunicado guardado y pendiente de repartir; ComunicadoService lo procesa en segundo plano
+public record ComunicadoCreadoEvent(String comunicadoId) {
+}
@@ -0,0 +1,22 @@
+package com.voluntariado.plataforma.evento;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Si el bus de cambios está entregando eventos en esta instancia. BusCambiosMongo lo activa al abrir el cursor
+ * y lo desactiva al fallar o detenerse; con el bus deshabilitado nunca se activa. Quien dé por completo un
+ * estado mantenido desde el bus debe comprobarlo antes.
+ */
+@Component
+public class EstadoBusCambios {
+
+    private volatile boolean disponible;
+
+    public boolean isDisponible() {
+        return disponible;
+    }
+
+    void marcar(boolean disponible) {
+        this.disponible = disponible;
+    }
+}
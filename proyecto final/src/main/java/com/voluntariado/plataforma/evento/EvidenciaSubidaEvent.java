@@ -0,0 +1,5 @@
+package com.voluntariado.plataforma.evento;
+
+// Archivo de evidencia ya almacenado; EvidenciaService lo valida y genera la miniatura en segundo plano
+public record EvidenciaSubidaEvent(String evidenciaId) {
+}
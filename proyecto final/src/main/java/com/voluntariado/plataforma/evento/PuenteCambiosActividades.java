@@ -0,0 +1,29 @@
+package com.voluntariado.plataforma.evento;
+
+import com.voluntariado.plataforma.evento.ActividadModificadaEvent.TipoCambio;
+import com.voluntariado.plataforma.model.Actividad;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+// Traduce los cambios de "actividades" del bus a ActividadModificadaEvent: así cache y ETags se invalidan
+// también con las escrituras de otras instancias
+@Component
+@RequiredArgsConstructor
+public class PuenteCambiosActividades {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @EventListener
+    public void alCambiarActividad(CambioDocumento<Actividad> cambio) {
+        TipoCambio tipo = switch (cambio.operacion()) {
+            case INSERCION -> TipoCambio.CREADA;
+            case ACTUALIZACION -> TipoCambio.ACTUALIZADA;
+            case ELIMINACION -> TipoCambio.ELIMINADA;
+        };
+        Actividad actividad = cambio.documento();
+        eventPublisher.publishEvent(new ActividadModificadaEvent(cambio.documentoId(), tipo,
+                actividad != null ? actividad.getFechaActualizacion() : null));
+    }
+}
@@ -0,0 +1,8 @@
+package com.voluntariado.plataforma.exception;
+
+public class AlmacenamientoException extends RuntimeException {
+
+    public AlmacenamientoException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,14 @@
+package com.voluntariado.plataforma.exception;
+
+import lombok.Getter;
+
+@Getter
+public class TooManyRequestsException extends RuntimeException {
+
+    private final long segundosReintento;
+
+    public TooManyRequestsException(String message, long segundosReintento) {
+        super(message);
+        this.segundosReintento = segundosReintento;
+    }
+}
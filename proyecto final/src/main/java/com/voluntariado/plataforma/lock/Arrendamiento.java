@@ -0,0 +1,10 @@
+package com.voluntariado.plataforma.lock;
+
+import java.time.Instant;
+
+/**
+ * Arrendamiento obtenido por esta instancia. {@code tokenCercado} (fencing token) es estrictamente
+ * creciente entre adquisiciones del mismo nombre.
+ */
+public record Arrendamiento(String nombre, String titular, long tokenCercado, Instant adquirido, Instant expira) {
+}
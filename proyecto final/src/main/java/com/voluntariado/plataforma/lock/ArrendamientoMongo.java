@@ -0,0 +1,94 @@
+package com.voluntariado.plataforma.lock;
+
+import com.voluntariado.plataforma.model.Bloqueo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Arrendamientos con nombre guardados en la colección "bloqueos". Un arrendamiento vencido puede
+ * tomarlo cualquier nodo; el titular lo mantiene con {@link #renovar} antes de que venza.
+ */
+@Component
+@RequiredArgsConstructor
+public class ArrendamientoMongo {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${app.instancia.id}")
+    private String instanciaId;
+
+    // El sufijo distingue dos procesos que compartan identificador (por ejemplo, el mismo HOSTNAME)
+    private final String sufijoProceso = UUID.randomUUID().toString().substring(0, 8);
+
+    public String titular() {
+        return instanciaId + ":" + sufijoProceso;
+    }
+
+    public Optional<Arrendamiento> adquirir(String nombre, Duration duracion) {
+        Instant ahora = Instant.now();
+        Query libre = new Query(Criteria.where("_id").is(nombre).and("expira").lte(ahora));
+        Update update = new Update()
+                .set("titular", titular())
+                .set("expira", ahora.plus(duracion))
+                .set("adquirido", ahora)
+                .inc("tokenCercado", 1);
+        try {
+            // Si otro nodo lo tiene vigente la consulta no coincide y el upsert choca con el _id existente
+            Bloqueo bloqueo = mongoTemplate.findAndModify(libre, update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), Bloqueo.class);
+            return Optional.ofNullable(bloqueo).map(ArrendamientoMongo::aArrendamiento);
+        } catch (DuplicateKeyException e) {
+            return Optional.empty();
+        }
+    }
+
+    // Solo extiende el vencimiento si el arrendamiento sigue siendo exactamente el nuestro
+    public Optional<Arrendamiento> renovar(Arrendamiento arrendamiento, Duration duracion) {
+        Instant ahora = Instant.now();
+        Bloqueo bloqueo = mongoTemplate.findAndModify(
+                propio(arrendamiento).addCriteria(Criteria.where("expira").gt(ahora)),
+                new Update().set("expira", ahora.plus(duracion)),
+                FindAndModifyOptions.options().returnNew(true), Bloqueo.class);
+        return Optional.ofNullable(bloqueo).map(ArrendamientoMongo::aArrendamiento);
+    }
+
+    public boolean esVigente(Arrendamiento arrendamiento) {
+        return mongoTemplate.exists(
+                propio(arrendamiento).addCriteria(Criteria.where("expira").gt(Instant.now())), Bloqueo.class);
+    }
+
+    // liberarEn permite retener el arrendamiento un tiempo mínimo aunque el trabajo termine antes
+    public void liberar(Arrendamiento arrendamiento, Instant liberarEn) {
+        Instant ahora = Instant.now();
+        mongoTemplate.updateFirst(propio(arrendamiento),
+                new Update().set("expira", liberarEn.isAfter(ahora) ? liberarEn : ahora),
+                Bloqueo.class);
+    }
+
+    public void liberar(Arrendamiento arrendamiento) {
+        liberar(arrendamiento, Instant.now());
+    }
+
+    private static Query propio(Arrendamiento arrendamiento) {
+        return new Query(Criteria.where("_id").is(arrendamiento.nombre())
+                .and("titular").is(arrendamiento.titular())
+                .and("tokenCercado").is(arrendamiento.tokenCercado()));
+    }
+
+    private static Arrendamiento aArrendamiento(Bloqueo bloqueo) {
+        return new Arrendamiento(bloqueo.getNombre(), bloqueo.getTitular(), bloqueo.getTokenCercado(),
+                bloqueo.getAdquirido(), bloqueo.getExpira());
+    }
+}
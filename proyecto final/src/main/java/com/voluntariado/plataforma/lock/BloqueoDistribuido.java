@@ -0,0 +1,25 @@
+package com.voluntariado.plataforma.lock;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Ejecuta el método (normalmente un {@code @Scheduled}) en un solo nodo a la vez. Si otro nodo tiene
+ * el arrendamiento, la ejecución se omite y el método devuelve null.
+ * Las duraciones van en formato ISO-8601 ({@code PT5M}) o como placeholder de propiedades.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface BloqueoDistribuido {
+
+    // Nombre del arrendamiento; el mismo en todos los nodos
+    String nombre();
+
+    // Vencimiento del arrendamiento si el nodo cae; mientras el trabajo corre se renueva solo
+    String duracionMaxima() default "PT5M";
+
+    // Se retiene al menos este tiempo tras terminar, para que otro nodo con el reloj desfasado no repita la ejecución
+    String duracionMinima() default "PT0S";
+}
@@ -0,0 +1,119 @@
+package com.voluntariado.plataforma.lock;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.context.EmbeddedValueResolverAware;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringValueResolver;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Métricas: tareas.programadas.duracion (tarea, resultado), tareas.programadas.omitidas (tarea)
+ * y tareas.programadas.arrendamiento.perdido (tarea).
+ */
+@Aspect
+@Component
+@Slf4j
+public class BloqueoDistribuidoAspect implements EmbeddedValueResolverAware {
+
+    private final ArrendamientoMongo arrendamientoMongo;
+    private final MeterRegistry registry;
+    private final ScheduledExecutorService renovador;
+
+    private StringValueResolver resolver;
+
+    public BloqueoDistribuidoAspect(ArrendamientoMongo arrendamientoMongo, MeterRegistry registry) {
+        this.arrendamientoMongo = arrendamientoMongo;
+        this.registry = registry;
+        this.renovador = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("renovacion-bloqueos-"));
+    }
+
+    @Override
+    public void setEmbeddedValueResolver(StringValueResolver resolver) {
+        this.resolver = resolver;
+    }
+
+    @PreDestroy
+    public void detener() {
+        renovador.shutdownNow();
+    }
+
+    @Around("@annotation(bloqueo)")
+    public Object ejecutarConBloqueo(ProceedingJoinPoint joinPoint, BloqueoDistribuido bloqueo) throws Throwable {
+        String nombre = bloqueo.nombre();
+        Duration maxima = Duration.parse(resolver.resolveStringValue(bloqueo.duracionMaxima()));
+        Duration minima = Duration.parse(resolver.resolveStringValue(bloqueo.duracionMinima()));
+
+        Optional<Arrendamiento> adquirido = arrendamientoMongo.adquirir(nombre, maxima);
+        if (adquirido.isEmpty()) {
+            Counter.builder("tareas.programadas.omitidas").tag("tarea", nombre).register(registry).increment();
+            log.debug("Tarea {} omitida: otra instancia tiene el bloqueo", nombre);
+            return null;
+        }
+
+        AtomicReference<Arrendamiento> actual = new AtomicReference<>(adquirido.get());
+        long periodo = Math.max(1000, maxima.toMillis() / 3);
+        ScheduledFuture<?> renovacion = renovador.scheduleAtFixedRate(
+                () -> renovar(actual, maxima), periodo, periodo, TimeUnit.MILLISECONDS);
+
+        ContextoBloqueo.establecer(actual.get());
+        Timer.Sample muestra = Timer.start(registry);
+        String resultado = "ok";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            resultado = "error";
+            throw e;
+        } finally {
+            renovacion.cancel(false);
+            ContextoBloqueo.limpiar();
+            muestra.stop(Timer.builder("tareas.programadas.duracion")
+                    .tag("tarea", nombre)
+                    .tag("resultado", resultado)
+                    .register(registry));
+            try {
+                arrendamientoMongo.liberar(actual.get(), actual.get().adquirido().plus(minima));
+            } catch (RuntimeException e) {
+                // Si no se puede liberar, vence solo al cumplirse la duración máxima
+                log.warn("No se pudo liberar el bloqueo {}: {}", nombre, e.getMessage());
+            }
+        }
+    }
+
+    private void renovar(AtomicReference<Arrendamiento> actual, Duration duracion) {
+        Arrendamiento arrendamiento = actual.get();
+        Optional<Arrendamiento> renovado;
+        try {
+            renovado = arrendamientoMongo.renovar(arrendamiento, duracion);
+        } catch (RuntimeException e) {
+            // Error transitorio: se reintenta en el siguiente periodo, todavía dentro del vencimiento
+            log.warn("No se pudo renovar el bloqueo {}: {}", arrendamiento.nombre(), e.getMessage());
+            return;
+        }
+        if (renovado.isPresent()) {
+            actual.set(renovado.get());
+            return;
+        }
+
+        Counter.builder("tareas.programadas.arrendamiento.perdido")
+                .tag("tarea", arrendamiento.nombre()).register(registry).increment();
+        log.warn("La tarea {} perdió su bloqueo (token {}); otra instancia puede estar ejecutándola",
+                arrendamiento.nombre(), arrendamiento.tokenCercado());
+        // Lanzar cancela las renovaciones siguientes de esta ejecución
+        throw new IllegalStateException("Bloqueo perdido: " + arrendamiento.nombre());
+    }
+}
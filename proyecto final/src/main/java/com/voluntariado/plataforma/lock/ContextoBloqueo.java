@@ -0,0 +1,27 @@
+package com.voluntariado.plataforma.lock;
+
+import java.util.Optional;
+
+/**
+ * Arrendamiento del trabajo {@link BloqueoDistribuido} que corre en el hilo actual. Antes de un efecto
+ * irreversible el trabajo puede comprobarlo con {@link ArrendamientoMongo#esVigente}.
+ */
+public final class ContextoBloqueo {
+
+    private static final ThreadLocal<Arrendamiento> ACTUAL = new ThreadLocal<>();
+
+    private ContextoBloqueo() {
+    }
+
+    public static Optional<Arrendamiento> actual() {
+        return Optional.ofNullable(ACTUAL.get());
+    }
+
+    static void establecer(Arrendamiento arrendamiento) {
+        ACTUAL.set(arrendamiento);
+    }
+
+    static void limpiar() {
+        ACTUAL.remove();
+    }
+}
@@ -8,6 +8,9 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import jakarta.validation.constraints.Min;
@@ -22,8 +25,15 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "actividades")
+@CompoundIndexes({
+        @CompoundIndex(name = "estado_fecha", def = "{ 'estado': 1, 'fecha': 1 }"),
+        @CompoundIndex(name = "estado_fechaFin", def = "{ 'estado': 1, 'fechaFin': 1 }"),
+        @CompoundIndex(name = "fecha_fechaFin", def = "{ 'fecha': 1, 'fechaFin': 1 }")
+})
 public class Actividad {
 
+    public static final int LONGITUD_DESCRIPCION_CORTA = 200;
+
     @Id
     private String id;
 
@@ -33,6 +43,9 @@ public class Actividad {
     @NotBlank(message = "La descripción es obligatoria")
     private String descripcion;
 
+    // Inicio de la descripción para los listados, que no cargan el texto completo
+    private String descripcionCorta;
+
     @NotNull(message = "La fecha es obligatoria")
     private LocalDateTime fecha;
 
@@ -56,8 +69,12 @@ public class Actividad {
     @Builder.Default
     private EstadoActividad estado = EstadoActividad.PROXIMA;
 
+    @Indexed
     private String coordinadorId;
 
+    // Copia del nombre del coordinador; PropagacionNombresService la mantiene al día
+    private String coordinadorNombre;
+
     private String organizacionId;
 
     @Builder.Default
@@ -73,5 +90,23 @@ public class Actividad {
     private LocalDateTime fechaCreacion;
 
     @LastModifiedDate
+    @Indexed
     private LocalDateTime fechaActualizacion;
+
+    // Fin efectivo: fechaFin, o la fecha más las horas de voluntariado (mínimo una) si no se indicó
+    public LocalDateTime calcularFechaFin() {
+        if (fechaFin != null) {
+            return fechaFin;
+        }
+        return fecha == null ? null : fecha.plusHours(Math.max(horasVoluntariado, 1));
+    }
+
+    // Por puntos de código, como $substrCP en la migración: no parte un emoji ni otro par sustituto
+    public static String recortarDescripcion(String descripcion) {
+        if (descripcion == null
+                || descripcion.codePointCount(0, descripcion.length()) <= LONGITUD_DESCRIPCION_CORTA) {
+            return descripcion;
+        }
+        return descripcion.substring(0, descripcion.offsetByCodePoints(0, LONGITUD_DESCRIPCION_CORTA));
+    }
 }
@@ -0,0 +1,86 @@
+package com.voluntariado.plataforma.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+// Franjas ocupadas por las inscripciones pendientes y aprobadas de un voluntario que aún no han terminado,
+// ordenadas por inicio. Cada tramo guarda el mayor fin hasta él (finMaximo) para buscar solapes sin recorrerlas.
+// Los tramos son semiabiertos [inicio, fin): una actividad que empieza cuando otra termina no se solapa
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "agendas_usuario")
+public class AgendaUsuario {
+
+    @Id
+    private String usuarioId;
+
+    @Builder.Default
+    private List<TramoAgenda> tramos = new ArrayList<>();
+
+    // Se compara al guardar (compare-and-set): dos inscripciones simultáneas no pueden pisarse
+    private long version;
+
+    // Un cambio de actividad no pudo aplicarse: la próxima lectura la rehace desde las inscripciones
+    private boolean reconstruir;
+
+    // Búsqueda binaria del último tramo que empieza antes de fin; desde ahí se retrocede mientras finMaximo
+    // pase de inicio. Saber si hay solape es O(log n) y listar los k solapes, O(log n + k)
+    public List<TramoAgenda> solapados(LocalDateTime inicio, LocalDateTime fin) {
+        int bajo = 0;
+        int alto = tramos.size() - 1;
+        int ultimo = -1;
+        while (bajo <= alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (tramos.get(medio).getInicio().isBefore(fin)) {
+                ultimo = medio;
+                bajo = medio + 1;
+            } else {
+                alto = medio - 1;
+            }
+        }
+
+        List<TramoAgenda> resultado = new ArrayList<>();
+        for (int i = ultimo; i >= 0 && tramos.get(i).getFinMaximo().isAfter(inicio); i--) {
+            if (tramos.get(i).getFin().isAfter(inicio)) {
+                resultado.add(tramos.get(i));
+            }
+        }
+        Collections.reverse(resultado);
+        return resultado;
+    }
+
+    // Sustituye el tramo de la misma actividad si lo había y descarta los ya terminados
+    public void agregar(TramoAgenda tramo, LocalDateTime ahora) {
+        tramos.removeIf(t -> t.getActividadId().equals(tramo.getActividadId()));
+        tramos.add(tramo);
+        ordenar(ahora);
+    }
+
+    public boolean quitar(String actividadId, LocalDateTime ahora) {
+        boolean quitado = tramos.removeIf(t -> t.getActividadId().equals(actividadId));
+        ordenar(ahora);
+        return quitado;
+    }
+
+    public void ordenar(LocalDateTime ahora) {
+        tramos.removeIf(t -> !t.getFin().isAfter(ahora));
+        tramos.sort(Comparator.comparing(TramoAgenda::getInicio));
+        LocalDateTime maximo = null;
+        for (TramoAgenda tramo : tramos) {
+            maximo = maximo == null || tramo.getFin().isAfter(maximo) ? tramo.getFin() : maximo;
+            tramo.setFinMaximo(maximo);
+        }
+    }
+}
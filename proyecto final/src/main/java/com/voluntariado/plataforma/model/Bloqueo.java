@@ -0,0 +1,31 @@
+package com.voluntariado.plataforma.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+// Arrendamiento (lease) con vencimiento; los instantes van en UTC porque se comparan entre nodos.
+// tokenCercado crece en cada adquisición: un titular con un token menor ya perdió el arrendamiento
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "bloqueos")
+public class Bloqueo {
+
+    @Id
+    private String nombre;
+
+    private String titular;
+
+    private long tokenCercado;
+
+    private Instant expira;
+
+    private Instant adquirido;
+}
@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -34,8 +35,10 @@ public class Certificado {
 
     private LocalDateTime fechaActividad;
 
+    @Indexed
     private LocalDateTime fechaEmision;
 
+    @Indexed(unique = true)
     private String codigoVerificacion;
 
     private String urlPdf;
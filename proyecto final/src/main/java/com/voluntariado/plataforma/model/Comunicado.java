@@ -0,0 +1,63 @@
+package com.voluntariado.plataforma.model;
+
+import com.voluntariado.plataforma.model.enums.EstadoComunicado;
+import com.voluntariado.plataforma.model.enums.Rol;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Comunicado guardado una sola vez; las notificaciones de cada destinatario lo referencian por comunicadoId
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "comunicados")
+public class Comunicado {
+
+    @Id
+    private String id;
+
+    private String titulo;
+
+    private String mensaje;
+
+    private String remitenteId;
+
+    // Audiencia: ids explícitos, o un segmento por rol y/o organización (solo usuarios activos)
+    @Builder.Default
+    private List<String> destinatariosIds = new ArrayList<>();
+
+    private Rol rol;
+
+    private String organizacionId;
+
+    @Builder.Default
+    private EstadoComunicado estado = EstadoComunicado.PENDIENTE;
+
+    private long destinatarios;
+
+    private long emailsEncolados;
+
+    private String error;
+
+    // Último destinatario repartido (orden por _id): un reparto interrumpido se reanuda a partir de él
+    private String ultimoDestinatarioId;
+
+    // Arrendamiento del reparto: quién lo lleva y hasta cuándo; se renueva con cada lote
+    private String arrendatario;
+
+    private LocalDateTime arrendadoHasta;
+
+    @CreatedDate
+    private LocalDateTime fechaCreacion;
+
+    private LocalDateTime fechaFinalizacion;
+}
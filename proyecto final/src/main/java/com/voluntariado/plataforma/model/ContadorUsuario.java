@@ -0,0 +1,30 @@
+package com.voluntariado.plataforma.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// Contadores de no leídos por usuario: se ajustan con $inc al escribir y se reconcilian periódicamente
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "contadores_usuario")
+public class ContadorUsuario {
+
+    @Id
+    private String usuarioId;
+
+    private long notificacionesNoLeidas;
+
+    private long mensajesNoLeidos;
+
+    @Indexed
+    private LocalDateTime fechaReconciliacion;
+}
@@ -0,0 +1,43 @@
+package com.voluntariado.plataforma.model;
+
+import com.voluntariado.plataforma.model.enums.TipoNotificacion;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// Aviso por email a la espera del próximo resumen del usuario; una vez enviado se marca y lo borra el TTL
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "emails_pendientes")
+@CompoundIndex(name = "usuario_fecha", def = "{'usuarioId': 1, 'fechaCreacion': 1}")
+public class EmailPendiente {
+
+    @Id
+    private String id;
+
+    private String usuarioId;
+
+    private String titulo;
+
+    private String mensaje;
+
+    private TipoNotificacion tipo;
+
+    private String actividadId;
+
+    @CreatedDate
+    private LocalDateTime fechaCreacion;
+
+    @Indexed(expireAfter = "7d")
+    private LocalDateTime fechaEnvio;
+}
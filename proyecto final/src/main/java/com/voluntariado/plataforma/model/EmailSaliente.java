@@ -0,0 +1,46 @@
+package com.voluntariado.plataforma.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// Correo que no se pudo entregar (cola de envío llena o error SMTP), a la espera de reintento
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "emails_salientes")
+public class EmailSaliente {
+
+    @Id
+    private String id;
+
+    private String destinatario;
+
+    private String asunto;
+
+    private String contenido;
+
+    private boolean html;
+
+    private String nombreAdjunto;
+
+    private byte[] adjunto;
+
+    private int intentos;
+
+    @Indexed
+    private LocalDateTime proximoIntento;
+
+    private String ultimoError;
+
+    @CreatedDate
+    private LocalDateTime fechaCreacion;
+}
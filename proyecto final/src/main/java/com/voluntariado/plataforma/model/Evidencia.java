@@ -1,11 +1,15 @@
 package com.voluntariado.plataforma.model;
 
+import com.voluntariado.plataforma.model.enums.EstadoEvidencia;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -15,6 +19,11 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "evidencias")
+@CompoundIndexes({
+        // Cola de revisión y reproceso: por estado, las más antiguas primero
+        @CompoundIndex(name = "estado_fecha", def = "{ 'estado': 1, 'fechaSubida': 1 }"),
+        @CompoundIndex(name = "usuario_fecha", def = "{ 'usuarioId': 1, 'fechaSubida': -1 }")
+})
 public class Evidencia {
 
     @Id
@@ -28,13 +37,32 @@ public class Evidencia {
 
     private String urlArchivo;
 
+    // Clave en el almacén configurado (evidencias.almacen); la URL puede cambiar, la clave no
+    @Indexed
+    private String clave;
+
+    private String urlMiniatura;
+
     private String tipoArchivo; // JPG, PNG, PDF
 
+    private String nombreOriginal;
+
+    private long bytes;
+
     private String descripcion;
 
+    @Builder.Default
+    private EstadoEvidencia estado = EstadoEvidencia.PROCESANDO;
+
     @Builder.Default
     private boolean aprobada = false;
 
+    private String motivoRechazo;
+
+    private String revisadaPor;
+
+    private LocalDateTime fechaRevision;
+
     @CreatedDate
     private LocalDateTime fechaSubida;
 }
@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -20,8 +21,12 @@ public class HistorialVoluntariado {
     @Id
     private String id;
 
+    @Indexed
     private String usuarioId;
 
+    // Copia del nombre del voluntario; PropagacionNombresService la mantiene al día
+    private String usuarioNombre;
+
     private String actividadId;
 
     private String tituloActividad;
@@ -0,0 +1,35 @@
+package com.voluntariado.plataforma.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+// Marca de lectura de las notificaciones difundidas: todo lo anterior a leidasHasta, más las leídas una a una
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "lecturas_difundidas")
+public class LecturaDifundidas {
+
+    @Id
+    private String usuarioId;
+
+    private LocalDateTime leidasHasta;
+
+    @Builder.Default
+    private Set<String> leidas = new HashSet<>();
+
+    public boolean haLeido(NotificacionDifundida notificacion) {
+        return leidas.contains(notificacion.getId())
+                || (leidasHasta != null && notificacion.getFechaCreacion() != null
+                        && !notificacion.getFechaCreacion().isAfter(leidasHasta));
+    }
+}
@@ -6,6 +6,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -15,15 +17,25 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "mensajes")
+@CompoundIndex(name = "conversacion_fecha", def = "{'conversacionId': 1, 'fechaEnvio': -1, '_id': -1}")
 public class Mensaje {
 
     @Id
     private String id;
 
+    private String conversacionId;
+
+    @Indexed
     private String remitenteId;
 
+    @Indexed
     private String destinatarioId;
 
+    // Nombres copiados al enviar; PropagacionNombresService los mantiene al día
+    private String remitenteNombre;
+
+    private String destinatarioNombre;
+
     private String asunto;
 
     private String contenido;
@@ -41,4 +53,9 @@ public class Mensaje {
     private LocalDateTime fechaEnvio;
 
     private LocalDateTime fechaLectura;
+
+    // Misma conversación para los dos sentidos: ids de los participantes ordenados
+    public static String idConversacion(String usuarioA, String usuarioB) {
+        return usuarioA.compareTo(usuarioB) <= 0 ? usuarioA + "_" + usuarioB : usuarioB + "_" + usuarioA;
+    }
 }
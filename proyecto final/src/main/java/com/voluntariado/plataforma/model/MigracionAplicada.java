@@ -0,0 +1,26 @@
+package com.voluntariado.plataforma.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// Marca de las migraciones de datos ya ejecutadas (una por nombre)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "migraciones")
+public class MigracionAplicada {
+
+    @Id
+    private String id;
+
+    private long documentosModificados;
+
+    private LocalDateTime fechaAplicacion;
+}
@@ -7,6 +7,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -16,6 +18,11 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "notificaciones")
+@CompoundIndexes({
+        @CompoundIndex(name = "usuario_leida", def = "{'usuarioId': 1, 'leida': 1}"),
+        @CompoundIndex(name = "usuario_fecha", def = "{'usuarioId': 1, 'fechaCreacion': -1}"),
+        @CompoundIndex(name = "leida_fecha", def = "{'leida': 1, 'fechaCreacion': 1}")
+})
 public class Notificacion {
 
     @Id
@@ -31,6 +38,9 @@ public class Notificacion {
 
     private String actividadId;
 
+    // Entrada de un comunicado: título y mensaje se leen de "comunicados", no se copian por usuario
+    private String comunicadoId;
+
     @Builder.Default
     private boolean leida = false;
 
@@ -39,6 +49,9 @@ public class Notificacion {
 
     private LocalDateTime fechaEnvio;
 
+    // Las leídas caducan por TTL sobre este campo (notificaciones.retencion.leidas-dias)
+    private LocalDateTime fechaLectura;
+
     @CreatedDate
     private LocalDateTime fechaCreacion;
 }
@@ -0,0 +1,47 @@
+package com.voluntariado.plataforma.model;
+
+import com.voluntariado.plataforma.model.enums.TipoNotificacion;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// Notificación antigua sin leer movida fuera de "notificaciones"; la colección y sus índices los crea
+// RetencionNotificacionesService para poder elegir la compresión
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = NotificacionArchivada.COLECCION)
+public class NotificacionArchivada {
+
+    public static final String COLECCION = "notificaciones_archivadas";
+
+    @Id
+    private String id;
+
+    private String usuarioId;
+
+    private String titulo;
+
+    private String mensaje;
+
+    private TipoNotificacion tipo;
+
+    private String actividadId;
+
+    private String comunicadoId;
+
+    private boolean leida;
+
+    private LocalDateTime fechaCreacion;
+
+    private LocalDateTime fechaArchivado;
+
+    // Solo existe mientras la original sigue en "notificaciones"; el archivo no muestra las copias pendientes
+    private Boolean pendiente;
+}
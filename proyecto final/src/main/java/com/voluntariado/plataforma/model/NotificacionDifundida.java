@@ -0,0 +1,44 @@
+package com.voluntariado.plataforma.model;
+
+import com.voluntariado.plataforma.model.enums.Rol;
+import com.voluntariado.plataforma.model.enums.TipoNotificacion;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// Notificación de difusión guardada una sola vez; rol u organización nulos significan "todos"
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "notificaciones_difundidas")
+@CompoundIndex(name = "audiencia_fecha", def = "{'rol': 1, 'organizacionId': 1, 'fechaCreacion': -1}")
+public class NotificacionDifundida {
+
+    @Id
+    private String id;
+
+    private String titulo;
+
+    private String mensaje;
+
+    private TipoNotificacion tipo;
+
+    private String actividadId;
+
+    private String comunicadoId;
+
+    private Rol rol;
+
+    private String organizacionId;
+
+    @CreatedDate
+    private LocalDateTime fechaCreacion;
+}
@@ -0,0 +1,29 @@
+package com.voluntariado.plataforma.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// Evidencias que usan cada archivo del almacén (por clave). borrandoDesde marca el archivo como en borrado:
+// desde ese momento ninguna subida nueva puede contarlo hasta que el borrado termine
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "referencias_archivos")
+public class ReferenciaArchivo {
+
+    @Id
+    private String clave;
+
+    private long referencias;
+
+    @Indexed(sparse = true)
+    private LocalDateTime borrandoDesde;
+}
@@ -0,0 +1,49 @@
+package com.voluntariado.plataforma.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// Fila de la bandeja de un usuario: una por conversación, actualizada al enviar y al leer mensajes
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "bandeja_conversaciones")
+@CompoundIndex(name = "usuario_fecha", def = "{'usuarioId': 1, 'fechaUltimoMensaje': -1}")
+public class ResumenConversacion {
+
+    // usuarioId + ":" + conversacionId
+    @Id
+    private String id;
+
+    private String usuarioId;
+
+    private String conversacionId;
+
+    private String otroUsuarioId;
+
+    private String otroUsuarioNombre;
+
+    private String ultimoMensajeId;
+
+    private String ultimoRemitenteId;
+
+    private String ultimoAsunto;
+
+    private String ultimoExtracto;
+
+    private LocalDateTime fechaUltimoMensaje;
+
+    private int noLeidos;
+
+    public static String idPara(String usuarioId, String conversacionId) {
+        return usuarioId + ":" + conversacionId;
+    }
+}
@@ -0,0 +1,26 @@
+package com.voluntariado.plataforma.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+// Último resume token del change stream procesado por cada instancia
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "change_stream_tokens")
+public class TokenReanudacion {
+
+    @Id
+    private String instanciaId;
+
+    private String token;
+
+    private LocalDateTime fechaActualizacion;
+}
@@ -0,0 +1,37 @@
+package com.voluntariado.plataforma.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.mongodb.core.index.Indexed;
+
+import java.time.LocalDateTime;
+
+// Franja ocupada por una inscripción dentro de AgendaUsuario; finMaximo lo mantiene la propia agenda
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TramoAgenda {
+
+    @Indexed
+    private String actividadId;
+
+    private String titulo;
+
+    private LocalDateTime inicio;
+
+    private LocalDateTime fin;
+
+    private LocalDateTime finMaximo;
+
+    public static TramoAgenda de(Actividad actividad) {
+        return TramoAgenda.builder()
+                .actividadId(actividad.getId())
+                .titulo(actividad.getTitulo())
+                .inicio(actividad.getFecha())
+                .fin(actividad.calcularFechaFin())
+                .build();
+    }
+}
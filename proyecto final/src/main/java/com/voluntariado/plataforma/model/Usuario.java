@@ -1,5 +1,6 @@
 package com.voluntariado.plataforma.model;
 
+import com.voluntariado.plataforma.model.enums.FrecuenciaEmail;
 import com.voluntariado.plataforma.model.enums.Rol;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -69,8 +70,17 @@ public class Usuario {
     @Builder.Default
     private boolean notificacionesActivas = true;
 
+    // Avisos por email de nuevas actividades y recordatorios: al momento o, si el usuario lo elige, agrupados en
+    // un resumen periódico
+    @Builder.Default
+    private FrecuenciaEmail frecuenciaEmail = FrecuenciaEmail.INMEDIATA;
+
     private String organizacionId;
 
+    // Cambio de nombre aún sin copiar a mensajes, historial y actividades; PropagacionNombresService lo reintenta
+    @Indexed(sparse = true)
+    private LocalDateTime nombrePendienteDesde;
+
     @CreatedDate
     private LocalDateTime fechaCreacion;
 
@@ -0,0 +1,8 @@
+package com.voluntariado.plataforma.model.enums;
+
+public enum EstadoComunicado {
+    PENDIENTE,
+    EN_CURSO,
+    COMPLETADO,
+    FALLIDO
+}
@@ -0,0 +1,8 @@
+package com.voluntariado.plataforma.model.enums;
+
+public enum EstadoEvidencia {
+    PROCESANDO,
+    PENDIENTE,
+    APROBADA,
+    RECHAZADA
+}
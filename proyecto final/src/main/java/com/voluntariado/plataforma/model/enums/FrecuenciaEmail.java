@@ -0,0 +1,6 @@
+package com.voluntariado.plataforma.model.enums;
+
+public enum FrecuenciaEmail {
+    INMEDIATA,
+    RESUMEN
+}
@@ -7,33 +7,67 @@ import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ActividadRepository extends MongoRepository<Actividad, String> {
 
-    List<Actividad> findByEstado(EstadoActividad estado);
+    // Proyección de los listados: sin descripción completa ni requisitos. Estas entidades no deben guardarse
+    String CAMPOS_LISTADO = "{ 'descripcion': 0, 'requisitos': 0, 'direccion': 0, 'latitud': 0, 'longitud': 0 }";
 
-    List<Actividad> findByCoordinadorId(String coordinadorId);
+    // Actividades que se solapan con [?0, ?1]; sin fechaFin cuentan solo por su fecha. Usa el índice fecha_fechaFin
+    String SOLAPAN_RANGO = "{ 'fecha': { $lte: ?1 }, $or: [ { 'fechaFin': { $gte: ?0 } }, "
+            + "{ 'fechaFin': null, 'fecha': { $gte: ?0 } } ] }";
 
-    List<Actividad> findByOrganizacionId(String organizacionId);
+    @Query(value = "{}", fields = CAMPOS_LISTADO)
+    List<Actividad> findResumenes();
 
-    List<Actividad> findByFechaBetween(LocalDateTime inicio, LocalDateTime fin);
+    @Query(value = "{ 'cuposDisponibles': { $gt: 0 }, 'estado': 'PROXIMA' }", fields = CAMPOS_LISTADO)
+    List<Actividad> findResumenDisponibles();
 
-    List<Actividad> findByFechaAfterAndEstado(LocalDateTime fecha, EstadoActividad estado);
+    @Query(fields = CAMPOS_LISTADO)
+    List<Actividad> findResumenByEstado(EstadoActividad estado);
+
+    @Query(fields = CAMPOS_LISTADO)
+    List<Actividad> findResumenByCoordinadorId(String coordinadorId);
+
+    @Query(value = "{ '_id': { $in: ?0 } }", fields = CAMPOS_LISTADO)
+    List<Actividad> findResumenByIdIn(Collection<String> ids);
+
+    @Query(fields = CAMPOS_LISTADO)
+    List<Actividad> findResumenByTituloContainingIgnoreCase(String titulo);
+
+    @Query(fields = CAMPOS_LISTADO)
+    List<Actividad> findResumenByLugarContainingIgnoreCase(String lugar);
 
-    @Query("{ 'cuposDisponibles': { $gt: 0 }, 'estado': 'PROXIMA' }")
-    List<Actividad> findActividadesDisponibles();
+    @Query(value = SOLAPAN_RANGO, fields = CAMPOS_LISTADO)
+    List<Actividad> findResumenByRangoFechas(LocalDateTime inicio, LocalDateTime fin);
 
-    List<Actividad> findByTituloContainingIgnoreCase(String titulo);
+    // Base del índice en memoria del calendario: lo que aún no ha terminado en esa fecha
+    @Query(value = "{ $or: [ { 'fechaFin': { $gte: ?0 } }, { 'fechaFin': null, 'fecha': { $gte: ?0 } } ] }",
+            fields = CAMPOS_LISTADO)
+    List<Actividad> findResumenVigentesDesde(LocalDateTime desde);
 
-    List<Actividad> findByLugarContainingIgnoreCase(String lugar);
+    long countByEstado(EstadoActividad estado);
 
-    @Query("{ 'fecha': { $gte: ?0, $lte: ?1 } }")
-    List<Actividad> findByRangoFechas(LocalDateTime inicio, LocalDateTime fin);
+    List<Actividad> findByOrganizacionId(String organizacionId);
+
+    List<Actividad> findByFechaBetween(LocalDateTime inicio, LocalDateTime fin);
+
+    List<Actividad> findByFechaAfterAndEstado(LocalDateTime fecha, EstadoActividad estado);
 
     List<Actividad> findByEstadoIn(List<EstadoActividad> estados);
 
+    // Versionado del catálogo: solo se leen id y fechaActualizacion
+    @Query(value = "{ 'fechaActualizacion': { $ne: null } }", fields = "{ 'fechaActualizacion': 1 }",
+            sort = "{ 'fechaActualizacion': -1 }")
+    Optional<Actividad> findUltimaActualizacion();
+
+    @Query(value = "{ 'fechaActualizacion': { $gt: ?0 } }", fields = "{ 'fechaActualizacion': 1 }")
+    List<Actividad> findActualizadasDesde(LocalDateTime desde);
+
     // Para recordatorios (actividades en las próximas 24 horas)
     @Query("{ 'fecha': { $gte: ?0, $lte: ?1 }, 'estado': 'PROXIMA' }")
     List<Actividad> findActividadesProximas(LocalDateTime inicio, LocalDateTime fin);
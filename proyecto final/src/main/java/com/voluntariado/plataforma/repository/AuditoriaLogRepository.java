@@ -2,6 +2,7 @@ package com.voluntariado.plataforma.repository;
 
 import com.voluntariado.plataforma.model.AuditoriaLog;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
@@ -10,13 +11,21 @@ import java.util.List;
 @Repository
 public interface AuditoriaLogRepository extends MongoRepository<AuditoriaLog, String> {
 
+    // Los listados no traen los detalles; GET /api/admin/auditoria/{id} devuelve el registro completo
+    String CAMPOS_LISTADO = "{ 'detalles': 0 }";
+
+    @Query(fields = CAMPOS_LISTADO)
     List<AuditoriaLog> findByUsuarioId(String usuarioId);
 
+    @Query(fields = CAMPOS_LISTADO)
     List<AuditoriaLog> findByAccion(String accion);
 
+    @Query(fields = CAMPOS_LISTADO)
     List<AuditoriaLog> findByEntidad(String entidad);
 
+    @Query(fields = CAMPOS_LISTADO)
     List<AuditoriaLog> findByFechaBetween(LocalDateTime inicio, LocalDateTime fin);
 
+    @Query(fields = CAMPOS_LISTADO)
     List<AuditoriaLog> findTop100ByOrderByFechaDesc();
 }
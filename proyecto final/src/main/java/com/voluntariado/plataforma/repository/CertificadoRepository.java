@@ -2,10 +2,13 @@ package com.voluntariado.plataforma.repository;
 
 import com.voluntariado.plataforma.model.Certificado;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CertificadoRepository extends MongoRepository<Certificado, String> {
@@ -19,4 +22,12 @@ public interface CertificadoRepository extends MongoRepository<Certificado, Stri
     Optional<Certificado> findByCodigoVerificacion(String codigo);
 
     boolean existsByUsuarioIdAndActividadId(String usuarioId, String actividadId);
+
+    boolean existsByCodigoVerificacion(String codigo);
+
+    @Query(value = "{}", fields = "{ 'codigoVerificacion': 1 }")
+    Stream<Certificado> streamCodigosVerificacion();
+
+    @Query(value = "{ 'fechaEmision': { $gte: ?0 } }", fields = "{ 'codigoVerificacion': 1 }")
+    Stream<Certificado> streamCodigosEmitidosDesde(LocalDateTime desde);
 }
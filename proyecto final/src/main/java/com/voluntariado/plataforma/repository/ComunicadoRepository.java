@@ -0,0 +1,17 @@
+package com.voluntariado.plataforma.repository;
+
+import com.voluntariado.plataforma.model.Comunicado;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ComunicadoRepository extends MongoRepository<Comunicado, String> {
+
+    // Para completar las notificaciones al leerlas: sin la lista de destinatarios
+    @Query(value = "{ '_id': { $in: ?0 } }", fields = "{ 'titulo': 1, 'mensaje': 1 }")
+    List<Comunicado> findTextosByIdIn(Collection<String> ids);
+}
@@ -1,9 +1,12 @@
 package com.voluntariado.plataforma.repository;
 
 import com.voluntariado.plataforma.model.Evidencia;
+import com.voluntariado.plataforma.model.enums.EstadoEvidencia;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -11,11 +14,24 @@ public interface EvidenciaRepository extends MongoRepository<Evidencia, String>
 
     List<Evidencia> findByUsuarioId(String usuarioId);
 
+    List<Evidencia> findByUsuarioIdOrderByFechaSubidaDesc(String usuarioId);
+
     List<Evidencia> findByActividadId(String actividadId);
 
     List<Evidencia> findByInscripcionId(String inscripcionId);
 
     List<Evidencia> findByAprobadaFalse();
 
+    // Cola de revisión: aún sin aprobar y ya validadas, las más antiguas primero
+    List<Evidencia> findByEstadoOrderByFechaSubidaAsc(EstadoEvidencia estado, Pageable pagina);
+
+    List<Evidencia> findByEstadoAndActividadIdOrderByFechaSubidaAsc(EstadoEvidencia estado, String actividadId,
+                                                                    Pageable pagina);
+
+    List<Evidencia> findByEstadoAndActividadIdInOrderByFechaSubidaAsc(EstadoEvidencia estado,
+                                                                      List<String> actividadIds, Pageable pagina);
+
+    List<Evidencia> findByEstadoAndFechaSubidaBefore(EstadoEvidencia estado, LocalDateTime fecha, Pageable pagina);
+
     List<Evidencia> findByUsuarioIdAndActividadId(String usuarioId, String actividadId);
 }
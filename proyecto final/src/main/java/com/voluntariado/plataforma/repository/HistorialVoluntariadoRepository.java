@@ -25,5 +25,10 @@ public interface HistorialVoluntariadoRepository extends MongoRepository<Histori
     })
     Integer sumHorasByUsuarioId(String usuarioId);
 
+    @Aggregation(pipeline = {
+            "{ $group: { _id: null, totalHoras: { $sum: '$horasRealizadas' } } }"
+    })
+    Long sumarHorasRealizadas();
+
     long countByUsuarioId(String usuarioId);
 }
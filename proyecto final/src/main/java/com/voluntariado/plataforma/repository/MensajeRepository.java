@@ -2,6 +2,7 @@ package com.voluntariado.plataforma.repository;
 
 import com.voluntariado.plataforma.model.Mensaje;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -9,15 +10,23 @@ import java.util.List;
 @Repository
 public interface MensajeRepository extends MongoRepository<Mensaje, String> {
 
+    // Los listados no traen el cuerpo: se lee al abrir el mensaje o la conversación
+    String CAMPOS_LISTADO = "{ 'contenido': 0 }";
+
+    @Query(fields = CAMPOS_LISTADO)
     List<Mensaje> findByDestinatarioIdAndEliminadoFalse(String destinatarioId);
 
+    @Query(fields = CAMPOS_LISTADO)
     List<Mensaje> findByRemitenteIdAndEliminadoFalse(String remitenteId);
 
+    @Query(fields = CAMPOS_LISTADO)
     List<Mensaje> findByDestinatarioIdAndLeidoFalseAndEliminadoFalse(String destinatarioId);
 
+    @Query(fields = CAMPOS_LISTADO)
     List<Mensaje> findByDestinatarioIdAndArchivadoTrueAndEliminadoFalse(String destinatarioId);
 
     long countByDestinatarioIdAndLeidoFalseAndEliminadoFalse(String destinatarioId);
 
-    List<Mensaje> findByDestinatarioIdOrderByFechaEnvioDesc(String destinatarioId);
+    @Query(fields = CAMPOS_LISTADO)
+    List<Mensaje> findByDestinatarioIdAndEliminadoFalseOrderByFechaEnvioDesc(String destinatarioId);
 }
@@ -0,0 +1,9 @@
+package com.voluntariado.plataforma.repository;
+
+import com.voluntariado.plataforma.model.MigracionAplicada;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MigracionAplicadaRepository extends MongoRepository<MigracionAplicada, String> {
+}
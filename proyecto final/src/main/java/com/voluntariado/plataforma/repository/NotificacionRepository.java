@@ -16,7 +16,7 @@ public interface NotificacionRepository extends MongoRepository<Notificacion, St
 
     List<Notificacion> findByUsuarioIdOrderByFechaCreacionDesc(String usuarioId);
 
-    List<Notificacion> findByEnviadaFalse();
+    List<Notificacion> findByUsuarioIdAndLeidaFalseOrderByFechaCreacionDesc(String usuarioId);
 
     List<Notificacion> findByTipo(TipoNotificacion tipo);
 
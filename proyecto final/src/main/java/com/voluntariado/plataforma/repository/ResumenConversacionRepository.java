@@ -0,0 +1,14 @@
+package com.voluntariado.plataforma.repository;
+
+import com.voluntariado.plataforma.model.ResumenConversacion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ResumenConversacionRepository extends MongoRepository<ResumenConversacion, String> {
+
+    List<ResumenConversacion> findByUsuarioIdOrderByFechaUltimoMensajeDesc(String usuarioId, Pageable pageable);
+}
@@ -3,6 +3,7 @@ package com.voluntariado.plataforma.repository;
 import com.voluntariado.plataforma.model.Usuario;
 import com.voluntariado.plataforma.model.enums.Rol;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,13 +12,25 @@ import java.util.Optional;
 @Repository
 public interface UsuarioRepository extends MongoRepository<Usuario, String> {
 
+    // Listados sin hash de contraseña ni tokens. Estas entidades no deben guardarse
+    String CAMPOS_LISTADO = "{ 'password': 0, 'tokenVerificacion': 0, 'tokenRecuperacion': 0, 'tokenRecuperacionExpira': 0 }";
+
+    @Query(value = "{}", fields = CAMPOS_LISTADO)
+    List<Usuario> findResumenes();
+
+    @Query(fields = CAMPOS_LISTADO)
+    List<Usuario> findResumenByRol(Rol rol);
+
+    @Query(fields = CAMPOS_LISTADO)
+    List<Usuario> findResumenByActivoTrue();
+
     Optional<Usuario> findByCorreo(String correo);
 
     boolean existsByCorreo(String correo);
 
-    List<Usuario> findByRol(Rol rol);
+    long countByRol(Rol rol);
 
-    List<Usuario> findByActivoTrue();
+    long countByRolAndActivoTrue(Rol rol);
 
     List<Usuario> findByOrganizacionId(String organizacionId);
 
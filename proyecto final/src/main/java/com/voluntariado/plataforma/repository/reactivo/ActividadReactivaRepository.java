@@ -0,0 +1,37 @@
+package com.voluntariado.plataforma.repository.reactivo;
+
+import com.voluntariado.plataforma.model.Actividad;
+import com.voluntariado.plataforma.model.enums.EstadoActividad;
+import com.voluntariado.plataforma.repository.ActividadRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface ActividadReactivaRepository extends ReactiveMongoRepository<Actividad, String> {
+
+    // Misma proyección que los listados bloqueantes (ActividadRepository.CAMPOS_LISTADO)
+    @Query(value = "{}", fields = ActividadRepository.CAMPOS_LISTADO)
+    Flux<Actividad> findResumenes();
+
+    @Query(value = "{ 'cuposDisponibles': { $gt: 0 }, 'estado': 'PROXIMA' }", fields = ActividadRepository.CAMPOS_LISTADO)
+    Flux<Actividad> findResumenDisponibles();
+
+    @Query(fields = ActividadRepository.CAMPOS_LISTADO)
+    Flux<Actividad> findResumenByEstado(EstadoActividad estado);
+
+    @Query(fields = ActividadRepository.CAMPOS_LISTADO)
+    Flux<Actividad> findResumenByCoordinadorId(String coordinadorId);
+
+    @Query(fields = ActividadRepository.CAMPOS_LISTADO)
+    Flux<Actividad> findResumenByTituloContainingIgnoreCase(String titulo);
+
+    @Query(fields = ActividadRepository.CAMPOS_LISTADO)
+    Flux<Actividad> findResumenByLugarContainingIgnoreCase(String lugar);
+
+    @Query(value = ActividadRepository.SOLAPAN_RANGO, fields = ActividadRepository.CAMPOS_LISTADO)
+    Flux<Actividad> findResumenByRangoFechas(LocalDateTime inicio, LocalDateTime fin);
+}
@@ -0,0 +1,14 @@
+package com.voluntariado.plataforma.repository.reactivo;
+
+import com.voluntariado.plataforma.model.Comunicado;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface ComunicadoReactivoRepository extends ReactiveMongoRepository<Comunicado, String> {
+
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'titulo': 1, 'mensaje': 1 }")
+    Mono<Comunicado> findTextosById(String id);
+}
@@ -0,0 +1,18 @@
+package com.voluntariado.plataforma.repository.reactivo;
+
+import com.voluntariado.plataforma.model.Inscripcion;
+import com.voluntariado.plataforma.model.enums.EstadoInscripcion;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface InscripcionReactivaRepository extends ReactiveMongoRepository<Inscripcion, String> {
+
+    Flux<Inscripcion> findByUsuarioId(String usuarioId);
+
+    Flux<Inscripcion> findByActividadIdAndEstado(String actividadId, EstadoInscripcion estado);
+
+    Mono<Long> countByActividadIdAndEstado(String actividadId, EstadoInscripcion estado);
+}
@@ -0,0 +1,17 @@
+package com.voluntariado.plataforma.repository.reactivo;
+
+import com.voluntariado.plataforma.model.Notificacion;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface NotificacionReactivaRepository extends ReactiveMongoRepository<Notificacion, String> {
+
+    Flux<Notificacion> findByUsuarioIdOrderByFechaCreacionDesc(String usuarioId);
+
+    Flux<Notificacion> findByUsuarioIdAndLeidaFalseOrderByFechaCreacionDesc(String usuarioId);
+
+    Mono<Long> countByUsuarioIdAndLeidaFalse(String usuarioId);
+}
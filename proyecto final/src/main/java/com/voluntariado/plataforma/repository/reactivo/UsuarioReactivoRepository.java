@@ -0,0 +1,9 @@
+package com.voluntariado.plataforma.repository.reactivo;
+
+import com.voluntariado.plataforma.model.Usuario;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UsuarioReactivoRepository extends ReactiveMongoRepository<Usuario, String> {
+}
@@ -4,13 +4,14 @@ import com.voluntariado.plataforma.model.Usuario;
 import com.voluntariado.plataforma.repository.UsuarioRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UsuarioRepository usuarioRepository;
 
@@ -20,4 +21,12 @@ public class CustomUserDetailsService implements UserDetailsService {
                 .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado con correo: " + correo));
         return new CustomUserDetails(usuario);
     }
+
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        Usuario usuario = usuarioRepository.findByCorreo(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado con correo: " + user.getUsername()));
+        usuario.setPassword(newPassword);
+        return new CustomUserDetails(usuarioRepository.save(usuario));
+    }
 }
@@ -0,0 +1,79 @@
+package com.voluntariado.plataforma.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cubetas de tokens por clave (IP, cuenta...). Cada cubeta tiene su propio lock, de modo que
+ * solo compiten entre sí las peticiones de un mismo cliente.
+ */
+@Component
+public class LimitadorTasa {
+
+    private final ConcurrentHashMap<String, Cubeta> cubetas = new ConcurrentHashMap<>();
+
+    @Value("${rate-limit.inactividad-minutos:10}")
+    private long inactividadMinutos;
+
+    public record Limite(int capacidad, double recargaPorSegundo) {
+    }
+
+    // Devuelve 0 si la petición se admite, o los segundos que el cliente debe esperar
+    public long consumir(String clave, Limite limite) {
+        long ahora = System.nanoTime();
+        Cubeta cubeta = cubetas.computeIfAbsent(clave, k -> new Cubeta(limite.capacidad(), ahora));
+        return cubeta.tomar(limite, ahora, true);
+    }
+
+    // Como consumir, pero sin gastar un token: sirve para cubetas que solo se cargan con los fallos
+    public long consultar(String clave, Limite limite) {
+        Cubeta cubeta = cubetas.get(clave);
+        return cubeta == null ? 0 : cubeta.tomar(limite, System.nanoTime(), false);
+    }
+
+    public void reiniciar(String clave) {
+        cubetas.remove(clave);
+    }
+
+    @Scheduled(fixedDelayString = "${rate-limit.limpieza-ms:60000}")
+    public void eliminarInactivas() {
+        long umbral = System.nanoTime() - TimeUnit.MINUTES.toNanos(inactividadMinutos);
+        cubetas.values().removeIf(cubeta -> cubeta.ultimaRecarga < umbral);
+    }
+
+    private static final class Cubeta {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private double tokens;
+        private volatile long ultimaRecarga;
+
+        private Cubeta(int capacidad, long ahora) {
+            this.tokens = capacidad;
+            this.ultimaRecarga = ahora;
+        }
+
+        private long tomar(Limite limite, long ahora, boolean consumir) {
+            lock.lock();
+            try {
+                double recargados = (ahora - ultimaRecarga) / 1_000_000_000.0 * limite.recargaPorSegundo();
+                tokens = Math.min(limite.capacidad(), tokens + Math.max(0, recargados));
+                ultimaRecarga = Math.max(ultimaRecarga, ahora);
+
+                if (tokens >= 1) {
+                    if (consumir) {
+                        tokens -= 1;
+                    }
+                    return 0;
+                }
+                return Math.max(1, (long) Math.ceil((1 - tokens) / limite.recargaPorSegundo()));
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
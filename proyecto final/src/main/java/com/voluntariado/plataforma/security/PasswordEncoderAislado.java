@@ -0,0 +1,81 @@
+package com.voluntariado.plataforma.security;
+
+import com.voluntariado.plataforma.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Ejecuta los hashes BCrypt en un pool propio y acotado, para que el trabajo de CPU de
+ * registro/login no ocupe todos los hilos de Tomcat. Si la cola está llena o la espera
+ * supera el máximo, la petición se rechaza con 429.
+ */
+public class PasswordEncoderAislado implements PasswordEncoder {
+
+    private final PasswordEncoder delegado;
+    private final ExecutorService ejecutor;
+    private final long esperaMaximaMs;
+    private final Timer tiempoEncode;
+    private final Timer tiempoMatches;
+
+    public PasswordEncoderAislado(PasswordEncoder delegado, ExecutorService ejecutor,
+                                  long esperaMaximaMs, MeterRegistry registry) {
+        this.delegado = delegado;
+        this.ejecutor = ejecutor;
+        this.esperaMaximaMs = esperaMaximaMs;
+        this.tiempoEncode = Timer.builder("seguridad.bcrypt")
+                .tag("operacion", "encode")
+                .register(registry);
+        this.tiempoMatches = Timer.builder("seguridad.bcrypt")
+                .tag("operacion", "matches")
+                .register(registry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return ejecutar(() -> tiempoEncode.recordCallable(() -> delegado.encode(rawPassword)));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return ejecutar(() -> tiempoMatches.recordCallable(() -> delegado.matches(rawPassword, encodedPassword)));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegado.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T ejecutar(Callable<T> tarea) {
+        Future<T> resultado;
+        try {
+            resultado = ejecutor.submit(tarea);
+        } catch (RejectedExecutionException e) {
+            throw new TooManyRequestsException("El servidor está ocupado, intente nuevamente", 1);
+        }
+
+        try {
+            return resultado.get(esperaMaximaMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            resultado.cancel(true);
+            throw new TooManyRequestsException("El servidor está ocupado, intente nuevamente", 1);
+        } catch (InterruptedException e) {
+            resultado.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new TooManyRequestsException("El servidor está ocupado, intente nuevamente", 1);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException("Error al procesar la contraseña", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.voluntariado.plataforma.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.voluntariado.plataforma.dto.ApiResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final RequestMatcher AUTENTICACION = new AntPathRequestMatcher("/api/auth/**");
+
+    private static final RequestMatcher PUBLICOS = new OrRequestMatcher(
+            new AntPathRequestMatcher("/api/actividades", HttpMethod.GET.name()),
+            new AntPathRequestMatcher("/api/actividades/*", HttpMethod.GET.name()),
+            new AntPathRequestMatcher("/api/reactivo/actividades", HttpMethod.GET.name()),
+            new AntPathRequestMatcher("/api/certificados/verificar/**"));
+
+    private final LimitadorTasa limitadorTasa;
+    private final ObjectMapper objectMapper;
+
+    @Value("${rate-limit.auth.capacidad:10}")
+    private int capacidadAuth;
+
+    @Value("${rate-limit.auth.recarga-por-segundo:0.2}")
+    private double recargaAuth;
+
+    @Value("${rate-limit.publico.capacidad:60}")
+    private int capacidadPublico;
+
+    @Value("${rate-limit.publico.recarga-por-segundo:10}")
+    private double recargaPublico;
+
+    private LimitadorTasa.Limite limiteAuth;
+    private LimitadorTasa.Limite limitePublico;
+
+    @PostConstruct
+    void inicializarLimites() {
+        limiteAuth = new LimitadorTasa.Limite(capacidadAuth, recargaAuth);
+        limitePublico = new LimitadorTasa.Limite(capacidadPublico, recargaPublico);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        long espera = 0;
+
+        if (AUTENTICACION.matches(request)) {
+            espera = limitadorTasa.consumir("ip:auth:" + direccionCliente(request), limiteAuth);
+        } else if (PUBLICOS.matches(request)) {
+            espera = limitadorTasa.consumir("ip:publico:" + direccionCliente(request), limitePublico);
+        }
+
+        if (espera > 0) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(espera));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding("UTF-8");
+            objectMapper.writeValue(response.getOutputStream(),
+                    ApiResponse.error("Demasiadas solicitudes, intente nuevamente más tarde"));
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    // Con server.forward-headers-strategy=native, Tomcat ya resolvió X-Forwarded-For contra la lista de proxies
+    // de confianza: getRemoteAddr es el cliente real, y una cabecera falsa desde fuera de esa lista se ignora
+    private static String direccionCliente(HttpServletRequest request) {
+        return request.getRemoteAddr();
+    }
+}
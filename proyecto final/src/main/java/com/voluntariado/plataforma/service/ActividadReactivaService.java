@@ -0,0 +1,100 @@
+package com.voluntariado.plataforma.service;
+
+import com.voluntariado.plataforma.dto.ActividadDTO;
+import com.voluntariado.plataforma.dto.ActividadResumenDTO;
+import com.voluntariado.plataforma.exception.ResourceNotFoundException;
+import com.voluntariado.plataforma.model.Actividad;
+import com.voluntariado.plataforma.model.Usuario;
+import com.voluntariado.plataforma.model.enums.EstadoActividad;
+import com.voluntariado.plataforma.model.enums.EstadoInscripcion;
+import com.voluntariado.plataforma.repository.reactivo.ActividadReactivaRepository;
+import com.voluntariado.plataforma.repository.reactivo.InscripcionReactivaRepository;
+import com.voluntariado.plataforma.repository.reactivo.UsuarioReactivoRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lecturas de actividades sobre el driver reactivo de MongoDB. Cada consulta se emite
+ * documento a documento y el cursor solo avanza al ritmo que el cliente consume.
+ */
+@Service
+@RequiredArgsConstructor
+public class ActividadReactivaService {
+
+    // Consultas auxiliares (coordinador, inscritos) en vuelo por cada flujo
+    private static final int CONCURRENCIA_ENRIQUECIMIENTO = 8;
+
+    private final ActividadReactivaRepository actividadRepository;
+    private final InscripcionReactivaRepository inscripcionRepository;
+    private final UsuarioReactivoRepository usuarioRepository;
+
+    public Mono<ActividadDTO> obtenerPorId(String id) {
+        return actividadRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("Actividad", "id", id)))
+                .flatMap(actividad -> enriquecer(actividad, new ConcurrentHashMap<>(), ActividadService::convertirADTO));
+    }
+
+    public Flux<ActividadResumenDTO> listarTodas() {
+        return convertir(actividadRepository.findResumenes());
+    }
+
+    public Flux<ActividadResumenDTO> listarDisponibles() {
+        return convertir(actividadRepository.findResumenDisponibles());
+    }
+
+    public Flux<ActividadResumenDTO> listarPorEstado(EstadoActividad estado) {
+        return convertir(actividadRepository.findResumenByEstado(estado));
+    }
+
+    public Flux<ActividadResumenDTO> listarPorCoordinador(String coordinadorId) {
+        return convertir(actividadRepository.findResumenByCoordinadorId(coordinadorId));
+    }
+
+    public Flux<ActividadResumenDTO> buscarPorTitulo(String titulo) {
+        return convertir(actividadRepository.findResumenByTituloContainingIgnoreCase(titulo));
+    }
+
+    public Flux<ActividadResumenDTO> buscarPorLugar(String lugar) {
+        return convertir(actividadRepository.findResumenByLugarContainingIgnoreCase(lugar));
+    }
+
+    public Flux<ActividadResumenDTO> listarPorRangoFechas(LocalDateTime inicio, LocalDateTime fin) {
+        return convertir(actividadRepository.findResumenByRangoFechas(inicio, fin));
+    }
+
+    private Flux<ActividadResumenDTO> convertir(Flux<Actividad> actividades) {
+        // Los coordinadores se repiten mucho: cada nombre se consulta una sola vez por flujo
+        Map<String, Mono<String>> nombres = new ConcurrentHashMap<>();
+        return actividades.flatMapSequential(
+                actividad -> enriquecer(actividad, nombres, ActividadService::convertirAResumen),
+                CONCURRENCIA_ENRIQUECIMIENTO);
+    }
+
+    private <T> Mono<T> enriquecer(Actividad actividad, Map<String, Mono<String>> nombres, Conversor<T> conversor) {
+        Mono<String> coordinadorNombre = actividad.getCoordinadorNombre() != null
+                ? Mono.just(actividad.getCoordinadorNombre())
+                : actividad.getCoordinadorId() == null
+                ? Mono.just("")
+                : nombres.computeIfAbsent(actividad.getCoordinadorId(), id -> usuarioRepository.findById(id)
+                        .map(Usuario::getNombre)
+                        .defaultIfEmpty("")
+                        .cache());
+
+        Mono<Long> inscritos = inscripcionRepository.countByActividadIdAndEstado(
+                actividad.getId(), EstadoInscripcion.APROBADA);
+
+        return Mono.zip(coordinadorNombre, inscritos)
+                .map(t -> conversor.convertir(actividad, t.getT1().isEmpty() ? null : t.getT1(), t.getT2()));
+    }
+
+    @FunctionalInterface
+    private interface Conversor<T> {
+        T convertir(Actividad actividad, String coordinadorNombre, long inscritos);
+    }
+}
@@ -1,18 +1,35 @@
 package com.voluntariado.plataforma.service;
 
+import com.voluntariado.plataforma.config.CacheConfig;
 import com.voluntariado.plataforma.dto.ActividadDTO;
+import com.voluntariado.plataforma.dto.ActividadResumenDTO;
+import com.voluntariado.plataforma.evento.ActividadModificadaEvent;
+import com.voluntariado.plataforma.evento.ActividadModificadaEvent.TipoCambio;
 import com.voluntariado.plataforma.exception.ResourceNotFoundException;
 import com.voluntariado.plataforma.model.Actividad;
+import com.voluntariado.plataforma.model.Inscripcion;
 import com.voluntariado.plataforma.model.Usuario;
 import com.voluntariado.plataforma.model.enums.EstadoActividad;
 import com.voluntariado.plataforma.repository.ActividadRepository;
 import com.voluntariado.plataforma.repository.InscripcionRepository;
 import com.voluntariado.plataforma.repository.UsuarioRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -24,11 +41,18 @@ public class ActividadService {
     private final InscripcionRepository inscripcionRepository;
     private final NotificacionService notificacionService;
     private final AuditoriaService auditoriaService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RecomendacionesService recomendacionesService;
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${recomendaciones.limite:20}")
+    private int limiteRecomendadas;
 
     public ActividadDTO crear(ActividadDTO dto, String coordinadorId) {
         Actividad actividad = Actividad.builder()
                 .titulo(dto.getTitulo())
                 .descripcion(dto.getDescripcion())
+                .descripcionCorta(Actividad.recortarDescripcion(dto.getDescripcion()))
                 .fecha(dto.getFecha())
                 .fechaFin(dto.getFechaFin())
                 .lugar(dto.getLugar())
@@ -39,6 +63,7 @@ public class ActividadService {
                 .cuposDisponibles(dto.getCupos())
                 .estado(EstadoActividad.PROXIMA)
                 .coordinadorId(coordinadorId)
+                .coordinadorNombre(usuarioRepository.findById(coordinadorId).map(Usuario::getNombre).orElse(null))
                 .organizacionId(dto.getOrganizacionId())
                 .requisitos(dto.getRequisitos())
                 .categoriasActividad(dto.getCategoriasActividad())
@@ -46,6 +71,8 @@ public class ActividadService {
                 .build();
 
         actividad = actividadRepository.save(actividad);
+        eventPublisher.publishEvent(new ActividadModificadaEvent(actividad.getId(), TipoCambio.CREADA,
+                actividad.getFechaActualizacion()));
 
         // Notificar a todos los voluntarios activos
         notificacionService.notificarNuevaActividad(actividad);
@@ -57,76 +84,111 @@ public class ActividadService {
         return convertirADTO(actividad);
     }
 
+    @Cacheable(cacheNames = CacheConfig.ACTIVIDADES, key = "#id", sync = true)
     public ActividadDTO obtenerPorId(String id) {
         Actividad actividad = actividadRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Actividad", "id", id));
         return convertirADTO(actividad);
     }
 
-    public List<ActividadDTO> listarTodas() {
-        return actividadRepository.findAll().stream()
-                .map(this::convertirADTO)
+    @Cacheable(cacheNames = CacheConfig.ACTIVIDADES_LISTAS, keyGenerator = CacheConfig.CLAVE_CATALOGO, sync = true)
+    public List<ActividadResumenDTO> listarTodas() {
+        return actividadRepository.findResumenes().stream()
+                .map(this::convertirAResumen)
                 .collect(Collectors.toList());
     }
 
-    public List<ActividadDTO> listarDisponibles() {
-        return actividadRepository.findActividadesDisponibles().stream()
-                .map(this::convertirADTO)
+    @Cacheable(cacheNames = CacheConfig.ACTIVIDADES_LISTAS, keyGenerator = CacheConfig.CLAVE_CATALOGO, sync = true)
+    public List<ActividadResumenDTO> listarDisponibles() {
+        return actividadRepository.findResumenDisponibles().stream()
+                .map(this::convertirAResumen)
                 .collect(Collectors.toList());
     }
 
-    public List<ActividadDTO> listarPorEstado(EstadoActividad estado) {
-        return actividadRepository.findByEstado(estado).stream()
-                .map(this::convertirADTO)
+    @Cacheable(cacheNames = CacheConfig.ACTIVIDADES_LISTAS, keyGenerator = CacheConfig.CLAVE_CATALOGO, sync = true)
+    public List<ActividadResumenDTO> listarPorEstado(EstadoActividad estado) {
+        return actividadRepository.findResumenByEstado(estado).stream()
+                .map(this::convertirAResumen)
                 .collect(Collectors.toList());
     }
 
-    public List<ActividadDTO> listarPorCoordinador(String coordinadorId) {
-        return actividadRepository.findByCoordinadorId(coordinadorId).stream()
-                .map(this::convertirADTO)
+    @Cacheable(cacheNames = CacheConfig.ACTIVIDADES_LISTAS, keyGenerator = CacheConfig.CLAVE_CATALOGO, sync = true)
+    public List<ActividadResumenDTO> listarPorCoordinador(String coordinadorId) {
+        return actividadRepository.findResumenByCoordinadorId(coordinadorId).stream()
+                .map(this::convertirAResumen)
                 .collect(Collectors.toList());
     }
 
-    public List<ActividadDTO> buscarPorTitulo(String titulo) {
-        return actividadRepository.findByTituloContainingIgnoreCase(titulo).stream()
-                .map(this::convertirADTO)
+    // Abiertas y afines a las habilidades e intereses del usuario, sin las que ya tiene inscripción
+    public List<ActividadResumenDTO> listarRecomendadas(String usuarioId) {
+        Set<String> inscritas = inscripcionRepository.findByUsuarioId(usuarioId).stream()
+                .map(Inscripcion::getActividadId)
+                .collect(Collectors.toSet());
+        List<String> ids = recomendacionesService.actividadesRecomendadas(usuarioId, limiteRecomendadas, inscritas);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, Actividad> porId = actividadRepository.findResumenByIdIn(ids).stream()
+                .collect(Collectors.toMap(Actividad::getId, Function.identity()));
+        return ids.stream()
+                .map(porId::get)
+                .filter(Objects::nonNull)
+                .map(this::convertirAResumen)
                 .collect(Collectors.toList());
     }
 
-    public List<ActividadDTO> buscarPorLugar(String lugar) {
-        return actividadRepository.findByLugarContainingIgnoreCase(lugar).stream()
-                .map(this::convertirADTO)
+    @Cacheable(cacheNames = CacheConfig.ACTIVIDADES_LISTAS, keyGenerator = CacheConfig.CLAVE_CATALOGO, sync = true)
+    public List<ActividadResumenDTO> buscarPorTitulo(String titulo) {
+        return actividadRepository.findResumenByTituloContainingIgnoreCase(titulo).stream()
+                .map(this::convertirAResumen)
                 .collect(Collectors.toList());
     }
 
-    public List<ActividadDTO> listarPorRangoFechas(LocalDateTime inicio, LocalDateTime fin) {
-        return actividadRepository.findByRangoFechas(inicio, fin).stream()
-                .map(this::convertirADTO)
+    @Cacheable(cacheNames = CacheConfig.ACTIVIDADES_LISTAS, keyGenerator = CacheConfig.CLAVE_CATALOGO, sync = true)
+    public List<ActividadResumenDTO> buscarPorLugar(String lugar) {
+        return actividadRepository.findResumenByLugarContainingIgnoreCase(lugar).stream()
+                .map(this::convertirAResumen)
                 .collect(Collectors.toList());
     }
 
-    public ActividadDTO actualizar(String id, ActividadDTO dto, String usuarioId) {
-        Actividad actividad = actividadRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Actividad", "id", id));
+    @Cacheable(cacheNames = CacheConfig.ACTIVIDADES_LISTAS, keyGenerator = CacheConfig.CLAVE_CATALOGO, sync = true)
+    public List<ActividadResumenDTO> listarPorRangoFechas(LocalDateTime inicio, LocalDateTime fin) {
+        return actividadRepository.findResumenByRangoFechas(inicio, fin).stream()
+                .map(this::convertirAResumen)
+                .collect(Collectors.toList());
+    }
 
-        actividad.setTitulo(dto.getTitulo());
-        actividad.setDescripcion(dto.getDescripcion());
-        actividad.setFecha(dto.getFecha());
-        actividad.setFechaFin(dto.getFechaFin());
-        actividad.setLugar(dto.getLugar());
-        actividad.setDireccion(dto.getDireccion());
-        actividad.setLatitud(dto.getLatitud());
-        actividad.setLongitud(dto.getLongitud());
-        actividad.setCupos(dto.getCupos());
-        actividad.setRequisitos(dto.getRequisitos());
-        actividad.setCategoriasActividad(dto.getCategoriasActividad());
-        actividad.setHorasVoluntariado(dto.getHorasVoluntariado());
+    // Las escrituras son $set de los campos que cambian, nunca el documento entero: así no se pisa el estado que
+    // CicloVidaActividadesService pudo escribir entre la lectura y el guardado
+    public ActividadDTO actualizar(String id, ActividadDTO dto, String usuarioId) {
+        LocalDateTime ahora = LocalDateTime.now();
+        Update update = new Update()
+                .set("titulo", dto.getTitulo())
+                .set("descripcion", dto.getDescripcion())
+                .set("descripcionCorta", Actividad.recortarDescripcion(dto.getDescripcion()))
+                .set("fecha", dto.getFecha())
+                .set("fechaFin", dto.getFechaFin())
+                .set("lugar", dto.getLugar())
+                .set("direccion", dto.getDireccion())
+                .set("latitud", dto.getLatitud())
+                .set("longitud", dto.getLongitud())
+                .set("cupos", dto.getCupos())
+                .set("requisitos", dto.getRequisitos())
+                .set("categoriasActividad", dto.getCategoriasActividad())
+                .set("horasVoluntariado", dto.getHorasVoluntariado())
+                .set("fechaActualizacion", ahora);
 
         if (dto.getEstado() != null) {
-            actividad.setEstado(dto.getEstado());
+            update.set("estado", dto.getEstado());
         }
 
-        actividad = actividadRepository.save(actividad);
+        Actividad actividad = mongoTemplate.findAndModify(porId(id), update,
+                FindAndModifyOptions.options().returnNew(true), Actividad.class);
+        if (actividad == null) {
+            throw new ResourceNotFoundException("Actividad", "id", id);
+        }
+        eventPublisher.publishEvent(new ActividadModificadaEvent(id, TipoCambio.ACTUALIZADA, ahora));
 
         auditoriaService.registrarAccion(usuarioId, null,
                 "ACTUALIZACION_ACTIVIDAD", "Actividad", id,
@@ -136,11 +198,14 @@ public class ActividadService {
     }
 
     public void cambiarEstado(String id, EstadoActividad nuevoEstado, String usuarioId) {
-        Actividad actividad = actividadRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Actividad", "id", id));
-
-        actividad.setEstado(nuevoEstado);
-        actividadRepository.save(actividad);
+        LocalDateTime ahora = LocalDateTime.now();
+        long encontradas = mongoTemplate.updateFirst(porId(id),
+                new Update().set("estado", nuevoEstado).set("fechaActualizacion", ahora),
+                Actividad.class).getMatchedCount();
+        if (encontradas == 0) {
+            throw new ResourceNotFoundException("Actividad", "id", id);
+        }
+        eventPublisher.publishEvent(new ActividadModificadaEvent(id, TipoCambio.ACTUALIZADA, ahora));
 
         auditoriaService.registrarAccion(usuarioId, null,
                 "CAMBIO_ESTADO_ACTIVIDAD", "Actividad", id,
@@ -156,6 +221,7 @@ public class ActividadService {
                 "Actividad eliminada: " + actividad.getTitulo());
 
         actividadRepository.delete(actividad);
+        eventPublisher.publishEvent(new ActividadModificadaEvent(id, TipoCambio.ELIMINADA, null));
     }
 
     public void actualizarCuposDisponibles(String actividadId) {
@@ -166,22 +232,67 @@ public class ActividadService {
                 actividadId,
                 com.voluntariado.plataforma.model.enums.EstadoInscripcion.APROBADA);
 
-        actividad.setCuposDisponibles(actividad.getCupos() - (int) inscritos);
-        actividadRepository.save(actividad);
+        LocalDateTime ahora = LocalDateTime.now();
+        mongoTemplate.updateFirst(porId(actividadId), new Update()
+                        .set("cuposDisponibles", actividad.getCupos() - (int) inscritos)
+                        .set("fechaActualizacion", ahora),
+                Actividad.class);
+        eventPublisher.publishEvent(new ActividadModificadaEvent(actividadId, TipoCambio.ACTUALIZADA, ahora));
+    }
+
+    private static Query porId(String id) {
+        return new Query(Criteria.where("_id").is(id));
     }
 
     private ActividadDTO convertirADTO(Actividad actividad) {
-        String coordinadorNombre = null;
-        if (actividad.getCoordinadorId() != null) {
+        return convertirADTO(actividad, nombreCoordinador(actividad), contarInscritos(actividad));
+    }
+
+    private ActividadResumenDTO convertirAResumen(Actividad actividad) {
+        return convertirAResumen(actividad, nombreCoordinador(actividad), contarInscritos(actividad));
+    }
+
+    private String nombreCoordinador(Actividad actividad) {
+        // Documentos anteriores a la copia del nombre: se resuelve como antes hasta que corra la migración
+        String coordinadorNombre = actividad.getCoordinadorNombre();
+        if (coordinadorNombre == null && actividad.getCoordinadorId() != null) {
             coordinadorNombre = usuarioRepository.findById(actividad.getCoordinadorId())
                     .map(Usuario::getNombre)
                     .orElse(null);
         }
+        return coordinadorNombre;
+    }
 
-        long inscritos = inscripcionRepository.countByActividadIdAndEstado(
+    private long contarInscritos(Actividad actividad) {
+        return inscripcionRepository.countByActividadIdAndEstado(
                 actividad.getId(),
                 com.voluntariado.plataforma.model.enums.EstadoInscripcion.APROBADA);
+    }
+
+    // Listados: sale de la proyección de ActividadRepository.CAMPOS_LISTADO, sin descripción completa ni requisitos
+    static ActividadResumenDTO convertirAResumen(Actividad actividad, String coordinadorNombre, long inscritos) {
+        return ActividadResumenDTO.builder()
+                .id(actividad.getId())
+                .titulo(actividad.getTitulo())
+                .descripcionCorta(actividad.getDescripcionCorta())
+                .fecha(actividad.getFecha())
+                .fechaFin(actividad.getFechaFin())
+                .lugar(actividad.getLugar())
+                .cupos(actividad.getCupos())
+                .cuposDisponibles(actividad.getCuposDisponibles())
+                .estado(actividad.getEstado())
+                .coordinadorId(actividad.getCoordinadorId())
+                .coordinadorNombre(coordinadorNombre)
+                .organizacionId(actividad.getOrganizacionId())
+                .categoriasActividad(actividad.getCategoriasActividad())
+                .horasVoluntariado(actividad.getHorasVoluntariado())
+                .fechaActualizacion(actividad.getFechaActualizacion())
+                .inscritos((int) inscritos)
+                .build();
+    }
 
+    // Compartido con ActividadReactivaService, que resuelve nombre e inscritos sin bloquear
+    static ActividadDTO convertirADTO(Actividad actividad, String coordinadorNombre, long inscritos) {
         return ActividadDTO.builder()
                 .id(actividad.getId())
                 .titulo(actividad.getTitulo())
@@ -202,6 +313,7 @@ public class ActividadService {
                 .categoriasActividad(actividad.getCategoriasActividad())
                 .horasVoluntariado(actividad.getHorasVoluntariado())
                 .fechaCreacion(actividad.getFechaCreacion())
+                .fechaActualizacion(actividad.getFechaActualizacion())
                 .inscritos((int) inscritos)
                 .build();
     }
@@ -0,0 +1,210 @@
+package com.voluntariado.plataforma.service;
+
+import com.voluntariado.plataforma.dto.ConflictoHorarioDTO;
+import com.voluntariado.plataforma.evento.ActividadModificadaEvent;
+import com.voluntariado.plataforma.exception.BadRequestException;
+import com.voluntariado.plataforma.model.Actividad;
+import com.voluntariado.plataforma.model.AgendaUsuario;
+import com.voluntariado.plataforma.model.Inscripcion;
+import com.voluntariado.plataforma.model.TramoAgenda;
+import com.voluntariado.plataforma.model.enums.EstadoActividad;
+import com.voluntariado.plataforma.model.enums.EstadoInscripcion;
+import com.voluntariado.plataforma.repository.ActividadRepository;
+import com.voluntariado.plataforma.repository.InscripcionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Agenda de cada voluntario para detectar solapes al inscribirse sin cargar sus inscripciones ni las
+ * actividades: un documento por usuario con los tramos ordenados. Se crea la primera vez que hace falta a
+ * partir de las inscripciones y se mantiene al inscribirse, cancelar, rechazar o cambiar de fecha una actividad.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AgendaVoluntarioService {
+
+    private static final Set<EstadoInscripcion> OCUPAN_AGENDA = EnumSet.of(EstadoInscripcion.PENDIENTE,
+            EstadoInscripcion.APROBADA);
+    private static final int INTENTOS = 3;
+
+    private final MongoTemplate mongoTemplate;
+    private final InscripcionRepository inscripcionRepository;
+    private final ActividadRepository actividadRepository;
+
+    // Comprueba el solape y reserva el tramo en la misma escritura condicional
+    public void reservar(String usuarioId, Actividad actividad) {
+        TramoAgenda tramo = TramoAgenda.de(actividad);
+        modificar(usuarioId, agenda -> {
+            List<TramoAgenda> solapados = agenda.solapados(tramo.getInicio(), tramo.getFin()).stream()
+                    .filter(t -> !t.getActividadId().equals(actividad.getId()))
+                    .toList();
+            if (!solapados.isEmpty()) {
+                throw new BadRequestException("El horario se solapa con: " + solapados.stream()
+                        .map(TramoAgenda::getTitulo)
+                        .collect(Collectors.joining(", ")));
+            }
+            agenda.agregar(tramo, LocalDateTime.now());
+            return true;
+        });
+    }
+
+    public void liberar(String usuarioId, String actividadId) {
+        modificar(usuarioId, agenda -> agenda.quitar(actividadId, LocalDateTime.now()));
+    }
+
+    // Barrido sobre los tramos ordenados: cada uno se compara solo con los que empiezan antes de que termine.
+    // Semiabiertos como en AgendaUsuario.solapados: terminar a la hora en que empieza otra no es conflicto
+    public List<ConflictoHorarioDTO> conflictos(String usuarioId) {
+        List<TramoAgenda> tramos = obtener(usuarioId).getTramos();
+        List<ConflictoHorarioDTO> conflictos = new ArrayList<>();
+        for (int i = 0; i < tramos.size(); i++) {
+            TramoAgenda tramo = tramos.get(i);
+            for (int j = i + 1; j < tramos.size() && tramos.get(j).getInicio().isBefore(tramo.getFin()); j++) {
+                TramoAgenda otro = tramos.get(j);
+                if (!otro.getFin().isAfter(tramo.getInicio())) {
+                    continue;
+                }
+                conflictos.add(ConflictoHorarioDTO.builder()
+                        .actividadId(tramo.getActividadId())
+                        .actividadTitulo(tramo.getTitulo())
+                        .inicio(tramo.getInicio())
+                        .fin(tramo.getFin())
+                        .conflictoActividadId(otro.getActividadId())
+                        .conflictoActividadTitulo(otro.getTitulo())
+                        .conflictoInicio(otro.getInicio())
+                        .conflictoFin(otro.getFin())
+                        .build());
+            }
+        }
+        return conflictos;
+    }
+
+    // Cambios de fecha, título o estado: solo se reescriben las agendas cuyo tramo ya no coincide. Fuera del
+    // hilo que escribió la actividad: cada inscripción publica un evento (cupos) que aquí no cambia nada
+    @Async
+    @EventListener
+    public void alModificarActividad(ActividadModificadaEvent evento) {
+        String actividadId = evento.actividadId();
+        Actividad actividad = null;
+        if (evento.tipo() != ActividadModificadaEvent.TipoCambio.ELIMINADA) {
+            Query consulta = new Query(Criteria.where("_id").is(actividadId));
+            consulta.fields().include("titulo", "fecha", "fechaFin", "horasVoluntariado", "estado");
+            actividad = mongoTemplate.findOne(consulta, Actividad.class);
+        }
+        boolean sigue = actividad != null && actividad.getEstado() != EstadoActividad.CANCELADA
+                && actividad.getFecha() != null;
+
+        Criteria tramo = Criteria.where("actividadId").is(actividadId);
+        if (sigue) {
+            tramo = tramo.orOperator(
+                    Criteria.where("inicio").ne(actividad.getFecha()),
+                    Criteria.where("fin").ne(actividad.calcularFechaFin()),
+                    Criteria.where("titulo").ne(actividad.getTitulo()));
+        }
+        Query afectadas = new Query(Criteria.where("tramos").elemMatch(tramo));
+        afectadas.fields().include("_id");
+
+        for (AgendaUsuario agenda : mongoTemplate.find(afectadas, AgendaUsuario.class)) {
+            try {
+                if (sigue) {
+                    TramoAgenda actualizado = TramoAgenda.de(actividad);
+                    modificar(agenda.getUsuarioId(), a -> {
+                        a.agregar(actualizado, LocalDateTime.now());
+                        return true;
+                    });
+                } else {
+                    liberar(agenda.getUsuarioId(), actividadId);
+                }
+            } catch (ConcurrencyFailureException e) {
+                // Se marca y se sube la versión: quien esté escribiendo la relee, y la próxima lectura la rehace
+                mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(agenda.getUsuarioId())),
+                        new Update().set("reconstruir", true).inc("version", 1), AgendaUsuario.class);
+                log.warn("Agenda de {} marcada para reconstruir tras cambiar la actividad {}: {}",
+                        agenda.getUsuarioId(), actividadId, e.getMessage());
+            }
+        }
+    }
+
+    // Lee, aplica el cambio y guarda solo si nadie escribió entre medias; si no, se repite con la versión nueva
+    private void modificar(String usuarioId, Predicate<AgendaUsuario> cambio) {
+        for (int intento = 0; intento < INTENTOS; intento++) {
+            AgendaUsuario agenda = obtener(usuarioId);
+            long version = agenda.getVersion();
+            if (!cambio.test(agenda)) {
+                return;
+            }
+            Query sinCambios = new Query(Criteria.where("_id").is(usuarioId).and("version").is(version));
+            Update update = new Update().set("tramos", agenda.getTramos()).set("version", version + 1);
+            if (mongoTemplate.updateFirst(sinCambios, update, AgendaUsuario.class).getModifiedCount() > 0) {
+                return;
+            }
+        }
+        throw new ConcurrencyFailureException("No se pudo actualizar la agenda del usuario " + usuarioId);
+    }
+
+    private AgendaUsuario obtener(String usuarioId) {
+        AgendaUsuario agenda = mongoTemplate.findById(usuarioId, AgendaUsuario.class);
+        if (agenda == null) {
+            return inicializar(usuarioId);
+        }
+        return agenda.isReconstruir() ? reconstruir(agenda) : agenda;
+    }
+
+    // Primer uso: se construye desde las inscripciones y se inserta solo si nadie lo hizo antes
+    private AgendaUsuario inicializar(String usuarioId) {
+        AgendaUsuario agenda = desdeInscripciones(usuarioId);
+        Update update = new Update()
+                .setOnInsert("tramos", agenda.getTramos())
+                .setOnInsert("version", 0L);
+        return mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(usuarioId)), update,
+                FindAndModifyOptions.options().upsert(true).returnNew(true), AgendaUsuario.class);
+    }
+
+    // Con la misma condición de versión que modificar; si otro hilo escribió entre medias la marca sigue y se
+    // devuelve la leída, cuya versión ya no vale para guardar
+    private AgendaUsuario reconstruir(AgendaUsuario marcada) {
+        AgendaUsuario agenda = desdeInscripciones(marcada.getUsuarioId());
+        AgendaUsuario reconstruida = mongoTemplate.findAndModify(
+                new Query(Criteria.where("_id").is(marcada.getUsuarioId()).and("version").is(marcada.getVersion())),
+                new Update().set("tramos", agenda.getTramos())
+                        .set("version", marcada.getVersion() + 1)
+                        .unset("reconstruir"),
+                FindAndModifyOptions.options().returnNew(true), AgendaUsuario.class);
+        return reconstruida != null ? reconstruida : marcada;
+    }
+
+    private AgendaUsuario desdeInscripciones(String usuarioId) {
+        List<String> actividadesIds = inscripcionRepository.findByUsuarioId(usuarioId).stream()
+                .filter(inscripcion -> OCUPAN_AGENDA.contains(inscripcion.getEstado()))
+                .map(Inscripcion::getActividadId)
+                .toList();
+        AgendaUsuario agenda = AgendaUsuario.builder().usuarioId(usuarioId).build();
+        if (!actividadesIds.isEmpty()) {
+            actividadRepository.findResumenByIdIn(actividadesIds).stream()
+                    .filter(actividad -> actividad.getFecha() != null
+                            && actividad.getEstado() != EstadoActividad.CANCELADA)
+                    .map(TramoAgenda::de)
+                    .forEach(agenda.getTramos()::add);
+        }
+        agenda.ordenar(LocalDateTime.now());
+        return agenda;
+    }
+}
@@ -1,5 +1,7 @@
 package com.voluntariado.plataforma.service;
 
+import com.voluntariado.plataforma.dto.AuditoriaLogResumenDTO;
+import com.voluntariado.plataforma.exception.ResourceNotFoundException;
 import com.voluntariado.plataforma.model.AuditoriaLog;
 import com.voluntariado.plataforma.repository.AuditoriaLogRepository;
 import lombok.RequiredArgsConstructor;
@@ -7,6 +9,7 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -28,19 +31,39 @@ public class AuditoriaService {
         auditoriaLogRepository.save(log);
     }
 
-    public List<AuditoriaLog> obtenerLogs() {
-        return auditoriaLogRepository.findTop100ByOrderByFechaDesc();
+    public List<AuditoriaLogResumenDTO> obtenerLogs() {
+        return convertir(auditoriaLogRepository.findTop100ByOrderByFechaDesc());
     }
 
-    public List<AuditoriaLog> obtenerLogsPorUsuario(String usuarioId) {
-        return auditoriaLogRepository.findByUsuarioId(usuarioId);
+    public List<AuditoriaLogResumenDTO> obtenerLogsPorUsuario(String usuarioId) {
+        return convertir(auditoriaLogRepository.findByUsuarioId(usuarioId));
     }
 
-    public List<AuditoriaLog> obtenerLogsPorFecha(LocalDateTime inicio, LocalDateTime fin) {
-        return auditoriaLogRepository.findByFechaBetween(inicio, fin);
+    public List<AuditoriaLogResumenDTO> obtenerLogsPorFecha(LocalDateTime inicio, LocalDateTime fin) {
+        return convertir(auditoriaLogRepository.findByFechaBetween(inicio, fin));
     }
 
-    public List<AuditoriaLog> obtenerLogsPorAccion(String accion) {
-        return auditoriaLogRepository.findByAccion(accion);
+    public List<AuditoriaLogResumenDTO> obtenerLogsPorAccion(String accion) {
+        return convertir(auditoriaLogRepository.findByAccion(accion));
+    }
+
+    public AuditoriaLog obtenerLog(String id) {
+        return auditoriaLogRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("AuditoriaLog", "id", id));
+    }
+
+    private List<AuditoriaLogResumenDTO> convertir(List<AuditoriaLog> logs) {
+        return logs.stream()
+                .map(log -> AuditoriaLogResumenDTO.builder()
+                        .id(log.getId())
+                        .usuarioId(log.getUsuarioId())
+                        .correoUsuario(log.getCorreoUsuario())
+                        .accion(log.getAccion())
+                        .entidad(log.getEntidad())
+                        .entidadId(log.getEntidadId())
+                        .ipAddress(log.getIpAddress())
+                        .fecha(log.getFecha())
+                        .build())
+                .collect(Collectors.toList());
     }
 }
@@ -5,18 +5,24 @@ import com.voluntariado.plataforma.dto.auth.LoginRequest;
 import com.voluntariado.plataforma.dto.auth.RegistroRequest;
 import com.voluntariado.plataforma.exception.BadRequestException;
 import com.voluntariado.plataforma.exception.ResourceNotFoundException;
+import com.voluntariado.plataforma.exception.TooManyRequestsException;
 import com.voluntariado.plataforma.model.Usuario;
 import com.voluntariado.plataforma.model.enums.Rol;
 import com.voluntariado.plataforma.repository.UsuarioRepository;
 import com.voluntariado.plataforma.security.CustomUserDetails;
 import com.voluntariado.plataforma.security.JwtService;
+import com.voluntariado.plataforma.security.LimitadorTasa;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.Locale;
 import java.util.UUID;
 
 @Service
@@ -28,6 +34,21 @@ public class AuthService {
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
     private final AuditoriaService auditoriaService;
+    private final LimitadorTasa limitadorTasa;
+    private final RecomendacionesService recomendacionesService;
+
+    @Value("${rate-limit.cuenta.capacidad:5}")
+    private int capacidadCuenta;
+
+    @Value("${rate-limit.cuenta.recarga-por-segundo:0.1}")
+    private double recargaCuenta;
+
+    private LimitadorTasa.Limite limiteCuenta;
+
+    @PostConstruct
+    void inicializarLimite() {
+        limiteCuenta = new LimitadorTasa.Limite(capacidadCuenta, recargaCuenta);
+    }
 
     public AuthResponse registrar(RegistroRequest request) {
         if (usuarioRepository.existsByCorreo(request.getCorreo())) {
@@ -50,6 +71,7 @@ public class AuthService {
                 .build();
 
         usuario = usuarioRepository.save(usuario);
+        recomendacionesService.indexarUsuario(usuario.getId(), usuario);
 
         auditoriaService.registrarAccion(usuario.getId(), usuario.getCorreo(),
                 "REGISTRO", "Usuario", usuario.getId(), "Nuevo registro de voluntario");
@@ -69,10 +91,26 @@ public class AuthService {
                 .build();
     }
 
-    public AuthResponse login(LoginRequest request) {
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.getCorreo(), request.getPassword())
-        );
+    public AuthResponse login(LoginRequest request, String direccionCliente) {
+        // Límite de fallos por cuenta y cliente: frena adivinar la contraseña desde una IP, y los fallos de un
+        // tercero no bloquean al titular, que entra desde otra. El ataque repartido entre muchas IP lo acota la
+        // cubeta por IP del filtro, que va antes
+        String claveCuenta = "cuenta:" + request.getCorreo().toLowerCase(Locale.ROOT) + "|" + direccionCliente;
+        long espera = limitadorTasa.consultar(claveCuenta, limiteCuenta);
+        if (espera > 0) {
+            throw new TooManyRequestsException(
+                    "Demasiados intentos fallidos de inicio de sesión, intente más tarde", espera);
+        }
+
+        try {
+            authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(request.getCorreo(), request.getPassword())
+            );
+        } catch (BadCredentialsException e) {
+            limitadorTasa.consumir(claveCuenta, limiteCuenta);
+            throw e;
+        }
+        limitadorTasa.reiniciar(claveCuenta);
 
         Usuario usuario = usuarioRepository.findByCorreo(request.getCorreo())
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario", "correo", request.getCorreo()));
@@ -0,0 +1,202 @@
+package com.voluntariado.plataforma.service;
+
+import com.voluntariado.plataforma.lock.BloqueoDistribuido;
+import com.voluntariado.plataforma.model.EmailPendiente;
+import com.voluntariado.plataforma.model.Usuario;
+import com.voluntariado.plataforma.model.enums.FrecuenciaEmail;
+import com.voluntariado.plataforma.model.enums.TipoNotificacion;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Avisos por email de nuevas actividades y recordatorios. Por defecto llegan al momento (en lote SMTP); a quien
+ * elige {@link FrecuenciaEmail#RESUMEN} se le acumulan en "emails_pendientes" y una tarea periódica le envía un
+ * único resumen HTML con todo lo pendiente. Los avisos solo se marcan como enviados cuando el servidor SMTP
+ * acepta el resumen; si falla, siguen pendientes para el siguiente.
+ */
+@Service
+@Slf4j
+public class AvisosEmailService {
+
+    private final MongoTemplate mongoTemplate;
+    private final EmailService emailService;
+    private final PlantillasEmailService plantillas;
+    private final ThreadPoolTaskExecutor emailExecutor;
+    private final CronExpression cronResumen;
+
+    @Value("${notificaciones.resumen.maximo-elementos:20}")
+    private int maximoElementos;
+
+    @Value("${notificaciones.resumen.lote-usuarios:500}")
+    private int loteUsuarios;
+
+    @Value("${notificaciones.resumen.envios-en-vuelo:50}")
+    private int enviosEnVuelo;
+
+    public AvisosEmailService(MongoTemplate mongoTemplate, EmailService emailService,
+                              PlantillasEmailService plantillas,
+                              @Qualifier("emailExecutor") ThreadPoolTaskExecutor emailExecutor,
+                              @Value("${notificaciones.resumen.cron:0 0 18 * * *}") String cronResumen) {
+        this.mongoTemplate = mongoTemplate;
+        this.emailService = emailService;
+        this.plantillas = plantillas;
+        this.emailExecutor = emailExecutor;
+        this.cronResumen = CronExpression.parse(cronResumen);
+    }
+
+    /**
+     * Destinatarios con id, correo y frecuenciaEmail cargados. Si el aviso caduca (fechaLimite) antes del
+     * próximo resumen se envía al momento a todos.
+     */
+    public void avisar(List<Usuario> destinatarios, String asunto, String mensaje, TipoNotificacion tipo,
+                       String actividadId, LocalDateTime fechaLimite) {
+        LocalDateTime proximoResumen = cronResumen.next(LocalDateTime.now());
+        boolean urgente = fechaLimite != null && proximoResumen != null && fechaLimite.isBefore(proximoResumen);
+
+        List<String> inmediatos = new ArrayList<>();
+        List<EmailPendiente> pendientes = new ArrayList<>();
+        for (Usuario usuario : destinatarios) {
+            if (urgente || usuario.getFrecuenciaEmail() != FrecuenciaEmail.RESUMEN) {
+                inmediatos.add(usuario.getCorreo());
+            } else {
+                pendientes.add(EmailPendiente.builder()
+                        .usuarioId(usuario.getId())
+                        .titulo(asunto)
+                        .mensaje(mensaje)
+                        .tipo(tipo)
+                        .actividadId(actividadId)
+                        .build());
+            }
+        }
+
+        if (!inmediatos.isEmpty()) {
+            emailService.enviarNotificacionLote(inmediatos, asunto, mensaje);
+        }
+        if (!pendientes.isEmpty()) {
+            mongoTemplate.insert(pendientes, EmailPendiente.class);
+        }
+    }
+
+    // Por lotes de usuarios: se marcan solo los pendientes leídos, así lo que llegue mientras tanto espera al
+    // siguiente resumen
+    @Scheduled(cron = "${notificaciones.resumen.cron:0 0 18 * * *}")
+    @BloqueoDistribuido(nombre = "resumen-emails", duracionMaxima = "PT1H", duracionMinima = "PT5M")
+    public void enviarResumenes() {
+        List<String> usuariosIds = mongoTemplate.findDistinct(new Query(sinEnviar()), "usuarioId",
+                EmailPendiente.class, String.class);
+        int enviados = 0;
+        for (int i = 0; i < usuariosIds.size(); i += loteUsuarios) {
+            enviados += enviarResumenes(usuariosIds.subList(i, Math.min(i + loteUsuarios, usuariosIds.size())));
+        }
+        if (enviados > 0) {
+            log.info("Resúmenes por email enviados: {}", enviados);
+        }
+    }
+
+    private int enviarResumenes(List<String> usuariosIds) {
+        Query consultaUsuarios = new Query(Criteria.where("_id").in(usuariosIds));
+        consultaUsuarios.fields().include("nombre", "correo", "activo", "notificacionesActivas");
+        Map<String, Usuario> usuarios = mongoTemplate.find(consultaUsuarios, Usuario.class).stream()
+                .collect(Collectors.toMap(Usuario::getId, Function.identity()));
+
+        Query consultaPendientes = new Query(sinEnviar().and("usuarioId").in(usuariosIds))
+                .with(Sort.by(Sort.Direction.ASC, "usuarioId", "fechaCreacion"));
+        Map<String, List<EmailPendiente>> porUsuario = mongoTemplate.find(consultaPendientes, EmailPendiente.class)
+                .stream()
+                .collect(Collectors.groupingBy(EmailPendiente::getUsuarioId, LinkedHashMap::new, Collectors.toList()));
+
+        List<Resumen> resumenes = new ArrayList<>();
+        List<String> descartados = new ArrayList<>();
+        for (Map.Entry<String, List<EmailPendiente>> entrada : porUsuario.entrySet()) {
+            Usuario usuario = usuarios.get(entrada.getKey());
+            if (usuario != null && usuario.isActivo() && usuario.isNotificacionesActivas()) {
+                resumenes.add(new Resumen(usuario, entrada.getValue()));
+            } else {
+                entrada.getValue().forEach(aviso -> descartados.add(aviso.getId()));
+            }
+        }
+
+        // Por ventanas que caben holgadas en la cola del pool: encolar el lote entero la llenaría y los correos
+        // de las peticiones (verificación, recuperación) acabarían rechazados mientras sale el resumen
+        List<String> enviados = new ArrayList<>();
+        int fallidos = 0;
+        int i = 0;
+        while (i < resumenes.size()) {
+            int ventana = Math.min(resumenes.size() - i, tamanoVentana());
+            Map<CompletableFuture<Void>, List<String>> envios = new LinkedHashMap<>();
+            for (Resumen resumen : resumenes.subList(i, i + ventana)) {
+                Usuario usuario = resumen.usuario();
+                List<EmailPendiente> avisos = resumen.avisos();
+                envios.put(emailService.enviarEmailHtmlConfirmado(usuario.getCorreo(), asuntoResumen(avisos.size()),
+                        renderizar(usuario.getNombre(), avisos)), avisos.stream().map(EmailPendiente::getId).toList());
+            }
+            for (Map.Entry<CompletableFuture<Void>, List<String>> envio : envios.entrySet()) {
+                try {
+                    envio.getKey().join();
+                    enviados.addAll(envio.getValue());
+                } catch (CompletionException e) {
+                    fallidos++;
+                    log.warn("Resumen por email no enviado, sigue pendiente: {}", e.getCause().getMessage());
+                }
+            }
+            i += ventana;
+        }
+
+        if (!enviados.isEmpty()) {
+            mongoTemplate.updateMulti(new Query(Criteria.where("_id").in(enviados)),
+                    new Update().set("fechaEnvio", LocalDateTime.now()), EmailPendiente.class);
+        }
+        if (!descartados.isEmpty()) {
+            mongoTemplate.remove(new Query(Criteria.where("_id").in(descartados)), EmailPendiente.class);
+        }
+        if (fallidos > 0) {
+            log.error("{} resúmenes por email fallaron; se reintentarán en el próximo envío", fallidos);
+        }
+        return resumenes.size() - fallidos;
+    }
+
+    // La mitad del hueco libre en la cola, con el tope de notificaciones.resumen.envios-en-vuelo
+    private int tamanoVentana() {
+        int libres = emailExecutor.getThreadPoolExecutor().getQueue().remainingCapacity();
+        return Math.max(1, Math.min(enviosEnVuelo, libres / 2));
+    }
+
+    private static Criteria sinEnviar() {
+        return Criteria.where("fechaEnvio").exists(false);
+    }
+
+    private static String asuntoResumen(int avisos) {
+        return avisos == 1 ? "Tienes 1 aviso nuevo" : String.format("Tienes %d avisos nuevos", avisos);
+    }
+
+    private String renderizar(String nombre, List<EmailPendiente> avisos) {
+        return plantillas.html(PlantillasEmailService.RESUMEN, Map.of(
+                "nombre", Objects.requireNonNullElse(nombre, ""),
+                "avisos", avisos.subList(0, Math.min(avisos.size(), maximoElementos)),
+                "restantes", Math.max(0, avisos.size() - maximoElementos)));
+    }
+
+    private record Resumen(Usuario usuario, List<EmailPendiente> avisos) {
+    }
+}
@@ -0,0 +1,255 @@
+package com.voluntariado.plataforma.service;
+
+import com.voluntariado.plataforma.dto.ActividadCalendarioDTO;
+import com.voluntariado.plataforma.dto.CalendarioDTO;
+import com.voluntariado.plataforma.dto.DiaCalendarioDTO;
+import com.voluntariado.plataforma.evento.ActividadModificadaEvent;
+import com.voluntariado.plataforma.evento.CambiosPerdidosEvent;
+import com.voluntariado.plataforma.exception.BadRequestException;
+import com.voluntariado.plataforma.model.Actividad;
+import com.voluntariado.plataforma.repository.ActividadRepository;
+import com.voluntariado.plataforma.util.ArbolIntervalos;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Calendario de actividades por ventanas de un mes o una semana. Las actividades que no han terminado (con un
+ * margen hacia atrás) se guardan en un árbol de intervalos en memoria; las ventanas anteriores van a MongoDB
+ * con la misma consulta de solapamiento. Crear o eliminar una actividad, o cambiar sus fechas, deja el árbol
+ * obsoleto y se reconstruye en la siguiente consulta; los demás cambios (cupos, estado, título) solo refrescan
+ * los datos de esa actividad, que se releen en bloque en la siguiente consulta.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CalendarioActividadesService {
+
+    private final ActividadRepository actividadRepository;
+
+    // Cada cambio que obliga a reconstruir sube la versión; el índice recuerda con cuál se construyó
+    private final AtomicLong versionCambios = new AtomicLong();
+    private final Set<String> modificadas = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock reconstruccion = new ReentrantLock();
+    private volatile Indice indice;
+
+    @Value("${calendario.dias-maximos:42}")
+    private int diasMaximos;
+
+    @Value("${calendario.margen-dias:42}")
+    private int margenDias;
+
+    public CalendarioDTO obtener(LocalDate desde, LocalDate hasta) {
+        if (hasta.isBefore(desde)) {
+            throw new BadRequestException("La fecha 'hasta' no puede ser anterior a 'desde'");
+        }
+        if (ChronoUnit.DAYS.between(desde, hasta) >= diasMaximos) {
+            throw new BadRequestException("La ventana del calendario no puede superar " + diasMaximos + " días");
+        }
+
+        LocalDateTime inicio = desde.atStartOfDay();
+        LocalDateTime fin = hasta.atTime(LocalTime.MAX);
+        List<Actividad> actividades = solapadas(inicio, fin);
+
+        // Una actividad de varios días aparece en cada día de la ventana que ocupa
+        Map<LocalDate, List<String>> porDia = new TreeMap<>();
+        for (Actividad actividad : actividades) {
+            LocalDate dia = max(actividad.getFecha().toLocalDate(), desde);
+            LocalDate ultimo = min(fin(actividad).toLocalDate(), hasta);
+            for (; !dia.isAfter(ultimo); dia = dia.plusDays(1)) {
+                porDia.computeIfAbsent(dia, d -> new ArrayList<>()).add(actividad.getId());
+            }
+        }
+
+        return CalendarioDTO.builder()
+                .desde(desde)
+                .hasta(hasta)
+                .actividades(actividades.stream().map(CalendarioActividadesService::convertir).toList())
+                .dias(porDia.entrySet().stream()
+                        .map(e -> DiaCalendarioDTO.builder().fecha(e.getKey()).actividadIds(e.getValue()).build())
+                        .toList())
+                .build();
+    }
+
+    private List<Actividad> solapadas(LocalDateTime inicio, LocalDateTime fin) {
+        Indice vigente = indiceVigente();
+        if (!refrescarModificadas(vigente)) {
+            vigente = indiceVigente();
+        }
+        if (!inicio.isBefore(vigente.desde())) {
+            Map<String, Actividad> datos = vigente.datos();
+            return vigente.arbol().solapados(inicio, fin).stream()
+                    .map(actividad -> datos.get(actividad.getId()))
+                    .toList();
+        }
+        return consultarMongo(inicio, fin);
+    }
+
+    // Sin fechaFin una actividad dura sus horas (Actividad.calcularFechaFin), pero la consulta de solapamiento
+    // la cuenta solo en su fecha: se amplía un día hacia atrás y se filtra con el fin real
+    private List<Actividad> consultarMongo(LocalDateTime inicio, LocalDateTime fin) {
+        List<Actividad> encontradas = new ArrayList<>(
+                actividadRepository.findResumenByRangoFechas(inicio.minusDays(1), fin));
+        encontradas.removeIf(actividad -> actividad.getFecha() == null || fin(actividad).isBefore(inicio));
+        encontradas.sort((a, b) -> a.getFecha().compareTo(b.getFecha()));
+        return encontradas;
+    }
+
+    /**
+     * Mientras otro hilo reconstruye se sirve el índice anterior; solo espera quien no tiene ninguno. La carga
+     * de MongoDB se hace con el cerrojo de reconstrucción, no con el del objeto, así que las lecturas no se
+     * bloquean. La versión se lee antes de cargar: un cambio que llegue durante la carga obliga a otra.
+     */
+    private Indice indiceVigente() {
+        Indice actual = indice;
+        if (vigente(actual)) {
+            return actual;
+        }
+        if (actual != null && !reconstruccion.tryLock()) {
+            return actual;
+        }
+        if (actual == null) {
+            reconstruccion.lock();
+        }
+        try {
+            actual = indice;
+            if (vigente(actual)) {
+                return actual;
+            }
+            long version = versionCambios.get();
+            LocalDate hoy = LocalDate.now();
+            LocalDateTime desde = hoy.minusDays(margenDias).atStartOfDay();
+            List<Actividad> vigentes = actividadRepository.findResumenVigentesDesde(desdeCarga(desde)).stream()
+                    .filter(a -> a.getFecha() != null)
+                    .toList();
+            actual = new Indice(hoy, version, desde,
+                    new ArbolIntervalos<>(vigentes, Actividad::getFecha, CalendarioActividadesService::fin),
+                    new ConcurrentHashMap<>(vigentes.stream()
+                            .collect(Collectors.toMap(Actividad::getId, Function.identity(), (a, b) -> a))));
+            indice = actual;
+            log.debug("Calendario de actividades reconstruido: {} actividades desde {}", vigentes.size(), desde);
+            return actual;
+        } finally {
+            reconstruccion.unlock();
+        }
+    }
+
+    private boolean vigente(Indice actual) {
+        return actual != null && actual.version() == versionCambios.get()
+                && actual.construido().equals(LocalDate.now());
+    }
+
+    /**
+     * Relee de una vez las actividades modificadas desde la última consulta. Si solo cambiaron datos (cupos,
+     * estado...) se sustituyen en el índice; si cambiaron sus fechas, o entran o salen de él, se invalida y
+     * devuelve false. Durante una reconstrucción se dejan en espera: se aplicarán sobre el índice nuevo.
+     */
+    private boolean refrescarModificadas(Indice vigente) {
+        if (modificadas.isEmpty() || reconstruccion.isLocked()) {
+            return true;
+        }
+        List<String> ids = new ArrayList<>(modificadas);
+        modificadas.removeAll(ids);
+        Map<String, Actividad> releidas = actividadRepository.findResumenByIdIn(ids).stream()
+                .collect(Collectors.toMap(Actividad::getId, Function.identity()));
+
+        for (String id : ids) {
+            Actividad anterior = vigente.datos().get(id);
+            Actividad releida = releidas.get(id);
+            boolean estaba = anterior != null;
+            boolean debeEstar = releida != null && cargada(releida, desdeCarga(vigente.desde()));
+            if (estaba != debeEstar || (estaba && !mismasFechas(anterior, releida))) {
+                versionCambios.incrementAndGet();
+                return false;
+            }
+            if (debeEstar) {
+                vigente.datos().put(id, releida);
+            }
+        }
+        return true;
+    }
+
+    @EventListener
+    public void alModificarActividad(ActividadModificadaEvent evento) {
+        if (evento.tipo() == ActividadModificadaEvent.TipoCambio.ACTUALIZADA) {
+            modificadas.add(evento.actividadId());
+        } else {
+            versionCambios.incrementAndGet();
+        }
+    }
+
+    @EventListener
+    public void alPerderCambios(CambiosPerdidosEvent evento) {
+        versionCambios.incrementAndGet();
+    }
+
+    // Sin fechaFin una actividad puede empezar la víspera de la ventana y terminar ya dentro
+    private static LocalDateTime desdeCarga(LocalDateTime desde) {
+        return desde.minusDays(1);
+    }
+
+    // Lo mismo que filtra findResumenVigentesDesde
+    private static boolean cargada(Actividad actividad, LocalDateTime desde) {
+        if (actividad.getFecha() == null) {
+            return false;
+        }
+        return actividad.getFechaFin() != null
+                ? !actividad.getFechaFin().isBefore(desde)
+                : !actividad.getFecha().isBefore(desde);
+    }
+
+    private static boolean mismasFechas(Actividad a, Actividad b) {
+        return Objects.equals(a.getFecha(), b.getFecha()) && Objects.equals(fin(a), fin(b));
+    }
+
+    // El mismo fin que el resto de la aplicación: fechaFin, o la fecha más las horas de voluntariado
+    private static LocalDateTime fin(Actividad actividad) {
+        return actividad.calcularFechaFin();
+    }
+
+    private static ActividadCalendarioDTO convertir(Actividad actividad) {
+        List<String> categorias = actividad.getCategoriasActividad();
+        return ActividadCalendarioDTO.builder()
+                .id(actividad.getId())
+                .titulo(actividad.getTitulo())
+                .fecha(actividad.getFecha())
+                .fechaFin(actividad.getFechaFin())
+                .lugar(actividad.getLugar())
+                .categoria(categorias == null || categorias.isEmpty() ? null : categorias.get(0))
+                .cupos(actividad.getCupos())
+                .cuposDisponibles(actividad.getCuposDisponibles())
+                .estado(actividad.getEstado())
+                .build();
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    // datos: versión más reciente de cada actividad del árbol; solo se sustituyen las que mantienen sus fechas
+    private record Indice(LocalDate construido, long version, LocalDateTime desde,
+                          ArbolIntervalos<LocalDateTime, Actividad> arbol, Map<String, Actividad> datos) {
+    }
+}
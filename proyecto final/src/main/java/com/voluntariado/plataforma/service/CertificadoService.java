@@ -14,25 +14,48 @@ import com.voluntariado.plataforma.model.*;
 import com.voluntariado.plataforma.model.enums.EstadoInscripcion;
 import com.voluntariado.plataforma.repository.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.SecureRandom;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.UUID;
+import java.util.Locale;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class CertificadoService {
 
+    private static final String ALFABETO_CODIGO = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+    private static final int LONGITUD_CODIGO = 12;
+    private static final int LONGITUD_MAXIMA_CODIGO = 32;
+    private static final int MAX_INTENTOS_CODIGO = 3;
+
+    private final SecureRandom random = new SecureRandom();
+
     private final CertificadoRepository certificadoRepository;
     private final UsuarioRepository usuarioRepository;
     private final ActividadRepository actividadRepository;
     private final InscripcionRepository inscripcionRepository;
     private final EmailService emailService;
     private final AuditoriaService auditoriaService;
+    private final VerificacionCertificadoService verificacionService;
+
+    @Value("${certificados.pdf.directorio:}")
+    private String directorioPdf;
 
     public CertificadoDTO generarCertificado(String usuarioId, String actividadId) {
         // Verificar que el voluntario asistió a la actividad
@@ -58,8 +81,6 @@ public class CertificadoService {
         Actividad actividad = actividadRepository.findById(actividadId)
                 .orElseThrow(() -> new ResourceNotFoundException("Actividad", "id", actividadId));
 
-        String codigoVerificacion = UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-
         Certificado certificado = Certificado.builder()
                 .usuarioId(usuarioId)
                 .actividadId(actividadId)
@@ -69,10 +90,9 @@ public class CertificadoService {
                 .horasParticipacion(actividad.getHorasVoluntariado())
                 .fechaActividad(actividad.getFecha())
                 .fechaEmision(LocalDateTime.now())
-                .codigoVerificacion(codigoVerificacion)
                 .build();
 
-        certificado = certificadoRepository.save(certificado);
+        certificado = guardarConCodigoUnico(certificado);
 
         auditoriaService.registrarAccion(usuarioId, usuario.getCorreo(),
                 "GENERACION_CERTIFICADO", "Certificado", certificado.getId(),
@@ -85,9 +105,54 @@ public class CertificadoService {
         Certificado certificado = certificadoRepository.findById(certificadoId)
                 .orElseThrow(() -> new ResourceNotFoundException("Certificado", "id", certificadoId));
 
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        escribirPDF(certificado, baos);
+        return baos.toByteArray();
+    }
+
+    public Optional<Resource> obtenerPDFAlmacenado(Certificado certificado) {
+        if (directorioPdf.isBlank()) {
+            return Optional.empty();
+        }
+
+        // El contenido del certificado no cambia tras su emisión, así que el PDF se renderiza una sola vez
+        Path ruta = Path.of(directorioPdf, certificado.getId() + ".pdf");
+        if (!Files.isReadable(ruta)) {
+            almacenarPDF(certificado, ruta);
+        }
+
+        return Optional.of(new FileSystemResource(ruta));
+    }
+
+    // Se carga una sola vez y antes de empezar la respuesta: un certificado borrado da 404, no un cuerpo a medias
+    public Certificado obtenerParaDescarga(String certificadoId, String usuarioId) {
+        Certificado certificado = certificadoRepository.findById(certificadoId)
+                .orElseThrow(() -> new ResourceNotFoundException("Certificado", "id", certificadoId));
+
+        if (!certificado.getUsuarioId().equals(usuarioId)) {
+            throw new BadRequestException("No tienes permiso para descargar este certificado");
+        }
+        return certificado;
+    }
+
+    private void almacenarPDF(Certificado certificado, Path ruta) {
+        try {
+            Files.createDirectories(ruta.getParent());
+            Path temporal = Files.createTempFile(ruta.getParent(), certificado.getId(), ".tmp");
+            try (OutputStream salida = new BufferedOutputStream(Files.newOutputStream(temporal))) {
+                escribirPDF(certificado, salida);
+            }
+            Files.move(temporal, ruta, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new RuntimeException("Error al almacenar el PDF del certificado", e);
+        }
+    }
+
+    public void escribirPDF(Certificado certificado, OutputStream salida) {
         try {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            PdfWriter writer = new PdfWriter(baos);
+            // iText escribe cada página a medida que se completa; el stream lo cierra quien lo abrió
+            PdfWriter writer = new PdfWriter(salida);
+            writer.setCloseStream(false);
             PdfDocument pdf = new PdfDocument(writer);
             Document document = new Document(pdf, PageSize.A4.rotate());
 
@@ -154,24 +219,11 @@ public class CertificadoService {
 
             document.close();
 
-            return baos.toByteArray();
-
         } catch (Exception e) {
             throw new RuntimeException("Error al generar el PDF del certificado", e);
         }
     }
 
-    public byte[] descargarCertificado(String certificadoId, String usuarioId) {
-        Certificado certificado = certificadoRepository.findById(certificadoId)
-                .orElseThrow(() -> new ResourceNotFoundException("Certificado", "id", certificadoId));
-
-        if (!certificado.getUsuarioId().equals(usuarioId)) {
-            throw new BadRequestException("No tienes permiso para descargar este certificado");
-        }
-
-        return generarPDF(certificadoId);
-    }
-
     public void enviarCertificadoPorEmail(String certificadoId) {
         Certificado certificado = certificadoRepository.findById(certificadoId)
                 .orElseThrow(() -> new ResourceNotFoundException("Certificado", "id", certificadoId));
@@ -189,10 +241,24 @@ public class CertificadoService {
     }
 
     public CertificadoDTO verificarCertificado(String codigoVerificacion) {
-        Certificado certificado = certificadoRepository.findByCodigoVerificacion(codigoVerificacion)
+        String codigo = codigoVerificacion.trim().toUpperCase(Locale.ROOT);
+
+        // Los códigos que nunca se emitieron se descartan sin consultar la base de datos
+        if (codigo.length() > LONGITUD_MAXIMA_CODIGO || verificacionService.descartable(codigo)) {
+            throw new ResourceNotFoundException("Certificado no encontrado con el código proporcionado");
+        }
+
+        CertificadoDTO verificado = verificacionService.obtenerVerificado(codigo);
+        if (verificado != null) {
+            return verificado;
+        }
+
+        Certificado certificado = certificadoRepository.findByCodigoVerificacion(codigo)
                 .orElseThrow(() -> new ResourceNotFoundException("Certificado no encontrado con el código proporcionado"));
 
-        return convertirADTO(certificado);
+        CertificadoDTO dto = convertirADTO(certificado);
+        verificacionService.registrarVerificado(codigo, dto);
+        return dto;
     }
 
     public List<CertificadoDTO> listarPorUsuario(String usuarioId) {
@@ -207,6 +273,36 @@ public class CertificadoService {
         return convertirADTO(certificado);
     }
 
+    private Certificado guardarConCodigoUnico(Certificado certificado) {
+        for (int intento = 1; ; intento++) {
+            String codigo = generarCodigoVerificacion();
+            if (verificacionService.puedeExistir(codigo) && certificadoRepository.existsByCodigoVerificacion(codigo)) {
+                continue;
+            }
+
+            certificado.setCodigoVerificacion(codigo);
+            try {
+                Certificado guardado = certificadoRepository.save(certificado);
+                verificacionService.registrarEmitido(codigo);
+                return guardado;
+            } catch (DuplicateKeyException e) {
+                // Colisión con un código emitido en paralelo; el índice único lo rechazó
+                if (intento >= MAX_INTENTOS_CODIGO) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    // 12 caracteres en base32 de Crockford: 60 bits aleatorios, sin caracteres ambiguos
+    private String generarCodigoVerificacion() {
+        char[] codigo = new char[LONGITUD_CODIGO];
+        for (int i = 0; i < codigo.length; i++) {
+            codigo[i] = ALFABETO_CODIGO.charAt(random.nextInt(ALFABETO_CODIGO.length()));
+        }
+        return new String(codigo);
+    }
+
     private CertificadoDTO convertirADTO(Certificado certificado) {
         return CertificadoDTO.builder()
                 .id(certificado.getId())
@@ -0,0 +1,258 @@
+package com.voluntariado.plataforma.service;
+
+import com.voluntariado.plataforma.evento.ActividadModificadaEvent;
+import com.voluntariado.plataforma.evento.ActividadModificadaEvent.TipoCambio;
+import com.voluntariado.plataforma.lock.Arrendamiento;
+import com.voluntariado.plataforma.lock.ArrendamientoMongo;
+import com.voluntariado.plataforma.model.Actividad;
+import com.voluntariado.plataforma.model.enums.EstadoActividad;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Transiciones automáticas PROXIMA → ACTIVA (al llegar {@code fecha}) y ACTIVA → FINALIZADA (al llegar el
+ * fin efectivo). Solo se cargan en memoria las transiciones dentro del horizonte, con consultas por índice
+ * (estado, fecha) / (estado, fechaFin); una cola con retardo las entrega en su momento y se aplican en lote.
+ * Todos los nodos mantienen la cola, pero solo el que tiene el arrendamiento "ciclo-vida-actividades" escribe.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CicloVidaActividadesService {
+
+    private static final String ARRENDAMIENTO = "ciclo-vida-actividades";
+
+    private final MongoTemplate mongoTemplate;
+    private final ArrendamientoMongo arrendamiento;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${ciclo-vida.horizonte-minutos:60}")
+    private long horizonteMinutos;
+
+    @Value("${ciclo-vida.arrendamiento-segundos:30}")
+    private long arrendamientoSegundos;
+
+    private final DelayQueue<TransicionProgramada> cola = new DelayQueue<>();
+    private final Set<TransicionProgramada> programadas = ConcurrentHashMap.newKeySet();
+
+    private volatile Arrendamiento arrendamientoActual;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        // Si se adquiere el liderazgo, renovarLiderazgo ya carga el horizonte
+        renovarLiderazgo();
+        if (arrendamientoActual == null) {
+            cargarHorizonte();
+        }
+    }
+
+    @PreDestroy
+    public void detener() {
+        Arrendamiento actual = arrendamientoActual;
+        arrendamientoActual = null;
+        if (actual != null) {
+            arrendamiento.liberar(actual);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${ciclo-vida.renovacion-ms:10000}", initialDelayString = "${ciclo-vida.renovacion-ms:10000}")
+    public void renovarLiderazgo() {
+        Arrendamiento anterior = arrendamientoActual;
+        Duration duracion = Duration.ofSeconds(arrendamientoSegundos);
+        try {
+            Optional<Arrendamiento> vigente = anterior != null
+                    ? arrendamiento.renovar(anterior, duracion)
+                    : Optional.empty();
+            arrendamientoActual = vigente.or(() -> arrendamiento.adquirir(ARRENDAMIENTO, duracion)).orElse(null);
+        } catch (RuntimeException e) {
+            arrendamientoActual = null;
+            log.warn("No se pudo renovar el arrendamiento del ciclo de vida: {}", e.getMessage());
+        }
+        boolean eraLider = anterior != null;
+        boolean lider = arrendamientoActual != null;
+        if (lider && !eraLider) {
+            log.info("Esta instancia aplica ahora las transiciones de estado de actividades");
+            // Lo que el líder anterior tenía en su cola (y aquí se descartó por no ser líder) se recupera ya,
+            // sin esperar a la siguiente recarga del horizonte
+            try {
+                cargarHorizonte();
+            } catch (RuntimeException e) {
+                log.warn("No se pudo recargar el horizonte al asumir el liderazgo: {}", e.getMessage());
+            }
+        } else if (!lider && eraLider) {
+            log.info("Esta instancia dejó de aplicar las transiciones de estado de actividades");
+        }
+    }
+
+    // Las consultas incluyen las transiciones ya vencidas: así se recupera lo que quedó pendiente
+    // durante una caída o un cambio de líder
+    @Scheduled(fixedDelayString = "${ciclo-vida.recarga-ms:900000}", initialDelayString = "${ciclo-vida.recarga-ms:900000}")
+    public void cargarHorizonte() {
+        LocalDateTime limite = LocalDateTime.now().plusMinutes(horizonteMinutos);
+
+        Query proximas = new Query(Criteria.where("estado").is(EstadoActividad.PROXIMA).and("fecha").lte(limite));
+        Query activasConFin = new Query(Criteria.where("estado").is(EstadoActividad.ACTIVA).and("fechaFin").lte(limite));
+        Query activasSinFin = new Query(Criteria.where("estado").is(EstadoActividad.ACTIVA)
+                .and("fechaFin").is(null).and("fecha").lte(limite));
+
+        int antes = programadas.size();
+        buscarProyectadas(proximas).forEach(a -> programar(a, limite));
+        buscarProyectadas(activasConFin).forEach(a -> programar(a, limite));
+        buscarProyectadas(activasSinFin).forEach(a -> programar(a, limite));
+        log.debug("Horizonte de ciclo de vida cargado: {} transiciones nuevas, {} en cola",
+                programadas.size() - antes, programadas.size());
+    }
+
+    @Scheduled(fixedDelayString = "${ciclo-vida.tick-ms:1000}")
+    public void aplicarVencidas() {
+        List<TransicionProgramada> vencidas = new ArrayList<>();
+        cola.drainTo(vencidas);
+        if (vencidas.isEmpty()) {
+            return;
+        }
+        vencidas.forEach(programadas::remove);
+        Arrendamiento actual = arrendamientoActual;
+        if (actual == null) {
+            // El líder tiene su propia cola; si cae, el siguiente las recupera al asumir el liderazgo
+            return;
+        }
+
+        Map<EstadoActividad, Set<String>> porDestino = vencidas.stream()
+                .collect(Collectors.groupingBy(TransicionProgramada::destino,
+                        Collectors.mapping(TransicionProgramada::actividadId, Collectors.toSet())));
+
+        LocalDateTime ahora = LocalDateTime.now();
+        try {
+            // Comprobación del token de cercado: si otro nodo tomó el arrendamiento (pausa larga, red), no se escribe
+            if (!arrendamiento.esVigente(actual)) {
+                arrendamientoActual = null;
+                log.warn("Arrendamiento del ciclo de vida perdido (token {}); no se aplican transiciones", actual.tokenCercado());
+                return;
+            }
+            if (porDestino.containsKey(EstadoActividad.ACTIVA)) {
+                activar(porDestino.get(EstadoActividad.ACTIVA), ahora);
+            }
+            if (porDestino.containsKey(EstadoActividad.FINALIZADA)) {
+                finalizar(porDestino.get(EstadoActividad.FINALIZADA), ahora);
+            }
+        } catch (RuntimeException e) {
+            // Se reintentan en la próxima recarga del horizonte, que también trae las vencidas
+            log.error("Error al aplicar transiciones de actividades: {}", e.getMessage(), e);
+        }
+    }
+
+    // Altas y cambios de fecha dentro del horizonte se programan sin esperar a la siguiente recarga
+    @EventListener
+    public void alModificarActividad(ActividadModificadaEvent evento) {
+        if (evento.tipo() == TipoCambio.ELIMINADA) {
+            return;
+        }
+        LocalDateTime limite = LocalDateTime.now().plusMinutes(horizonteMinutos);
+        Query query = new Query(Criteria.where("id").is(evento.actividadId())
+                .and("estado").in(EstadoActividad.PROXIMA, EstadoActividad.ACTIVA));
+        buscarProyectadas(query).forEach(a -> programar(a, limite));
+    }
+
+    private void activar(Collection<String> ids, LocalDateTime ahora) {
+        // Se vuelve a comprobar en la base de datos: la fecha pudo cambiar después de programarse
+        List<Actividad> vencidas = buscarProyectadas(new Query(Criteria.where("id").in(ids)
+                .and("estado").is(EstadoActividad.PROXIMA)
+                .and("fecha").lte(ahora)));
+        if (vencidas.isEmpty()) {
+            return;
+        }
+
+        List<String> idsVencidos = vencidas.stream().map(Actividad::getId).toList();
+        long modificadas = mongoTemplate.updateMulti(
+                new Query(Criteria.where("id").in(idsVencidos).and("estado").is(EstadoActividad.PROXIMA)),
+                new Update().set("estado", EstadoActividad.ACTIVA).set("fechaActualizacion", ahora),
+                Actividad.class).getModifiedCount();
+        log.info("{} actividades pasaron a ACTIVA", modificadas);
+
+        LocalDateTime limite = ahora.plusMinutes(horizonteMinutos);
+        vencidas.forEach(actividad -> {
+            publicarCambio(actividad.getId(), ahora);
+            actividad.setEstado(EstadoActividad.ACTIVA);
+            programar(actividad, limite);
+        });
+    }
+
+    private void finalizar(Collection<String> ids, LocalDateTime ahora) {
+        List<String> terminadas = buscarProyectadas(new Query(Criteria.where("id").in(ids)
+                .and("estado").is(EstadoActividad.ACTIVA))).stream()
+                .filter(actividad -> actividad.calcularFechaFin() != null && !actividad.calcularFechaFin().isAfter(ahora))
+                .map(Actividad::getId)
+                .toList();
+        if (terminadas.isEmpty()) {
+            return;
+        }
+
+        long modificadas = mongoTemplate.updateMulti(
+                new Query(Criteria.where("id").in(terminadas).and("estado").is(EstadoActividad.ACTIVA)),
+                new Update().set("estado", EstadoActividad.FINALIZADA).set("fechaActualizacion", ahora),
+                Actividad.class).getModifiedCount();
+        log.info("{} actividades pasaron a FINALIZADA", modificadas);
+
+        terminadas.forEach(id -> publicarCambio(id, ahora));
+    }
+
+    private void programar(Actividad actividad, LocalDateTime limite) {
+        if (actividad.getFecha() == null) {
+            return;
+        }
+        TransicionProgramada transicion = actividad.getEstado() == EstadoActividad.PROXIMA
+                ? new TransicionProgramada(actividad.getId(), EstadoActividad.ACTIVA, actividad.getFecha())
+                : new TransicionProgramada(actividad.getId(), EstadoActividad.FINALIZADA, actividad.calcularFechaFin());
+        if (!transicion.momento().isAfter(limite) && programadas.add(transicion)) {
+            cola.put(transicion);
+        }
+    }
+
+    private List<Actividad> buscarProyectadas(Query query) {
+        query.fields().include("id", "estado", "fecha", "fechaFin", "horasVoluntariado");
+        return mongoTemplate.find(query, Actividad.class);
+    }
+
+    private void publicarCambio(String actividadId, LocalDateTime fechaActualizacion) {
+        eventPublisher.publishEvent(new ActividadModificadaEvent(actividadId, TipoCambio.ACTUALIZADA, fechaActualizacion));
+    }
+
+    private record TransicionProgramada(String actividadId, EstadoActividad destino, LocalDateTime momento)
+            implements Delayed {
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(Duration.between(LocalDateTime.now(), momento));
+        }
+
+        @Override
+        public int compareTo(Delayed otro) {
+            return momento.compareTo(((TransicionProgramada) otro).momento);
+        }
+    }
+}
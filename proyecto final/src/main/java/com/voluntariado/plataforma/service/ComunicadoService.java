@@ -0,0 +1,266 @@
+package com.voluntariado.plataforma.service;
+
+import com.voluntariado.plataforma.dto.ComunicadoDTO;
+import com.voluntariado.plataforma.evento.ComunicadoCreadoEvent;
+import com.voluntariado.plataforma.exception.BadRequestException;
+import com.voluntariado.plataforma.exception.ResourceNotFoundException;
+import com.voluntariado.plataforma.lock.BloqueoDistribuido;
+import com.voluntariado.plataforma.model.Comunicado;
+import com.voluntariado.plataforma.model.Notificacion;
+import com.voluntariado.plataforma.model.NotificacionDifundida;
+import com.voluntariado.plataforma.model.Usuario;
+import com.voluntariado.plataforma.model.enums.EstadoComunicado;
+import com.voluntariado.plataforma.model.enums.Rol;
+import com.voluntariado.plataforma.model.enums.TipoNotificacion;
+import com.voluntariado.plataforma.repository.ComunicadoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Envío masivo de comunicados. La petición solo guarda el comunicado y devuelve su id; el reparto corre en
+ * segundo plano: destinatarios leídos en streaming, notificaciones insertadas por lotes (o una sola difundida
+ * si el comunicado va a un rol u organización) y emails por lotes según la frecuencia que elige cada usuario.
+ * El progreso queda en el propio documento y se consulta con {@link #obtener(String)}.
+ * <p>
+ * Quien reparte tiene el comunicado arrendado y, con cada lote, guarda el último destinatario y renueva el
+ * arrendamiento. Si la instancia cae, una tarea periódica retoma los repartos con el arrendamiento vencido
+ * desde ese destinatario; como mucho se repite el lote que estaba a medias.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ComunicadoService {
+
+    private final ComunicadoRepository comunicadoRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ContadoresUsuarioService contadoresUsuarioService;
+    private final AvisosEmailService avisosEmailService;
+    private final NotificacionDifundidaService notificacionDifundidaService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${comunicados.lote:500}")
+    private int tamanoLote;
+
+    @Value("${comunicados.arrendamiento-ms:300000}")
+    private long duracionArrendamiento;
+
+    public ComunicadoDTO iniciar(String titulo, String mensaje, List<String> destinatariosIds, Rol rol,
+                                 String organizacionId, String remitenteId) {
+        List<String> ids = destinatariosIds == null ? List.of() : destinatariosIds.stream().distinct().toList();
+        if (ids.isEmpty() && rol == null && organizacionId == null) {
+            throw new BadRequestException("Indica los destinatarios, un rol o una organización");
+        }
+
+        Comunicado comunicado = comunicadoRepository.save(Comunicado.builder()
+                .titulo(titulo)
+                .mensaje(mensaje)
+                .remitenteId(remitenteId)
+                .destinatariosIds(new ArrayList<>(ids))
+                .rol(rol)
+                .organizacionId(organizacionId)
+                .build());
+
+        eventPublisher.publishEvent(new ComunicadoCreadoEvent(comunicado.getId()));
+        return convertirADTO(comunicado);
+    }
+
+    public ComunicadoDTO obtener(String id) {
+        return comunicadoRepository.findById(id)
+                .map(this::convertirADTO)
+                .orElseThrow(() -> new ResourceNotFoundException("Comunicado", "id", id));
+    }
+
+    @Async
+    @EventListener
+    public void procesar(ComunicadoCreadoEvent evento) {
+        // Solo un hilo pasa de PENDIENTE a EN_CURSO, aunque el método se invoque dos veces
+        Comunicado comunicado = arrendar(Criteria.where("_id").is(evento.comunicadoId())
+                .and("estado").is(EstadoComunicado.PENDIENTE));
+        if (comunicado != null) {
+            repartir(comunicado);
+        }
+    }
+
+    // Pendientes cuyo evento se perdió y repartos que quedaron a medias: se retoman de uno en uno
+    @Scheduled(fixedDelayString = "${comunicados.reanudacion.intervalo-ms:60000}",
+            initialDelayString = "${comunicados.reanudacion.intervalo-ms:60000}")
+    @BloqueoDistribuido(nombre = "reanudacion-comunicados", duracionMaxima = "PT1H")
+    public void reanudarInterrumpidos() {
+        LocalDateTime ahora = LocalDateTime.now();
+        Criteria interrumpidos = new Criteria().orOperator(
+                Criteria.where("estado").is(EstadoComunicado.PENDIENTE)
+                        .and("fechaCreacion").lt(ahora.minus(Duration.ofMillis(duracionArrendamiento))),
+                Criteria.where("estado").is(EstadoComunicado.EN_CURSO).and("arrendadoHasta").lt(ahora));
+        Comunicado comunicado;
+        while ((comunicado = arrendar(interrumpidos)) != null) {
+            log.warn("Reanudando el comunicado {} desde el destinatario {}", comunicado.getId(),
+                    comunicado.getUltimoDestinatarioId());
+            repartir(comunicado);
+        }
+    }
+
+    private Comunicado arrendar(Criteria criteria) {
+        return mongoTemplate.findAndModify(new Query(criteria),
+                new Update().set("estado", EstadoComunicado.EN_CURSO)
+                        .set("arrendatario", UUID.randomUUID().toString())
+                        .set("arrendadoHasta", vencimientoArrendamiento()),
+                FindAndModifyOptions.options().returnNew(true),
+                Comunicado.class);
+    }
+
+    private void repartir(Comunicado comunicado) {
+        String comunicadoId = comunicado.getId();
+        boolean difundido = comunicado.getDestinatariosIds().isEmpty();
+
+        try (Stream<Usuario> destinatarios = mongoTemplate.stream(consultaDestinatarios(comunicado), Usuario.class)) {
+            // A un rol u organización se publica una sola notificación difundida; por lotes solo van los emails
+            if (difundido && !mongoTemplate.exists(new Query(Criteria.where("comunicadoId").is(comunicadoId)),
+                    NotificacionDifundida.class)) {
+                notificacionDifundidaService.publicar(NotificacionDifundida.builder()
+                        .titulo(comunicado.getTitulo())
+                        .mensaje(comunicado.getMensaje())
+                        .tipo(TipoNotificacion.COMUNICADO)
+                        .comunicadoId(comunicadoId)
+                        .rol(comunicado.getRol())
+                        .organizacionId(comunicado.getOrganizacionId())
+                        .build());
+            }
+            List<Usuario> lote = new ArrayList<>(tamanoLote);
+            destinatarios.forEach(usuario -> {
+                lote.add(usuario);
+                if (lote.size() == tamanoLote) {
+                    repartirLote(comunicado, lote, difundido);
+                    lote.clear();
+                }
+            });
+            if (!lote.isEmpty()) {
+                repartirLote(comunicado, lote, difundido);
+            }
+
+            finalizar(comunicado, EstadoComunicado.COMPLETADO, null);
+        } catch (ArrendamientoPerdidoException e) {
+            log.warn("El reparto del comunicado {} lo ha retomado otra instancia", comunicadoId);
+        } catch (RuntimeException e) {
+            log.error("Error al repartir el comunicado {}: {}", comunicadoId, e.getMessage(), e);
+            finalizar(comunicado, EstadoComunicado.FALLIDO, e.getMessage());
+        }
+    }
+
+    private Query consultaDestinatarios(Comunicado comunicado) {
+        Criteria criteria;
+        if (!comunicado.getDestinatariosIds().isEmpty()) {
+            criteria = Criteria.where("_id").in(comunicado.getDestinatariosIds());
+        } else {
+            criteria = Criteria.where("activo").is(true);
+            if (comunicado.getRol() != null) {
+                criteria = criteria.and("rol").is(comunicado.getRol());
+            }
+            if (comunicado.getOrganizacionId() != null) {
+                criteria = criteria.and("organizacionId").is(comunicado.getOrganizacionId());
+            }
+        }
+        if (comunicado.getUltimoDestinatarioId() != null) {
+            criteria = new Criteria().andOperator(criteria,
+                    Criteria.where("_id").gt(comunicado.getUltimoDestinatarioId()));
+        }
+        Query query = new Query(criteria).with(Sort.by("_id"));
+        query.fields().include("correo", "notificacionesActivas", "frecuenciaEmail");
+        return query;
+    }
+
+    // Un insert por lote para las notificaciones personales y los emails de quienes los tienen activos, al momento
+    // o en su resumen según su frecuencia
+    private void repartirLote(Comunicado comunicado, List<Usuario> lote, boolean difundido) {
+        if (!difundido) {
+            List<Notificacion> notificaciones = lote.stream()
+                    .map(usuario -> Notificacion.builder()
+                            .usuarioId(usuario.getId())
+                            .comunicadoId(comunicado.getId())
+                            .tipo(TipoNotificacion.COMUNICADO)
+                            .build())
+                    .toList();
+            mongoTemplate.insert(notificaciones, Notificacion.class);
+            contadoresUsuarioService.sumarNotificaciones(lote.stream().map(Usuario::getId).toList(), 1);
+        }
+
+        List<Usuario> conEmail = lote.stream()
+                .filter(Usuario::isNotificacionesActivas)
+                .toList();
+        if (!conEmail.isEmpty()) {
+            avisosEmailService.avisar(conEmail, comunicado.getTitulo(), comunicado.getMensaje(),
+                    TipoNotificacion.COMUNICADO, null, null);
+        }
+
+        // Progreso, cursor y renovación en una sola escritura, y solo si el arrendamiento sigue siendo nuestro
+        long actualizados = mongoTemplate.updateFirst(propio(comunicado),
+                new Update().inc("destinatarios", lote.size())
+                        .inc("emailsEncolados", conEmail.size())
+                        .set("ultimoDestinatarioId", lote.get(lote.size() - 1).getId())
+                        .set("arrendadoHasta", vencimientoArrendamiento()),
+                Comunicado.class).getMatchedCount();
+        if (actualizados == 0) {
+            throw new ArrendamientoPerdidoException();
+        }
+    }
+
+    private void finalizar(Comunicado comunicado, EstadoComunicado estado, String error) {
+        mongoTemplate.updateFirst(propio(comunicado),
+                new Update().set("estado", estado)
+                        .set("error", error)
+                        .set("fechaFinalizacion", LocalDateTime.now())
+                        .unset("arrendatario")
+                        .unset("arrendadoHasta"),
+                Comunicado.class);
+    }
+
+    private static Query propio(Comunicado comunicado) {
+        return new Query(Criteria.where("_id").is(comunicado.getId())
+                .and("arrendatario").is(comunicado.getArrendatario()));
+    }
+
+    private LocalDateTime vencimientoArrendamiento() {
+        return LocalDateTime.now().plus(Duration.ofMillis(duracionArrendamiento));
+    }
+
+    private ComunicadoDTO convertirADTO(Comunicado comunicado) {
+        return ComunicadoDTO.builder()
+                .id(comunicado.getId())
+                .titulo(comunicado.getTitulo())
+                .rol(comunicado.getRol())
+                .organizacionId(comunicado.getOrganizacionId())
+                .destinatariosSolicitados(comunicado.getDestinatariosIds().size())
+                .estado(comunicado.getEstado())
+                .destinatarios(comunicado.getDestinatarios())
+                .emailsEncolados(comunicado.getEmailsEncolados())
+                .error(comunicado.getError())
+                .fechaCreacion(comunicado.getFechaCreacion())
+                .fechaFinalizacion(comunicado.getFechaFinalizacion())
+                .build();
+    }
+
+    // Otra instancia retomó el reparto tras vencer el arrendamiento: este hilo se retira sin tocar el estado
+    private static final class ArrendamientoPerdidoException extends RuntimeException {
+        private ArrendamientoPerdidoException() {
+            super(null, null, false, false);
+        }
+    }
+}
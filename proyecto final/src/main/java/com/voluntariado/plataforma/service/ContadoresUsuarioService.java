@@ -0,0 +1,182 @@
+package com.voluntariado.plataforma.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.voluntariado.plataforma.evento.CambioDocumento;
+import com.voluntariado.plataforma.evento.CambiosPerdidosEvent;
+import com.voluntariado.plataforma.lock.BloqueoDistribuido;
+import com.voluntariado.plataforma.model.ContadorUsuario;
+import com.voluntariado.plataforma.model.Mensaje;
+import com.voluntariado.plataforma.model.Notificacion;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Contadores de notificaciones y mensajes no leídos por usuario. Las escrituras los ajustan con $inc y dejan
+ * el valor devuelto en una cache local, así que el contador del badge casi nunca va a MongoDB. Una tarea
+ * periódica los recalcula desde las colecciones para corregir cualquier desvío.
+ */
+@Service
+@Slf4j
+public class ContadoresUsuarioService {
+
+    static final String NOTIFICACIONES = "notificacionesNoLeidas";
+    static final String MENSAJES = "mensajesNoLeidos";
+
+    private final MongoTemplate mongoTemplate;
+    private final Cache<String, ContadorUsuario> cache;
+
+    @Value("${contadores.reconciliacion.lote:500}")
+    private int loteReconciliacion;
+
+    @Value("${contadores.reconciliacion.antiguedad-minutos:60}")
+    private long antiguedadReconciliacionMinutos;
+
+    public ContadoresUsuarioService(MongoTemplate mongoTemplate, MeterRegistry registry,
+                                    @Value("${contadores.cache.tamano-maximo:20000}") long tamanoMaximo,
+                                    @Value("${contadores.cache.expiracion-minutos:10}") long expiracionMinutos) {
+        this.mongoTemplate = mongoTemplate;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfterWrite(Duration.ofMinutes(expiracionMinutos))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, "contadoresUsuario");
+    }
+
+    public long notificacionesNoLeidas(String usuarioId) {
+        return Math.max(0, obtener(usuarioId).getNotificacionesNoLeidas());
+    }
+
+    public long mensajesNoLeidos(String usuarioId) {
+        return Math.max(0, obtener(usuarioId).getMensajesNoLeidos());
+    }
+
+    public void sumarNotificaciones(String usuarioId, long delta) {
+        ajustar(usuarioId, NOTIFICACIONES, delta);
+    }
+
+    public void sumarNotificaciones(List<String> usuariosIds, long delta) {
+        if (usuariosIds.isEmpty() || delta == 0) {
+            return;
+        }
+        // Envíos masivos: un solo updateMulti; los que aún no tienen documento se crean al leerlos
+        mongoTemplate.updateMulti(new Query(Criteria.where("_id").in(usuariosIds)),
+                new Update().inc(NOTIFICACIONES, delta), ContadorUsuario.class);
+        cache.invalidateAll(usuariosIds);
+    }
+
+    public void sumarMensajes(String usuarioId, long delta) {
+        ajustar(usuarioId, MENSAJES, delta);
+    }
+
+    private void ajustar(String usuarioId, String campo, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        // Solo se ajustan documentos existentes: si no hay, el primer read lo crea contando, y ya incluye esto
+        ContadorUsuario actualizado = mongoTemplate.findAndModify(
+                new Query(Criteria.where("_id").is(usuarioId)),
+                new Update().inc(campo, delta),
+                FindAndModifyOptions.options().returnNew(true),
+                ContadorUsuario.class);
+        if (actualizado != null) {
+            cache.put(usuarioId, actualizado);
+        } else {
+            cache.invalidate(usuarioId);
+        }
+    }
+
+    private ContadorUsuario obtener(String usuarioId) {
+        return cache.get(usuarioId, id -> {
+            ContadorUsuario guardado = mongoTemplate.findById(id, ContadorUsuario.class);
+            return guardado != null ? guardado : inicializar(id);
+        });
+    }
+
+    // Primer acceso: se cuenta una vez y se inserta solo si nadie lo hizo antes (upsert con $setOnInsert)
+    private ContadorUsuario inicializar(String usuarioId) {
+        Update update = new Update()
+                .setOnInsert(NOTIFICACIONES, contarNotificaciones(usuarioId))
+                .setOnInsert(MENSAJES, contarMensajes(usuarioId))
+                .setOnInsert("fechaReconciliacion", LocalDateTime.now());
+        return mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(usuarioId)), update,
+                FindAndModifyOptions.options().upsert(true).returnNew(true), ContadorUsuario.class);
+    }
+
+    // Recalcula los contadores más antiguos. El set es condicional (compare-and-set): si una escritura los
+    // cambió entre el conteo y la actualización, se deja para la siguiente pasada en vez de pisarla
+    @Scheduled(fixedDelayString = "${contadores.reconciliacion.intervalo-ms:300000}",
+            initialDelayString = "${contadores.reconciliacion.intervalo-ms:300000}")
+    @BloqueoDistribuido(nombre = "reconciliacion-contadores", duracionMaxima = "PT10M")
+    public void reconciliar() {
+        LocalDateTime limite = LocalDateTime.now().minusMinutes(antiguedadReconciliacionMinutos);
+        Query antiguos = new Query(Criteria.where("fechaReconciliacion").lt(limite))
+                .with(Sort.by(Sort.Direction.ASC, "fechaReconciliacion"))
+                .limit(loteReconciliacion);
+
+        int corregidos = 0;
+        for (ContadorUsuario contador : mongoTemplate.find(antiguos, ContadorUsuario.class)) {
+            long notificaciones = contarNotificaciones(contador.getUsuarioId());
+            long mensajes = contarMensajes(contador.getUsuarioId());
+
+            Query sinCambios = new Query(Criteria.where("_id").is(contador.getUsuarioId())
+                    .and(NOTIFICACIONES).is(contador.getNotificacionesNoLeidas())
+                    .and(MENSAJES).is(contador.getMensajesNoLeidos()));
+            Update update = new Update()
+                    .set(NOTIFICACIONES, notificaciones)
+                    .set(MENSAJES, mensajes)
+                    .set("fechaReconciliacion", LocalDateTime.now());
+            if (mongoTemplate.updateFirst(sinCambios, update, ContadorUsuario.class).getModifiedCount() > 0) {
+                cache.invalidate(contador.getUsuarioId());
+                if (notificaciones != contador.getNotificacionesNoLeidas()
+                        || mensajes != contador.getMensajesNoLeidos()) {
+                    corregidos++;
+                }
+            }
+        }
+        if (corregidos > 0) {
+            log.info("Reconciliación de contadores: {} usuarios corregidos", corregidos);
+        }
+    }
+
+    // Escrituras de otras instancias: el bus trae el documento ya actualizado
+    @EventListener
+    public void alCambiarContador(CambioDocumento<ContadorUsuario> cambio) {
+        if (cambio.documento() != null) {
+            cache.put(cambio.documentoId(), cambio.documento());
+        } else {
+            cache.invalidate(cambio.documentoId());
+        }
+    }
+
+    @EventListener
+    public void alPerderCambios(CambiosPerdidosEvent evento) {
+        cache.invalidateAll();
+    }
+
+    private long contarNotificaciones(String usuarioId) {
+        return mongoTemplate.count(new Query(Criteria.where("usuarioId").is(usuarioId).and("leida").is(false)),
+                Notificacion.class);
+    }
+
+    private long contarMensajes(String usuarioId) {
+        return mongoTemplate.count(new Query(Criteria.where("destinatarioId").is(usuarioId)
+                .and("leido").is(false).and("eliminado").is(false)), Mensaje.class);
+    }
+}
@@ -1,130 +1,289 @@
 package com.voluntariado.plataforma.service;
 
-import lombok.RequiredArgsConstructor;
+import com.voluntariado.plataforma.lock.BloqueoDistribuido;
+import com.voluntariado.plataforma.model.EmailSaliente;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
+/**
+ * Los correos salen por el pool "email-" de hilos de plataforma (ver AsyncConfig), nunca por el hilo de la
+ * petición. Si la cola está llena o el servidor SMTP falla, el correo se guarda en "emails_salientes" y una
+ * tarea lo reintenta con espera creciente.
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class EmailService {
 
+    private static final String PREFIJO_ASUNTO = "[Voluntariado ONG] ";
+
     private final JavaMailSender mailSender;
+    private final PlantillasEmailService plantillas;
+    private final TaskExecutor emailExecutor;
+    private final MongoTemplate mongoTemplate;
+    private final MeterRegistry registry;
 
     @Value("${spring.mail.username}")
     private String fromEmail;
 
-    @Async
+    @Value("${email.reintento.maximo-intentos:8}")
+    private int maximoIntentos;
+
+    @Value("${email.reintento.lote:100}")
+    private int loteReintentos;
+
+    public EmailService(JavaMailSender mailSender, PlantillasEmailService plantillas,
+                        @Qualifier("emailExecutor") TaskExecutor emailExecutor, MongoTemplate mongoTemplate,
+                        MeterRegistry registry) {
+        this.mailSender = mailSender;
+        this.plantillas = plantillas;
+        this.emailExecutor = emailExecutor;
+        this.mongoTemplate = mongoTemplate;
+        this.registry = registry;
+    }
+
     public void enviarNotificacion(String destinatario, String asunto, String contenido) {
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(fromEmail);
-            message.setTo(destinatario);
-            message.setSubject("[Voluntariado ONG] " + asunto);
-            message.setText(contenido);
-
-            mailSender.send(message);
-            log.info("Email enviado a: {}", destinatario);
-        } catch (Exception e) {
-            log.error("Error al enviar email a {}: {}", destinatario, e.getMessage());
-        }
+        enviar(texto(destinatario, asunto, contenido));
     }
 
-    @Async
-    public void enviarEmailHtml(String destinatario, String asunto, String contenidoHtml) {
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+    // Lote de un mismo aviso: JavaMailSender envía todos los mensajes por una sola conexión SMTP
+    public void enviarNotificacionLote(List<String> destinatarios, String asunto, String contenido) {
+        List<EmailSaliente> correos = destinatarios.stream()
+                .map(destinatario -> texto(destinatario, asunto, contenido))
+                .toList();
+        encolar(() -> entregar(correos), correos);
+    }
 
-            helper.setFrom(fromEmail);
-            helper.setTo(destinatario);
-            helper.setSubject("[Voluntariado ONG] " + asunto);
-            helper.setText(contenidoHtml, true);
+    public void enviarEmailHtml(String destinatario, String asunto, String contenidoHtml) {
+        enviar(EmailSaliente.builder()
+                .destinatario(destinatario)
+                .asunto(asunto)
+                .contenido(contenidoHtml)
+                .html(true)
+                .build());
+    }
 
-            mailSender.send(message);
-            log.info("Email HTML enviado a: {}", destinatario);
-        } catch (MessagingException e) {
-            log.error("Error al enviar email HTML a {}: {}", destinatario, e.getMessage());
+    // Sin reintento propio: quien llama conserva el contenido y solo lo da por enviado si el futuro se completa bien
+    public CompletableFuture<Void> enviarEmailHtmlConfirmado(String destinatario, String asunto, String contenidoHtml) {
+        EmailSaliente correo = EmailSaliente.builder()
+                .destinatario(destinatario)
+                .asunto(asunto)
+                .contenido(contenidoHtml)
+                .html(true)
+                .build();
+        try {
+            return CompletableFuture.runAsync(() -> entregarConfirmado(correo), emailExecutor);
+        } catch (RejectedExecutionException e) {
+            registrarFallo("cola_llena");
+            return CompletableFuture.failedFuture(e);
         }
     }
 
     public void enviarEmailVerificacion(String destinatario, String nombre, String tokenVerificacion) {
-        String asunto = "Verifica tu cuenta";
-        String contenido = String.format("""
-                Hola %s,
-
-                Gracias por registrarte en nuestra plataforma de voluntariado.
+        String contenido = plantillas.texto(PlantillasEmailService.VERIFICACION,
+                Map.of("nombre", nombre, "token", tokenVerificacion));
+        enviarNotificacion(destinatario, "Verifica tu cuenta", contenido);
+    }
 
-                Por favor, verifica tu cuenta haciendo clic en el siguiente enlace:
-                http://localhost:8080/api/auth/verificar?token=%s
+    public void enviarEmailRecuperacionPassword(String destinatario, String nombre, String tokenRecuperacion) {
+        String contenido = plantillas.texto(PlantillasEmailService.RECUPERACION_PASSWORD,
+                Map.of("nombre", nombre, "token", tokenRecuperacion));
+        enviarNotificacion(destinatario, "Recuperación de contraseña", contenido);
+    }
 
-                Si no creaste esta cuenta, ignora este mensaje.
+    public void enviarCertificado(String destinatario, String nombre, String nombreActividad, byte[] pdfAdjunto) {
+        enviar(EmailSaliente.builder()
+                .destinatario(destinatario)
+                .asunto("Tu certificado de participación")
+                .contenido(plantillas.html(PlantillasEmailService.CERTIFICADO,
+                        Map.of("nombre", nombre, "actividad", nombreActividad)))
+                .html(true)
+                .nombreAdjunto("certificado.pdf")
+                .adjunto(pdfAdjunto)
+                .build());
+    }
 
-                Saludos,
-                Equipo de Voluntariado ONG
-                """, nombre, tokenVerificacion);
+    @Scheduled(fixedDelayString = "${email.reintento.intervalo-ms:60000}",
+            initialDelayString = "${email.reintento.intervalo-ms:60000}")
+    @BloqueoDistribuido(nombre = "reintento-emails", duracionMaxima = "PT10M")
+    public void reintentarPendientes() {
+        LocalDateTime ahora = LocalDateTime.now();
+        List<EmailSaliente> vencidos = mongoTemplate.find(new Query(Criteria.where("proximoIntento").lte(ahora))
+                .with(Sort.by("proximoIntento"))
+                .limit(loteReintentos), EmailSaliente.class);
+        if (vencidos.isEmpty()) {
+            return;
+        }
 
-        enviarNotificacion(destinatario, asunto, contenido);
+        // Se aplazan antes de encolarlos: mientras esperan en la cola, la siguiente pasada no los repite
+        List<String> ids = vencidos.stream().map(EmailSaliente::getId).toList();
+        mongoTemplate.updateMulti(new Query(Criteria.where("_id").in(ids)),
+                new Update().set("proximoIntento", ahora.plusMinutes(10)), EmailSaliente.class);
+        for (EmailSaliente correo : vencidos) {
+            try {
+                emailExecutor.execute(() -> entregar(List.of(correo)));
+            } catch (RejectedExecutionException e) {
+                // Siguen guardados: los demás esperan a la próxima pasada
+                registrarFallo("cola_llena");
+                return;
+            }
+        }
     }
 
-    public void enviarEmailRecuperacionPassword(String destinatario, String nombre, String tokenRecuperacion) {
-        String asunto = "Recuperación de contraseña";
-        String contenido = String.format("""
-                Hola %s,
+    private void enviar(EmailSaliente correo) {
+        encolar(() -> entregar(List.of(correo)), List.of(correo));
+    }
 
-                Hemos recibido una solicitud para restablecer tu contraseña.
+    // Con la cola llena se rechaza en lugar de enviar aquí: el hilo de la petición nunca habla con el servidor SMTP
+    private void encolar(Runnable envio, List<EmailSaliente> correos) {
+        try {
+            emailExecutor.execute(envio);
+        } catch (RejectedExecutionException e) {
+            registrarFallo("cola_llena");
+            log.warn("Cola de emails llena: {} correos pasan a reintento", correos.size());
+            guardarParaReintento(correos, "Cola de envío llena");
+        }
+    }
 
-                Utiliza el siguiente enlace para crear una nueva contraseña:
-                http://localhost:8080/recuperar-password?token=%s
+    private void entregar(List<EmailSaliente> correos) {
+        List<MimeMessage> mensajes = new ArrayList<>();
+        List<EmailSaliente> construidos = new ArrayList<>();
+        for (EmailSaliente correo : correos) {
+            try {
+                mensajes.add(mensaje(correo));
+                construidos.add(correo);
+            } catch (MessagingException e) {
+                log.error("Email a {} no válido, se descarta: {}", correo.getDestinatario(), e.getMessage());
+                eliminarReintento(correo);
+            }
+        }
+        if (mensajes.isEmpty()) {
+            return;
+        }
 
-                Este enlace expirará en 24 horas.
+        List<EmailSaliente> fallidos = new ArrayList<>();
+        String error = null;
+        Map<Object, Exception> fallidosPorMensaje = Map.of();
+        try {
+            mailSender.send(mensajes.toArray(MimeMessage[]::new));
+        } catch (MailSendException e) {
+            error = e.getMessage();
+            // Sin detalle por mensaje (fallo de conexión) se da por fallido todo el lote
+            fallidosPorMensaje = e.getFailedMessages().isEmpty() ? null : e.getFailedMessages();
+        } catch (MailException e) {
+            error = e.getMessage();
+            fallidosPorMensaje = null;
+        }
 
-                Si no solicitaste este cambio, ignora este mensaje.
+        for (int i = 0; i < mensajes.size(); i++) {
+            if (fallidosPorMensaje == null || fallidosPorMensaje.containsKey(mensajes.get(i))) {
+                fallidos.add(construidos.get(i));
+            } else {
+                eliminarReintento(construidos.get(i));
+            }
+        }
+        log.info("Emails enviados: {} de {} ({})", construidos.size() - fallidos.size(), construidos.size(),
+                construidos.get(0).getAsunto());
+        if (!fallidos.isEmpty()) {
+            registrarFallo("smtp");
+            log.warn("{} emails fallaron y pasan a reintento: {}", fallidos.size(), error);
+            guardarParaReintento(fallidos, error);
+        }
+    }
 
-                Saludos,
-                Equipo de Voluntariado ONG
-                """, nombre, tokenRecuperacion);
+    private void entregarConfirmado(EmailSaliente correo) {
+        try {
+            mailSender.send(mensaje(correo));
+        } catch (MessagingException e) {
+            throw new MailPreparationException("Email a " + correo.getDestinatario() + " no válido", e);
+        } catch (MailException e) {
+            registrarFallo("smtp");
+            throw e;
+        }
+    }
 
-        enviarNotificacion(destinatario, asunto, contenido);
+    private MimeMessage mensaje(EmailSaliente correo) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, correo.getAdjunto() != null, "UTF-8");
+        helper.setFrom(fromEmail);
+        helper.setTo(correo.getDestinatario());
+        helper.setSubject(PREFIJO_ASUNTO + correo.getAsunto());
+        helper.setText(correo.getContenido(), correo.isHtml());
+        if (correo.getAdjunto() != null) {
+            helper.addAttachment(correo.getNombreAdjunto(), new ByteArrayResource(correo.getAdjunto()));
+        }
+        return message;
     }
 
-    public void enviarCertificado(String destinatario, String nombre, String nombreActividad, byte[] pdfAdjunto) {
+    // Espera de 1, 2, 4... minutos hasta una hora; pasado el máximo de intentos el correo se descarta
+    private void guardarParaReintento(List<EmailSaliente> correos, String error) {
+        LocalDateTime ahora = LocalDateTime.now();
+        List<EmailSaliente> nuevos = new ArrayList<>();
+        List<EmailSaliente> existentes = new ArrayList<>();
+        for (EmailSaliente correo : correos) {
+            correo.setIntentos(correo.getIntentos() + 1);
+            correo.setUltimoError(error);
+            if (correo.getIntentos() > maximoIntentos) {
+                registry.counter("email.envio.descartados").increment();
+                log.error("Email a {} descartado tras {} intentos: {}", correo.getDestinatario(),
+                        maximoIntentos, error);
+                eliminarReintento(correo);
+                continue;
+            }
+            correo.setProximoIntento(ahora.plusMinutes(Math.min(60, 1L << Math.min(correo.getIntentos() - 1, 6))));
+            (correo.getId() == null ? nuevos : existentes).add(correo);
+        }
         try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-
-            helper.setFrom(fromEmail);
-            helper.setTo(destinatario);
-            helper.setSubject("[Voluntariado ONG] Tu certificado de participación");
-
-            String contenido = String.format("""
-                    <html>
-                    <body>
-                    <h2>¡Felicitaciones %s!</h2>
-                    <p>Adjuntamos tu certificado de participación en la actividad: <strong>%s</strong></p>
-                    <p>Gracias por tu compromiso con el voluntariado.</p>
-                    <br>
-                    <p>Saludos,<br>Equipo de Voluntariado ONG</p>
-                    </body>
-                    </html>
-                    """, nombre, nombreActividad);
-
-            helper.setText(contenido, true);
-            helper.addAttachment("certificado.pdf",
-                    new org.springframework.core.io.ByteArrayResource(pdfAdjunto));
-
-            mailSender.send(message);
-            log.info("Certificado enviado a: {}", destinatario);
-        } catch (MessagingException e) {
-            log.error("Error al enviar certificado a {}: {}", destinatario, e.getMessage());
+            if (!nuevos.isEmpty()) {
+                mongoTemplate.insert(nuevos, EmailSaliente.class);
+            }
+            existentes.forEach(mongoTemplate::save);
+        } catch (RuntimeException e) {
+            registry.counter("email.envio.descartados").increment(nuevos.size() + existentes.size());
+            log.error("No se pudieron guardar {} emails para reintento: {}", nuevos.size() + existentes.size(),
+                    e.getMessage(), e);
         }
     }
+
+    private void eliminarReintento(EmailSaliente correo) {
+        if (correo.getId() != null) {
+            mongoTemplate.remove(new Query(Criteria.where("_id").is(correo.getId())), EmailSaliente.class);
+        }
+    }
+
+    private void registrarFallo(String motivo) {
+        registry.counter("email.envio.fallos", "motivo", motivo).increment();
+    }
+
+    private static EmailSaliente texto(String destinatario, String asunto, String contenido) {
+        return EmailSaliente.builder()
+                .destinatario(destinatario)
+                .asunto(asunto)
+                .contenido(contenido)
+                .build();
+    }
 }
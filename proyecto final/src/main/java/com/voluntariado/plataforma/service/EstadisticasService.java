@@ -17,17 +17,16 @@ public class EstadisticasService {
     private final HistorialVoluntariadoRepository historialRepository;
 
     public EstadisticasDTO obtenerEstadisticasGlobales() {
-        long totalVoluntarios = usuarioRepository.findByRol(Rol.VOLUNTARIO).size();
-        long voluntariosActivos = usuarioRepository.findByRolAndActivoTrue(Rol.VOLUNTARIO).size();
+        long totalVoluntarios = usuarioRepository.countByRol(Rol.VOLUNTARIO);
+        long voluntariosActivos = usuarioRepository.countByRolAndActivoTrue(Rol.VOLUNTARIO);
         long totalActividades = actividadRepository.count();
-        long actividadesActivas = actividadRepository.findByEstado(EstadoActividad.ACTIVA).size();
-        long actividadesFinalizadas = actividadRepository.findByEstado(EstadoActividad.FINALIZADA).size();
+        long actividadesActivas = actividadRepository.countByEstado(EstadoActividad.ACTIVA);
+        long actividadesFinalizadas = actividadRepository.countByEstado(EstadoActividad.FINALIZADA);
         long totalInscripciones = inscripcionRepository.count();
 
-        // Calcular total de horas
-        long totalHoras = historialRepository.findAll().stream()
-                .mapToInt(h -> h.getHorasRealizadas())
-                .sum();
+        // Calcular total de horas (suma en el servidor, sin traer el historial)
+        Long horas = historialRepository.sumarHorasRealizadas();
+        long totalHoras = horas == null ? 0 : horas;
 
         return EstadisticasDTO.builder()
                 .totalVoluntarios(totalVoluntarios)
@@ -0,0 +1,370 @@
+package com.voluntariado.plataforma.service;
+
+import com.voluntariado.plataforma.almacen.AlmacenEvidencias;
+import com.voluntariado.plataforma.almacen.FormatoEvidencia;
+import com.voluntariado.plataforma.dto.EvidenciaDTO;
+import com.voluntariado.plataforma.evento.EvidenciaSubidaEvent;
+import com.voluntariado.plataforma.exception.AlmacenamientoException;
+import com.voluntariado.plataforma.exception.BadRequestException;
+import com.voluntariado.plataforma.exception.ResourceNotFoundException;
+import com.voluntariado.plataforma.lock.BloqueoDistribuido;
+import com.voluntariado.plataforma.model.Actividad;
+import com.voluntariado.plataforma.model.Evidencia;
+import com.voluntariado.plataforma.model.HistorialVoluntariado;
+import com.voluntariado.plataforma.model.Inscripcion;
+import com.voluntariado.plataforma.model.ReferenciaArchivo;
+import com.voluntariado.plataforma.model.enums.EstadoEvidencia;
+import com.voluntariado.plataforma.model.enums.EstadoInscripcion;
+import com.voluntariado.plataforma.model.enums.Rol;
+import com.voluntariado.plataforma.repository.ActividadRepository;
+import com.voluntariado.plataforma.repository.EvidenciaRepository;
+import com.voluntariado.plataforma.repository.InscripcionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Evidencias de participación. La subida solo copia el archivo al almacén y guarda el documento en
+ * PROCESANDO; la validación del contenido y la miniatura se hacen en segundo plano. Las que pasan quedan
+ * PENDIENTE en la cola que los coordinadores aprueban o rechazan por lotes. Un coordinador solo ve y revisa
+ * las evidencias de las actividades que coordina; el administrador, todas.
+ * <p>
+ * Varias evidencias pueden compartir archivo (el almacén local direcciona por contenido), así que
+ * "referencias_archivos" cuenta cuántas usan cada clave. El archivo se borra al llegar a cero, tras marcar la
+ * cuenta como en borrado; una subida del mismo contenido que llegue entonces espera y vuelve a escribirlo.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EvidenciaService {
+
+    private static final int INTENTOS_REFERENCIA = 5;
+
+    private final EvidenciaRepository evidenciaRepository;
+    private final InscripcionRepository inscripcionRepository;
+    private final ActividadRepository actividadRepository;
+    private final AlmacenEvidencias almacen;
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${evidencias.tamano-maximo-bytes:10485760}")
+    private long tamanoMaximo;
+
+    @Value("${evidencias.cola.limite-maximo:200}")
+    private int limiteCola;
+
+    @Value("${evidencias.reproceso.antiguedad-minutos:10}")
+    private long antiguedadReproceso;
+
+    /**
+     * Cómo entregar el archivo de una evidencia: desde el disco de esta instancia (archivo no nulo) o
+     * redirigiendo a la URL del almacén externo.
+     */
+    public record ArchivoEvidencia(Path archivo, String tipoContenido, String etag, String url) {
+    }
+
+    public EvidenciaDTO subir(String usuarioId, String actividadId, String descripcion, MultipartFile archivo) {
+        if (archivo == null || archivo.isEmpty()) {
+            throw new BadRequestException("El archivo está vacío");
+        }
+        if (archivo.getSize() > tamanoMaximo) {
+            throw new BadRequestException("El archivo supera el tamaño máximo de " + tamanoMaximo + " bytes");
+        }
+        Inscripcion inscripcion = inscripcionRepository.findByUsuarioIdAndActividadId(usuarioId, actividadId)
+                .filter(i -> i.getEstado() == EstadoInscripcion.APROBADA)
+                .orElseThrow(() -> new BadRequestException("Solo se aportan evidencias de actividades con inscripción aprobada"));
+
+        // El contenedor ya dejó la parte en un temporal en disco: se mira la firma antes de subir nada al
+        // almacén y después se copia por flujo. La validación en segundo plano vuelve a mirar lo guardado
+        String id = new ObjectId().toHexString();
+        AlmacenEvidencias.Guardado guardado;
+        try {
+            try (InputStream cabecera = archivo.getInputStream()) {
+                if (FormatoEvidencia.detectar(cabecera.readNBytes(FormatoEvidencia.LONGITUD_FIRMA)) == null) {
+                    throw new BadRequestException("Formato no admitido: solo JPG, PNG o PDF");
+                }
+            }
+            guardado = guardarReferenciado(archivo);
+        } catch (IOException e) {
+            throw new AlmacenamientoException("No se pudo almacenar la evidencia", e);
+        }
+
+        // Sin URL del almacén, el archivo lo sirve la propia API
+        Evidencia evidencia;
+        try {
+            evidencia = evidenciaRepository.save(Evidencia.builder()
+                    .id(id)
+                    .usuarioId(usuarioId)
+                    .actividadId(actividadId)
+                    .inscripcionId(inscripcion.getId())
+                    .clave(guardado.clave())
+                    .urlArchivo(guardado.url() != null ? guardado.url() : "/api/evidencias/" + id + "/archivo")
+                    .bytes(guardado.bytes())
+                    .nombreOriginal(archivo.getOriginalFilename())
+                    .descripcion(descripcion)
+                    .build());
+        } catch (RuntimeException e) {
+            liberar(guardado.clave());
+            throw e;
+        }
+
+        eventPublisher.publishEvent(new EvidenciaSubidaEvent(evidencia.getId()));
+        return convertirADTO(evidencia);
+    }
+
+    public EvidenciaDTO obtener(String id, String usuarioId, Rol rol) {
+        return convertirADTO(buscarVisible(id, usuarioId, rol));
+    }
+
+    public ArchivoEvidencia obtenerArchivo(String id, String usuarioId, Rol rol) {
+        Evidencia evidencia = buscarVisible(id, usuarioId, rol);
+        if (evidencia.getEstado() == EstadoEvidencia.PROCESANDO || evidencia.getClave() == null) {
+            throw new BadRequestException("La evidencia aún se está procesando");
+        }
+        FormatoEvidencia formato = evidencia.getTipoArchivo() == null ? null
+                : FormatoEvidencia.deNombre(evidencia.getTipoArchivo());
+        String tipoContenido = formato != null ? formato.getTipoContenido() : "application/octet-stream";
+        Path archivo = almacen.archivoLocal(evidencia.getClave()).orElse(null);
+        if (archivo == null && (evidencia.getUrlArchivo() == null || !evidencia.getUrlArchivo().startsWith("http"))) {
+            // Local sin el archivo (rechazada y borrada, o apartada por corrupta) o almacén sin URL pública
+            throw new ResourceNotFoundException("Archivo de evidencia", "id", id);
+        }
+        return new ArchivoEvidencia(archivo, tipoContenido, evidencia.getClave(), evidencia.getUrlArchivo());
+    }
+
+    public List<EvidenciaDTO> listarPorUsuario(String usuarioId) {
+        return evidenciaRepository.findByUsuarioIdOrderByFechaSubidaDesc(usuarioId).stream()
+                .map(this::convertirADTO)
+                .collect(Collectors.toList());
+    }
+
+    // Cola de revisión por páginas de tamaño acotado, nunca la colección entera de no aprobadas
+    public List<EvidenciaDTO> listarPendientes(String actividadId, int limite, String usuarioId, Rol rol) {
+        PageRequest pagina = PageRequest.of(0, Math.max(1, Math.min(limite, limiteCola)));
+        List<Evidencia> pendientes;
+        if (actividadId != null) {
+            if (rol != Rol.ADMINISTRADOR && !coordina(usuarioId, actividadId)) {
+                throw new AccessDeniedException("No coordinas esta actividad");
+            }
+            pendientes = evidenciaRepository.findByEstadoAndActividadIdOrderByFechaSubidaAsc(
+                    EstadoEvidencia.PENDIENTE, actividadId, pagina);
+        } else if (rol == Rol.ADMINISTRADOR) {
+            pendientes = evidenciaRepository.findByEstadoOrderByFechaSubidaAsc(EstadoEvidencia.PENDIENTE, pagina);
+        } else {
+            pendientes = evidenciaRepository.findByEstadoAndActividadIdInOrderByFechaSubidaAsc(
+                    EstadoEvidencia.PENDIENTE, actividadesCoordinadas(usuarioId), pagina);
+        }
+        return pendientes.stream()
+                .map(this::convertirADTO)
+                .collect(Collectors.toList());
+    }
+
+    // Un updateMulti para todas; solo cambian las que siguen PENDIENTE, así que repetir la petición no hace nada
+    // Las de actividades ajenas se ignoran igual que las ya revisadas
+    public long revisar(List<String> ids, boolean aprobar, String motivo, String coordinadorId, Rol rol) {
+        Criteria criterio = Criteria.where("_id").in(ids).and("estado").is(EstadoEvidencia.PENDIENTE);
+        if (rol != Rol.ADMINISTRADOR) {
+            criterio.and("actividadId").in(actividadesCoordinadas(coordinadorId));
+        }
+        Query pendientes = new Query(criterio);
+        List<Evidencia> revisadas = aprobar ? mongoTemplate.find(pendientes, Evidencia.class) : List.of();
+
+        long modificadas = mongoTemplate.updateMulti(pendientes, new Update()
+                        .set("estado", aprobar ? EstadoEvidencia.APROBADA : EstadoEvidencia.RECHAZADA)
+                        .set("aprobada", aprobar)
+                        .set("motivoRechazo", aprobar ? null : motivo)
+                        .set("revisadaPor", coordinadorId)
+                        .set("fechaRevision", LocalDateTime.now()),
+                Evidencia.class).getModifiedCount();
+
+        // La evidencia aprobada pasa al historial de la participación correspondiente, en un solo bulk
+        if (!revisadas.isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, HistorialVoluntariado.class);
+            revisadas.forEach(evidencia -> bulk.updateOne(
+                    new Query(Criteria.where("usuarioId").is(evidencia.getUsuarioId())
+                            .and("actividadId").is(evidencia.getActividadId())),
+                    new Update().set("evidenciaUrl", evidencia.getUrlArchivo())));
+            bulk.execute();
+        }
+        return modificadas;
+    }
+
+    @Async
+    @EventListener
+    public void procesar(EvidenciaSubidaEvent evento) {
+        evidenciaRepository.findById(evento.evidenciaId())
+                .filter(evidencia -> evidencia.getEstado() == EstadoEvidencia.PROCESANDO)
+                .ifPresent(this::validar);
+    }
+
+    // Las que se quedaron en PROCESANDO (caída de la instancia o error del almacén) se vuelven a encolar
+    @Scheduled(fixedDelayString = "${evidencias.reproceso.intervalo-ms:600000}",
+            initialDelayString = "${evidencias.reproceso.intervalo-ms:600000}")
+    @BloqueoDistribuido(nombre = "reproceso-evidencias", duracionMaxima = "PT10M")
+    public void reprocesarAtascadas() {
+        LocalDateTime limite = LocalDateTime.now().minusMinutes(antiguedadReproceso);
+        evidenciaRepository.findByEstadoAndFechaSubidaBefore(EstadoEvidencia.PROCESANDO, limite,
+                        PageRequest.of(0, limiteCola))
+                .forEach(evidencia -> eventPublisher.publishEvent(new EvidenciaSubidaEvent(evidencia.getId())));
+
+        // Borrados interrumpidos: la marca sigue puesta y bloquea nuevas subidas de ese contenido
+        mongoTemplate.find(new Query(Criteria.where("borrandoDesde").lt(limite)).limit(limiteCola),
+                        ReferenciaArchivo.class)
+                .forEach(referencia -> borrar(referencia.getClave()));
+    }
+
+    private void validar(Evidencia evidencia) {
+        try {
+            AlmacenEvidencias.Inspeccion inspeccion = almacen.inspeccionar(evidencia.getClave());
+            String motivo = inspeccion.formato() == null ? "Formato no admitido: solo JPG, PNG o PDF"
+                    : inspeccion.bytes() > tamanoMaximo ? "El archivo supera el tamaño máximo"
+                    : null;
+            if (motivo != null) {
+                // Solo quien la pasa a RECHAZADA descuenta la referencia, aunque se procese dos veces
+                if (actualizarProceso(evidencia.getId(), new Update()
+                        .set("estado", EstadoEvidencia.RECHAZADA)
+                        .set("motivoRechazo", motivo))) {
+                    liberar(evidencia.getClave());
+                }
+                return;
+            }
+
+            FormatoEvidencia formato = inspeccion.formato();
+            actualizarProceso(evidencia.getId(), new Update()
+                    .set("estado", EstadoEvidencia.PENDIENTE)
+                    .set("tipoArchivo", formato.name())
+                    .set("bytes", inspeccion.bytes())
+                    .set("urlMiniatura", almacen.miniatura(evidencia.getClave(), formato)));
+        } catch (IOException | RuntimeException e) {
+            // Sigue en PROCESANDO: la tarea de reproceso lo reintentará
+            log.warn("No se pudo procesar la evidencia {}: {}", evidencia.getId(), e.getMessage());
+        }
+    }
+
+    // La ve su autor, el coordinador de la actividad o un administrador
+    private Evidencia buscarVisible(String id, String usuarioId, Rol rol) {
+        Evidencia evidencia = evidenciaRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Evidencia", "id", id));
+        boolean visible = evidencia.getUsuarioId().equals(usuarioId)
+                || rol == Rol.ADMINISTRADOR
+                || rol == Rol.COORDINADOR && coordina(usuarioId, evidencia.getActividadId());
+        if (!visible) {
+            throw new AccessDeniedException("No tienes permiso para ver esta evidencia");
+        }
+        return evidencia;
+    }
+
+    private boolean coordina(String usuarioId, String actividadId) {
+        return mongoTemplate.exists(new Query(Criteria.where("_id").is(actividadId)
+                .and("coordinadorId").is(usuarioId)), Actividad.class);
+    }
+
+    private List<String> actividadesCoordinadas(String coordinadorId) {
+        return actividadRepository.findResumenByCoordinadorId(coordinadorId).stream()
+                .map(Actividad::getId)
+                .toList();
+    }
+
+    private boolean actualizarProceso(String evidenciaId, Update update) {
+        return mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(evidenciaId).and("estado").is(EstadoEvidencia.PROCESANDO)),
+                update, Evidencia.class).getModifiedCount() == 1;
+    }
+
+    // Se cuenta después de escribir: si el contenido está marcado en borrado, el upsert choca con el _id
+    // existente y, cuando el borrado acaba, se vuelve a escribir el archivo que pudo llevarse por delante
+    private AlmacenEvidencias.Guardado guardarReferenciado(MultipartFile archivo) throws IOException {
+        for (int intento = 1; ; intento++) {
+            AlmacenEvidencias.Guardado guardado;
+            try (InputStream contenido = archivo.getInputStream()) {
+                guardado = almacen.guardar(contenido, archivo.getSize(), archivo.getOriginalFilename());
+            }
+            try {
+                Query disponible = new Query(Criteria.where("_id").is(guardado.clave()).and("borrandoDesde").is(null));
+                mongoTemplate.upsert(disponible, new Update().inc("referencias", 1), ReferenciaArchivo.class);
+                return guardado;
+            } catch (DuplicateKeyException e) {
+                if (intento == INTENTOS_REFERENCIA) {
+                    throw new IOException("El archivo " + guardado.clave() + " sigue en borrado", e);
+                }
+            }
+            try {
+                Thread.sleep(100L * intento);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Subida interrumpida");
+            }
+        }
+    }
+
+    // Sin cuenta el archivo se conserva: mejor un huérfano que borrar uno compartido
+    private void liberar(String clave) {
+        ReferenciaArchivo referencia = mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(clave)),
+                new Update().inc("referencias", -1), FindAndModifyOptions.options().returnNew(true),
+                ReferenciaArchivo.class);
+        if (referencia == null || referencia.getReferencias() > 0) {
+            return;
+        }
+        boolean marcada = mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(clave)
+                        .and("referencias").lte(0).and("borrandoDesde").is(null)),
+                new Update().set("borrandoDesde", LocalDateTime.now()), ReferenciaArchivo.class)
+                .getModifiedCount() == 1;
+        if (marcada) {
+            borrar(clave);
+        }
+    }
+
+    // La marca se quita después de borrar el archivo; si algo falla, reprocesarAtascadas lo reintenta
+    private void borrar(String clave) {
+        try {
+            almacen.eliminar(clave);
+            mongoTemplate.remove(new Query(Criteria.where("_id").is(clave).and("borrandoDesde").ne(null)),
+                    ReferenciaArchivo.class);
+        } catch (IOException | RuntimeException e) {
+            log.warn("No se pudo borrar el archivo de evidencia {}: {}", clave, e.getMessage());
+        }
+    }
+
+    private EvidenciaDTO convertirADTO(Evidencia evidencia) {
+        return EvidenciaDTO.builder()
+                .id(evidencia.getId())
+                .usuarioId(evidencia.getUsuarioId())
+                .actividadId(evidencia.getActividadId())
+                .inscripcionId(evidencia.getInscripcionId())
+                .urlArchivo(evidencia.getUrlArchivo())
+                .urlMiniatura(evidencia.getUrlMiniatura())
+                .tipoArchivo(evidencia.getTipoArchivo())
+                .nombreOriginal(evidencia.getNombreOriginal())
+                .bytes(evidencia.getBytes())
+                .descripcion(evidencia.getDescripcion())
+                .estado(evidencia.getEstado())
+                .motivoRechazo(evidencia.getMotivoRechazo())
+                .fechaSubida(evidencia.getFechaSubida())
+                .fechaRevision(evidencia.getFechaRevision())
+                .build();
+    }
+}
@@ -68,9 +68,11 @@ public class HistorialService {
     }
 
     private HistorialDTO convertirADTO(HistorialVoluntariado historial) {
-        String usuarioNombre = usuarioRepository.findById(historial.getUsuarioId())
-                .map(Usuario::getNombre)
-                .orElse(null);
+        String usuarioNombre = historial.getUsuarioNombre() != null
+                ? historial.getUsuarioNombre()
+                : usuarioRepository.findById(historial.getUsuarioId())
+                        .map(Usuario::getNombre)
+                        .orElse(null);
 
         return HistorialDTO.builder()
                 .id(historial.getId())
@@ -1,5 +1,6 @@
 package com.voluntariado.plataforma.service;
 
+import com.voluntariado.plataforma.dto.ConflictoHorarioDTO;
 import com.voluntariado.plataforma.dto.EvaluacionDTO;
 import com.voluntariado.plataforma.dto.InscripcionDTO;
 import com.voluntariado.plataforma.exception.BadRequestException;
@@ -26,6 +27,7 @@ public class InscripcionService {
     private final NotificacionService notificacionService;
     private final ActividadService actividadService;
     private final AuditoriaService auditoriaService;
+    private final AgendaVoluntarioService agendaService;
 
     public InscripcionDTO inscribirse(String usuarioId, String actividadId) {
         // Verificar que no esté ya inscrito
@@ -46,13 +48,21 @@ public class InscripcionService {
             throw new BadRequestException("La actividad no está disponible para inscripciones");
         }
 
+        // Falla si se solapa con otra inscripción pendiente o aprobada; si no, deja el horario reservado
+        agendaService.reservar(usuarioId, actividad);
+
         Inscripcion inscripcion = Inscripcion.builder()
                 .usuarioId(usuarioId)
                 .actividadId(actividadId)
                 .estado(EstadoInscripcion.PENDIENTE)
                 .build();
 
-        inscripcion = inscripcionRepository.save(inscripcion);
+        try {
+            inscripcion = inscripcionRepository.save(inscripcion);
+        } catch (RuntimeException e) {
+            agendaService.liberar(usuarioId, actividadId);
+            throw e;
+        }
 
         // Notificar al usuario
         Usuario usuario = usuarioRepository.findById(usuarioId).orElse(null);
@@ -79,6 +89,7 @@ public class InscripcionService {
 
         inscripcion.setEstado(EstadoInscripcion.CANCELADA);
         inscripcionRepository.save(inscripcion);
+        agendaService.liberar(usuarioId, actividadId);
 
         // Actualizar cupos disponibles
         actividadService.actualizarCuposDisponibles(actividadId);
@@ -124,6 +135,7 @@ public class InscripcionService {
 
         inscripcion.setEstado(EstadoInscripcion.RECHAZADA);
         inscripcionRepository.save(inscripcion);
+        agendaService.liberar(inscripcion.getUsuarioId(), inscripcion.getActividadId());
 
         auditoriaService.registrarAccion(coordinadorId, null,
                 "RECHAZO_INSCRIPCION", "Inscripcion", inscripcionId, "Inscripción rechazada");
@@ -144,6 +156,8 @@ public class InscripcionService {
 
             HistorialVoluntariado historial = HistorialVoluntariado.builder()
                     .usuarioId(inscripcion.getUsuarioId())
+                    .usuarioNombre(usuarioRepository.findById(inscripcion.getUsuarioId())
+                            .map(Usuario::getNombre).orElse(null))
                     .actividadId(actividad.getId())
                     .tituloActividad(actividad.getTitulo())
                     .horasRealizadas(actividad.getHorasVoluntariado())
@@ -192,6 +206,10 @@ public class InscripcionService {
                 .collect(Collectors.toList());
     }
 
+    public List<ConflictoHorarioDTO> listarConflictos(String usuarioId) {
+        return agendaService.conflictos(usuarioId);
+    }
+
     public List<InscripcionDTO> listarPorActividad(String actividadId) {
         return inscripcionRepository.findByActividadId(actividadId).stream()
                 .map(this::convertirADTO)
@@ -0,0 +1,35 @@
+package com.voluntariado.plataforma.service;
+
+import com.voluntariado.plataforma.config.CacheConfig;
+import com.voluntariado.plataforma.evento.ActividadModificadaEvent;
+import com.voluntariado.plataforma.evento.CambiosPerdidosEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+// Los listados no se invalidan aquí: su clave incluye la versión del catálogo (ver CacheConfig)
+@Component
+@RequiredArgsConstructor
+public class InvalidacionCacheActividades {
+
+    private final CacheManager cacheManager;
+
+    @EventListener
+    public void alModificarActividad(ActividadModificadaEvent evento) {
+        Cache actividades = cacheManager.getCache(CacheConfig.ACTIVIDADES);
+        if (actividades != null) {
+            // Caffeine espera a que termine una carga en curso de la misma clave antes de eliminarla
+            actividades.evict(evento.actividadId());
+        }
+    }
+
+    @EventListener
+    public void alPerderCambios(CambiosPerdidosEvent evento) {
+        Cache actividades = cacheManager.getCache(CacheConfig.ACTIVIDADES);
+        if (actividades != null) {
+            actividades.clear();
+        }
+    }
+}
@@ -1,68 +1,179 @@
 package com.voluntariado.plataforma.service;
 
 import com.voluntariado.plataforma.dto.MensajeDTO;
+import com.voluntariado.plataforma.dto.MensajeResumenDTO;
+import com.voluntariado.plataforma.dto.PaginaCursor;
+import com.voluntariado.plataforma.dto.ResumenConversacionDTO;
+import com.voluntariado.plataforma.exception.BadRequestException;
 import com.voluntariado.plataforma.exception.ResourceNotFoundException;
 import com.voluntariado.plataforma.model.Mensaje;
+import com.voluntariado.plataforma.model.ResumenConversacion;
 import com.voluntariado.plataforma.model.Usuario;
 import com.voluntariado.plataforma.repository.MensajeRepository;
+import com.voluntariado.plataforma.repository.ResumenConversacionRepository;
 import com.voluntariado.plataforma.repository.UsuarioRepository;
+import com.voluntariado.plataforma.util.CursorPaginacion;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class MensajeService {
 
+    private static final int LONGITUD_EXTRACTO = 120;
+
     private final MensajeRepository mensajeRepository;
     private final UsuarioRepository usuarioRepository;
+    private final ResumenConversacionRepository resumenConversacionRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ContadoresUsuarioService contadoresUsuarioService;
+
+    @Value("${mensajes.bandeja.tamano-maximo:200}")
+    private int tamanoMaximoBandeja;
+
+    @Value("${mensajes.conversacion.tamano-pagina:30}")
+    private int tamanoPaginaConversacion;
+
+    @Value("${mensajes.conversacion.tamano-maximo:100}")
+    private int tamanoMaximoConversacion;
 
     public MensajeDTO enviarMensaje(MensajeDTO dto, String remitenteId) {
+        Map<String, String> nombres = usuarioRepository.findAllById(List.of(remitenteId, dto.getDestinatarioId()))
+                .stream()
+                .collect(Collectors.toMap(Usuario::getId, Usuario::getNombre, (a, b) -> a));
+
         Mensaje mensaje = Mensaje.builder()
+                .conversacionId(Mensaje.idConversacion(remitenteId, dto.getDestinatarioId()))
                 .remitenteId(remitenteId)
+                .remitenteNombre(nombres.get(remitenteId))
                 .destinatarioId(dto.getDestinatarioId())
+                .destinatarioNombre(nombres.get(dto.getDestinatarioId()))
                 .asunto(dto.getAsunto())
                 .contenido(dto.getContenido())
                 .build();
 
         mensaje = mensajeRepository.save(mensaje);
+
+        // Una fila por participante: el remitente no suma no leídos, el destinatario sí
+        actualizarResumen(mensaje, remitenteId, dto.getDestinatarioId(), nombres.get(dto.getDestinatarioId()), 0);
+        actualizarResumen(mensaje, dto.getDestinatarioId(), remitenteId, nombres.get(remitenteId), 1);
+        contadoresUsuarioService.sumarMensajes(dto.getDestinatarioId(), 1);
+
         return convertirADTO(mensaje);
     }
 
-    public List<MensajeDTO> obtenerBandejaSntrada(String usuarioId) {
-        return mensajeRepository.findByDestinatarioIdOrderByFechaEnvioDesc(usuarioId).stream()
+    // Bandeja por conversaciones: una consulta sobre el índice (usuarioId, fechaUltimoMensaje) y filas pequeñas
+    public List<ResumenConversacionDTO> obtenerConversaciones(String usuarioId) {
+        return resumenConversacionRepository
+                .findByUsuarioIdOrderByFechaUltimoMensajeDesc(usuarioId, PageRequest.of(0, tamanoMaximoBandeja))
+                .stream()
                 .map(this::convertirADTO)
                 .collect(Collectors.toList());
     }
 
-    public List<MensajeDTO> obtenerEnviados(String usuarioId) {
+    // Mensajes de una conversación, del más reciente al más antiguo; el cursor apunta al último entregado
+    public PaginaCursor<MensajeDTO> obtenerMensajesConversacion(String conversacionId, String usuarioId,
+                                                                String cursor, Integer limite) {
+        validarParticipante(conversacionId, usuarioId);
+        int tamano = limite == null ? tamanoPaginaConversacion : Math.max(1, Math.min(limite, tamanoMaximoConversacion));
+
+        Criteria criteria = Criteria.where("conversacionId").is(conversacionId).and("eliminado").is(false);
+        if (cursor != null && !cursor.isBlank()) {
+            CursorPaginacion.Posicion posicion = CursorPaginacion.decodificar(cursor);
+            criteria = criteria.orOperator(
+                    Criteria.where("fechaEnvio").lt(posicion.fecha()),
+                    Criteria.where("fechaEnvio").is(posicion.fecha()).and("_id").lt(posicion.id()));
+        }
+
+        // Se pide uno de más para saber si hay otra página sin contar
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "fechaEnvio", "_id"))
+                .limit(tamano + 1);
+        List<Mensaje> mensajes = mongoTemplate.find(query, Mensaje.class);
+
+        String siguiente = null;
+        if (mensajes.size() > tamano) {
+            mensajes = mensajes.subList(0, tamano);
+            Mensaje ultimo = mensajes.get(tamano - 1);
+            siguiente = CursorPaginacion.codificar(ultimo.getFechaEnvio(), ultimo.getId());
+        }
+
+        return PaginaCursor.<MensajeDTO>builder()
+                .elementos(mensajes.stream().map(this::convertirADTO).collect(Collectors.toList()))
+                .siguienteCursor(siguiente)
+                .build();
+    }
+
+    public void marcarConversacionLeida(String conversacionId, String usuarioId) {
+        validarParticipante(conversacionId, usuarioId);
+        long marcados = mongoTemplate.updateMulti(
+                new Query(Criteria.where("conversacionId").is(conversacionId)
+                        .and("destinatarioId").is(usuarioId).and("leido").is(false).and("eliminado").is(false)),
+                new Update().set("leido", true).set("fechaLectura", LocalDateTime.now()),
+                Mensaje.class).getModifiedCount();
+        contadoresUsuarioService.sumarMensajes(usuarioId, -marcados);
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(ResumenConversacion.idPara(usuarioId, conversacionId))),
+                new Update().set("noLeidos", 0),
+                ResumenConversacion.class);
+    }
+
+    public List<MensajeResumenDTO> obtenerBandejaSntrada(String usuarioId) {
+        return mensajeRepository.findByDestinatarioIdAndEliminadoFalseOrderByFechaEnvioDesc(usuarioId).stream()
+                .map(this::convertirAResumen)
+                .collect(Collectors.toList());
+    }
+
+    public List<MensajeResumenDTO> obtenerEnviados(String usuarioId) {
         return mensajeRepository.findByRemitenteIdAndEliminadoFalse(usuarioId).stream()
-                .map(this::convertirADTO)
+                .map(this::convertirAResumen)
                 .collect(Collectors.toList());
     }
 
-    public List<MensajeDTO> obtenerNoLeidos(String usuarioId) {
+    public List<MensajeResumenDTO> obtenerNoLeidos(String usuarioId) {
         return mensajeRepository.findByDestinatarioIdAndLeidoFalseAndEliminadoFalse(usuarioId).stream()
-                .map(this::convertirADTO)
+                .map(this::convertirAResumen)
                 .collect(Collectors.toList());
     }
 
+    // Se sirve del contador mantenido al escribir (y casi siempre desde la cache), no de un count
     public long contarNoLeidos(String usuarioId) {
-        return mensajeRepository.countByDestinatarioIdAndLeidoFalseAndEliminadoFalse(usuarioId);
+        return contadoresUsuarioService.mensajesNoLeidos(usuarioId);
     }
 
     public MensajeDTO obtenerPorId(String id, String usuarioId) {
         Mensaje mensaje = mensajeRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Mensaje", "id", id));
 
-        // Marcar como leído si el usuario es el destinatario
+        // Marcar como leído si el usuario es el destinatario; la condición leido=false evita restar dos veces
         if (mensaje.getDestinatarioId().equals(usuarioId) && !mensaje.isLeido()) {
+            LocalDateTime ahora = LocalDateTime.now();
+            long marcados = mongoTemplate.updateFirst(
+                    new Query(Criteria.where("_id").is(id).and("leido").is(false)),
+                    new Update().set("leido", true).set("fechaLectura", ahora),
+                    Mensaje.class).getModifiedCount();
             mensaje.setLeido(true);
-            mensaje.setFechaLectura(LocalDateTime.now());
-            mensajeRepository.save(mensaje);
+            mensaje.setFechaLectura(ahora);
+            if (marcados > 0) {
+                contadoresUsuarioService.sumarMensajes(usuarioId, -1);
+                if (mensaje.getConversacionId() != null) {
+                    descontarNoLeido(usuarioId, mensaje.getConversacionId());
+                }
+            }
         }
 
         return convertirADTO(mensaje);
@@ -80,31 +191,180 @@ public class MensajeService {
         Mensaje mensaje = mensajeRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Mensaje", "id", id));
 
-        mensaje.setEliminado(true);
-        mensajeRepository.save(mensaje);
+        // Borrar un mensaje sin leer descuenta del contador del destinatario; la condición evita hacerlo dos veces
+        long eliminadoSinLeer = mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(id).and("eliminado").is(false).and("leido").is(false)),
+                new Update().set("eliminado", true), Mensaje.class).getModifiedCount();
+        if (eliminadoSinLeer > 0) {
+            contadoresUsuarioService.sumarMensajes(mensaje.getDestinatarioId(), -1);
+        } else {
+            mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(id)),
+                    new Update().set("eliminado", true), Mensaje.class);
+        }
+
+        // El mensaje puede ser el último o uno sin leer de la conversación: se recalculan ambas filas
+        if (mensaje.getConversacionId() != null) {
+            recalcularResumen(mensaje.getConversacionId(), mensaje.getRemitenteId(), mensaje.getDestinatarioId());
+            recalcularResumen(mensaje.getConversacionId(), mensaje.getDestinatarioId(), mensaje.getRemitenteId());
+        }
     }
 
-    public List<MensajeDTO> obtenerArchivados(String usuarioId) {
+    public List<MensajeResumenDTO> obtenerArchivados(String usuarioId) {
         return mensajeRepository.findByDestinatarioIdAndArchivadoTrueAndEliminadoFalse(usuarioId).stream()
-                .map(this::convertirADTO)
+                .map(this::convertirAResumen)
                 .collect(Collectors.toList());
     }
 
-    private MensajeDTO convertirADTO(Mensaje mensaje) {
-        String remitenteNombre = usuarioRepository.findById(mensaje.getRemitenteId())
-                .map(Usuario::getNombre)
-                .orElse(null);
+    // Asigna conversacionId a los mensajes antiguos y reconstruye la bandeja de sus participantes
+    public long reconstruirConversaciones() {
+        Query sinConversacion = new Query(Criteria.where("conversacionId").exists(false));
+        sinConversacion.fields().include("remitenteId", "destinatarioId");
+        List<Mensaje> pendientes = mongoTemplate.find(sinConversacion, Mensaje.class);
+
+        Map<String, List<Mensaje>> porConversacion = pendientes.stream()
+                .collect(Collectors.groupingBy(m -> Mensaje.idConversacion(m.getRemitenteId(), m.getDestinatarioId())));
+
+        porConversacion.forEach((conversacionId, mensajes) -> {
+            List<String> ids = mensajes.stream().map(Mensaje::getId).toList();
+            mongoTemplate.updateMulti(new Query(Criteria.where("_id").in(ids)),
+                    new Update().set("conversacionId", conversacionId), Mensaje.class);
+
+            Mensaje muestra = mensajes.get(0);
+            recalcularResumen(conversacionId, muestra.getRemitenteId(), muestra.getDestinatarioId());
+            recalcularResumen(conversacionId, muestra.getDestinatarioId(), muestra.getRemitenteId());
+        });
+        return pendientes.size();
+    }
+
+    private void actualizarResumen(Mensaje mensaje, String usuarioId, String otroUsuarioId,
+                                   String otroUsuarioNombre, int incrementoNoLeidos) {
+        Update update = new Update()
+                .setOnInsert("usuarioId", usuarioId)
+                .setOnInsert("conversacionId", mensaje.getConversacionId())
+                .setOnInsert("otroUsuarioId", otroUsuarioId)
+                .set("otroUsuarioNombre", otroUsuarioNombre)
+                .set("ultimoMensajeId", mensaje.getId())
+                .set("ultimoRemitenteId", mensaje.getRemitenteId())
+                .set("ultimoAsunto", mensaje.getAsunto())
+                .set("ultimoExtracto", extracto(mensaje.getContenido()))
+                .set("fechaUltimoMensaje", mensaje.getFechaEnvio())
+                .inc("noLeidos", incrementoNoLeidos);
 
-        String destinatarioNombre = usuarioRepository.findById(mensaje.getDestinatarioId())
-                .map(Usuario::getNombre)
-                .orElse(null);
+        mongoTemplate.upsert(
+                new Query(Criteria.where("_id").is(ResumenConversacion.idPara(usuarioId, mensaje.getConversacionId()))),
+                update, ResumenConversacion.class);
+    }
+
+    private void descontarNoLeido(String usuarioId, String conversacionId) {
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(ResumenConversacion.idPara(usuarioId, conversacionId))
+                        .and("noLeidos").gt(0)),
+                new Update().inc("noLeidos", -1),
+                ResumenConversacion.class);
+    }
+
+    // Reconstruye la fila de un participante desde los mensajes; se usa al eliminar y en la migración
+    private void recalcularResumen(String conversacionId, String usuarioId, String otroUsuarioId) {
+        String resumenId = ResumenConversacion.idPara(usuarioId, conversacionId);
+        Query visibles = new Query(Criteria.where("conversacionId").is(conversacionId).and("eliminado").is(false));
+        Mensaje ultimo = mongoTemplate.findOne(Query.of(visibles)
+                .with(Sort.by(Sort.Direction.DESC, "fechaEnvio", "_id")), Mensaje.class);
+
+        if (ultimo == null) {
+            resumenConversacionRepository.deleteById(resumenId);
+            return;
+        }
+
+        long noLeidos = mongoTemplate.count(Query.of(visibles)
+                .addCriteria(Criteria.where("destinatarioId").is(usuarioId).and("leido").is(false)), Mensaje.class);
+        String otroUsuarioNombre = usuarioId.equals(ultimo.getRemitenteId())
+                ? ultimo.getDestinatarioNombre()
+                : ultimo.getRemitenteNombre();
+
+        mongoTemplate.findAndReplace(new Query(Criteria.where("_id").is(resumenId)),
+                ResumenConversacion.builder()
+                        .id(resumenId)
+                        .usuarioId(usuarioId)
+                        .conversacionId(conversacionId)
+                        .otroUsuarioId(otroUsuarioId)
+                        .otroUsuarioNombre(otroUsuarioNombre)
+                        .ultimoMensajeId(ultimo.getId())
+                        .ultimoRemitenteId(ultimo.getRemitenteId())
+                        .ultimoAsunto(ultimo.getAsunto())
+                        .ultimoExtracto(extracto(ultimo.getContenido()))
+                        .fechaUltimoMensaje(ultimo.getFechaEnvio())
+                        .noLeidos((int) noLeidos)
+                        .build(),
+                FindAndReplaceOptions.options().upsert());
+    }
+
+    private static void validarParticipante(String conversacionId, String usuarioId) {
+        String[] participantes = conversacionId.split("_", 2);
+        if (participantes.length != 2) {
+            throw new BadRequestException("Conversación no válida");
+        }
+        if (!participantes[0].equals(usuarioId) && !participantes[1].equals(usuarioId)) {
+            throw new AccessDeniedException("No participas en esta conversación");
+        }
+    }
+
+    private static String extracto(String contenido) {
+        if (contenido == null || contenido.length() <= LONGITUD_EXTRACTO) {
+            return contenido;
+        }
+        return contenido.substring(0, LONGITUD_EXTRACTO) + "…";
+    }
+
+    private ResumenConversacionDTO convertirADTO(ResumenConversacion resumen) {
+        return ResumenConversacionDTO.builder()
+                .conversacionId(resumen.getConversacionId())
+                .otroUsuarioId(resumen.getOtroUsuarioId())
+                .otroUsuarioNombre(resumen.getOtroUsuarioNombre())
+                .ultimoMensajeId(resumen.getUltimoMensajeId())
+                .ultimoRemitenteId(resumen.getUltimoRemitenteId())
+                .ultimoAsunto(resumen.getUltimoAsunto())
+                .ultimoExtracto(resumen.getUltimoExtracto())
+                .fechaUltimoMensaje(resumen.getFechaUltimoMensaje())
+                .noLeidos(resumen.getNoLeidos())
+                .build();
+    }
 
+    private MensajeResumenDTO convertirAResumen(Mensaje mensaje) {
+        return MensajeResumenDTO.builder()
+                .id(mensaje.getId())
+                .conversacionId(mensaje.getConversacionId())
+                .remitenteId(mensaje.getRemitenteId())
+                .remitenteNombre(nombreRemitente(mensaje))
+                .destinatarioId(mensaje.getDestinatarioId())
+                .destinatarioNombre(nombreDestinatario(mensaje))
+                .asunto(mensaje.getAsunto())
+                .leido(mensaje.isLeido())
+                .archivado(mensaje.isArchivado())
+                .fechaEnvio(mensaje.getFechaEnvio())
+                .build();
+    }
+
+    // Mensajes anteriores a la copia de nombres: se resuelven como antes hasta que corra la migración
+    private String nombreRemitente(Mensaje mensaje) {
+        return mensaje.getRemitenteNombre() != null
+                ? mensaje.getRemitenteNombre()
+                : usuarioRepository.findById(mensaje.getRemitenteId()).map(Usuario::getNombre).orElse(null);
+    }
+
+    private String nombreDestinatario(Mensaje mensaje) {
+        return mensaje.getDestinatarioNombre() != null
+                ? mensaje.getDestinatarioNombre()
+                : usuarioRepository.findById(mensaje.getDestinatarioId()).map(Usuario::getNombre).orElse(null);
+    }
+
+    private MensajeDTO convertirADTO(Mensaje mensaje) {
         return MensajeDTO.builder()
                 .id(mensaje.getId())
+                .conversacionId(mensaje.getConversacionId())
                 .remitenteId(mensaje.getRemitenteId())
-                .remitenteNombre(remitenteNombre)
+                .remitenteNombre(nombreRemitente(mensaje))
                 .destinatarioId(mensaje.getDestinatarioId())
-                .destinatarioNombre(destinatarioNombre)
+                .destinatarioNombre(nombreDestinatario(mensaje))
                 .asunto(mensaje.getAsunto())
                 .contenido(mensaje.getContenido())
                 .leido(mensaje.isLeido())
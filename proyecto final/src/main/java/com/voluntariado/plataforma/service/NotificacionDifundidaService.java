@@ -0,0 +1,191 @@
+package com.voluntariado.plataforma.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.voluntariado.plataforma.dto.NotificacionDTO;
+import com.voluntariado.plataforma.evento.CambioDocumento;
+import com.voluntariado.plataforma.evento.CambiosPerdidosEvent;
+import com.voluntariado.plataforma.model.LecturaDifundidas;
+import com.voluntariado.plataforma.model.NotificacionDifundida;
+import com.voluntariado.plataforma.model.Usuario;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Notificaciones de difusión (nueva actividad, comunicados a un rol u organización). Se guardan una vez con su
+ * audiencia y cada usuario solo tiene una marca de lectura; al leer se filtran por la audiencia del usuario.
+ * El número de no leídas se guarda en una cache local que se vacía al publicar una nueva. Las leídas una a una
+ * se podan cuando crecen: quedan solo las de difundidas que siguen existiendo (caducan por TTL) y que no cubre
+ * ya la marca leidasHasta, así que la lista no pasa del número de difundidas vigentes.
+ */
+@Service
+public class NotificacionDifundidaService {
+
+    private final MongoTemplate mongoTemplate;
+    private final Cache<String, Long> noLeidas;
+
+    @Value("${notificaciones.difundidas.tamano-maximo:200}")
+    private int tamanoMaximo;
+
+    public NotificacionDifundidaService(MongoTemplate mongoTemplate, MeterRegistry registry,
+                                        @Value("${contadores.cache.tamano-maximo:20000}") long tamanoCache,
+                                        @Value("${contadores.cache.expiracion-minutos:10}") long expiracionMinutos) {
+        this.mongoTemplate = mongoTemplate;
+        this.noLeidas = Caffeine.newBuilder()
+                .maximumSize(tamanoCache)
+                .expireAfterWrite(Duration.ofMinutes(expiracionMinutos))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, noLeidas, "difundidasNoLeidas");
+    }
+
+    public NotificacionDifundida publicar(NotificacionDifundida notificacion) {
+        NotificacionDifundida guardada = mongoTemplate.insert(notificacion);
+        noLeidas.invalidateAll();
+        return guardada;
+    }
+
+    // Ordenadas por fecha descendente, como las personales, para poder mezclarlas sin reordenar
+    public List<NotificacionDTO> obtener(String usuarioId, boolean soloNoLeidas) {
+        Usuario usuario = audiencia(usuarioId);
+        if (usuario == null) {
+            return List.of();
+        }
+        LecturaDifundidas lectura = lectura(usuarioId);
+        Query query = new Query(criterio(usuario, soloNoLeidas ? lectura : null))
+                .with(Sort.by(Sort.Direction.DESC, "fechaCreacion"))
+                .limit(tamanoMaximo);
+
+        return mongoTemplate.find(query, NotificacionDifundida.class).stream()
+                .map(notificacion -> convertirADTO(notificacion, usuarioId, lectura.haLeido(notificacion)))
+                .toList();
+    }
+
+    public long contarNoLeidas(String usuarioId) {
+        return noLeidas.get(usuarioId, id -> {
+            Usuario usuario = audiencia(id);
+            return usuario == null ? 0L
+                    : mongoTemplate.count(new Query(criterio(usuario, lectura(id))), NotificacionDifundida.class);
+        });
+    }
+
+    // Solo difundidas de la audiencia del usuario: otra id no debe entrar en su lista de leídas
+    public boolean marcarLeida(String usuarioId, String notificacionId) {
+        Usuario usuario = audiencia(usuarioId);
+        if (usuario == null || !mongoTemplate.exists(
+                new Query(criterio(usuario, null).and("_id").is(notificacionId)), NotificacionDifundida.class)) {
+            return false;
+        }
+        LecturaDifundidas lectura = mongoTemplate.findAndModify(new Query(Criteria.where("_id").is(usuarioId)),
+                new Update().addToSet("leidas", notificacionId),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                LecturaDifundidas.class);
+        if (lectura != null && lectura.getLeidas().size() > tamanoMaximo) {
+            podar(lectura);
+        }
+        noLeidas.invalidate(usuarioId);
+        return true;
+    }
+
+    // Mueve la marca a ahora; las leídas una a una ya quedan cubiertas por ella
+    public void marcarTodasLeidas(String usuarioId) {
+        mongoTemplate.upsert(new Query(Criteria.where("_id").is(usuarioId)),
+                new Update().set("leidasHasta", LocalDateTime.now()).set("leidas", List.of()),
+                LecturaDifundidas.class);
+        noLeidas.invalidate(usuarioId);
+    }
+
+    @EventListener
+    public void alCambiarDifundida(CambioDocumento<NotificacionDifundida> cambio) {
+        noLeidas.invalidateAll();
+    }
+
+    @EventListener
+    public void alCambiarLectura(CambioDocumento<LecturaDifundidas> cambio) {
+        noLeidas.invalidate(cambio.documentoId());
+    }
+
+    // Un cambio de rol u organización cambia la audiencia
+    @EventListener
+    public void alCambiarUsuario(CambioDocumento<Usuario> cambio) {
+        noLeidas.invalidate(cambio.documentoId());
+    }
+
+    @EventListener
+    public void alPerderCambios(CambiosPerdidosEvent evento) {
+        noLeidas.invalidateAll();
+    }
+
+    // $pullAll de las ids concretas que sobran: una marca añadida mientras tanto no se pierde
+    private void podar(LecturaDifundidas lectura) {
+        Query vigentes = new Query(Criteria.where("_id").in(lectura.getLeidas()));
+        if (lectura.getLeidasHasta() != null) {
+            vigentes.addCriteria(Criteria.where("fechaCreacion").gt(lectura.getLeidasHasta()));
+        }
+        vigentes.fields().include("_id");
+        Set<String> sobrantes = new HashSet<>(lectura.getLeidas());
+        mongoTemplate.find(vigentes, NotificacionDifundida.class).forEach(vigente -> sobrantes.remove(vigente.getId()));
+        if (!sobrantes.isEmpty()) {
+            mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(lectura.getUsuarioId())),
+                    new Update().pullAll("leidas", sobrantes.toArray()), LecturaDifundidas.class);
+        }
+    }
+
+    // Audiencia: rol y organización propios o sin especificar, publicadas después del alta del usuario
+    private Criteria criterio(Usuario usuario, LecturaDifundidas lectura) {
+        Criteria criteria = Criteria.where("rol").in(Arrays.asList(null, usuario.getRol()))
+                .and("organizacionId").in(Arrays.asList(null, usuario.getOrganizacionId()));
+
+        LocalDateTime desde = usuario.getFechaCreacion();
+        if (lectura != null) {
+            if (lectura.getLeidasHasta() != null && (desde == null || lectura.getLeidasHasta().isAfter(desde))) {
+                desde = lectura.getLeidasHasta();
+            }
+            if (!lectura.getLeidas().isEmpty()) {
+                criteria = criteria.and("_id").nin(lectura.getLeidas());
+            }
+        }
+        return desde == null ? criteria : criteria.and("fechaCreacion").gt(desde);
+    }
+
+    private Usuario audiencia(String usuarioId) {
+        Query query = new Query(Criteria.where("_id").is(usuarioId));
+        query.fields().include("rol", "organizacionId", "fechaCreacion");
+        return mongoTemplate.findOne(query, Usuario.class);
+    }
+
+    private LecturaDifundidas lectura(String usuarioId) {
+        LecturaDifundidas lectura = mongoTemplate.findById(usuarioId, LecturaDifundidas.class);
+        return lectura != null ? lectura : LecturaDifundidas.builder().usuarioId(usuarioId).build();
+    }
+
+    private static NotificacionDTO convertirADTO(NotificacionDifundida notificacion, String usuarioId, boolean leida) {
+        return NotificacionDTO.builder()
+                .id(notificacion.getId())
+                .usuarioId(usuarioId)
+                .titulo(notificacion.getTitulo())
+                .mensaje(notificacion.getMensaje())
+                .tipo(notificacion.getTipo())
+                .actividadId(notificacion.getActividadId())
+                .leida(leida)
+                .difundida(true)
+                .fechaCreacion(notificacion.getFechaCreacion())
+                .build();
+    }
+}
@@ -0,0 +1,62 @@
+package com.voluntariado.plataforma.service;
+
+import com.voluntariado.plataforma.dto.NotificacionDTO;
+import com.voluntariado.plataforma.model.Comunicado;
+import com.voluntariado.plataforma.model.Notificacion;
+import com.voluntariado.plataforma.repository.reactivo.ComunicadoReactivoRepository;
+import com.voluntariado.plataforma.repository.reactivo.NotificacionReactivaRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+@Service
+@RequiredArgsConstructor
+public class NotificacionReactivaService {
+
+    private final NotificacionReactivaRepository notificacionRepository;
+    private final ComunicadoReactivoRepository comunicadoRepository;
+    private final NotificacionService notificacionService;
+    private final NotificacionDifundidaService notificacionDifundidaService;
+
+    // Las personales salen del cursor reactivo y se mezclan por fecha con las difundidas a medida que llegan
+    public Flux<NotificacionDTO> obtenerNotificacionesUsuario(String usuarioId) {
+        return Flux.mergeComparing(NotificacionService.POR_FECHA_DESC,
+                completar(notificacionRepository.findByUsuarioIdOrderByFechaCreacionDesc(usuarioId)),
+                difundidas(usuarioId, false));
+    }
+
+    public Flux<NotificacionDTO> obtenerNoLeidas(String usuarioId) {
+        return Flux.mergeComparing(NotificacionService.POR_FECHA_DESC,
+                completar(notificacionRepository.findByUsuarioIdAndLeidaFalseOrderByFechaCreacionDesc(usuarioId)),
+                difundidas(usuarioId, true));
+    }
+
+    private Flux<NotificacionDTO> difundidas(String usuarioId, boolean soloNoLeidas) {
+        return Mono.fromCallable(() -> notificacionDifundidaService.obtener(usuarioId, soloNoLeidas))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapIterable(Function.identity());
+    }
+
+    // Título y mensaje de los comunicados se leen una vez por flujo aunque aparezcan en varias entradas
+    private Flux<NotificacionDTO> completar(Flux<Notificacion> notificaciones) {
+        Map<String, Mono<Comunicado>> comunicados = new ConcurrentHashMap<>();
+        return notificaciones.concatMap(notificacion -> notificacion.getComunicadoId() == null
+                ? Mono.just(NotificacionService.convertirADTO(notificacion, null))
+                : comunicados.computeIfAbsent(notificacion.getComunicadoId(),
+                                id -> comunicadoRepository.findTextosById(id).cache())
+                        .map(comunicado -> NotificacionService.convertirADTO(notificacion, comunicado))
+                        .defaultIfEmpty(NotificacionService.convertirADTO(notificacion, null)));
+    }
+
+    // Mismo contador que la API bloqueante; casi siempre sale de la cache
+    public Mono<Long> contarNoLeidas(String usuarioId) {
+        return Mono.fromCallable(() -> notificacionService.contarNoLeidas(usuarioId))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+}
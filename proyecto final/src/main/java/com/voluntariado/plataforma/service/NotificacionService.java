@@ -2,62 +2,123 @@ package com.voluntariado.plataforma.service;
 
 import com.voluntariado.plataforma.dto.NotificacionDTO;
 import com.voluntariado.plataforma.exception.ResourceNotFoundException;
+import com.voluntariado.plataforma.lock.BloqueoDistribuido;
 import com.voluntariado.plataforma.model.Actividad;
+import com.voluntariado.plataforma.model.Comunicado;
+import com.voluntariado.plataforma.model.Inscripcion;
 import com.voluntariado.plataforma.model.Notificacion;
+import com.voluntariado.plataforma.model.NotificacionDifundida;
 import com.voluntariado.plataforma.model.Usuario;
+import com.voluntariado.plataforma.model.enums.EstadoInscripcion;
 import com.voluntariado.plataforma.model.enums.Rol;
 import com.voluntariado.plataforma.model.enums.TipoNotificacion;
+import com.voluntariado.plataforma.repository.ActividadRepository;
+import com.voluntariado.plataforma.repository.ComunicadoRepository;
 import com.voluntariado.plataforma.repository.InscripcionRepository;
 import com.voluntariado.plataforma.repository.NotificacionRepository;
 import com.voluntariado.plataforma.repository.UsuarioRepository;
+import com.voluntariado.plataforma.util.MezclaOrdenada;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class NotificacionService {
 
+    static final Comparator<NotificacionDTO> POR_FECHA_DESC = Comparator.comparing(
+            NotificacionDTO::getFechaCreacion, Comparator.nullsLast(Comparator.reverseOrder()));
+
     private final NotificacionRepository notificacionRepository;
     private final UsuarioRepository usuarioRepository;
     private final InscripcionRepository inscripcionRepository;
     private final EmailService emailService;
+    private final ComunicadoRepository comunicadoRepository;
+    private final ContadoresUsuarioService contadoresUsuarioService;
+    private final NotificacionDifundidaService notificacionDifundidaService;
+    private final AvisosEmailService avisosEmailService;
+    private final PlantillasEmailService plantillas;
+    private final RecomendacionesService recomendacionesService;
+    private final ActividadRepository actividadRepository;
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${notificaciones.email.lote:500}")
+    private int tamanoLoteEmail;
 
+    // Una sola notificación para todos los voluntarios; el email sigue siendo por usuario, en lotes
     public void notificarNuevaActividad(Actividad actividad) {
-        List<Usuario> voluntarios = usuarioRepository.findByRolAndActivoTrue(Rol.VOLUNTARIO);
-
-        for (Usuario voluntario : voluntarios) {
-            if (voluntario.isNotificacionesActivas()) {
-                Notificacion notificacion = Notificacion.builder()
-                        .usuarioId(voluntario.getId())
-                        .titulo("Nueva actividad disponible")
-                        .mensaje(String.format("Se ha creado una nueva actividad: %s. Fecha: %s. Lugar: %s",
-                                actividad.getTitulo(),
-                                actividad.getFecha().toString(),
-                                actividad.getLugar()))
-                        .tipo(TipoNotificacion.NUEVA_ACTIVIDAD)
-                        .actividadId(actividad.getId())
-                        .build();
-
-                notificacionRepository.save(notificacion);
-
-                // Enviar email
-                emailService.enviarNotificacion(voluntario.getCorreo(),
-                        "Nueva actividad: " + actividad.getTitulo(),
-                        notificacion.getMensaje());
-            }
+        String mensaje = plantillas.texto(PlantillasEmailService.NUEVA_ACTIVIDAD, Map.of(
+                "titulo", actividad.getTitulo(),
+                "fecha", actividad.getFecha().toString(),
+                "lugar", actividad.getLugar()));
+
+        notificacionDifundidaService.publicar(NotificacionDifundida.builder()
+                .titulo("Nueva actividad disponible")
+                .mensaje(mensaje)
+                .tipo(TipoNotificacion.NUEVA_ACTIVIDAD)
+                .actividadId(actividad.getId())
+                .rol(Rol.VOLUNTARIO)
+                .build());
+
+        // El aviso in-app llega a todos; el email solo a quienes encajan por habilidades o intereses, todos ellos,
+        // consultados por páginas de ids. Si la actividad no tiene categorías ni requisitos, va a todos
+        Criteria criteria = Criteria.where("rol").is(Rol.VOLUNTARIO)
+                .and("activo").is(true).and("notificacionesActivas").is(true);
+        String asunto = "Nueva actividad: " + actividad.getTitulo();
+        Optional<Set<String>> relevantes = recomendacionesService.voluntariosRelevantes(actividad);
+        if (relevantes.isEmpty()) {
+            avisarNuevaActividad(new Query(criteria), actividad, asunto, mensaje);
+            return;
+        }
+        List<String> ids = new ArrayList<>(relevantes.get());
+        for (int i = 0; i < ids.size(); i += tamanoLoteEmail) {
+            List<String> pagina = ids.subList(i, Math.min(i + tamanoLoteEmail, ids.size()));
+            avisarNuevaActividad(new Query(Criteria.where("_id").in(pagina).andOperator(criteria)),
+                    actividad, asunto, mensaje);
+        }
+    }
+
+    // Cada lote se pasa como copia: la lista se reutiliza para el siguiente
+    private void avisarNuevaActividad(Query destinatarios, Actividad actividad, String asunto, String mensaje) {
+        destinatarios.fields().include("correo", "frecuenciaEmail");
+        List<Usuario> lote = new ArrayList<>(tamanoLoteEmail);
+        try (Stream<Usuario> voluntarios = mongoTemplate.stream(destinatarios, Usuario.class)) {
+            voluntarios.forEach(voluntario -> {
+                lote.add(voluntario);
+                if (lote.size() == tamanoLoteEmail) {
+                    avisosEmailService.avisar(List.copyOf(lote), asunto, mensaje, TipoNotificacion.NUEVA_ACTIVIDAD,
+                            actividad.getId(), null);
+                    lote.clear();
+                }
+            });
+        }
+        if (!lote.isEmpty()) {
+            avisosEmailService.avisar(lote, asunto, mensaje, TipoNotificacion.NUEVA_ACTIVIDAD, actividad.getId(), null);
         }
     }
 
     public void notificarInscripcion(Usuario usuario, Actividad actividad, boolean inscrito) {
         String titulo = inscrito ? "Inscripción confirmada" : "Cancelación de inscripción";
-        String mensaje = inscrito
-                ? String.format("Te has inscrito correctamente a la actividad: %s", actividad.getTitulo())
-                : String.format("Has cancelado tu inscripción a la actividad: %s", actividad.getTitulo());
+        String mensaje = plantillas.texto(
+                inscrito ? PlantillasEmailService.INSCRIPCION_CONFIRMADA : PlantillasEmailService.INSCRIPCION_CANCELADA,
+                Map.of("titulo", actividad.getTitulo()));
 
         Notificacion notificacion = Notificacion.builder()
                 .usuarioId(usuario.getId())
@@ -68,6 +129,7 @@ public class NotificacionService {
                 .build();
 
         notificacionRepository.save(notificacion);
+        contadoresUsuarioService.sumarNotificaciones(usuario.getId(), 1);
 
         emailService.enviarNotificacion(usuario.getCorreo(), titulo, mensaje);
     }
@@ -80,110 +142,129 @@ public class NotificacionService {
             Notificacion notificacion = Notificacion.builder()
                     .usuarioId(coordinador.getId())
                     .titulo("Cupo completo")
-                    .mensaje(String.format("La actividad '%s' ha alcanzado su cupo máximo de participantes",
-                            actividad.getTitulo()))
+                    .mensaje(plantillas.texto(PlantillasEmailService.CUPO_COMPLETO,
+                            Map.of("titulo", actividad.getTitulo())))
                     .tipo(TipoNotificacion.ALERTA_CUPO)
                     .actividadId(actividad.getId())
                     .build();
 
             notificacionRepository.save(notificacion);
+            contadoresUsuarioService.sumarNotificaciones(coordinador.getId(), 1);
         }
     }
 
     @Scheduled(cron = "0 0 9 * * *") // Todos los días a las 9:00 AM
+    @BloqueoDistribuido(nombre = "recordatorios-diarios", duracionMaxima = "PT30M", duracionMinima = "PT5M")
     public void enviarRecordatorios() {
         LocalDateTime ahora = LocalDateTime.now();
         LocalDateTime manana = ahora.plusHours(24);
 
-        // Buscar actividades que serán en las próximas 24 horas
-        List<Actividad> actividadesProximas = new java.util.ArrayList<>();
-        // Aquí se obtendría de ActividadRepository
-
-        for (Actividad actividad : actividadesProximas) {
-            // Obtener inscritos aprobados
-            inscripcionRepository.findByActividadIdAndEstado(
-                    actividad.getId(),
-                    com.voluntariado.plataforma.model.enums.EstadoInscripcion.APROBADA
-            ).forEach(inscripcion -> {
-                Usuario usuario = usuarioRepository.findById(inscripcion.getUsuarioId()).orElse(null);
-                if (usuario != null && usuario.isNotificacionesActivas()) {
-                    Notificacion notificacion = Notificacion.builder()
+        for (Actividad actividad : actividadRepository.findActividadesProximas(ahora, manana)) {
+            List<String> inscritos = inscripcionRepository
+                    .findByActividadIdAndEstado(actividad.getId(), EstadoInscripcion.APROBADA).stream()
+                    .map(Inscripcion::getUsuarioId)
+                    .toList();
+            if (inscritos.isEmpty()) {
+                continue;
+            }
+
+            Query consulta = new Query(Criteria.where("_id").in(inscritos).and("notificacionesActivas").is(true));
+            consulta.fields().include("correo", "frecuenciaEmail");
+            List<Usuario> usuarios = mongoTemplate.find(consulta, Usuario.class);
+            if (usuarios.isEmpty()) {
+                continue;
+            }
+
+            String mensaje = plantillas.texto(PlantillasEmailService.RECORDATORIO, Map.of(
+                    "titulo", actividad.getTitulo(),
+                    "hora", actividad.getFecha().toLocalTime().toString(),
+                    "lugar", actividad.getLugar()));
+            List<Notificacion> notificaciones = usuarios.stream()
+                    .map(usuario -> Notificacion.builder()
                             .usuarioId(usuario.getId())
                             .titulo("Recordatorio de actividad")
-                            .mensaje(String.format("Recuerda que mañana tienes la actividad: %s a las %s en %s",
-                                    actividad.getTitulo(),
-                                    actividad.getFecha().toLocalTime().toString(),
-                                    actividad.getLugar()))
+                            .mensaje(mensaje)
                             .tipo(TipoNotificacion.RECORDATORIO)
                             .actividadId(actividad.getId())
-                            .build();
-
-                    notificacionRepository.save(notificacion);
+                            .build())
+                    .toList();
+            mongoTemplate.insert(notificaciones, Notificacion.class);
+            contadoresUsuarioService.sumarNotificaciones(usuarios.stream().map(Usuario::getId).toList(), 1);
 
-                    emailService.enviarNotificacion(usuario.getCorreo(),
-                            "Recordatorio: " + actividad.getTitulo(),
-                            notificacion.getMensaje());
-                }
-            });
-        }
-    }
-
-    public void enviarComunicado(String titulo, String mensaje, List<String> destinatariosIds, String remitenteId) {
-        for (String destinatarioId : destinatariosIds) {
-            Usuario destinatario = usuarioRepository.findById(destinatarioId).orElse(null);
-            if (destinatario != null) {
-                Notificacion notificacion = Notificacion.builder()
-                        .usuarioId(destinatarioId)
-                        .titulo(titulo)
-                        .mensaje(mensaje)
-                        .tipo(TipoNotificacion.COMUNICADO)
-                        .build();
-
-                notificacionRepository.save(notificacion);
-
-                if (destinatario.isNotificacionesActivas()) {
-                    emailService.enviarNotificacion(destinatario.getCorreo(), titulo, mensaje);
-                }
-            }
+            // Si la actividad empieza antes del próximo resumen, el email sale al momento
+            avisosEmailService.avisar(usuarios, "Recordatorio: " + actividad.getTitulo(), mensaje,
+                    TipoNotificacion.RECORDATORIO, actividad.getId(), actividad.getFecha());
         }
     }
 
+    // Personales y difundidas llegan ya ordenadas por fecha: basta mezclarlas
     public List<NotificacionDTO> obtenerNotificacionesUsuario(String usuarioId) {
-        return notificacionRepository.findByUsuarioIdOrderByFechaCreacionDesc(usuarioId).stream()
-                .map(this::convertirADTO)
-                .collect(Collectors.toList());
+        return MezclaOrdenada.mezclar(List.of(
+                convertir(notificacionRepository.findByUsuarioIdOrderByFechaCreacionDesc(usuarioId)),
+                notificacionDifundidaService.obtener(usuarioId, false)), POR_FECHA_DESC);
     }
 
     public List<NotificacionDTO> obtenerNoLeidas(String usuarioId) {
-        return notificacionRepository.findByUsuarioIdAndLeidaFalse(usuarioId).stream()
-                .map(this::convertirADTO)
+        return MezclaOrdenada.mezclar(List.of(
+                convertir(notificacionRepository.findByUsuarioIdAndLeidaFalseOrderByFechaCreacionDesc(usuarioId)),
+                notificacionDifundidaService.obtener(usuarioId, true)), POR_FECHA_DESC);
+    }
+
+    // Las entradas de comunicados no copian título ni mensaje: se leen todos los comunicados en un solo $in
+    private List<NotificacionDTO> convertir(List<Notificacion> notificaciones) {
+        Set<String> comunicadosIds = notificaciones.stream()
+                .map(Notificacion::getComunicadoId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<String, Comunicado> comunicados = comunicadosIds.isEmpty() ? Map.of()
+                : comunicadoRepository.findTextosByIdIn(comunicadosIds).stream()
+                        .collect(Collectors.toMap(Comunicado::getId, Function.identity()));
+
+        return notificaciones.stream()
+                .map(notificacion -> convertirADTO(notificacion, comunicados.get(notificacion.getComunicadoId())))
                 .collect(Collectors.toList());
     }
 
+    // Personales: contador mantenido al escribir; difundidas: un count por usuario. Ambos casi siempre en cache
     public long contarNoLeidas(String usuarioId) {
-        return notificacionRepository.countByUsuarioIdAndLeidaFalse(usuarioId);
+        return contadoresUsuarioService.notificacionesNoLeidas(usuarioId)
+                + notificacionDifundidaService.contarNoLeidas(usuarioId);
     }
 
-    public void marcarComoLeida(String notificacionId) {
-        Notificacion notificacion = notificacionRepository.findById(notificacionId)
-                .orElseThrow(() -> new ResourceNotFoundException("Notificación", "id", notificacionId));
+    public void marcarComoLeida(String notificacionId, String usuarioId) {
+        Notificacion notificacion = notificacionRepository.findById(notificacionId).orElse(null);
+        if (notificacion == null) {
+            if (!notificacionDifundidaService.marcarLeida(usuarioId, notificacionId)) {
+                throw new ResourceNotFoundException("Notificación", "id", notificacionId);
+            }
+            return;
+        }
 
-        notificacion.setLeida(true);
-        notificacionRepository.save(notificacion);
+        // Condición leida=false: dos lecturas simultáneas solo descuentan una vez
+        long marcadas = mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(notificacionId).and("leida").is(false)),
+                new Update().set("leida", true).set("fechaLectura", LocalDateTime.now()),
+                Notificacion.class).getModifiedCount();
+        if (marcadas > 0) {
+            contadoresUsuarioService.sumarNotificaciones(notificacion.getUsuarioId(), -1);
+        }
     }
 
     public void marcarTodasComoLeidas(String usuarioId) {
-        List<Notificacion> noLeidas = notificacionRepository.findByUsuarioIdAndLeidaFalse(usuarioId);
-        noLeidas.forEach(n -> n.setLeida(true));
-        notificacionRepository.saveAll(noLeidas);
+        long marcadas = mongoTemplate.updateMulti(
+                new Query(Criteria.where("usuarioId").is(usuarioId).and("leida").is(false)),
+                new Update().set("leida", true).set("fechaLectura", LocalDateTime.now()),
+                Notificacion.class).getModifiedCount();
+        contadoresUsuarioService.sumarNotificaciones(usuarioId, -marcadas);
+        notificacionDifundidaService.marcarTodasLeidas(usuarioId);
     }
 
-    private NotificacionDTO convertirADTO(Notificacion notificacion) {
+    static NotificacionDTO convertirADTO(Notificacion notificacion, Comunicado comunicado) {
         return NotificacionDTO.builder()
                 .id(notificacion.getId())
                 .usuarioId(notificacion.getUsuarioId())
-                .titulo(notificacion.getTitulo())
-                .mensaje(notificacion.getMensaje())
+                .titulo(comunicado != null ? comunicado.getTitulo() : notificacion.getTitulo())
+                .mensaje(comunicado != null ? comunicado.getMensaje() : notificacion.getMensaje())
                 .tipo(notificacion.getTipo())
                 .actividadId(notificacion.getActividadId())
                 .leida(notificacion.isLeida())
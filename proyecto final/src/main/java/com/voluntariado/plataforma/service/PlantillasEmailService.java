@@ -0,0 +1,96 @@
+package com.voluntariado.plataforma.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.exceptions.TemplateInputException;
+import org.thymeleaf.exceptions.TemplateProcessingException;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Plantillas de emails y de mensajes de notificación (resources/templates/email). Se analizan una vez al
+ * arrancar y quedan en la cache del motor, así que cada envío solo evalúa variables; una plantilla que falta
+ * o no se puede analizar impide el arranque. El motor es propio y no un bean: uno de tipo TemplateEngine
+ * desactivaría el que Spring Boot configura para las vistas web.
+ */
+@Service
+@Slf4j
+public class PlantillasEmailService {
+
+    static final String VERIFICACION = "verificacion";
+    static final String RECUPERACION_PASSWORD = "recuperacion-password";
+    static final String CERTIFICADO = "certificado";
+    static final String RESUMEN = "resumen";
+    static final String NUEVA_ACTIVIDAD = "notificacion/nueva-actividad";
+    static final String RECORDATORIO = "notificacion/recordatorio";
+    static final String INSCRIPCION_CONFIRMADA = "notificacion/inscripcion-confirmada";
+    static final String INSCRIPCION_CANCELADA = "notificacion/inscripcion-cancelada";
+    static final String CUPO_COMPLETO = "notificacion/cupo-completo";
+
+    private static final List<String> PLANTILLAS_HTML = List.of(CERTIFICADO, RESUMEN);
+    private static final List<String> PLANTILLAS_TEXTO = List.of(VERIFICACION, RECUPERACION_PASSWORD,
+            NUEVA_ACTIVIDAD, RECORDATORIO, INSCRIPCION_CONFIRMADA, INSCRIPCION_CANCELADA, CUPO_COMPLETO);
+
+    private static final Locale IDIOMA = Locale.forLanguageTag("es");
+
+    private final SpringTemplateEngine motor = new SpringTemplateEngine();
+
+    public PlantillasEmailService() {
+        motor.addTemplateResolver(resolver(TemplateMode.HTML, "*.html", 1));
+        motor.addTemplateResolver(resolver(TemplateMode.TEXT, "*.txt", 2));
+        precompilar();
+    }
+
+    public String html(String plantilla, Map<String, ?> variables) {
+        return renderizar(plantilla + ".html", variables);
+    }
+
+    public String texto(String plantilla, Map<String, ?> variables) {
+        return renderizar(plantilla + ".txt", variables).stripTrailing();
+    }
+
+    private String renderizar(String plantilla, Map<String, ?> variables) {
+        Context contexto = new Context(IDIOMA);
+        variables.forEach(contexto::setVariable);
+        return motor.process(plantilla, contexto);
+    }
+
+    // El análisis se guarda en la cache antes de evaluar, así que basta procesarlas una vez sin variables
+    private void precompilar() {
+        PLANTILLAS_HTML.forEach(plantilla -> precompilar(plantilla + ".html"));
+        PLANTILLAS_TEXTO.forEach(plantilla -> precompilar(plantilla + ".txt"));
+        log.info("Plantillas de email precompiladas: {}", PLANTILLAS_HTML.size() + PLANTILLAS_TEXTO.size());
+    }
+
+    // No encontrarla o no poder analizarla (TemplateInputException) detiene el arranque. Cualquier otro error
+    // llega al evaluar sin variables, con el análisis ya en la cache
+    private void precompilar(String plantilla) {
+        try {
+            motor.process(plantilla, new Context(IDIOMA), new StringWriter());
+        } catch (TemplateInputException e) {
+            throw new IllegalStateException("Plantilla de email no válida: " + plantilla, e);
+        } catch (TemplateProcessingException e) {
+            log.debug("Plantilla {} analizada; la evaluación sin variables falló: {}", plantilla, e.getMessage());
+        }
+    }
+
+    private static ClassLoaderTemplateResolver resolver(TemplateMode modo, String patron, int orden) {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/email/");
+        resolver.setTemplateMode(modo);
+        resolver.setResolvablePatterns(Set.of(patron));
+        resolver.setCharacterEncoding("UTF-8");
+        resolver.setCacheable(true);
+        resolver.setCheckExistence(true);
+        resolver.setOrder(orden);
+        return resolver;
+    }
+}
@@ -0,0 +1,137 @@
+package com.voluntariado.plataforma.service;
+
+import com.voluntariado.plataforma.evento.ActividadModificadaEvent;
+import com.voluntariado.plataforma.evento.ActividadModificadaEvent.TipoCambio;
+import com.voluntariado.plataforma.lock.BloqueoDistribuido;
+import com.voluntariado.plataforma.model.Actividad;
+import com.voluntariado.plataforma.model.HistorialVoluntariado;
+import com.voluntariado.plataforma.model.Mensaje;
+import com.voluntariado.plataforma.model.ResumenConversacion;
+import com.voluntariado.plataforma.model.Usuario;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Mantiene las copias del nombre de un usuario en mensajes, bandejas, historial y actividades. Cada actualización
+ * filtra por "nombre distinto", así que repetirla (reintentos, migración) no reescribe nada. El usuario queda
+ * marcado (nombrePendienteDesde) hasta que la copia termina; una tarea periódica reintenta los que sigan marcados.
+ * Siempre se copia el nombre vigente leído de MongoDB, no el de quien lanzó la propagación: con dos cambios seguidos
+ * las tareas pueden terminar en cualquier orden, y la que escriba un nombre ya sustituido lo corrige al comprobarlo.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PropagacionNombresService {
+
+    // Vueltas por propagación si el nombre sigue cambiando mientras se copia; después queda para la reconciliación
+    private static final int INTENTOS_PROPAGACION = 3;
+
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${usuarios.nombres.reconciliacion.margen-minutos:5}")
+    private long margenReconciliacion;
+
+    @Value("${usuarios.nombres.reconciliacion.lote:500}")
+    private int loteReconciliacion;
+
+    @Async
+    public void propagarNombre(String usuarioId) {
+        try {
+            propagar(usuarioId);
+        } catch (RuntimeException e) {
+            // El usuario sigue marcado: reconciliarPendientes lo reintenta
+            log.error("Error al propagar el nombre del usuario {}: {}", usuarioId, e.getMessage(), e);
+        }
+    }
+
+    // Solo toma los marcados hace más del margen, para no competir con la propagación asíncrona recién lanzada
+    @Scheduled(fixedDelayString = "${usuarios.nombres.reconciliacion.intervalo-ms:300000}",
+            initialDelayString = "${usuarios.nombres.reconciliacion.intervalo-ms:300000}")
+    @BloqueoDistribuido(nombre = "reconciliacion-nombres", duracionMaxima = "PT10M")
+    public void reconciliarPendientes() {
+        Query pendientes = new Query(Criteria.where("nombrePendienteDesde")
+                .lte(LocalDateTime.now().minusMinutes(margenReconciliacion)))
+                .limit(loteReconciliacion);
+        pendientes.fields().include("id");
+        for (Usuario usuario : mongoTemplate.find(pendientes, Usuario.class)) {
+            try {
+                propagar(usuario.getId());
+            } catch (RuntimeException e) {
+                log.error("Error al reconciliar el nombre del usuario {}: {}", usuario.getId(), e.getMessage(), e);
+            }
+        }
+    }
+
+    public long aplicarNombre(String usuarioId, String nombre) {
+        long modificados = actualizar(Mensaje.class, "remitenteId", "remitenteNombre", usuarioId, nombre)
+                + actualizar(Mensaje.class, "destinatarioId", "destinatarioNombre", usuarioId, nombre)
+                + actualizar(HistorialVoluntariado.class, "usuarioId", "usuarioNombre", usuarioId, nombre)
+                + actualizar(ResumenConversacion.class, "otroUsuarioId", "otroUsuarioNombre", usuarioId, nombre);
+
+        // Las actividades alimentan caches y ETags: se marca fechaActualizacion y se avisa por cada una
+        Query actividades = porNombreDesactualizado("coordinadorId", "coordinadorNombre", usuarioId, nombre);
+        actividades.fields().include("id");
+        List<String> ids = mongoTemplate.find(actividades, Actividad.class).stream().map(Actividad::getId).toList();
+        if (!ids.isEmpty()) {
+            LocalDateTime ahora = LocalDateTime.now();
+            modificados += mongoTemplate.updateMulti(new Query(Criteria.where("id").in(ids)),
+                    new Update().set("coordinadorNombre", nombre).set("fechaActualizacion", ahora),
+                    Actividad.class).getModifiedCount();
+            ids.forEach(id -> eventPublisher.publishEvent(new ActividadModificadaEvent(id, TipoCambio.ACTUALIZADA, ahora)));
+        }
+
+        if (modificados > 0) {
+            log.debug("Nombre del usuario {} propagado a {} documentos", usuarioId, modificados);
+        }
+        return modificados;
+    }
+
+    // Copia el nombre vigente y repite si cambió durante la copia; true si terminó con el nombre al día
+    boolean propagar(String usuarioId) {
+        for (int intento = 0; intento < INTENTOS_PROPAGACION; intento++) {
+            Query porId = new Query(Criteria.where("_id").is(usuarioId));
+            porId.fields().include("id", "nombre", "nombrePendienteDesde");
+            Usuario usuario = mongoTemplate.findOne(porId, Usuario.class);
+            if (usuario == null) {
+                return true;
+            }
+            aplicarNombre(usuarioId, usuario.getNombre());
+            if (marcarPropagado(usuarioId, usuario.getNombre(), usuario.getNombrePendienteDesde())) {
+                return true;
+            }
+        }
+        log.warn("El nombre del usuario {} cambió durante la propagación; se reintentará", usuarioId);
+        return false;
+    }
+
+    // Solo quita la marca si ni el nombre ni la marca cambiaron desde la lectura: otro cambio la conserva
+    private boolean marcarPropagado(String usuarioId, String nombre, LocalDateTime pendienteDesde) {
+        Query sinCambios = new Query(Criteria.where("_id").is(usuarioId)
+                .and("nombre").is(nombre)
+                .and("nombrePendienteDesde").is(pendienteDesde));
+        return mongoTemplate.updateFirst(sinCambios, new Update().unset("nombrePendienteDesde"), Usuario.class)
+                .getMatchedCount() > 0;
+    }
+
+    private long actualizar(Class<?> tipo, String campoId, String campoNombre, String usuarioId, String nombre) {
+        return mongoTemplate.updateMulti(porNombreDesactualizado(campoId, campoNombre, usuarioId, nombre),
+                new Update().set(campoNombre, nombre), tipo).getModifiedCount();
+    }
+
+    private static Query porNombreDesactualizado(String campoId, String campoNombre, String usuarioId, String nombre) {
+        return new Query(Criteria.where(campoId).is(usuarioId).and(campoNombre).ne(nombre));
+    }
+}
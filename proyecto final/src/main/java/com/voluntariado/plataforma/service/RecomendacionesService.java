@@ -0,0 +1,248 @@
+package com.voluntariado.plataforma.service;
+
+import com.voluntariado.plataforma.evento.ActividadModificadaEvent;
+import com.voluntariado.plataforma.evento.CambioDocumento;
+import com.voluntariado.plataforma.evento.CambiosPerdidosEvent;
+import com.voluntariado.plataforma.model.Actividad;
+import com.voluntariado.plataforma.model.Usuario;
+import com.voluntariado.plataforma.model.enums.EstadoActividad;
+import com.voluntariado.plataforma.model.enums.Rol;
+import com.voluntariado.plataforma.util.IndiceInvertido;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Emparejamiento entre voluntarios y actividades por términos: habilidades e intereses del usuario frente a
+ * categorías y requisitos de la actividad. Mantiene en memoria dos índices invertidos (voluntarios activos y
+ * actividades abiertas), actualizados con el bus de cambios y con las escrituras de UsuarioService, y
+ * reconstruidos periódicamente. Los cambios que llegan mientras se reconstruye se aplican al índice vigente y se
+ * guardan para repetirlos sobre el nuevo antes de sustituirlo. La carga inicial y la que sigue a una pérdida de
+ * cambios corren en segundo plano, sin retener el arranque ni el hilo del bus.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RecomendacionesService {
+
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern DIACRITICOS = Pattern.compile("\\p{M}+");
+    private static final Set<String> PALABRAS_VACIAS = Set.of(
+            "con", "del", "las", "los", "para", "por", "que", "una", "uno", "unos", "unas", "sin", "sus");
+
+    private final MongoTemplate mongoTemplate;
+
+    private record Indices(IndiceInvertido voluntarios, IndiceInvertido actividades) {
+    }
+
+    private volatile Indices indices = new Indices(new IndiceInvertido(), new IndiceInvertido());
+
+    // No nulo solo mientras se reconstruye; protegido por cerrojoCambios
+    private List<Consumer<Indices>> cambiosDuranteReconstruccion;
+    private final Object cerrojoCambios = new Object();
+
+    // Hasta la primera carga los voluntarios relevantes se buscan en Mongo
+    private volatile boolean cargado;
+
+    // Varias pérdidas seguidas se resuelven con una sola reconstrucción
+    private final AtomicBoolean reconstruccionPedida = new AtomicBoolean();
+
+    @Value("${recomendaciones.candidatos-maximo:1000}")
+    private int candidatosMaximo;
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void alArrancar() {
+        reconstruir();
+    }
+
+    // Se construyen aparte y se sustituyen de golpe; las lecturas nunca ven un índice a medio cargar
+    @Scheduled(fixedDelayString = "${recomendaciones.reconstruccion-ms:3600000}",
+            initialDelayString = "${recomendaciones.reconstruccion-ms:3600000}")
+    public synchronized void reconstruir() {
+        // Una pérdida que llegue desde aquí puede no verse en la carga: pedirá otra reconstrucción
+        reconstruccionPedida.set(false);
+        synchronized (cerrojoCambios) {
+            cambiosDuranteReconstruccion = new ArrayList<>();
+        }
+        Indices nuevos = new Indices(new IndiceInvertido(), new IndiceInvertido());
+        try {
+            try (Stream<Usuario> usuarios = mongoTemplate.stream(consultaVoluntarios(), Usuario.class)) {
+                usuarios.forEach(usuario -> nuevos.voluntarios().indexar(usuario.getId(), terminos(usuario)));
+            }
+            try (Stream<Actividad> encontradas =
+                         mongoTemplate.stream(consultaActividades(abiertas()), Actividad.class)) {
+                encontradas.forEach(actividad -> nuevos.actividades().indexar(actividad.getId(), terminos(actividad)));
+            }
+            // Repetición y sustitución en el mismo bloque: ningún cambio queda entre una y otra
+            synchronized (cerrojoCambios) {
+                cambiosDuranteReconstruccion.forEach(cambio -> cambio.accept(nuevos));
+                indices = nuevos;
+                cambiosDuranteReconstruccion = null;
+            }
+            cargado = true;
+        } finally {
+            // Si la carga falla se sigue con los índices vigentes, que ya recibieron todos los cambios
+            synchronized (cerrojoCambios) {
+                cambiosDuranteReconstruccion = null;
+            }
+        }
+        log.debug("Índices de recomendaciones: {} voluntarios, {} actividades",
+                nuevos.voluntarios().tamano(), nuevos.actividades().tamano());
+    }
+
+    /**
+     * Todos los voluntarios que encajan con la actividad, sin límite: es la lista de destinatarios de su aviso
+     * por email. Vacío si la actividad no tiene categorías ni requisitos: entonces no hay criterio para filtrar.
+     */
+    public Optional<Set<String>> voluntariosRelevantes(Actividad actividad) {
+        Set<String> terminos = terminos(actividad);
+        if (terminos.isEmpty()) {
+            return Optional.empty();
+        }
+        if (!cargado) {
+            // Mismo criterio que el índice, recorriendo los voluntarios: más lento, pero no avisa a todos ni a nadie
+            try (Stream<Usuario> usuarios = mongoTemplate.stream(consultaVoluntarios(), Usuario.class)) {
+                return Optional.of(usuarios
+                        .filter(usuario -> !Collections.disjoint(terminos(usuario), terminos))
+                        .map(Usuario::getId)
+                        .collect(Collectors.toSet()));
+            }
+        }
+        return Optional.of(indices.voluntarios().coincidentes(terminos));
+    }
+
+    // La lista de recomendaciones sí se acota a candidatos-maximo
+    public List<String> actividadesRecomendadas(String usuarioId, int limite, Set<String> excluidas) {
+        Set<String> terminos = indices.voluntarios().terminos(usuarioId);
+        if (terminos.isEmpty()) {
+            // Coordinadores y voluntarios dados de alta hace un momento no están en el índice
+            Query query = new Query(Criteria.where("_id").is(usuarioId));
+            query.fields().include("habilidades", "areasInteres");
+            Usuario usuario = mongoTemplate.findOne(query, Usuario.class);
+            terminos = usuario == null ? Set.of() : terminos(usuario);
+        }
+        return indices.actividades().buscar(terminos, Math.min(limite, candidatosMaximo), excluidas).stream()
+                .map(IndiceInvertido.Resultado::documentoId)
+                .toList();
+    }
+
+    @EventListener
+    public void alCambiarUsuario(CambioDocumento<Usuario> cambio) {
+        indexarUsuario(cambio.documentoId(), cambio.documento());
+    }
+
+    /**
+     * Lo llama UsuarioService tras guardar, para que el cambio cuente en esta instancia aunque el bus no esté
+     * disponible; el evento del bus repite luego lo mismo. Con el usuario nulo (borrado) sale del índice.
+     */
+    public void indexarUsuario(String usuarioId, Usuario usuario) {
+        Set<String> terminos = usuario != null && usuario.isActivo() && usuario.getRol() == Rol.VOLUNTARIO
+                ? terminos(usuario)
+                : Set.of();
+        aplicar(actuales -> actuales.voluntarios().indexar(usuarioId, terminos));
+    }
+
+    // Llega también desde otras instancias (PuenteCambiosActividades); se relee solo lo que se indexa
+    @EventListener
+    public void alModificarActividad(ActividadModificadaEvent evento) {
+        Actividad abierta = evento.tipo() == ActividadModificadaEvent.TipoCambio.ELIMINADA ? null
+                : mongoTemplate.findOne(
+                        consultaActividades(abiertas().and("_id").is(evento.actividadId())), Actividad.class);
+        Set<String> terminos = abierta != null ? terminos(abierta) : Set.of();
+        aplicar(actuales -> actuales.actividades().indexar(evento.actividadId(), terminos));
+    }
+
+    @Async
+    @EventListener
+    public void alPerderCambios(CambiosPerdidosEvent evento) {
+        if (reconstruccionPedida.compareAndSet(false, true)) {
+            reconstruir();
+        }
+    }
+
+    // Indexar reemplaza los términos del documento, así que repetir un cambio sobre el índice nuevo es inocuo
+    private void aplicar(Consumer<Indices> cambio) {
+        Indices actuales;
+        synchronized (cerrojoCambios) {
+            if (cambiosDuranteReconstruccion != null) {
+                cambiosDuranteReconstruccion.add(cambio);
+            }
+            actuales = indices;
+        }
+        cambio.accept(actuales);
+    }
+
+    private static Query consultaVoluntarios() {
+        Query query = new Query(Criteria.where("rol").is(Rol.VOLUNTARIO).and("activo").is(true));
+        query.fields().include("habilidades", "areasInteres");
+        return query;
+    }
+
+    private static Criteria abiertas() {
+        return Criteria.where("estado").is(EstadoActividad.PROXIMA).and("cuposDisponibles").gt(0);
+    }
+
+    private static Query consultaActividades(Criteria criteria) {
+        Query query = new Query(criteria);
+        query.fields().include("categoriasActividad", "requisitos");
+        return query;
+    }
+
+    private static Set<String> terminos(Usuario usuario) {
+        Set<String> terminos = new HashSet<>();
+        agregarTerminos(usuario.getHabilidades(), terminos);
+        agregarTerminos(usuario.getAreasInteres(), terminos);
+        return terminos;
+    }
+
+    private static Set<String> terminos(Actividad actividad) {
+        Set<String> terminos = new HashSet<>();
+        agregarTerminos(actividad.getCategoriasActividad(), terminos);
+        agregarTerminos(actividad.getRequisitos(), terminos);
+        return terminos;
+    }
+
+    // Palabras en minúsculas y sin tildes, de al menos tres letras: "Atención a mayores" → atencion, mayores
+    private static void agregarTerminos(Collection<String> textos, Set<String> terminos) {
+        if (textos == null) {
+            return;
+        }
+        for (String texto : textos) {
+            if (texto == null) {
+                continue;
+            }
+            String normalizado = DIACRITICOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD))
+                    .replaceAll("")
+                    .toLowerCase(Locale.ROOT);
+            for (String palabra : SEPARADORES.split(normalizado)) {
+                if (palabra.length() >= 3 && !PALABRAS_VACIAS.contains(palabra)) {
+                    terminos.add(palabra);
+                }
+            }
+        }
+    }
+}
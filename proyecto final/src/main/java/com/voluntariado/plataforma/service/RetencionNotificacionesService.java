@@ -0,0 +1,285 @@
+package com.voluntariado.plataforma.service;
+
+import com.mongodb.client.model.CreateCollectionOptions;
+import com.voluntariado.plataforma.dto.NotificacionDTO;
+import com.voluntariado.plataforma.dto.PaginaCursor;
+import com.voluntariado.plataforma.lock.BloqueoDistribuido;
+import com.voluntariado.plataforma.model.Comunicado;
+import com.voluntariado.plataforma.model.Notificacion;
+import com.voluntariado.plataforma.model.NotificacionArchivada;
+import com.voluntariado.plataforma.model.NotificacionDifundida;
+import com.voluntariado.plataforma.repository.ComunicadoRepository;
+import com.voluntariado.plataforma.util.CursorPaginacion;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Retención de notificaciones. Las leídas y las difundidas caducan por índices TTL; las no leídas más antiguas
+ * que la ventana de archivado se mueven a una colección comprimida, consultable página a página.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RetencionNotificacionesService {
+
+    private static final String TTL_LEIDAS = "ttl_leidas";
+    private static final String TTL_DIFUNDIDAS = "ttl_difundidas";
+
+    private final MongoTemplate mongoTemplate;
+    private final ComunicadoRepository comunicadoRepository;
+    private final ContadoresUsuarioService contadoresUsuarioService;
+
+    @Value("${notificaciones.retencion.leidas-dias:30}")
+    private long diasLeidas;
+
+    @Value("${notificaciones.retencion.difundidas-dias:180}")
+    private long diasDifundidas;
+
+    @Value("${notificaciones.retencion.archivar-dias:90}")
+    private long diasArchivar;
+
+    @Value("${notificaciones.retencion.lote:1000}")
+    private int tamanoLote;
+
+    @Value("${notificaciones.retencion.compresor:zstd}")
+    private String compresor;
+
+    @Value("${notificaciones.archivo.tamano-pagina:30}")
+    private int tamanoPagina;
+
+    @Value("${notificaciones.archivo.tamano-maximo:100}")
+    private int tamanoMaximoPagina;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void prepararColecciones() {
+        asegurarTtl(Notificacion.class, "fechaLectura", TTL_LEIDAS, Duration.ofDays(diasLeidas));
+        asegurarTtl(NotificacionDifundida.class, "fechaCreacion", TTL_DIFUNDIDAS, Duration.ofDays(diasDifundidas));
+
+        // El compresor solo se puede elegir al crear la colección; las existentes se quedan como estén
+        if (!mongoTemplate.collectionExists(NotificacionArchivada.COLECCION)) {
+            mongoTemplate.getDb().createCollection(NotificacionArchivada.COLECCION, new CreateCollectionOptions()
+                    .storageEngineOptions(new Document("wiredTiger",
+                            new Document("configString", "block_compressor=" + compresor))));
+        }
+        mongoTemplate.indexOps(NotificacionArchivada.class).ensureIndex(new Index()
+                .on("usuarioId", Sort.Direction.ASC)
+                .on("fechaCreacion", Sort.Direction.DESC)
+                .on("_id", Sort.Direction.DESC)
+                .named("usuario_fecha"));
+        mongoTemplate.indexOps(NotificacionArchivada.class).ensureIndex(new Index()
+                .on("pendiente", Sort.Direction.ASC)
+                .sparse()
+                .named("pendientes"));
+    }
+
+    // Un TTL existente con otra duración se ajusta con collMod, sin reconstruir el índice
+    private void asegurarTtl(Class<?> tipo, String campo, String nombre, Duration vida) {
+        IndexOperations indices = mongoTemplate.indexOps(tipo);
+        Optional<IndexInfo> actual = indices.getIndexInfo().stream()
+                .filter(indice -> nombre.equals(indice.getName()))
+                .findFirst();
+
+        if (actual.isEmpty()) {
+            indices.ensureIndex(new Index().on(campo, Sort.Direction.ASC).named(nombre).expire(vida));
+        } else if (!actual.get().getExpireAfter().map(vida::equals).orElse(false)) {
+            mongoTemplate.executeCommand(new Document("collMod", mongoTemplate.getCollectionName(tipo))
+                    .append("index", new Document("name", nombre).append("expireAfterSeconds", vida.toSeconds())));
+            log.info("TTL {} ajustado a {} días", nombre, vida.toDays());
+        }
+    }
+
+    @Scheduled(cron = "${notificaciones.retencion.archivado.cron:0 30 3 * * *}")
+    @BloqueoDistribuido(nombre = "archivado-notificaciones", duracionMaxima = "PT1H", duracionMinima = "PT5M")
+    public void archivarAntiguas() {
+        resolverPendientes();
+
+        Query antiguas = new Query(Criteria.where("leida").is(false)
+                .and("fechaCreacion").lt(LocalDateTime.now().minusDays(diasArchivar)))
+                .limit(tamanoLote);
+
+        long archivadas = 0;
+        List<Notificacion> lote;
+        do {
+            lote = mongoTemplate.find(antiguas, Notificacion.class);
+            if (!lote.isEmpty()) {
+                archivadas += archivar(lote);
+            }
+        } while (lote.size() == tamanoLote);
+
+        if (archivadas > 0) {
+            log.info("Archivado de notificaciones: {} movidas a {}", archivadas, NotificacionArchivada.COLECCION);
+        }
+    }
+
+    // Primero la copia y después el borrado: si el proceso cae entre medias la notificación sigue en su sitio y
+    // la copia queda pendiente. Devuelve cuántas se movieron
+    int archivar(List<Notificacion> lote) {
+        LocalDateTime ahora = LocalDateTime.now();
+        BulkOperations copias = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, NotificacionArchivada.class);
+        lote.forEach(notificacion -> copias.replaceOne(
+                new Query(Criteria.where("_id").is(notificacion.getId())),
+                archivada(notificacion, ahora),
+                FindAndReplaceOptions.options().upsert()));
+        copias.execute();
+
+        // findAndRemove(leida=false): si se leyó entre medias se queda donde está
+        List<Notificacion> borradas = new ArrayList<>(lote.size());
+        for (Notificacion notificacion : lote) {
+            Notificacion borrada = mongoTemplate.findAndRemove(
+                    new Query(Criteria.where("_id").is(notificacion.getId()).and("leida").is(false)),
+                    Notificacion.class);
+            if (borrada != null) {
+                borradas.add(borrada);
+            }
+        }
+
+        Set<String> idsBorradas = borradas.stream().map(Notificacion::getId).collect(Collectors.toSet());
+        List<String> conservadas = lote.stream()
+                .map(Notificacion::getId)
+                .filter(id -> !idsBorradas.contains(id))
+                .toList();
+        if (!conservadas.isEmpty()) {
+            mongoTemplate.remove(new Query(Criteria.where("_id").in(conservadas)), NotificacionArchivada.class);
+        }
+        if (!idsBorradas.isEmpty()) {
+            confirmar(idsBorradas);
+        }
+
+        borradas.stream()
+                .collect(Collectors.groupingBy(Notificacion::getUsuarioId, Collectors.counting()))
+                .forEach((usuarioId, cantidad) -> contadoresUsuarioService.sumarNotificaciones(usuarioId, -cantidad));
+        return borradas.size();
+    }
+
+    // Copias que quedaron pendientes por una ejecución interrumpida: si la original sigue, la copia sobra (si aún
+    // no está leída la vuelve a archivar el bucle); si ya no está, se borró tras copiarla y la copia vale
+    void resolverPendientes() {
+        Query pendientes = new Query(Criteria.where("pendiente").is(true)).limit(tamanoLote);
+        pendientes.fields().include("_id");
+
+        List<NotificacionArchivada> lote;
+        do {
+            lote = mongoTemplate.find(pendientes, NotificacionArchivada.class);
+            List<String> ids = lote.stream().map(NotificacionArchivada::getId).toList();
+            if (ids.isEmpty()) {
+                break;
+            }
+            Query originales = new Query(Criteria.where("_id").in(ids));
+            originales.fields().include("_id");
+            Set<String> siguen = mongoTemplate.find(originales, Notificacion.class).stream()
+                    .map(Notificacion::getId)
+                    .collect(Collectors.toSet());
+
+            if (!siguen.isEmpty()) {
+                mongoTemplate.remove(new Query(Criteria.where("_id").in(siguen)), NotificacionArchivada.class);
+            }
+            Set<String> movidas = ids.stream().filter(id -> !siguen.contains(id)).collect(Collectors.toSet());
+            if (!movidas.isEmpty()) {
+                confirmar(movidas);
+            }
+            log.warn("Archivado de notificaciones: {} copias pendientes resueltas", ids.size());
+        } while (lote.size() == tamanoLote);
+    }
+
+    private void confirmar(Collection<String> ids) {
+        mongoTemplate.updateMulti(new Query(Criteria.where("_id").in(ids)), new Update().unset("pendiente"),
+                NotificacionArchivada.class);
+    }
+
+    public PaginaCursor<NotificacionDTO> obtenerArchivo(String usuarioId, String cursor, Integer limite) {
+        int tamano = limite == null ? tamanoPagina : Math.max(1, Math.min(limite, tamanoMaximoPagina));
+
+        Criteria criteria = Criteria.where("usuarioId").is(usuarioId).and("pendiente").ne(true);
+        if (cursor != null && !cursor.isBlank()) {
+            CursorPaginacion.Posicion posicion = CursorPaginacion.decodificar(cursor);
+            criteria = criteria.orOperator(
+                    Criteria.where("fechaCreacion").lt(posicion.fecha()),
+                    Criteria.where("fechaCreacion").is(posicion.fecha()).and("_id").lt(posicion.id()));
+        }
+
+        // Se pide uno de más para saber si hay otra página sin contar
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "fechaCreacion", "_id"))
+                .limit(tamano + 1);
+        List<NotificacionArchivada> archivadas = mongoTemplate.find(query, NotificacionArchivada.class);
+
+        String siguiente = null;
+        if (archivadas.size() > tamano) {
+            archivadas = archivadas.subList(0, tamano);
+            NotificacionArchivada ultima = archivadas.get(tamano - 1);
+            siguiente = CursorPaginacion.codificar(ultima.getFechaCreacion(), ultima.getId());
+        }
+
+        Set<String> comunicadosIds = archivadas.stream()
+                .map(NotificacionArchivada::getComunicadoId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<String, Comunicado> comunicados = comunicadosIds.isEmpty() ? Map.of()
+                : comunicadoRepository.findTextosByIdIn(comunicadosIds).stream()
+                        .collect(Collectors.toMap(Comunicado::getId, Function.identity()));
+
+        return PaginaCursor.<NotificacionDTO>builder()
+                .elementos(archivadas.stream()
+                        .map(archivada -> convertirADTO(archivada, comunicados.get(archivada.getComunicadoId())))
+                        .collect(Collectors.toList()))
+                .siguienteCursor(siguiente)
+                .build();
+    }
+
+    private static NotificacionArchivada archivada(Notificacion notificacion, LocalDateTime fechaArchivado) {
+        return NotificacionArchivada.builder()
+                .id(notificacion.getId())
+                .usuarioId(notificacion.getUsuarioId())
+                .titulo(notificacion.getTitulo())
+                .mensaje(notificacion.getMensaje())
+                .tipo(notificacion.getTipo())
+                .actividadId(notificacion.getActividadId())
+                .comunicadoId(notificacion.getComunicadoId())
+                .leida(notificacion.isLeida())
+                .fechaCreacion(notificacion.getFechaCreacion())
+                .fechaArchivado(fechaArchivado)
+                .pendiente(true)
+                .build();
+    }
+
+    private static NotificacionDTO convertirADTO(NotificacionArchivada archivada, Comunicado comunicado) {
+        return NotificacionDTO.builder()
+                .id(archivada.getId())
+                .usuarioId(archivada.getUsuarioId())
+                .titulo(comunicado != null ? comunicado.getTitulo() : archivada.getTitulo())
+                .mensaje(comunicado != null ? comunicado.getMensaje() : archivada.getMensaje())
+                .tipo(archivada.getTipo())
+                .actividadId(archivada.getActividadId())
+                .leida(archivada.isLeida())
+                .fechaCreacion(archivada.getFechaCreacion())
+                .build();
+    }
+}
@@ -11,7 +11,9 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,6 +23,8 @@ public class UsuarioService {
     private final UsuarioRepository usuarioRepository;
     private final PasswordEncoder passwordEncoder;
     private final AuditoriaService auditoriaService;
+    private final PropagacionNombresService propagacionNombresService;
+    private final RecomendacionesService recomendacionesService;
 
     public UsuarioDTO obtenerPorId(String id) {
         Usuario usuario = usuarioRepository.findById(id)
@@ -35,19 +39,19 @@ public class UsuarioService {
     }
 
     public List<UsuarioDTO> listarTodos() {
-        return usuarioRepository.findAll().stream()
+        return usuarioRepository.findResumenes().stream()
                 .map(this::convertirADTO)
                 .collect(Collectors.toList());
     }
 
     public List<UsuarioDTO> listarPorRol(Rol rol) {
-        return usuarioRepository.findByRol(rol).stream()
+        return usuarioRepository.findResumenByRol(rol).stream()
                 .map(this::convertirADTO)
                 .collect(Collectors.toList());
     }
 
     public List<UsuarioDTO> listarActivos() {
-        return usuarioRepository.findByActivoTrue().stream()
+        return usuarioRepository.findResumenByActivoTrue().stream()
                 .map(this::convertirADTO)
                 .collect(Collectors.toList());
     }
@@ -56,18 +60,32 @@ public class UsuarioService {
         Usuario usuario = usuarioRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Usuario", "id", id));
 
+        String nombreAnterior = usuario.getNombre();
+        boolean nombreCambiado = !Objects.equals(nombreAnterior, dto.getNombre());
         usuario.setNombre(dto.getNombre());
+        if (nombreCambiado) {
+            // Se guarda con el propio cambio: si la propagación asíncrona falla, queda constancia para reintentarla
+            usuario.setNombrePendienteDesde(LocalDateTime.now());
+        }
         usuario.setTelefono(dto.getTelefono());
         usuario.setDireccion(dto.getDireccion());
         usuario.setHabilidades(dto.getHabilidades());
         usuario.setAreasInteres(dto.getAreasInteres());
         usuario.setNotificacionesActivas(dto.isNotificacionesActivas());
+        if (dto.getFrecuenciaEmail() != null) {
+            usuario.setFrecuenciaEmail(dto.getFrecuenciaEmail());
+        }
 
         usuario = usuarioRepository.save(usuario);
+        recomendacionesService.indexarUsuario(id, usuario);
 
         auditoriaService.registrarAccion(id, usuario.getCorreo(),
                 "ACTUALIZACION_PERFIL", "Usuario", id, "Actualización de datos personales");
 
+        if (nombreCambiado) {
+            propagacionNombresService.propagarNombre(id);
+        }
+
         return convertirADTO(usuario);
     }
 
@@ -93,6 +111,7 @@ public class UsuarioService {
         Rol rolAnterior = usuario.getRol();
         usuario.setRol(nuevoRol);
         usuarioRepository.save(usuario);
+        recomendacionesService.indexarUsuario(id, usuario);
 
         auditoriaService.registrarAccion(adminId, null,
                 "CAMBIO_ROL", "Usuario", id,
@@ -105,6 +124,7 @@ public class UsuarioService {
 
         usuario.setActivo(activo);
         usuarioRepository.save(usuario);
+        recomendacionesService.indexarUsuario(id, usuario);
 
         auditoriaService.registrarAccion(adminId, null,
                 activo ? "ACTIVACION_USUARIO" : "DESACTIVACION_USUARIO",
@@ -121,6 +141,7 @@ public class UsuarioService {
                 "Usuario eliminado: " + usuario.getCorreo());
 
         usuarioRepository.delete(usuario);
+        recomendacionesService.indexarUsuario(id, null);
     }
 
     private UsuarioDTO convertirADTO(Usuario usuario) {
@@ -136,6 +157,7 @@ public class UsuarioService {
                 .activo(usuario.isActivo())
                 .verificado(usuario.isVerificado())
                 .notificacionesActivas(usuario.isNotificacionesActivas())
+                .frecuenciaEmail(usuario.getFrecuenciaEmail())
                 .organizacionId(usuario.getOrganizacionId())
                 .fechaCreacion(usuario.getFechaCreacion())
                 .ultimoAcceso(usuario.getUltimoAcceso())
@@ -0,0 +1,142 @@
+package com.voluntariado.plataforma.service;
+
+import com.voluntariado.plataforma.dto.CertificadoDTO;
+import com.voluntariado.plataforma.evento.CambioDocumento;
+import com.voluntariado.plataforma.evento.CambiosPerdidosEvent;
+import com.voluntariado.plataforma.evento.EstadoBusCambios;
+import com.voluntariado.plataforma.model.Certificado;
+import com.voluntariado.plataforma.repository.CertificadoRepository;
+import com.voluntariado.plataforma.util.CacheLRU;
+import com.voluntariado.plataforma.util.FiltroBloom;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class VerificacionCertificadoService {
+
+    private static final double PROBABILIDAD_FALSO_POSITIVO = 0.01;
+
+    private final CertificadoRepository certificadoRepository;
+    // Sin bus entregando eventos no llegan los códigos emitidos por otras instancias hasta la siguiente
+    // sincronización: habilitarlo en la configuración no basta, el cursor tiene que estar abierto
+    private final EstadoBusCambios estadoBus;
+
+    @Value("${certificados.verificacion.elementos-esperados:100000}")
+    private long elementosEsperados;
+
+    @Value("${certificados.verificacion.cache-tamano:1000}")
+    private int tamanoCache;
+
+    private CacheLRU<String, CertificadoDTO> verificadosRecientes;
+
+    private volatile FiltroBloom filtro;
+    private volatile FiltroBloom filtroEnConstruccion;
+    private volatile LocalDateTime ultimaSincronizacion;
+
+    @PostConstruct
+    void inicializarCache() {
+        verificadosRecientes = new CacheLRU<>(tamanoCache);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruirFiltro() {
+        LocalDateTime inicio = LocalDateTime.now();
+        long emitidos = certificadoRepository.count();
+        FiltroBloom nuevo = new FiltroBloom(Math.max(elementosEsperados, emitidos * 2), PROBABILIDAD_FALSO_POSITIVO);
+
+        // Los códigos emitidos mientras se reconstruye también se agregan al filtro nuevo
+        filtroEnConstruccion = nuevo;
+        try (Stream<Certificado> certificados = certificadoRepository.streamCodigosVerificacion()) {
+            certificados.map(Certificado::getCodigoVerificacion)
+                    .filter(Objects::nonNull)
+                    .forEach(nuevo::agregar);
+        }
+
+        filtro = nuevo;
+        filtroEnConstruccion = null;
+        ultimaSincronizacion = inicio;
+        log.info("Filtro de verificación de certificados construido con {} códigos", emitidos);
+    }
+
+    // Red de seguridad del bus: recoge los códigos emitidos desde la última sincronización
+    @Scheduled(fixedDelayString = "${certificados.verificacion.sincronizacion-ms:60000}")
+    public void sincronizarEmitidos() {
+        FiltroBloom actual = filtro;
+        LocalDateTime desde = ultimaSincronizacion;
+        if (actual == null || desde == null) {
+            return;
+        }
+
+        LocalDateTime inicio = LocalDateTime.now();
+        try (Stream<Certificado> certificados = certificadoRepository.streamCodigosEmitidosDesde(desde.minusMinutes(1))) {
+            certificados.map(Certificado::getCodigoVerificacion)
+                    .filter(Objects::nonNull)
+                    .forEach(actual::agregar);
+        }
+        ultimaSincronizacion = inicio;
+        if (!estadoBus.isDisponible()) {
+            verificadosRecientes.limpiar();
+        }
+    }
+
+    // Emisiones de cualquier instancia entran al filtro en cuanto llegan por el bus
+    @EventListener
+    public void alCambiarCertificado(CambioDocumento<Certificado> cambio) {
+        if (cambio.operacion() != CambioDocumento.Operacion.INSERCION) {
+            // Revocado o regenerado: la entrada cacheada puede estar bajo un código que aquí ya no se conoce
+            verificadosRecientes.limpiar();
+        }
+        Certificado certificado = cambio.documento();
+        if (certificado != null && certificado.getCodigoVerificacion() != null) {
+            registrarEmitido(certificado.getCodigoVerificacion());
+        }
+    }
+
+    @EventListener
+    public void alPerderCambios(CambiosPerdidosEvent evento) {
+        verificadosRecientes.limpiar();
+        reconstruirFiltro();
+    }
+
+    public boolean puedeExistir(String codigo) {
+        FiltroBloom actual = filtro;
+        // Mientras el filtro no esté listo, todas las consultas van a la base de datos
+        return actual == null || actual.puedeContener(codigo);
+    }
+
+    // Solo se responde "no existe" sin consultar la base de datos mientras el bus mantiene el filtro al día
+    public boolean descartable(String codigo) {
+        return estadoBus.isDisponible() && !puedeExistir(codigo);
+    }
+
+    public void registrarEmitido(String codigo) {
+        FiltroBloom actual = filtro;
+        if (actual != null) {
+            actual.agregar(codigo);
+        }
+        FiltroBloom enConstruccion = filtroEnConstruccion;
+        if (enConstruccion != null) {
+            enConstruccion.agregar(codigo);
+        }
+    }
+
+    public CertificadoDTO obtenerVerificado(String codigo) {
+        return verificadosRecientes.obtener(codigo);
+    }
+
+    public void registrarVerificado(String codigo, CertificadoDTO certificado) {
+        verificadosRecientes.guardar(codigo, certificado);
+    }
+}
@@ -0,0 +1,150 @@
+package com.voluntariado.plataforma.service;
+
+import com.voluntariado.plataforma.evento.ActividadModificadaEvent;
+import com.voluntariado.plataforma.evento.CambiosPerdidosEvent;
+import com.voluntariado.plataforma.model.Actividad;
+import com.voluntariado.plataforma.repository.ActividadRepository;
+import com.voluntariado.plataforma.util.CacheLRU;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Versiones del catálogo de actividades para los ETags de /api/actividades.
+ * La versión de la colección sale de los datos compartidos (última fechaActualizacion y total de documentos),
+ * así que todas las instancias entregan el mismo ETag para el mismo catálogo; la de cada actividad sale de su
+ * fechaActualizacion.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class VersionCatalogoActividades {
+
+    private final ActividadRepository actividadRepository;
+
+    @Value("${actividades.cache.versiones-tamano:10000}")
+    private int tamanoVersiones;
+
+    // Sube con cada cambio conocido; la versión leída de MongoDB vale mientras no haya subido
+    private final AtomicLong generacion = new AtomicLong();
+    private final ReentrantLock lectura = new ReentrantLock();
+    private volatile VersionLeida versionColeccion;
+
+    private CacheLRU<String, Long> versionesActividad;
+
+    private volatile LocalDateTime ultimaActualizacionVista;
+    private volatile long totalVisto = -1;
+
+    @PostConstruct
+    void inicializar() {
+        versionesActividad = new CacheLRU<>(tamanoVersiones);
+    }
+
+    public String versionActual() {
+        VersionLeida leida = versionColeccion;
+        if (leida != null && leida.generacion() == generacion.get()) {
+            return leida.valor();
+        }
+        // Tras un cambio, una sola petición vuelve a leer; las demás esperan y reutilizan su lectura
+        lectura.lock();
+        try {
+            leida = versionColeccion;
+            long actual = generacion.get();
+            if (leida == null || leida.generacion() != actual) {
+                leida = new VersionLeida(actual, leerVersion());
+                versionColeccion = leida;
+            }
+            return leida.valor();
+        } finally {
+            lectura.unlock();
+        }
+    }
+
+    public String etagColeccion() {
+        return "W/\"c" + versionActual() + "\"";
+    }
+
+    // Vacío si esta instancia aún no conoce la versión de la actividad
+    public Optional<String> etagActividad(String id) {
+        return Optional.ofNullable(versionesActividad.obtener(id)).map(VersionCatalogoActividades::formatear);
+    }
+
+    public String registrarVersion(String id, LocalDateTime fechaActualizacion) {
+        long version = aVersion(fechaActualizacion);
+        // Nunca retrocede: una lectura lenta no puede pisar la versión que dejó una escritura posterior
+        versionesActividad.fusionar(id, version, Math::max);
+        return formatear(version);
+    }
+
+    @EventListener
+    public void alModificarActividad(ActividadModificadaEvent evento) {
+        generacion.incrementAndGet();
+        if (evento.tipo() == ActividadModificadaEvent.TipoCambio.ELIMINADA || evento.fechaActualizacion() == null) {
+            versionesActividad.eliminar(evento.actividadId());
+        } else {
+            versionesActividad.fusionar(evento.actividadId(), aVersion(evento.fechaActualizacion()), Math::max);
+        }
+    }
+
+    @EventListener
+    public void alPerderCambios(CambiosPerdidosEvent evento) {
+        generacion.incrementAndGet();
+        versionesActividad.limpiar();
+    }
+
+    // Detecta escrituras hechas por otras instancias: cambios de fechaActualizacion o del total (borrados)
+    @Scheduled(fixedDelayString = "${actividades.cache.sincronizacion-ms:15000}")
+    public void sincronizar() {
+        LocalDateTime ultima = actividadRepository.findUltimaActualizacion()
+                .map(Actividad::getFechaActualizacion)
+                .orElse(null);
+        long total = actividadRepository.count();
+
+        LocalDateTime vista = ultimaActualizacionVista;
+        if (totalVisto >= 0 && (total != totalVisto || !Objects.equals(ultima, vista))) {
+            generacion.incrementAndGet();
+            if (total != totalVisto || vista == null) {
+                versionesActividad.limpiar();
+            } else {
+                actividadRepository.findActualizadasDesde(vista)
+                        .forEach(actividad -> versionesActividad.eliminar(actividad.getId()));
+            }
+            log.debug("Catálogo de actividades modificado fuera de esta instancia");
+        }
+
+        ultimaActualizacionVista = ultima;
+        totalVisto = total;
+    }
+
+    // Toda escritura fija fechaActualizacion (@LastModifiedDate) y un borrado cambia el total: el par identifica
+    // el estado del catálogo igual en todas las instancias, y tras un reinicio no repite un ETag ya entregado
+    private String leerVersion() {
+        long ultima = actividadRepository.findUltimaActualizacion()
+                .map(Actividad::getFechaActualizacion)
+                .map(VersionCatalogoActividades::aVersion)
+                .orElse(0L);
+        return ultima + "-" + actividadRepository.count();
+    }
+
+    private static long aVersion(LocalDateTime fechaActualizacion) {
+        return fechaActualizacion == null ? 0L : fechaActualizacion.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private static String formatear(long version) {
+        return "W/\"a" + version + "\"";
+    }
+
+    private record VersionLeida(long generacion, String valor) {
+    }
+}
@@ -0,0 +1,88 @@
+package com.voluntariado.plataforma.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Árbol de intervalos inmutable para consultas de solapamiento. Los elementos se ordenan por inicio y se
+ * guardan en un array que hace de árbol binario balanceado implícito (la raíz de cada rango es su punto medio);
+ * cada nodo conoce el mayor fin de su subárbol, así que se descartan ramas enteras que terminan antes de la
+ * consulta o empiezan después. Con intervalos cortos, como las actividades, una consulta cuesta O(log n + k);
+ * el peor caso (muchos intervalos largos anidados) es O(k log n). Para cambiar el contenido se construye otro.
+ */
+public final class ArbolIntervalos<K extends Comparable<? super K>, T> {
+
+    private final List<T> elementos;
+    private final List<K> inicios;
+    private final List<K> fines;
+    private final List<K> finMaximo;
+
+    public ArbolIntervalos(Collection<? extends T> contenido, Function<? super T, K> inicio, Function<? super T, K> fin) {
+        List<T> ordenados = new ArrayList<>(contenido);
+        ordenados.sort(Comparator.comparing(inicio));
+
+        this.elementos = ordenados;
+        this.inicios = new ArrayList<>(ordenados.size());
+        this.fines = new ArrayList<>(ordenados.size());
+        for (T elemento : ordenados) {
+            inicios.add(inicio.apply(elemento));
+            fines.add(fin.apply(elemento));
+        }
+        this.finMaximo = new ArrayList<>(fines);
+        calcularFinMaximo(0, ordenados.size() - 1);
+    }
+
+    public int tamano() {
+        return elementos.size();
+    }
+
+    // Elementos cuyo [inicio, fin] corta [desde, hasta], ambos extremos incluidos, ordenados por inicio
+    public List<T> solapados(K desde, K hasta) {
+        List<T> resultado = new ArrayList<>();
+        buscar(0, elementos.size() - 1, desde, hasta, resultado);
+        return resultado;
+    }
+
+    private K calcularFinMaximo(int desde, int hasta) {
+        if (desde > hasta) {
+            return null;
+        }
+        int medio = (desde + hasta) >>> 1;
+        K maximo = mayor(fines.get(medio), mayor(calcularFinMaximo(desde, medio - 1), calcularFinMaximo(medio + 1, hasta)));
+        finMaximo.set(medio, maximo);
+        return maximo;
+    }
+
+    private void buscar(int desde, int hasta, K inicioConsulta, K finConsulta, List<T> resultado) {
+        if (desde > hasta) {
+            return;
+        }
+        int medio = (desde + hasta) >>> 1;
+        // Todo el subárbol termina antes de la consulta
+        if (finMaximo.get(medio).compareTo(inicioConsulta) < 0) {
+            return;
+        }
+        buscar(desde, medio - 1, inicioConsulta, finConsulta, resultado);
+        // Este nodo y los de su derecha empiezan después de la consulta
+        if (inicios.get(medio).compareTo(finConsulta) > 0) {
+            return;
+        }
+        if (fines.get(medio).compareTo(inicioConsulta) >= 0) {
+            resultado.add(elementos.get(medio));
+        }
+        buscar(medio + 1, hasta, inicioConsulta, finConsulta, resultado);
+    }
+
+    private static <K extends Comparable<? super K>> K mayor(K a, K b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+}
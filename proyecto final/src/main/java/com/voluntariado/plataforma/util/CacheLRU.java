@@ -0,0 +1,69 @@
+package com.voluntariado.plataforma.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+
+/**
+ * Cache pequeña de tamaño fijo que descarta la entrada usada hace más tiempo.
+ */
+public class CacheLRU<K, V> {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<K, V> entradas;
+
+    public CacheLRU(int capacidad) {
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > capacidad;
+            }
+        };
+    }
+
+    public V obtener(K clave) {
+        lock.lock();
+        try {
+            return entradas.get(clave);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void guardar(K clave, V valor) {
+        lock.lock();
+        try {
+            entradas.put(clave, valor);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void fusionar(K clave, V valor, BiFunction<? super V, ? super V, ? extends V> funcion) {
+        lock.lock();
+        try {
+            entradas.merge(clave, valor, funcion);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void eliminar(K clave) {
+        lock.lock();
+        try {
+            entradas.remove(clave);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void limpiar() {
+        lock.lock();
+        try {
+            entradas.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
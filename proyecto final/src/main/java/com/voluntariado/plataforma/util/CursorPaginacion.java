@@ -0,0 +1,36 @@
+package com.voluntariado.plataforma.util;
+
+import com.voluntariado.plataforma.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Cursor opaco para paginar por (fecha, _id) en orden descendente: apunta al último elemento entregado.
+ */
+public final class CursorPaginacion {
+
+    private CursorPaginacion() {
+    }
+
+    public record Posicion(LocalDateTime fecha, String id) {
+    }
+
+    public static String codificar(LocalDateTime fecha, String id) {
+        String posicion = fecha + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(posicion.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Posicion decodificar(String cursor) {
+        try {
+            String[] posicion = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+            if (posicion.length != 2) {
+                throw new IllegalArgumentException();
+            }
+            return new Posicion(LocalDateTime.parse(posicion[0]), posicion[1]);
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Cursor de paginación no válido");
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.voluntariado.plataforma.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom concurrente para cadenas. Responde "seguro que no está" o "puede estar";
+ * nunca da falsos negativos para valores agregados.
+ */
+public class FiltroBloom {
+
+    private final AtomicLongArray bits;
+    private final int numBits;
+    private final int numHashes;
+
+    public FiltroBloom(long elementosEsperados, double probabilidadFalsoPositivo) {
+        long esperados = Math.max(1, elementosEsperados);
+        double ln2 = Math.log(2);
+        long m = (long) Math.ceil(-esperados * Math.log(probabilidadFalsoPositivo) / (ln2 * ln2));
+
+        this.numBits = (int) Math.max(64, Math.min(m, Integer.MAX_VALUE - 64));
+        this.numHashes = Math.max(1, (int) Math.round((double) numBits / esperados * ln2));
+        this.bits = new AtomicLongArray((numBits + 63) / 64);
+    }
+
+    public void agregar(String valor) {
+        long hash = hash64(valor);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+
+        for (int i = 1; i <= numHashes; i++) {
+            int indice = indice(h1 + i * h2);
+            long mascara = 1L << indice;
+            bits.getAndAccumulate(indice >>> 6, mascara, (actual, m) -> actual | m);
+        }
+    }
+
+    public boolean puedeContener(String valor) {
+        long hash = hash64(valor);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+
+        for (int i = 1; i <= numHashes; i++) {
+            int indice = indice(h1 + i * h2);
+            if ((bits.get(indice >>> 6) & (1L << indice)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int indice(int combinado) {
+        return (combinado < 0 ? ~combinado : combinado) % numBits;
+    }
+
+    // FNV-1a de 64 bits seguido del mezclador final de MurmurHash3
+    private static long hash64(String valor) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : valor.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= (b & 0xff);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,118 @@
+package com.voluntariado.plataforma.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice invertido concurrente de término a documentos, con puntuación por coincidencia de términos
+ * ponderada por rareza (IDF): un término que tienen pocos documentos pesa más que uno que tienen casi todos.
+ */
+public class IndiceInvertido {
+
+    public record Resultado(String documentoId, double puntuacion) {
+    }
+
+    private final Map<String, Set<String>> documentosPorTermino = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> terminosPorDocumento = new ConcurrentHashMap<>();
+
+    /**
+     * Reemplaza los términos del documento; un conjunto vacío lo elimina. Todo ocurre dentro del compute del
+     * documento, así que dos actualizaciones del mismo documento no se entrelazan, y cada lista de un término
+     * se toca solo dentro de su propio compute: nunca se añade a una lista que otro hilo acaba de retirar.
+     */
+    public void indexar(String documentoId, Set<String> terminos) {
+        Set<String> nuevos = Set.copyOf(terminos);
+        terminosPorDocumento.compute(documentoId, (id, anteriores) -> {
+            if (anteriores != null) {
+                anteriores.stream()
+                        .filter(termino -> !nuevos.contains(termino))
+                        .forEach(termino -> quitar(termino, id));
+            }
+            nuevos.forEach(termino -> poner(termino, id));
+            return nuevos.isEmpty() ? null : nuevos;
+        });
+    }
+
+    public void eliminar(String documentoId) {
+        indexar(documentoId, Set.of());
+    }
+
+    // Documentos con al menos uno de los términos, sin puntuar ni limitar
+    public Set<String> coincidentes(Collection<String> terminos) {
+        Set<String> resultado = new HashSet<>();
+        for (String termino : terminos) {
+            Set<String> documentos = documentosPorTermino.get(termino);
+            if (documentos != null) {
+                resultado.addAll(documentos);
+            }
+        }
+        return resultado;
+    }
+
+    public Set<String> terminos(String documentoId) {
+        return terminosPorDocumento.getOrDefault(documentoId, Set.of());
+    }
+
+    public int tamano() {
+        return terminosPorDocumento.size();
+    }
+
+    /**
+     * Los {@code limite} documentos con más puntuación para los términos dados, de mayor a menor. Solo recorre
+     * las listas de los términos consultados, no el índice entero.
+     */
+    public List<Resultado> buscar(Collection<String> terminos, int limite, Set<String> excluidos) {
+        int total = Math.max(1, terminosPorDocumento.size());
+        Map<String, Double> puntuaciones = new HashMap<>();
+        for (String termino : terminos) {
+            Set<String> documentos = documentosPorTermino.get(termino);
+            if (documentos == null || documentos.isEmpty()) {
+                continue;
+            }
+            double peso = Math.log(1.0 + (double) total / documentos.size());
+            for (String documentoId : documentos) {
+                if (!excluidos.contains(documentoId)) {
+                    puntuaciones.merge(documentoId, peso, Double::sum);
+                }
+            }
+        }
+
+        // Montículo de tamaño limite con el peor arriba: O(n log k)
+        PriorityQueue<Resultado> mejores = new PriorityQueue<>(Math.max(1, limite),
+                (a, b) -> Double.compare(a.puntuacion(), b.puntuacion()));
+        puntuaciones.forEach((documentoId, puntuacion) -> {
+            if (mejores.size() < limite) {
+                mejores.add(new Resultado(documentoId, puntuacion));
+            } else if (limite > 0 && puntuacion > mejores.peek().puntuacion()) {
+                mejores.poll();
+                mejores.add(new Resultado(documentoId, puntuacion));
+            }
+        });
+
+        List<Resultado> resultado = new ArrayList<>(mejores);
+        resultado.sort((a, b) -> Double.compare(b.puntuacion(), a.puntuacion()));
+        return resultado;
+    }
+
+    private void poner(String termino, String documentoId) {
+        documentosPorTermino.compute(termino, (t, documentos) -> {
+            Set<String> resultado = documentos != null ? documentos : ConcurrentHashMap.newKeySet();
+            resultado.add(documentoId);
+            return resultado;
+        });
+    }
+
+    private void quitar(String termino, String documentoId) {
+        documentosPorTermino.computeIfPresent(termino, (t, documentos) -> {
+            documentos.remove(documentoId);
+            return documentos.isEmpty() ? null : documentos;
+        });
+    }
+}
@@ -0,0 +1,57 @@
+package com.voluntariado.plataforma.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Mezcla k listas ya ordenadas con el mismo criterio en una sola, en O(n log k) y sin reordenar el resultado.
+ */
+public final class MezclaOrdenada {
+
+    private MezclaOrdenada() {
+    }
+
+    public static <T> List<T> mezclar(List<? extends List<? extends T>> listas, Comparator<? super T> orden) {
+        int total = 0;
+        PriorityQueue<Cursor<T>> cabezas = new PriorityQueue<>(
+                Math.max(1, listas.size()), (a, b) -> orden.compare(a.actual, b.actual));
+        for (List<? extends T> lista : listas) {
+            total += lista.size();
+            if (!lista.isEmpty()) {
+                cabezas.add(new Cursor<>(lista.iterator()));
+            }
+        }
+
+        List<T> resultado = new ArrayList<>(total);
+        while (!cabezas.isEmpty()) {
+            Cursor<T> cursor = cabezas.poll();
+            resultado.add(cursor.actual);
+            if (cursor.avanzar()) {
+                cabezas.add(cursor);
+            }
+        }
+        return resultado;
+    }
+
+    private static final class Cursor<T> {
+
+        private final Iterator<? extends T> iterador;
+        private T actual;
+
+        private Cursor(Iterator<? extends T> iterador) {
+            this.iterador = iterador;
+            this.actual = iterador.next();
+        }
+
+        private boolean avanzar() {
+            if (!iterador.hasNext()) {
+                return false;
+            }
+            actual = iterador.next();
+            return true;
+        }
+    }
+}
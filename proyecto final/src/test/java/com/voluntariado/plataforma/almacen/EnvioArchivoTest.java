@@ -0,0 +1,186 @@
+package com.voluntariado.plataforma.almacen;
+
+import jakarta.servlet.ServletOutputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EnvioArchivoTest {
+
+    private static final String ETAG = "abc123";
+
+    @TempDir
+    Path directorio;
+
+    private Path archivo;
+    private byte[] contenido;
+
+    @BeforeEach
+    void crearArchivo() throws IOException {
+        contenido = new byte[100];
+        for (int i = 0; i < contenido.length; i++) {
+            contenido[i] = (byte) i;
+        }
+        archivo = Files.write(directorio.resolve(ETAG), contenido);
+    }
+
+    @Test
+    void sinRangoEnviaElArchivoEntero() throws IOException {
+        MockHttpServletResponse response = enviar(peticion());
+
+        assertEquals(200, response.getStatus());
+        assertEquals(100, response.getContentLengthLong());
+        assertEquals("\"" + ETAG + "\"", response.getHeader(HttpHeaders.ETAG));
+        assertArrayEquals(contenido, response.getContentAsByteArray());
+    }
+
+    @Test
+    void unRangoDevuelveSoloEseTrozo() throws IOException {
+        MockHttpServletRequest request = peticion();
+        request.addHeader(HttpHeaders.RANGE, "bytes=10-19");
+
+        MockHttpServletResponse response = enviar(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 10-19/100", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(Arrays.copyOfRange(contenido, 10, 20), response.getContentAsByteArray());
+    }
+
+    @Test
+    void unSufijoDevuelveLosUltimosBytes() throws IOException {
+        MockHttpServletRequest request = peticion();
+        request.addHeader(HttpHeaders.RANGE, "bytes=-5");
+
+        MockHttpServletResponse response = enviar(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 95-99/100", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(Arrays.copyOfRange(contenido, 95, 100), response.getContentAsByteArray());
+    }
+
+    @Test
+    void unFinMasAllaDelArchivoSeRecorta() throws IOException {
+        MockHttpServletRequest request = peticion();
+        request.addHeader(HttpHeaders.RANGE, "bytes=90-500");
+
+        MockHttpServletResponse response = enviar(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 90-99/100", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(10, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void rangosVaciosOFueraDelArchivoDevuelven416() throws IOException {
+        for (String rango : new String[] {"bytes=-0", "bytes=100-", "bytes=150-200", "bytes=a-b", "items=0-1"}) {
+            MockHttpServletRequest request = peticion();
+            request.addHeader(HttpHeaders.RANGE, rango);
+
+            MockHttpServletResponse response = enviar(request);
+
+            assertEquals(416, response.getStatus(), rango);
+            assertEquals("bytes */100", response.getHeader(HttpHeaders.CONTENT_RANGE), rango);
+            assertEquals(0, response.getContentAsByteArray().length, rango);
+        }
+    }
+
+    @Test
+    void variosRangosEnvianElArchivoEntero() throws IOException {
+        MockHttpServletRequest request = peticion();
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-9,20-29");
+
+        MockHttpServletResponse response = enviar(request);
+
+        assertEquals(200, response.getStatus());
+        assertNull(response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertArrayEquals(contenido, response.getContentAsByteArray());
+    }
+
+    @Test
+    void ifNoneMatchAdmiteListasDebilesYComodin() throws IOException {
+        for (String cabecera : new String[] {"\"abc123\"", "\"otro\", \"abc123\"", "W/\"abc123\"", "*"}) {
+            MockHttpServletRequest request = peticion();
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, cabecera);
+
+            MockHttpServletResponse response = enviar(request);
+
+            assertEquals(304, response.getStatus(), cabecera);
+            assertEquals(0, response.getContentAsByteArray().length, cabecera);
+        }
+    }
+
+    @Test
+    void ifNoneMatchDeOtraVersionEnviaElArchivo() throws IOException {
+        MockHttpServletRequest request = peticion();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"otro\", W/\"abc12\"");
+
+        MockHttpServletResponse response = enviar(request);
+
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(contenido, response.getContentAsByteArray());
+    }
+
+    @Test
+    void conSendfileSoloSeIndicaElRangoATomcat() throws IOException {
+        MockHttpServletRequest request = peticion();
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader(HttpHeaders.RANGE, "bytes=10-19");
+
+        MockHttpServletResponse response = enviar(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals(10L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(20L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+        assertEquals(archivo.toAbsolutePath().toString(),
+                request.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void siElArchivoSeAcortaDuranteElEnvioFallaEnLugarDeQuedarseEnBucle() {
+        MockHttpServletResponse response = new MockHttpServletResponse() {
+            @Override
+            public ServletOutputStream getOutputStream() {
+                // Se acorta entre medir la longitud y enviar el contenido
+                try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.WRITE)) {
+                    canal.truncate(50);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return super.getOutputStream();
+            }
+        };
+
+        assertThrows(EOFException.class,
+                () -> EnvioArchivo.enviar(archivo, "application/pdf", ETAG, peticion(), response));
+        assertEquals(100, response.getContentLengthLong());
+        assertArrayEquals(Arrays.copyOf(contenido, 50), response.getContentAsByteArray());
+    }
+
+    private static MockHttpServletRequest peticion() {
+        return new MockHttpServletRequest("GET", "/api/evidencias/1/archivo");
+    }
+
+    private MockHttpServletResponse enviar(MockHttpServletRequest request) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        EnvioArchivo.enviar(archivo, "application/pdf", ETAG, request, response);
+        return response;
+    }
+}
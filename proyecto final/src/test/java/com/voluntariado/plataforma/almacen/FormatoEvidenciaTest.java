@@ -0,0 +1,48 @@
+package com.voluntariado.plataforma.almacen;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class FormatoEvidenciaTest {
+
+    @Test
+    void detectaCadaFormatoPorSuFirma() {
+        assertEquals(FormatoEvidencia.JPG, FormatoEvidencia.detectar(
+                new byte[] {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0, 0, 0x10, 'J', 'F'}));
+        assertEquals(FormatoEvidencia.PNG, FormatoEvidencia.detectar(
+                new byte[] {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'}));
+        assertEquals(FormatoEvidencia.PDF, FormatoEvidencia.detectar(
+                "%PDF-1.7".getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    @Test
+    void rechazaContenidoSinFirmaAdmitida() {
+        assertNull(FormatoEvidencia.detectar("<svg xml".getBytes(StandardCharsets.US_ASCII)));
+        assertNull(FormatoEvidencia.detectar(new byte[] {'G', 'I', 'F', '8', '9', 'a', 0, 0}));
+        // Un PNG con la cabecera alterada por una transferencia en modo texto
+        assertNull(FormatoEvidencia.detectar(new byte[] {(byte) 0x89, 'P', 'N', 'G', '\n', 0x1A, '\n', 0}));
+    }
+
+    @Test
+    void unaCabeceraMasCortaQueLaFirmaNoCoincide() {
+        assertNull(FormatoEvidencia.detectar(new byte[0]));
+        assertNull(FormatoEvidencia.detectar(new byte[] {(byte) 0xFF, (byte) 0xD8}));
+        assertNull(FormatoEvidencia.detectar("%PDF".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals(FormatoEvidencia.JPG,
+                FormatoEvidencia.detectar(new byte[] {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF}));
+    }
+
+    @Test
+    void traduceLosNombresDeFormatoExternos() {
+        assertEquals(FormatoEvidencia.JPG, FormatoEvidencia.deNombre("jpeg"));
+        assertEquals(FormatoEvidencia.JPG, FormatoEvidencia.deNombre("JPG"));
+        assertEquals(FormatoEvidencia.PNG, FormatoEvidencia.deNombre("png"));
+        assertEquals(FormatoEvidencia.PDF, FormatoEvidencia.deNombre("pdf"));
+        assertNull(FormatoEvidencia.deNombre("gif"));
+        assertNull(FormatoEvidencia.deNombre(null));
+    }
+}
@@ -0,0 +1,139 @@
+package com.voluntariado.plataforma.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.voluntariado.plataforma.model.Actividad;
+import com.voluntariado.plataforma.model.enums.EstadoActividad;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Bytes serializados de un listado con el DTO completo y con el de resumen, sobre un catálogo sintético fijo.
+ * Las cifras del README salen de aquí; con datos reales se miden con DIAGNOSTICO_TRANSFERENCIA=true.
+ */
+class TamanoListadosTest {
+
+    static final int ELEMENTOS = 500;
+
+    private static final String PARRAFO = "Jornada de limpieza y reforestación en el parque, con guantes, bolsas "
+            + "y refrigerio incluidos. ";
+    private static final String DESCRIPCION = PARRAFO.repeat(10);
+    private static final String CONTENIDO = "Hola, te escribo para coordinar el turno del sábado y confirmar "
+            + "quién lleva las herramientas. ";
+
+    // Como el ObjectMapper de Spring Boot: módulos de java.time y fechas en ISO-8601
+    private final ObjectMapper mapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Test
+    void elResumenDeActividadesOcupaMenosDeLaMitad() throws JsonProcessingException {
+        List<ActividadDTO> completas = IntStream.range(0, ELEMENTOS).mapToObj(TamanoListadosTest::actividad).toList();
+        List<ActividadResumenDTO> resumenes = completas.stream().map(TamanoListadosTest::resumen).toList();
+
+        comparar("actividades", completas, resumenes);
+    }
+
+    @Test
+    void elResumenDeMensajesOcupaMenosDeLaMitad() throws JsonProcessingException {
+        List<MensajeDTO> completos = IntStream.range(0, ELEMENTOS).mapToObj(TamanoListadosTest::mensaje).toList();
+        List<MensajeResumenDTO> resumenes = completos.stream().map(TamanoListadosTest::resumen).toList();
+
+        comparar("mensajes", completos, resumenes);
+    }
+
+    private void comparar(String listado, List<?> completos, List<?> resumenes) throws JsonProcessingException {
+        long antes = mapper.writeValueAsBytes(completos).length;
+        long despues = mapper.writeValueAsBytes(resumenes).length;
+        System.out.printf("%s (%d): completo %d bytes, resumen %d bytes (%.1f %%)%n",
+                listado, ELEMENTOS, antes, despues, 100.0 * despues / antes);
+        assertTrue(despues * 2 < antes, listado + ": " + despues + " de " + antes + " bytes");
+    }
+
+    static ActividadDTO actividad(int i) {
+        LocalDateTime fecha = LocalDateTime.of(2026, 6, 1, 9, 0).plusDays(i);
+        return ActividadDTO.builder()
+                .id(String.format("%024x", i))
+                .titulo("Limpieza de playa " + i)
+                .descripcion(DESCRIPCION)
+                .fecha(fecha)
+                .fechaFin(fecha.plusHours(4))
+                .lugar("Parque Central")
+                .direccion("Av. Principal 123, Ciudad")
+                .latitud(-34.6037)
+                .longitud(-58.3816)
+                .cupos(20)
+                .cuposDisponibles(5)
+                .estado(EstadoActividad.PROXIMA)
+                .coordinadorId(String.format("%024x", 1_000_000 + i))
+                .coordinadorNombre("María González")
+                .organizacionId(String.format("%024x", 42))
+                .requisitos(List.of("Mayor de 16 años", "Ropa cómoda", "Protector solar"))
+                .categoriasActividad(List.of("MEDIO_AMBIENTE", "COMUNIDAD"))
+                .horasVoluntariado(4)
+                .fechaCreacion(LocalDateTime.of(2026, 5, 1, 10, 30))
+                .fechaActualizacion(LocalDateTime.of(2026, 5, 2, 11, 45, 30))
+                .inscritos(15)
+                .build();
+    }
+
+    private static ActividadResumenDTO resumen(ActividadDTO actividad) {
+        return ActividadResumenDTO.builder()
+                .id(actividad.getId())
+                .titulo(actividad.getTitulo())
+                .descripcionCorta(Actividad.recortarDescripcion(actividad.getDescripcion()))
+                .fecha(actividad.getFecha())
+                .fechaFin(actividad.getFechaFin())
+                .lugar(actividad.getLugar())
+                .cupos(actividad.getCupos())
+                .cuposDisponibles(actividad.getCuposDisponibles())
+                .estado(actividad.getEstado())
+                .coordinadorId(actividad.getCoordinadorId())
+                .coordinadorNombre(actividad.getCoordinadorNombre())
+                .organizacionId(actividad.getOrganizacionId())
+                .categoriasActividad(actividad.getCategoriasActividad())
+                .horasVoluntariado(actividad.getHorasVoluntariado())
+                .fechaActualizacion(actividad.getFechaActualizacion())
+                .inscritos(actividad.getInscritos())
+                .build();
+    }
+
+    static MensajeDTO mensaje(int i) {
+        LocalDateTime envio = LocalDateTime.of(2026, 5, 1, 8, 0).plusMinutes(i);
+        return MensajeDTO.builder()
+                .id(String.format("%024x", 2_000_000 + i))
+                .conversacionId(String.format("%024x", 3_000_000 + i / 10))
+                .remitenteId(String.format("%024x", 1))
+                .remitenteNombre("María González")
+                .destinatarioId(String.format("%024x", 2))
+                .destinatarioNombre("Luis Pérez")
+                .asunto("Turno del sábado " + i)
+                .contenido(CONTENIDO.repeat(8))
+                .leido(i % 2 == 0)
+                .archivado(false)
+                .fechaEnvio(envio)
+                .fechaLectura(envio.plusHours(1))
+                .build();
+    }
+
+    private static MensajeResumenDTO resumen(MensajeDTO mensaje) {
+        return MensajeResumenDTO.builder()
+                .id(mensaje.getId())
+                .conversacionId(mensaje.getConversacionId())
+                .remitenteId(mensaje.getRemitenteId())
+                .remitenteNombre(mensaje.getRemitenteNombre())
+                .destinatarioId(mensaje.getDestinatarioId())
+                .destinatarioNombre(mensaje.getDestinatarioNombre())
+                .asunto(mensaje.getAsunto())
+                .leido(mensaje.isLeido())
+                .archivado(mensaje.isArchivado())
+                .fechaEnvio(mensaje.getFechaEnvio())
+                .build();
+    }
+}
@@ -0,0 +1,157 @@
+package com.voluntariado.plataforma.evento;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.voluntariado.plataforma.evento.CambioDocumento.Operacion;
+import com.voluntariado.plataforma.model.TokenReanudacion;
+import com.voluntariado.plataforma.repository.TokenReanudacionRepository;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@Testcontainers(disabledWithoutDocker = true)
+class BusCambiosMongoTest {
+
+    // MongoDBContainer arranca un replica set de un solo nodo, como pide el bus
+    @Container
+    static final MongoDBContainer REPLICA_SET = new MongoDBContainer("mongo:7.0");
+
+    @Container
+    static final GenericContainer<?> STANDALONE = new GenericContainer<>("mongo:7.0").withExposedPorts(27017);
+
+    private final List<Object> eventos = new CopyOnWriteArrayList<>();
+    private final ApplicationEventPublisher publicador = eventos::add;
+    private final Map<String, TokenReanudacion> tokens = new ConcurrentHashMap<>();
+    private final List<BusCambiosMongo> buses = new ArrayList<>();
+    private final List<MongoClient> clientes = new ArrayList<>();
+
+    @AfterEach
+    void detener() {
+        buses.forEach(BusCambiosMongo::stop);
+        clientes.forEach(MongoClient::close);
+    }
+
+    @Test
+    void publicaLasEscriturasDelReplicaSet() {
+        MongoTemplate mongoTemplate = plantilla(REPLICA_SET.getReplicaSetUrl());
+        EstadoBusCambios estado = new EstadoBusCambios();
+        iniciar(mongoTemplate, estado);
+        esperar(estado::isDisponible, "el bus no abrió el cursor");
+
+        ObjectId id = new ObjectId();
+        mongoTemplate.getCollection("actividades").insertOne(new Document("_id", id).append("titulo", "Limpieza"));
+
+        esperar(() -> cambio(id.toHexString(), Operacion.INSERCION).isPresent(), "no llegó la inserción");
+        assertEquals("actividades", cambio(id.toHexString(), Operacion.INSERCION).orElseThrow().coleccion());
+    }
+
+    @Test
+    void reanudaDesdeElTokenGuardadoTrasUnReinicio() {
+        MongoTemplate mongoTemplate = plantilla(REPLICA_SET.getReplicaSetUrl());
+        EstadoBusCambios estado = new EstadoBusCambios();
+        BusCambiosMongo primero = iniciar(mongoTemplate, estado);
+        esperar(estado::isDisponible, "el bus no abrió el cursor");
+        ObjectId antes = new ObjectId();
+        mongoTemplate.getCollection("actividades").insertOne(new Document("_id", antes));
+        esperar(() -> cambio(antes.toHexString(), Operacion.INSERCION).isPresent(), "no llegó la inserción");
+        primero.stop();
+
+        // Escrito con el bus parado: la siguiente instancia lo recibe al reanudar desde el token
+        ObjectId durante = new ObjectId();
+        mongoTemplate.getCollection("actividades").insertOne(new Document("_id", durante));
+        iniciar(mongoTemplate, new EstadoBusCambios());
+
+        esperar(() -> cambio(durante.toHexString(), Operacion.INSERCION).isPresent(),
+                "no se recibió la escritura hecha con el bus parado");
+    }
+
+    @Test
+    void sinReplicaSetAvisaQuedaNoDisponibleYNoReintenta() throws InterruptedException {
+        String url = "mongodb://" + STANDALONE.getHost() + ":" + STANDALONE.getMappedPort(27017) + "/test";
+        EstadoBusCambios estado = new EstadoBusCambios();
+        BusCambiosMongo bus = iniciar(plantilla(url), estado);
+
+        esperar(() -> eventos.stream().anyMatch(CambiosPerdidosEvent.class::isInstance),
+                "no se publicó CambiosPerdidosEvent");
+        Thread hilo = (Thread) ReflectionTestUtils.getField(bus, "hilo");
+        hilo.join(Duration.ofSeconds(10).toMillis());
+
+        assertFalse(hilo.isAlive(), "el bus sigue reintentando contra un servidor sin change streams");
+        assertFalse(estado.isDisponible());
+        assertEquals(1, eventos.stream().filter(CambiosPerdidosEvent.class::isInstance).count());
+    }
+
+    private BusCambiosMongo iniciar(MongoTemplate mongoTemplate, EstadoBusCambios estado) {
+        TokenReanudacionRepository tokenRepository = mock(TokenReanudacionRepository.class);
+        when(tokenRepository.findById(anyString()))
+                .thenAnswer(invocacion -> Optional.ofNullable(tokens.get(invocacion.<String>getArgument(0))));
+        when(tokenRepository.save(any(TokenReanudacion.class))).thenAnswer(invocacion -> {
+            TokenReanudacion token = invocacion.getArgument(0);
+            tokens.put(token.getInstanciaId(), token);
+            return token;
+        });
+
+        BusCambiosMongo bus = new BusCambiosMongo(mongoTemplate, tokenRepository, publicador, estado);
+        ReflectionTestUtils.setField(bus, "instanciaId", "prueba");
+        ReflectionTestUtils.setField(bus, "intervaloTokenMs", 0L);
+        buses.add(bus);
+        bus.start();
+        return bus;
+    }
+
+    private MongoTemplate plantilla(String url) {
+        MongoClient cliente = MongoClients.create(url);
+        clientes.add(cliente);
+        return new MongoTemplate(cliente, "voluntariado_bus_" + clientes.size() + "_" + System.nanoTime());
+    }
+
+    private Optional<CambioDocumento<?>> cambio(String id, Operacion operacion) {
+        return eventos.stream()
+                .filter(CambioDocumento.class::isInstance)
+                .<CambioDocumento<?>>map(evento -> (CambioDocumento<?>) evento)
+                .filter(evento -> id.equals(evento.documentoId()) && evento.operacion() == operacion)
+                .findFirst();
+    }
+
+    private static void esperar(BooleanSupplier condicion, String mensaje) {
+        long limite = System.nanoTime() + Duration.ofSeconds(20).toNanos();
+        while (System.nanoTime() < limite) {
+            if (condicion.getAsBoolean()) {
+                return;
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                fail(mensaje);
+            }
+        }
+        assertTrue(condicion.getAsBoolean(), mensaje);
+    }
+}
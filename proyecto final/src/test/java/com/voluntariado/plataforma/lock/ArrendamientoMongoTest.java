@@ -0,0 +1,149 @@
+package com.voluntariado.plataforma.lock;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Testcontainers(disabledWithoutDocker = true)
+class ArrendamientoMongoTest {
+
+    private static final Duration LARGA = Duration.ofMinutes(5);
+    private static final Duration CORTA = Duration.ofMillis(300);
+
+    @Container
+    static final MongoDBContainer MONGO = new MongoDBContainer("mongo:7.0");
+
+    private static MongoClient cliente;
+
+    private MongoTemplate mongoTemplate;
+    private ArrendamientoMongo nodoA;
+    private ArrendamientoMongo nodoB;
+
+    @BeforeAll
+    static void conectar() {
+        cliente = MongoClients.create(MONGO.getReplicaSetUrl());
+    }
+
+    @AfterAll
+    static void desconectar() {
+        cliente.close();
+    }
+
+    @BeforeEach
+    void crearNodos() {
+        mongoTemplate = new MongoTemplate(cliente, "bloqueos_" + System.nanoTime());
+        nodoA = nodo("a");
+        nodoB = nodo("b");
+    }
+
+    @Test
+    void unArrendamientoVigenteNoLoTomaOtroNodo() {
+        Arrendamiento arrendamiento = nodoA.adquirir("tarea", LARGA).orElseThrow();
+
+        assertEquals(nodoA.titular(), arrendamiento.titular());
+        assertEquals(1, arrendamiento.tokenCercado());
+        assertTrue(nodoB.adquirir("tarea", LARGA).isEmpty());
+        assertTrue(nodoA.adquirir("tarea", LARGA).isEmpty(), "tampoco se readquiere mientras sigue vigente");
+        assertTrue(nodoA.esVigente(arrendamiento));
+    }
+
+    @Test
+    void renovarExtiendeElVencimientoSinCambiarElToken() throws InterruptedException {
+        Arrendamiento arrendamiento = nodoA.adquirir("tarea", CORTA).orElseThrow();
+
+        Arrendamiento renovado = nodoA.renovar(arrendamiento, LARGA).orElseThrow();
+        Thread.sleep(CORTA.toMillis() * 2);
+
+        assertTrue(renovado.expira().isAfter(arrendamiento.expira()));
+        assertEquals(arrendamiento.tokenCercado(), renovado.tokenCercado());
+        assertTrue(nodoA.esVigente(renovado));
+        assertTrue(nodoB.adquirir("tarea", LARGA).isEmpty());
+    }
+
+    @Test
+    void alVencerLoTomaOtroNodoConUnTokenMayor() throws InterruptedException {
+        Arrendamiento deA = nodoA.adquirir("tarea", CORTA).orElseThrow();
+        Thread.sleep(CORTA.toMillis() * 2);
+
+        Arrendamiento deB = nodoB.adquirir("tarea", LARGA).orElseThrow();
+
+        assertEquals(nodoB.titular(), deB.titular());
+        assertTrue(deB.tokenCercado() > deA.tokenCercado());
+        // El titular anterior ya no puede renovar ni liberar el de B
+        assertFalse(nodoA.esVigente(deA));
+        assertTrue(nodoA.renovar(deA, LARGA).isEmpty());
+        nodoA.liberar(deA);
+        assertTrue(nodoB.esVigente(deB));
+    }
+
+    @Test
+    void elTokenCreceEnCadaAdquisicion() {
+        long anterior = 0;
+        for (int i = 0; i < 5; i++) {
+            ArrendamientoMongo nodo = i % 2 == 0 ? nodoA : nodoB;
+            Arrendamiento arrendamiento = nodo.adquirir("tarea", LARGA).orElseThrow();
+            assertTrue(arrendamiento.tokenCercado() > anterior);
+            anterior = arrendamiento.tokenCercado();
+            nodo.liberar(arrendamiento);
+        }
+    }
+
+    @Test
+    void liberarPermiteAdquirirloEnseguida() {
+        Arrendamiento deA = nodoA.adquirir("tarea", LARGA).orElseThrow();
+
+        nodoA.liberar(deA);
+
+        assertFalse(nodoA.esVigente(deA));
+        assertTrue(nodoB.adquirir("tarea", LARGA).isPresent());
+    }
+
+    @Test
+    void laDuracionMinimaRetieneElArrendamientoTrasLiberarlo() throws InterruptedException {
+        Arrendamiento deA = nodoA.adquirir("tarea", LARGA).orElseThrow();
+
+        nodoA.liberar(deA, Instant.now().plus(CORTA));
+
+        assertTrue(nodoB.adquirir("tarea", LARGA).isEmpty());
+        Thread.sleep(CORTA.toMillis() * 2);
+        assertTrue(nodoB.adquirir("tarea", LARGA).isPresent());
+    }
+
+    @Test
+    void dosProcesosConElMismoIdentificadorSonTitularesDistintos() {
+        ArrendamientoMongo mismoHost = nodo("a");
+
+        assertNotEquals(nodoA.titular(), mismoHost.titular());
+        Arrendamiento deA = nodoA.adquirir("tarea", LARGA).orElseThrow();
+        assertTrue(mismoHost.adquirir("tarea", LARGA).isEmpty());
+        assertTrue(nodoA.esVigente(deA));
+    }
+
+    @Test
+    void losNombresSonIndependientes() {
+        assertTrue(nodoA.adquirir("tarea-1", LARGA).isPresent());
+        assertTrue(nodoB.adquirir("tarea-2", LARGA).isPresent());
+    }
+
+    private ArrendamientoMongo nodo(String instanciaId) {
+        ArrendamientoMongo nodo = new ArrendamientoMongo(mongoTemplate);
+        ReflectionTestUtils.setField(nodo, "instanciaId", instanciaId);
+        return nodo;
+    }
+}
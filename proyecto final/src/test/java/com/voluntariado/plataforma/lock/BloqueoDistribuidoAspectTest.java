@@ -0,0 +1,157 @@
+package com.voluntariado.plataforma.lock;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BloqueoDistribuidoAspectTest {
+
+    private static final Instant ADQUIRIDO = Instant.parse("2026-05-10T09:00:00Z");
+
+    private final ArrendamientoMongo arrendamientoMongo = mock(ArrendamientoMongo.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final AtomicLong renovaciones = new AtomicLong();
+    private final Tareas objetivo = new Tareas();
+    private BloqueoDistribuidoAspect aspecto;
+    private Tareas tareas;
+
+    @BeforeEach
+    void crearProxy() {
+        aspecto = new BloqueoDistribuidoAspect(arrendamientoMongo, registry);
+        aspecto.setEmbeddedValueResolver(valor -> valor);
+        AspectJProxyFactory fabrica = new AspectJProxyFactory(objetivo);
+        fabrica.setProxyTargetClass(true);
+        fabrica.addAspect(aspecto);
+        tareas = fabrica.getProxy();
+
+        // Cada renovación devuelve el arrendamiento con el vencimiento extendido y el mismo token
+        when(arrendamientoMongo.renovar(any(), any())).thenAnswer(invocacion -> {
+            Arrendamiento actual = invocacion.getArgument(0);
+            renovaciones.incrementAndGet();
+            return Optional.of(new Arrendamiento(actual.nombre(), actual.titular(), actual.tokenCercado(),
+                    actual.adquirido(), actual.expira().plusSeconds(3)));
+        });
+    }
+
+    @AfterEach
+    void detener() {
+        aspecto.detener();
+    }
+
+    @Test
+    void ejecutaConElArrendamientoYLoLiberaAlTerminar() {
+        Arrendamiento arrendamiento = arrendamiento(7);
+        when(arrendamientoMongo.adquirir("tarea", Duration.ofMinutes(5))).thenReturn(Optional.of(arrendamiento));
+
+        Optional<Arrendamiento> visto = tareas.rapida();
+
+        assertEquals(Optional.of(arrendamiento), visto);
+        assertTrue(ContextoBloqueo.actual().isEmpty(), "el contexto se limpia al salir");
+        verify(arrendamientoMongo).liberar(arrendamiento, ADQUIRIDO.plusSeconds(30));
+        assertEquals(1, registry.get("tareas.programadas.duracion").tag("resultado", "ok").timer().count());
+    }
+
+    @Test
+    void seOmiteSiOtroNodoTieneElArrendamiento() {
+        when(arrendamientoMongo.adquirir(any(), any())).thenReturn(Optional.empty());
+
+        assertNull(tareas.rapida());
+
+        assertEquals(0, objetivo.ejecuciones);
+        assertEquals(1, registry.get("tareas.programadas.omitidas").tag("tarea", "tarea").counter().count());
+        verify(arrendamientoMongo, never()).liberar(any(), any());
+    }
+
+    @Test
+    void renuevaMientrasElTrabajoSigueYLiberaLaUltimaRenovacion() throws InterruptedException {
+        when(arrendamientoMongo.adquirir("lenta", Duration.ofSeconds(3))).thenReturn(Optional.of(arrendamiento(1)));
+
+        tareas.lenta(2500);
+
+        // Periodo de un tercio de la duración máxima: 1 s
+        assertTrue(renovaciones.get() >= 2, "renovaciones: " + renovaciones.get());
+        verify(arrendamientoMongo, atLeast(2)).renovar(any(), eq(Duration.ofSeconds(3)));
+        verify(arrendamientoMongo).liberar(eq(renovado(renovaciones.get())), any());
+    }
+
+    @Test
+    void siElMetodoLanzaSeCancelaLaRenovacionYSeLibera() throws InterruptedException {
+        when(arrendamientoMongo.adquirir("fallida", Duration.ofSeconds(3))).thenReturn(Optional.of(arrendamiento(1)));
+
+        assertThrows(IllegalStateException.class, () -> tareas.fallida(1500));
+        long alFallar = renovaciones.get();
+        Thread.sleep(2500);
+
+        assertEquals(alFallar, renovaciones.get(), "siguió renovando tras el error");
+        verify(arrendamientoMongo).liberar(any(), any());
+        assertEquals(1, registry.get("tareas.programadas.duracion").tag("resultado", "error").timer().count());
+        assertTrue(ContextoBloqueo.actual().isEmpty());
+    }
+
+    @Test
+    void siSePierdeElArrendamientoDejaDeRenovarYLoCuenta() throws InterruptedException {
+        when(arrendamientoMongo.adquirir("lenta", Duration.ofSeconds(3))).thenReturn(Optional.of(arrendamiento(1)));
+        doReturn(Optional.empty()).when(arrendamientoMongo).renovar(any(), any());
+
+        tareas.lenta(3500);
+
+        long intentos = mockingDetails(arrendamientoMongo).getInvocations().stream()
+                .filter(invocacion -> invocacion.getMethod().getName().equals("renovar"))
+                .count();
+        assertEquals(1, intentos);
+        assertEquals(1, registry.get("tareas.programadas.arrendamiento.perdido").counter().count());
+    }
+
+    private static Arrendamiento arrendamiento(long token) {
+        return new Arrendamiento("tarea", "a:1", token, ADQUIRIDO, ADQUIRIDO.plusSeconds(3));
+    }
+
+    private static Arrendamiento renovado(long veces) {
+        Arrendamiento original = arrendamiento(1);
+        return new Arrendamiento(original.nombre(), original.titular(), original.tokenCercado(),
+                original.adquirido(), original.expira().plusSeconds(3 * veces));
+    }
+
+    static class Tareas {
+
+        int ejecuciones;
+
+        @BloqueoDistribuido(nombre = "tarea", duracionMinima = "PT30S")
+        public Optional<Arrendamiento> rapida() {
+            ejecuciones++;
+            return ContextoBloqueo.actual();
+        }
+
+        @BloqueoDistribuido(nombre = "lenta", duracionMaxima = "PT3S")
+        public void lenta(long milisegundos) throws InterruptedException {
+            Thread.sleep(milisegundos);
+        }
+
+        @BloqueoDistribuido(nombre = "fallida", duracionMaxima = "PT3S")
+        public void fallida(long milisegundos) throws InterruptedException {
+            Thread.sleep(milisegundos);
+            throw new IllegalStateException("fallo de la tarea");
+        }
+    }
+}
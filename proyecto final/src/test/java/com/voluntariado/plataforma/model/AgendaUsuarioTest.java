@@ -0,0 +1,84 @@
+package com.voluntariado.plataforma.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AgendaUsuarioTest {
+
+    private static final LocalDateTime AHORA = LocalDateTime.of(2026, 5, 4, 8, 0);
+
+    private AgendaUsuario agenda;
+
+    @BeforeEach
+    void preparar() {
+        agenda = AgendaUsuario.builder().usuarioId("u1").build();
+        agenda.agregar(tramo("manana", 10, 12), AHORA);
+        agenda.agregar(tramo("tarde", 16, 18), AHORA);
+        // Largo: abarca toda la tarde y obliga a usar finMaximo al retroceder
+        agenda.agregar(tramo("jornada", 9, 20), AHORA);
+    }
+
+    @Test
+    void encuentraLosTramosQueSeSolapan() {
+        assertEquals(List.of("jornada", "manana"), actividades(agenda.solapados(hora(11), hora(13))));
+        assertEquals(List.of("jornada", "tarde"), actividades(agenda.solapados(hora(17), hora(19))));
+    }
+
+    @Test
+    void terminarCuandoEmpiezaOtroNoEsSolape() {
+        AgendaUsuario sencilla = AgendaUsuario.builder().usuarioId("u2").build();
+        sencilla.agregar(tramo("a", 10, 12), AHORA);
+
+        assertTrue(sencilla.solapados(hora(12), hora(14)).isEmpty());
+        assertTrue(sencilla.solapados(hora(8), hora(10)).isEmpty());
+        assertEquals(List.of("a"), actividades(sencilla.solapados(hora(11), hora(13))));
+    }
+
+    @Test
+    void sinTramosCercaNoHaySolape() {
+        assertTrue(agenda.solapados(hora(21), hora(23)).isEmpty());
+        assertTrue(agenda.solapados(hora(6), hora(9)).isEmpty());
+    }
+
+    @Test
+    void agregarSustituyeElTramoDeLaMismaActividad() {
+        agenda.agregar(tramo("tarde", 21, 22), AHORA);
+
+        assertEquals(3, agenda.getTramos().size());
+        assertEquals(List.of("tarde"), actividades(agenda.solapados(hora(21), hora(22))));
+    }
+
+    @Test
+    void quitarYDescartarLosTerminados() {
+        assertTrue(agenda.quitar("manana", AHORA));
+        assertFalse(agenda.quitar("manana", AHORA));
+
+        // Un tramo que termina justo ahora ya no ocupa la agenda
+        agenda.ordenar(hora(18));
+        assertEquals(List.of("jornada"), actividades(agenda.getTramos()));
+    }
+
+    private static List<String> actividades(List<TramoAgenda> tramos) {
+        return tramos.stream().map(TramoAgenda::getActividadId).toList();
+    }
+
+    private static TramoAgenda tramo(String actividadId, int desde, int hasta) {
+        return TramoAgenda.builder()
+                .actividadId(actividadId)
+                .titulo(actividadId)
+                .inicio(hora(desde))
+                .fin(hora(hasta))
+                .build();
+    }
+
+    private static LocalDateTime hora(int hora) {
+        return AHORA.withHour(hora);
+    }
+}
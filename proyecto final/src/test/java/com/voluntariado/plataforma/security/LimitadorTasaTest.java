@@ -0,0 +1,64 @@
+package com.voluntariado.plataforma.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LimitadorTasaTest {
+
+    private final LimitadorTasa limitador = new LimitadorTasa();
+
+    @Test
+    void admiteUnaRafagaHastaLaCapacidad() {
+        LimitadorTasa.Limite limite = new LimitadorTasa.Limite(3, 0.001);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limitador.consumir("ip:1", limite));
+        }
+        long espera = limitador.consumir("ip:1", limite);
+        // Con 0,001 tokens por segundo falta casi un token entero: unos 1000 segundos
+        assertTrue(espera >= 999 && espera <= 1000, "espera: " + espera);
+    }
+
+    @Test
+    void lasClavesTienenCubetasIndependientes() {
+        LimitadorTasa.Limite limite = new LimitadorTasa.Limite(1, 0.001);
+
+        assertEquals(0, limitador.consumir("ip:1", limite));
+        assertTrue(limitador.consumir("ip:1", limite) > 0);
+        assertEquals(0, limitador.consumir("ip:2", limite));
+    }
+
+    @Test
+    void seRecargaConElTiempo() throws InterruptedException {
+        LimitadorTasa.Limite limite = new LimitadorTasa.Limite(1, 1000);
+
+        assertEquals(0, limitador.consumir("ip:1", limite));
+        Thread.sleep(20);
+        assertEquals(0, limitador.consumir("ip:1", limite));
+    }
+
+    @Test
+    void consultarNoGastaTokens() {
+        LimitadorTasa.Limite limite = new LimitadorTasa.Limite(1, 0.001);
+
+        assertEquals(0, limitador.consultar("cuenta:a", limite));
+        assertEquals(0, limitador.consumir("cuenta:a", limite));
+        assertTrue(limitador.consultar("cuenta:a", limite) > 0);
+        assertTrue(limitador.consultar("cuenta:a", limite) > 0);
+    }
+
+    @Test
+    void reiniciarDevuelveLaCapacidadCompleta() {
+        LimitadorTasa.Limite limite = new LimitadorTasa.Limite(2, 0.001);
+        limitador.consumir("cuenta:a", limite);
+        limitador.consumir("cuenta:a", limite);
+        assertTrue(limitador.consultar("cuenta:a", limite) > 0);
+
+        limitador.reiniciar("cuenta:a");
+
+        assertEquals(0, limitador.consumir("cuenta:a", limite));
+        assertEquals(0, limitador.consumir("cuenta:a", limite));
+    }
+}
@@ -0,0 +1,101 @@
+package com.voluntariado.plataforma.security;
+
+import com.voluntariado.plataforma.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Inicios de sesión por segundo según el costo de BCrypt, con el pool y la cola de producción
+ * (un hilo por núcleo, cola de 100, espera máxima de 2 s). Cada cliente verifica la contraseña en bucle,
+ * como haría el {@code DaoAuthenticationProvider}. Se ejecuta con {@code mvn -Pbenchmark test}.
+ */
+@Tag("benchmark")
+class LoginBcryptBenchmarkTest {
+
+    private static final int CLIENTES = 64;
+    private static final long CALENTAMIENTO_MS = 3_000;
+    private static final long MEDICION_MS = 15_000;
+
+    @ParameterizedTest
+    @ValueSource(ints = {8, 10, 11, 12, 13})
+    void inicioDeSesionPorCosto(int costo) throws Exception {
+        int hilos = Runtime.getRuntime().availableProcessors();
+        ThreadPoolExecutor ejecutor = new ThreadPoolExecutor(hilos, hilos, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(100), new ThreadPoolExecutor.AbortPolicy());
+        ExecutorService clientes = Executors.newFixedThreadPool(CLIENTES);
+        try {
+            PasswordEncoder encoder = new PasswordEncoderAislado(new BCryptPasswordEncoder(costo), ejecutor, 2000,
+                    new SimpleMeterRegistry());
+            String hash = encoder.encode("secreta-de-prueba");
+
+            cargar(encoder, hash, clientes, CALENTAMIENTO_MS, new AtomicLong());
+            AtomicLong rechazados = new AtomicLong();
+            List<Long> latencias = cargar(encoder, hash, clientes, MEDICION_MS, rechazados);
+
+            double porSegundo = latencias.size() * 1000.0 / MEDICION_MS;
+            System.out.printf("BCrypt costo %2d | %d hilos | %8.1f logins/s | p50 %7.1f ms | p99 %7.1f ms | "
+                            + "429: %d%n", costo, hilos, porSegundo, percentil(latencias, 0.50),
+                    percentil(latencias, 0.99), rechazados.get());
+            assertTrue(!latencias.isEmpty(), "ningún inicio de sesión terminó");
+        } finally {
+            clientes.shutdownNow();
+            ejecutor.shutdownNow();
+        }
+    }
+
+    // Latencias en nanosegundos de los inicios de sesión admitidos durante la ventana
+    private static List<Long> cargar(PasswordEncoder encoder, String hash, ExecutorService clientes,
+                                     long duracionMs, AtomicLong rechazados) throws Exception {
+        long fin = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(duracionMs);
+        List<Future<List<Long>>> resultados = new ArrayList<>();
+        for (int i = 0; i < CLIENTES; i++) {
+            resultados.add(clientes.submit(() -> {
+                List<Long> propias = new ArrayList<>();
+                while (System.nanoTime() < fin) {
+                    long inicio = System.nanoTime();
+                    try {
+                        if (!encoder.matches("secreta-de-prueba", hash)) {
+                            throw new IllegalStateException("La contraseña debería coincidir");
+                        }
+                        propias.add(System.nanoTime() - inicio);
+                    } catch (TooManyRequestsException e) {
+                        rechazados.incrementAndGet();
+                    }
+                }
+                return propias;
+            }));
+        }
+        List<Long> todas = new ArrayList<>();
+        for (Future<List<Long>> resultado : resultados) {
+            todas.addAll(resultado.get());
+        }
+        return todas;
+    }
+
+    private static double percentil(List<Long> latencias, double percentil) {
+        if (latencias.isEmpty()) {
+            return Double.NaN;
+        }
+        List<Long> ordenadas = new ArrayList<>(latencias);
+        Collections.sort(ordenadas);
+        int indice = (int) Math.ceil(percentil * ordenadas.size()) - 1;
+        return ordenadas.get(Math.max(indice, 0)) / 1_000_000.0;
+    }
+}
@@ -0,0 +1,97 @@
+package com.voluntariado.plataforma.security;
+
+import com.voluntariado.plataforma.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PasswordEncoderAisladoTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CountDownLatch liberar = new CountDownLatch(1);
+    private ThreadPoolExecutor ejecutor;
+
+    @BeforeEach
+    void crearEjecutor() {
+        ejecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1),
+                tarea -> new Thread(tarea, "bcrypt-test"), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @AfterEach
+    void detenerEjecutor() {
+        liberar.countDown();
+        ejecutor.shutdownNow();
+    }
+
+    @Test
+    void hasheaEnElPoolPropioYMideCadaOperacion() {
+        PasswordEncoder encoder = new PasswordEncoderAislado(new BCryptPasswordEncoder(4), ejecutor, 5000, registry);
+
+        String hash = encoder.encode("secreta");
+
+        assertTrue(encoder.matches("secreta", hash));
+        assertFalse(encoder.matches("otra", hash));
+        assertEquals(1, registry.get("seguridad.bcrypt").tag("operacion", "encode").timer().count());
+        assertEquals(2, registry.get("seguridad.bcrypt").tag("operacion", "matches").timer().count());
+    }
+
+    @Test
+    void rechazaCon429SiLaEsperaSuperaElMaximo() {
+        PasswordEncoder encoder = new PasswordEncoderAislado(new EncoderBloqueado(), ejecutor, 50, registry);
+
+        assertThrows(TooManyRequestsException.class, () -> encoder.encode("secreta"));
+    }
+
+    @Test
+    void rechazaCon429SiLaColaEstaLlena() {
+        PasswordEncoder encoder = new PasswordEncoderAislado(new EncoderBloqueado(), ejecutor, 5000, registry);
+        // Un hilo ocupado y la única plaza de la cola tomada: la siguiente petición no espera
+        ejecutor.execute(this::esperarLiberacion);
+        ejecutor.execute(this::esperarLiberacion);
+
+        assertThrows(TooManyRequestsException.class, () -> encoder.encode("secreta"));
+    }
+
+    @Test
+    void propagaLosErroresDelDelegado() {
+        PasswordEncoder encoder = new PasswordEncoderAislado(new BCryptPasswordEncoder(4), ejecutor, 5000, registry);
+
+        assertThrows(IllegalArgumentException.class, () -> encoder.encode(null));
+    }
+
+    private void esperarLiberacion() {
+        try {
+            liberar.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private final class EncoderBloqueado implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            esperarLiberacion();
+            return rawPassword.toString();
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            esperarLiberacion();
+            return rawPassword.toString().equals(encodedPassword);
+        }
+    }
+}
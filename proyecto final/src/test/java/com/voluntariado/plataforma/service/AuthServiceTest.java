@@ -0,0 +1,91 @@
+package com.voluntariado.plataforma.service;
+
+import com.voluntariado.plataforma.dto.auth.LoginRequest;
+import com.voluntariado.plataforma.exception.TooManyRequestsException;
+import com.voluntariado.plataforma.model.Usuario;
+import com.voluntariado.plataforma.repository.UsuarioRepository;
+import com.voluntariado.plataforma.security.JwtService;
+import com.voluntariado.plataforma.security.LimitadorTasa;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuthServiceTest {
+
+    private static final String CORREO = "ana@example.org";
+
+    private final AuthenticationManager authenticationManager = mock(AuthenticationManager.class);
+    private final UsuarioRepository usuarioRepository = mock(UsuarioRepository.class);
+    private final JwtService jwtService = mock(JwtService.class);
+    private AuthService servicio;
+
+    @BeforeEach
+    void crearServicio() {
+        servicio = new AuthService(usuarioRepository, mock(PasswordEncoder.class), jwtService,
+                authenticationManager, mock(AuditoriaService.class), new LimitadorTasa(),
+                mock(RecomendacionesService.class));
+        ReflectionTestUtils.setField(servicio, "capacidadCuenta", 3);
+        ReflectionTestUtils.setField(servicio, "recargaCuenta", 0.001);
+        servicio.inicializarLimite();
+
+        when(authenticationManager.authenticate(argThat(a -> "mala".equals(a.getCredentials()))))
+                .thenThrow(new BadCredentialsException("Credenciales inválidas"));
+        Usuario usuario = Usuario.builder().id("u1").nombre("Ana").correo(CORREO).activo(true).build();
+        when(usuarioRepository.findByCorreo(CORREO)).thenReturn(Optional.of(usuario));
+        when(jwtService.generateToken(any())).thenReturn("token");
+    }
+
+    @Test
+    void losFallosBloqueanSoloALaIpQueLosComete() {
+        for (int i = 0; i < 3; i++) {
+            assertThrows(BadCredentialsException.class, () -> servicio.login(peticion("mala"), "10.0.0.1"));
+        }
+
+        assertThrows(TooManyRequestsException.class, () -> servicio.login(peticion("buena"), "10.0.0.1"));
+        // Quien conoce el correo no deja fuera al titular, que entra desde otra dirección
+        assertEquals("token", servicio.login(peticion("buena"), "10.0.0.2").getToken());
+    }
+
+    @Test
+    void elCorreoNoDistingueMayusculas() {
+        for (int i = 0; i < 3; i++) {
+            assertThrows(BadCredentialsException.class, () -> servicio.login(peticion("mala"), "10.0.0.1"));
+        }
+
+        LoginRequest mayusculas = peticion("buena");
+        mayusculas.setCorreo(CORREO.toUpperCase());
+        assertThrows(TooManyRequestsException.class, () -> servicio.login(mayusculas, "10.0.0.1"));
+    }
+
+    @Test
+    void unAccesoCorrectoReiniciaLosFallos() {
+        for (int i = 0; i < 2; i++) {
+            assertThrows(BadCredentialsException.class, () -> servicio.login(peticion("mala"), "10.0.0.1"));
+        }
+        servicio.login(peticion("buena"), "10.0.0.1");
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(BadCredentialsException.class, () -> servicio.login(peticion("mala"), "10.0.0.1"));
+        }
+        assertEquals("token", servicio.login(peticion("buena"), "10.0.0.1").getToken());
+    }
+
+    private static LoginRequest peticion(String password) {
+        LoginRequest request = new LoginRequest();
+        request.setCorreo(CORREO);
+        request.setPassword(password);
+        return request;
+    }
+}
@@ -0,0 +1,98 @@
+package com.voluntariado.plataforma.service;
+
+import com.voluntariado.plataforma.model.EmailPendiente;
+import com.voluntariado.plataforma.model.Usuario;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AvisosEmailServiceTest {
+
+    private static final int USUARIOS = 45;
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final EmailService emailService = mock(EmailService.class);
+    private final AtomicInteger enVuelo = new AtomicInteger();
+    private final AtomicInteger maximoEnVuelo = new AtomicInteger();
+    private ThreadPoolTaskExecutor emailExecutor;
+
+    @AfterEach
+    void detener() {
+        emailExecutor.shutdown();
+    }
+
+    @Test
+    void noEncolaMasResumenesQueElTopeConfigurado() {
+        AvisosEmailService servicio = servicio(500, 10);
+
+        servicio.enviarResumenes();
+
+        assertTrue(maximoEnVuelo.get() <= 10, "en vuelo a la vez: " + maximoEnVuelo.get());
+        verify(emailService, times(USUARIOS)).enviarEmailHtmlConfirmado(anyString(), anyString(), any());
+    }
+
+    @Test
+    void conLaColaCasiLlenaLaVentanaEsLaMitadDelHuecoLibre() {
+        AvisosEmailService servicio = servicio(8, 50);
+
+        servicio.enviarResumenes();
+
+        assertTrue(maximoEnVuelo.get() <= 4, "en vuelo a la vez: " + maximoEnVuelo.get());
+        assertEquals(0, enVuelo.get());
+        verify(emailService, times(USUARIOS)).enviarEmailHtmlConfirmado(anyString(), anyString(), any());
+    }
+
+    private AvisosEmailService servicio(int colaMaxima, int enviosEnVuelo) {
+        emailExecutor = new ThreadPoolTaskExecutor();
+        emailExecutor.setQueueCapacity(colaMaxima);
+        emailExecutor.initialize();
+
+        List<String> ids = IntStream.range(0, USUARIOS).mapToObj(i -> "u" + i).toList();
+        when(mongoTemplate.findDistinct(any(Query.class), eq("usuarioId"), eq(EmailPendiente.class),
+                eq(String.class))).thenReturn(ids);
+        when(mongoTemplate.find(any(Query.class), eq(Usuario.class))).thenReturn(ids.stream()
+                .map(id -> Usuario.builder().id(id).nombre("Nombre " + id).correo(id + "@example.org").build())
+                .toList());
+        when(mongoTemplate.find(any(Query.class), eq(EmailPendiente.class))).thenReturn(ids.stream()
+                .map(id -> EmailPendiente.builder().id("p-" + id).usuarioId(id).titulo("Aviso").build())
+                .toList());
+
+        // Cada envío tarda un poco en completarse; se cuenta cuántos hay sin terminar a la vez
+        when(emailService.enviarEmailHtmlConfirmado(anyString(), anyString(), any())).thenAnswer(invocacion -> {
+            maximoEnVuelo.accumulateAndGet(enVuelo.incrementAndGet(), Math::max);
+            return CompletableFuture.runAsync(() -> {
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                enVuelo.decrementAndGet();
+            });
+        });
+
+        AvisosEmailService servicio = new AvisosEmailService(mongoTemplate, emailService,
+                mock(PlantillasEmailService.class), emailExecutor, "0 0 18 * * *");
+        ReflectionTestUtils.setField(servicio, "maximoElementos", 20);
+        ReflectionTestUtils.setField(servicio, "loteUsuarios", 500);
+        ReflectionTestUtils.setField(servicio, "enviosEnVuelo", enviosEnVuelo);
+        return servicio;
+    }
+}
@@ -0,0 +1,133 @@
+package com.voluntariado.plataforma.service;
+
+import com.voluntariado.plataforma.exception.BadRequestException;
+import com.voluntariado.plataforma.exception.ResourceNotFoundException;
+import com.voluntariado.plataforma.model.Certificado;
+import com.voluntariado.plataforma.repository.ActividadRepository;
+import com.voluntariado.plataforma.repository.CertificadoRepository;
+import com.voluntariado.plataforma.repository.InscripcionRepository;
+import com.voluntariado.plataforma.repository.UsuarioRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CertificadoServiceTest {
+
+    private static final byte[] CABECERA_PDF = "%PDF-".getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    Path directorio;
+
+    private final CertificadoRepository certificadoRepository = mock(CertificadoRepository.class);
+    private CertificadoService servicio;
+    private Certificado certificado;
+
+    @BeforeEach
+    void crearServicio() {
+        servicio = new CertificadoService(certificadoRepository, mock(UsuarioRepository.class),
+                mock(ActividadRepository.class), mock(InscripcionRepository.class), mock(EmailService.class),
+                mock(AuditoriaService.class), mock(VerificacionCertificadoService.class));
+        ReflectionTestUtils.setField(servicio, "directorioPdf", "");
+        certificado = Certificado.builder()
+                .id("c1")
+                .usuarioId("u1")
+                .actividadId("a1")
+                .nombreVoluntario("Ana")
+                .tituloActividad("Limpieza de playa")
+                .descripcion("Recogida de residuos")
+                .horasParticipacion(4)
+                .fechaActividad(LocalDateTime.of(2026, 5, 10, 9, 0))
+                .fechaEmision(LocalDateTime.of(2026, 5, 11, 12, 0))
+                .codigoVerificacion("ABCDEFGH1234")
+                .build();
+    }
+
+    @Test
+    void laDescargaCargaElCertificadoUnaSolaVez() {
+        when(certificadoRepository.findById("c1")).thenReturn(Optional.of(certificado));
+
+        Certificado cargado = servicio.obtenerParaDescarga("c1", "u1");
+        servicio.escribirPDF(cargado, new ByteArrayOutputStream());
+
+        assertSame(certificado, cargado);
+        verify(certificadoRepository, times(1)).findById("c1");
+    }
+
+    @Test
+    void unCertificadoBorradoDa404AntesDeEscribirNada() {
+        when(certificadoRepository.findById("c1")).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> servicio.obtenerParaDescarga("c1", "u1"));
+    }
+
+    @Test
+    void soloSuTitularLoDescarga() {
+        when(certificadoRepository.findById("c1")).thenReturn(Optional.of(certificado));
+
+        assertThrows(BadRequestException.class, () -> servicio.obtenerParaDescarga("c1", "otro"));
+    }
+
+    @Test
+    void elStreamingEscribeUnPdfCompletoSinCerrarLaSalida() {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                throw new AssertionError("La salida la cierra el contenedor");
+            }
+        };
+
+        servicio.escribirPDF(certificado, salida);
+
+        byte[] pdf = salida.toByteArray();
+        assertArrayEquals(CABECERA_PDF, Arrays.copyOf(pdf, CABECERA_PDF.length));
+        assertTrue(new String(pdf, StandardCharsets.US_ASCII).stripTrailing().endsWith("%%EOF"));
+    }
+
+    @Test
+    void sinDirectorioNoHayPdfAlmacenado() {
+        assertTrue(servicio.obtenerPDFAlmacenado(certificado).isEmpty());
+    }
+
+    @Test
+    void elPdfAlmacenadoSeRenderizaUnaVezYLuegoSeReutiliza() throws IOException {
+        ReflectionTestUtils.setField(servicio, "directorioPdf", directorio.toString());
+
+        Resource primero = servicio.obtenerPDFAlmacenado(certificado).orElseThrow();
+        Path ruta = directorio.resolve("c1.pdf");
+        FileTime marca = FileTime.fromMillis(1_000_000L);
+        Files.setLastModifiedTime(ruta, marca);
+        Resource segundo = servicio.obtenerPDFAlmacenado(certificado).orElseThrow();
+
+        assertEquals(ruta.toFile(), primero.getFile());
+        assertEquals(ruta.toFile(), segundo.getFile());
+        assertEquals(marca, Files.getLastModifiedTime(ruta));
+        byte[] pdf = Files.readAllBytes(ruta);
+        assertArrayEquals(CABECERA_PDF, Arrays.copyOf(pdf, CABECERA_PDF.length));
+        // Sin temporales a medio escribir junto al PDF final
+        try (var archivos = Files.list(directorio)) {
+            assertEquals(1, archivos.count());
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.voluntariado.plataforma.service;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.voluntariado.plataforma.almacen.AlmacenEvidencias;
+import com.voluntariado.plataforma.almacen.AlmacenMemoria;
+import com.voluntariado.plataforma.dto.EvidenciaDTO;
+import com.voluntariado.plataforma.evento.EvidenciaSubidaEvent;
+import com.voluntariado.plataforma.exception.BadRequestException;
+import com.voluntariado.plataforma.model.Actividad;
+import com.voluntariado.plataforma.model.Evidencia;
+import com.voluntariado.plataforma.model.HistorialVoluntariado;
+import com.voluntariado.plataforma.model.Inscripcion;
+import com.voluntariado.plataforma.model.ReferenciaArchivo;
+import com.voluntariado.plataforma.model.enums.EstadoEvidencia;
+import com.voluntariado.plataforma.model.enums.EstadoInscripcion;
+import com.voluntariado.plataforma.model.enums.Rol;
+import com.voluntariado.plataforma.repository.ActividadRepository;
+import com.voluntariado.plataforma.repository.EvidenciaRepository;
+import com.voluntariado.plataforma.repository.InscripcionRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+@Testcontainers(disabledWithoutDocker = true)
+class EvidenciaServiceTest {
+
+    private static final byte[] PNG = Arrays.copyOf(
+            new byte[] {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'}, 64);
+
+    @Container
+    static final MongoDBContainer MONGO = new MongoDBContainer("mongo:7.0");
+
+    private static MongoClient cliente;
+
+    private final List<Object> eventos = new ArrayList<>();
+    private MongoTemplate mongoTemplate;
+    private EvidenciaRepository evidenciaRepository;
+    private AlmacenEvidencias almacen;
+    private EvidenciaService servicio;
+
+    @BeforeAll
+    static void conectar() {
+        cliente = MongoClients.create(MONGO.getReplicaSetUrl());
+    }
+
+    @AfterAll
+    static void desconectar() {
+        cliente.close();
+    }
+
+    @BeforeEach
+    void crearServicio() {
+        mongoTemplate = new MongoTemplate(cliente, "evidencias_" + System.nanoTime());
+        MongoRepositoryFactory repositorios = new MongoRepositoryFactory(mongoTemplate);
+        evidenciaRepository = repositorios.getRepository(EvidenciaRepository.class);
+        almacen = spy(new AlmacenMemoria());
+        servicio = new EvidenciaService(evidenciaRepository, repositorios.getRepository(InscripcionRepository.class),
+                repositorios.getRepository(ActividadRepository.class), almacen, mongoTemplate, eventos::add);
+        ReflectionTestUtils.setField(servicio, "tamanoMaximo", 1024L);
+        ReflectionTestUtils.setField(servicio, "limiteCola", 200);
+        ReflectionTestUtils.setField(servicio, "antiguedadReproceso", 10L);
+
+        mongoTemplate.insert(Actividad.builder().id("a1").titulo("Playa").coordinadorId("c1").build());
+        mongoTemplate.insert(Actividad.builder().id("a2").titulo("Comedor").coordinadorId("c2").build());
+        mongoTemplate.insert(Inscripcion.builder().usuarioId("v1").actividadId("a1")
+                .estado(EstadoInscripcion.APROBADA).build());
+        mongoTemplate.insert(Inscripcion.builder().usuarioId("v1").actividadId("a2")
+                .estado(EstadoInscripcion.APROBADA).build());
+        mongoTemplate.insert(Inscripcion.builder().usuarioId("v2").actividadId("a1").build());
+    }
+
+    @Test
+    void laSubidaGuardaEnProcesandoCuentaLaReferenciaYAvisa() {
+        EvidenciaDTO subida = subir("a1");
+
+        assertEquals(EstadoEvidencia.PROCESANDO, subida.getEstado());
+        assertEquals("memoria:" + clave(subida.getId()), subida.getUrlArchivo());
+        assertEquals(1, referencias(clave(subida.getId())));
+        assertEquals(List.of(new EvidenciaSubidaEvent(subida.getId())), eventos);
+    }
+
+    @Test
+    void unFormatoNoAdmitidoSeRechazaSinLlegarAlAlmacen() throws IOException {
+        MockMultipartFile texto = new MockMultipartFile("archivo", "notas.txt", "image/png", "hola".getBytes());
+
+        assertThrows(BadRequestException.class, () -> servicio.subir("v1", "a1", "notas", texto));
+
+        assertEquals(0, mongoTemplate.count(new Query(), ReferenciaArchivo.class));
+        verify(almacen, never()).guardar(any(), anyLong(), any());
+    }
+
+    @Test
+    void sinInscripcionAprobadaNoSeSube() {
+        MockMultipartFile archivo = new MockMultipartFile("archivo", "foto.png", "image/png", PNG);
+
+        assertThrows(BadRequestException.class, () -> servicio.subir("v2", "a1", "foto", archivo));
+        assertTrue(eventos.isEmpty());
+    }
+
+    @Test
+    void laValidacionDejaPendienteConFormatoYMiniatura() {
+        EvidenciaDTO subida = subir("a1");
+
+        servicio.procesar(new EvidenciaSubidaEvent(subida.getId()));
+
+        Evidencia procesada = evidenciaRepository.findById(subida.getId()).orElseThrow();
+        assertEquals(EstadoEvidencia.PENDIENTE, procesada.getEstado());
+        assertEquals("PNG", procesada.getTipoArchivo());
+        assertNotNull(procesada.getUrlMiniatura());
+    }
+
+    @Test
+    void siLaValidacionLaRechazaSeLiberaElArchivo() {
+        EvidenciaDTO subida = subir("a1");
+        String clave = clave(subida.getId());
+        // El límite baja entre la subida y la validación
+        ReflectionTestUtils.setField(servicio, "tamanoMaximo", 16L);
+
+        servicio.procesar(new EvidenciaSubidaEvent(subida.getId()));
+        // Un segundo proceso (reproceso o evento repetido) no vuelve a descontar
+        servicio.procesar(new EvidenciaSubidaEvent(subida.getId()));
+
+        assertEquals(EstadoEvidencia.RECHAZADA, evidenciaRepository.findById(subida.getId()).orElseThrow()
+                .getEstado());
+        assertNull(mongoTemplate.findById(clave, ReferenciaArchivo.class));
+        assertThrows(IOException.class, () -> almacen.inspeccionar(clave));
+    }
+
+    @Test
+    void unArchivoCompartidoSeConservaHastaLaUltimaReferencia() throws IOException {
+        EvidenciaDTO primera = subir("a1");
+        String clave = clave(primera.getId());
+        // Como el almacén local, que direcciona por contenido: el mismo archivo devuelve la misma clave
+        doAnswer(invocacion -> {
+            invocacion.<InputStream>getArgument(0).readAllBytes();
+            return new AlmacenEvidencias.Guardado(clave, null, PNG.length);
+        }).when(almacen).guardar(any(), anyLong(), any());
+        EvidenciaDTO segunda = subir("a2");
+        assertEquals(2, referencias(clave));
+
+        ReflectionTestUtils.setField(servicio, "tamanoMaximo", 16L);
+        servicio.procesar(new EvidenciaSubidaEvent(primera.getId()));
+        assertEquals(1, referencias(clave));
+        assertNotNull(almacen.inspeccionar(clave));
+
+        servicio.procesar(new EvidenciaSubidaEvent(segunda.getId()));
+        assertNull(mongoTemplate.findById(clave, ReferenciaArchivo.class));
+        assertThrows(IOException.class, () -> almacen.inspeccionar(clave));
+    }
+
+    @Test
+    void laRevisionPorLotesSoloTocaLasPendientesDeSusActividades() {
+        mongoTemplate.insert(HistorialVoluntariado.builder().usuarioId("v1").actividadId("a1").build());
+        String propia = pendiente("a1");
+        String ajena = pendiente("a2");
+        String yaRevisada = pendiente("a1");
+        servicio.revisar(List.of(yaRevisada), false, "Borrosa", "c1", Rol.COORDINADOR);
+
+        long revisadas = servicio.revisar(List.of(propia, ajena, yaRevisada), true, null, "c1", Rol.COORDINADOR);
+
+        assertEquals(1, revisadas);
+        assertEquals(EstadoEvidencia.APROBADA, estado(propia));
+        assertEquals(EstadoEvidencia.PENDIENTE, estado(ajena));
+        assertEquals(EstadoEvidencia.RECHAZADA, estado(yaRevisada));
+        HistorialVoluntariado historial = mongoTemplate.findAll(HistorialVoluntariado.class).get(0);
+        assertEquals(evidenciaRepository.findById(propia).orElseThrow().getUrlArchivo(), historial.getEvidenciaUrl());
+        // Repetir la petición no cambia nada
+        assertEquals(0, servicio.revisar(List.of(propia), true, null, "c1", Rol.COORDINADOR));
+    }
+
+    @Test
+    void elAdministradorRevisaCualquierActividad() {
+        String ajena = pendiente("a2");
+
+        assertEquals(1, servicio.revisar(List.of(ajena), false, "Ilegible", "admin", Rol.ADMINISTRADOR));
+        assertEquals(EstadoEvidencia.RECHAZADA, estado(ajena));
+    }
+
+    @Test
+    void sinPermisoSeDeniegaElAcceso() {
+        String ajena = pendiente("a2");
+
+        assertThrows(AccessDeniedException.class,
+                () -> servicio.listarPendientes("a2", 10, "c1", Rol.COORDINADOR));
+        assertThrows(AccessDeniedException.class, () -> servicio.obtener(ajena, "c1", Rol.COORDINADOR));
+        assertThrows(AccessDeniedException.class, () -> servicio.obtener(ajena, "v2", Rol.VOLUNTARIO));
+        assertEquals(ajena, servicio.obtener(ajena, "c2", Rol.COORDINADOR).getId());
+        assertEquals(ajena, servicio.obtener(ajena, "v1", Rol.VOLUNTARIO).getId());
+    }
+
+    private EvidenciaDTO subir(String actividadId) {
+        return servicio.subir("v1", actividadId, "Foto del día",
+                new MockMultipartFile("archivo", "foto.png", "image/png", PNG));
+    }
+
+    // Subida y validada: en la cola de revisión
+    private String pendiente(String actividadId) {
+        EvidenciaDTO subida = subir(actividadId);
+        servicio.procesar(new EvidenciaSubidaEvent(subida.getId()));
+        return subida.getId();
+    }
+
+    private String clave(String evidenciaId) {
+        return evidenciaRepository.findById(evidenciaId).orElseThrow().getClave();
+    }
+
+    private long referencias(String clave) {
+        return mongoTemplate.findById(clave, ReferenciaArchivo.class).getReferencias();
+    }
+
+    private EstadoEvidencia estado(String evidenciaId) {
+        return evidenciaRepository.findById(evidenciaId).orElseThrow().getEstado();
+    }
+}
@@ -0,0 +1,155 @@
+package com.voluntariado.plataforma.service;
+
+import com.voluntariado.plataforma.model.EmailPendiente;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.util.HtmlUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Emails por segundo renderizados con {@link PlantillasEmailService} frente al String.format / StringBuilder
+ * que había antes de las plantillas, con un hilo (el resumen se renderiza en la tarea programada) y con uno
+ * por núcleo. Cada iteración usa otro destinatario para que no se reutilice el resultado. Se ejecuta con
+ * {@code mvn -Pbenchmark test}.
+ */
+@Tag("benchmark")
+class PlantillasEmailBenchmarkTest {
+
+    private static final long CALENTAMIENTO_MS = 3_000;
+    private static final long MEDICION_MS = 10_000;
+    private static final int AVISOS_RESUMEN = 20;
+
+    // Texto previo a las plantillas, copiado de EmailService
+    private static final String VERIFICACION_FORMATO = """
+            Hola %s,
+
+            Gracias por registrarte en nuestra plataforma de voluntariado.
+
+            Por favor, verifica tu cuenta haciendo clic en el siguiente enlace:
+            http://localhost:8080/api/auth/verificar?token=%s
+
+            Si no creaste esta cuenta, ignora este mensaje.
+
+            Saludos,
+            Equipo de Voluntariado ONG
+            """;
+
+    private final PlantillasEmailService plantillas = new PlantillasEmailService();
+    private final List<EmailPendiente> avisos = IntStream.range(0, AVISOS_RESUMEN)
+            .mapToObj(i -> EmailPendiente.builder()
+                    .titulo("Nueva actividad: Limpieza de playa " + i)
+                    .mensaje("Se ha creado una nueva actividad: Limpieza de playa " + i
+                            + ". Fecha: 2026-06-01T09:00. Lugar: Parque Central & alrededores")
+                    .build())
+            .toList();
+
+    @Test
+    void verificacion() throws Exception {
+        IntFunction<String> plantilla = i -> plantillas.texto(PlantillasEmailService.VERIFICACION,
+                Map.of("nombre", nombre(i), "token", token(i)));
+        IntFunction<String> formato = i -> String.format(VERIFICACION_FORMATO, nombre(i), token(i));
+
+        assertEquals(formato.apply(1).stripTrailing(), plantilla.apply(1));
+        comparar("verificacion (texto)", plantilla, formato);
+    }
+
+    @Test
+    void nuevaActividad() throws Exception {
+        LocalDateTime fecha = LocalDateTime.of(2026, 6, 1, 9, 0);
+        IntFunction<String> plantilla = i -> plantillas.texto(PlantillasEmailService.NUEVA_ACTIVIDAD, Map.of(
+                "titulo", "Limpieza de playa " + i, "fecha", fecha.toString(), "lugar", "Parque Central"));
+        IntFunction<String> formato = i -> String.format("Se ha creado una nueva actividad: %s. Fecha: %s. Lugar: %s",
+                "Limpieza de playa " + i, fecha.toString(), "Parque Central");
+
+        assertEquals(formato.apply(1), plantilla.apply(1));
+        comparar("nueva actividad (texto)", plantilla, formato);
+    }
+
+    @Test
+    void resumen() throws Exception {
+        IntFunction<String> plantilla = i -> plantillas.html(PlantillasEmailService.RESUMEN, Map.of(
+                "nombre", nombre(i), "avisos", avisos, "restantes", 3));
+        IntFunction<String> formato = i -> resumenAnterior(nombre(i), avisos, 3);
+
+        assertTrue(plantilla.apply(1).contains("Parque Central &amp; alrededores"));
+        comparar("resumen de " + AVISOS_RESUMEN + " avisos (html)", plantilla, formato);
+    }
+
+    private static void comparar(String caso, IntFunction<String> plantilla, IntFunction<String> formato)
+            throws Exception {
+        for (int hilos : new int[]{1, Runtime.getRuntime().availableProcessors()}) {
+            medir(plantilla, hilos, CALENTAMIENTO_MS);
+            double conPlantilla = medir(plantilla, hilos, MEDICION_MS);
+            medir(formato, hilos, CALENTAMIENTO_MS);
+            double conFormato = medir(formato, hilos, MEDICION_MS);
+            System.out.printf("%-32s | %2d hilos | plantilla %,12.0f emails/s | anterior %,12.0f emails/s | "
+                    + "%5.2fx%n", caso, hilos, conPlantilla, conFormato, conPlantilla / conFormato);
+        }
+    }
+
+    // Emails por segundo; la suma de longitudes impide que el JIT descarte el renderizado
+    private static double medir(IntFunction<String> renderizar, int hilos, long duracionMs) throws Exception {
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        try {
+            long fin = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(duracionMs);
+            List<Future<long[]>> resultados = new ArrayList<>();
+            for (int h = 0; h < hilos; h++) {
+                int desplazamiento = h * 1_000_000;
+                resultados.add(ejecutor.submit(() -> {
+                    long emails = 0;
+                    long caracteres = 0;
+                    while (System.nanoTime() < fin) {
+                        caracteres += renderizar.apply(desplazamiento + (int) emails).length();
+                        emails++;
+                    }
+                    return new long[]{emails, caracteres};
+                }));
+            }
+            long emails = 0;
+            for (Future<long[]> resultado : resultados) {
+                long[] propios = resultado.get();
+                assertTrue(propios[1] > 0);
+                emails += propios[0];
+            }
+            return emails * 1000.0 / duracionMs;
+        } finally {
+            ejecutor.shutdownNow();
+        }
+    }
+
+    // Resumen HTML tal como lo montaba AvisosEmailService antes de las plantillas
+    private static String resumenAnterior(String nombre, List<EmailPendiente> avisos, int restantes) {
+        StringBuilder html = new StringBuilder()
+                .append("<html>\n<body>\n<h2>Hola ").append(HtmlUtils.htmlEscape(nombre))
+                .append("</h2>\n<p>Esto es lo que ha pasado desde tu último resumen:</p>\n<ul>\n");
+        avisos.forEach(aviso -> html
+                .append("<li><strong>").append(HtmlUtils.htmlEscape(aviso.getTitulo())).append("</strong><br>")
+                .append(HtmlUtils.htmlEscape(aviso.getMensaje())).append("</li>\n"));
+        html.append("</ul>\n");
+        if (restantes > 0) {
+            html.append("<p>Y ").append(restantes).append(" más en la plataforma.</p>\n");
+        }
+        return html.append("<br>\n<p>Saludos,<br>Equipo de Voluntariado ONG</p>\n</body>\n</html>\n").toString();
+    }
+
+    private static String nombre(int i) {
+        return "Voluntaria " + i;
+    }
+
+    private static String token(int i) {
+        return Integer.toHexString(i * 31 + 7) + "-e4b1-4c1e-9b7a-" + i;
+    }
+}
@@ -0,0 +1,151 @@
+package com.voluntariado.plataforma.service;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.voluntariado.plataforma.model.Mensaje;
+import com.voluntariado.plataforma.model.Usuario;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+
+@Testcontainers(disabledWithoutDocker = true)
+class PropagacionNombresServiceTest {
+
+    private static final LocalDateTime PRIMER_CAMBIO = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+
+    @Container
+    static final MongoDBContainer MONGO = new MongoDBContainer("mongo:7.0");
+
+    private static MongoClient cliente;
+
+    private MongoTemplate mongoTemplate;
+
+    @BeforeAll
+    static void conectar() {
+        cliente = MongoClients.create(MONGO.getReplicaSetUrl());
+    }
+
+    @AfterAll
+    static void desconectar() {
+        cliente.close();
+    }
+
+    @BeforeEach
+    void crearBase() {
+        mongoTemplate = new MongoTemplate(cliente, "nombres_" + System.nanoTime());
+        mongoTemplate.insert(Usuario.builder().id("u1").nombre("Ana").correo("ana@example.org").build());
+        mongoTemplate.insert(Mensaje.builder().remitenteId("u1").remitenteNombre("Ana")
+                .destinatarioId("u2").destinatarioNombre("Luis").asunto("Hola").build());
+    }
+
+    @Test
+    void unaTareaAtrasadaCopiaElNombreVigenteYNoElQueLaLanzo() {
+        // Ana -> Beatriz -> Carla: la tarea de Beatriz corre después de que la de Carla terminara
+        renombrar("Carla", null);
+        mongoTemplate.updateMulti(new Query(), new Update().set("remitenteNombre", "Beatriz"), Mensaje.class);
+
+        assertTrue(servicio(mongoTemplate).propagar("u1"));
+
+        assertEquals("Carla", mensaje().getRemitenteNombre());
+    }
+
+    @Test
+    void siElNombreCambiaDuranteLaCopiaLaRepiteConElNuevo() {
+        renombrar("Beatriz", PRIMER_CAMBIO);
+        MongoTemplate espia = spy(mongoTemplate);
+        AtomicBoolean renombrado = new AtomicBoolean();
+        // Otro cambio de nombre llega justo después de la primera copia
+        doAnswer(invocacion -> {
+            Object resultado = invocacion.callRealMethod();
+            if (!renombrado.getAndSet(true)) {
+                renombrar("Carla", PRIMER_CAMBIO.plusSeconds(1));
+            }
+            return resultado;
+        }).when(espia).updateMulti(any(Query.class), any(UpdateDefinition.class), eq(Mensaje.class));
+
+        assertTrue(servicio(espia).propagar("u1"));
+
+        assertEquals("Carla", mensaje().getRemitenteNombre());
+        assertNull(usuario().getNombrePendienteDesde());
+    }
+
+    @Test
+    void quitaLaMarcaSoloSiElNombreYaEstaCopiado() {
+        renombrar("Beatriz", PRIMER_CAMBIO);
+
+        assertTrue(servicio(mongoTemplate).propagar("u1"));
+
+        assertEquals("Beatriz", mensaje().getRemitenteNombre());
+        assertNull(usuario().getNombrePendienteDesde());
+    }
+
+    @Test
+    void siElNombreNoParaDeCambiarDejaLaMarcaParaLaReconciliacion() {
+        renombrar("Beatriz", PRIMER_CAMBIO);
+        MongoTemplate espia = spy(mongoTemplate);
+        int[] cambios = {0};
+        doAnswer(invocacion -> {
+            Object resultado = invocacion.callRealMethod();
+            cambios[0]++;
+            renombrar("Nombre " + cambios[0], PRIMER_CAMBIO.plusSeconds(cambios[0]));
+            return resultado;
+        }).when(espia).updateMulti(any(Query.class), any(UpdateDefinition.class), eq(Mensaje.class));
+
+        assertFalse(servicio(espia).propagar("u1"));
+
+        assertEquals(PRIMER_CAMBIO.plusSeconds(cambios[0]), usuario().getNombrePendienteDesde());
+    }
+
+    @Test
+    void unUsuarioBorradoNoSeReintenta() {
+        mongoTemplate.remove(new Query(Criteria.where("_id").is("u1")), Usuario.class);
+
+        assertTrue(servicio(mongoTemplate).propagar("u1"));
+    }
+
+    private PropagacionNombresService servicio(MongoTemplate plantilla) {
+        return new PropagacionNombresService(plantilla, mock(ApplicationEventPublisher.class));
+    }
+
+    private void renombrar(String nombre, LocalDateTime pendienteDesde) {
+        Update update = new Update().set("nombre", nombre);
+        if (pendienteDesde == null) {
+            update.unset("nombrePendienteDesde");
+        } else {
+            update.set("nombrePendienteDesde", pendienteDesde);
+        }
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is("u1")), update, Usuario.class);
+    }
+
+    private Mensaje mensaje() {
+        return mongoTemplate.findOne(new Query(Criteria.where("remitenteId").is("u1")), Mensaje.class);
+    }
+
+    private Usuario usuario() {
+        return mongoTemplate.findById("u1", Usuario.class);
+    }
+}
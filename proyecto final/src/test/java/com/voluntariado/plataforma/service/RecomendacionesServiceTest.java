@@ -0,0 +1,71 @@
+package com.voluntariado.plataforma.service;
+
+import com.voluntariado.plataforma.model.Actividad;
+import com.voluntariado.plataforma.model.Usuario;
+import com.voluntariado.plataforma.model.enums.Rol;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RecomendacionesServiceTest {
+
+    private static final Actividad PLAYA = Actividad.builder()
+            .id("a1")
+            .categoriasActividad(List.of("Medio ambiente"))
+            .requisitos(List.of("Limpieza de costas"))
+            .build();
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private RecomendacionesService servicio;
+
+    @BeforeEach
+    void crearServicio() {
+        servicio = new RecomendacionesService(mongoTemplate);
+        when(mongoTemplate.stream(any(Query.class), eq(Usuario.class)))
+                .thenAnswer(invocacion -> Stream.of(voluntario("u1", "Medio ambiente"), voluntario("u2", "Cocina")));
+        when(mongoTemplate.stream(any(Query.class), eq(Actividad.class))).thenAnswer(invocacion -> Stream.empty());
+    }
+
+    @Test
+    void antesDeLaPrimeraCargaFiltraLosVoluntariosEnMongo() {
+        assertEquals(Optional.of(Set.of("u1")), servicio.voluntariosRelevantes(PLAYA));
+
+        servicio.reconstruir();
+        assertEquals(Optional.of(Set.of("u1")), servicio.voluntariosRelevantes(PLAYA));
+        // Ya cargado responde el índice sin volver a recorrer Mongo
+        servicio.voluntariosRelevantes(PLAYA);
+        verify(mongoTemplate, times(2)).stream(any(Query.class), eq(Usuario.class));
+    }
+
+    @Test
+    void lasEscriturasDeUsuarioSeIndexanSinEsperarAlBus() {
+        servicio.reconstruir();
+
+        servicio.indexarUsuario("u2", voluntario("u2", "Limpieza"));
+        assertEquals(Optional.of(Set.of("u1", "u2")), servicio.voluntariosRelevantes(PLAYA));
+
+        Usuario desactivado = voluntario("u1", "Medio ambiente");
+        desactivado.setActivo(false);
+        servicio.indexarUsuario("u1", desactivado);
+        servicio.indexarUsuario("u2", null);
+        assertEquals(Optional.of(Set.of()), servicio.voluntariosRelevantes(PLAYA));
+    }
+
+    private static Usuario voluntario(String id, String area) {
+        return Usuario.builder().id(id).rol(Rol.VOLUNTARIO).areasInteres(List.of(area)).build();
+    }
+}
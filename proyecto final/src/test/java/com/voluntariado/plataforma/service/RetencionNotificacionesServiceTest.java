@@ -0,0 +1,172 @@
+package com.voluntariado.plataforma.service;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.voluntariado.plataforma.model.Notificacion;
+import com.voluntariado.plataforma.model.NotificacionArchivada;
+import com.voluntariado.plataforma.repository.ComunicadoRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+@Testcontainers(disabledWithoutDocker = true)
+class RetencionNotificacionesServiceTest {
+
+    private static final LocalDateTime ANTIGUA = LocalDateTime.now().minusDays(120).truncatedTo(ChronoUnit.MILLIS);
+
+    @Container
+    static final MongoDBContainer MONGO = new MongoDBContainer("mongo:7.0");
+
+    private static MongoClient cliente;
+
+    private MongoTemplate mongoTemplate;
+    private ContadoresUsuarioService contadoresUsuarioService;
+
+    @BeforeAll
+    static void conectar() {
+        cliente = MongoClients.create(MONGO.getReplicaSetUrl());
+    }
+
+    @AfterAll
+    static void desconectar() {
+        cliente.close();
+    }
+
+    @BeforeEach
+    void crearBase() {
+        mongoTemplate = new MongoTemplate(cliente, "retencion_" + System.nanoTime());
+        contadoresUsuarioService = mock(ContadoresUsuarioService.class);
+        servicio(mongoTemplate).prepararColecciones();
+    }
+
+    @Test
+    void mueveLasNoLeidasAntiguasYDescuentaDelContador() {
+        insertar("n1", "u1", ANTIGUA);
+        insertar("n2", "u1", ANTIGUA);
+        insertar("n3", "u1", LocalDateTime.now());
+
+        servicio(mongoTemplate).archivarAntiguas();
+
+        assertEquals(List.of("n3"), idsNotificaciones());
+        assertEquals(2, mongoTemplate.count(new Query(), NotificacionArchivada.class));
+        assertNull(mongoTemplate.findById("n1", NotificacionArchivada.class).getPendiente());
+        assertEquals(2, servicio(mongoTemplate).obtenerArchivo("u1", null, null).getElementos().size());
+        verify(contadoresUsuarioService).sumarNotificaciones("u1", -2L);
+    }
+
+    @Test
+    void unaLeidaEntreLaConsultaYElBorradoSeQuedaSinCopia() {
+        insertar("n1", "u1", ANTIGUA);
+        insertar("n2", "u1", ANTIGUA);
+        List<Notificacion> lote = mongoTemplate.findAll(Notificacion.class);
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is("n2")), new Update().set("leida", true),
+                Notificacion.class);
+
+        assertEquals(1, servicio(mongoTemplate).archivar(lote));
+
+        assertEquals(List.of("n2"), idsNotificaciones());
+        assertNull(mongoTemplate.findById("n2", NotificacionArchivada.class));
+        assertNotNull(mongoTemplate.findById("n1", NotificacionArchivada.class));
+        verify(contadoresUsuarioService).sumarNotificaciones("u1", -1L);
+    }
+
+    @Test
+    void siFallaTrasCopiarNoSePierdeNadaYLaSiguienteEjecucionTermina() {
+        insertar("n1", "u1", ANTIGUA);
+        MongoTemplate espia = spy(mongoTemplate);
+        doThrow(new IllegalStateException("caída"))
+                .when(espia).findAndRemove(any(Query.class), eq(Notificacion.class));
+
+        assertThrows(IllegalStateException.class, () -> servicio(espia).archivarAntiguas());
+
+        // La original sigue y la copia pendiente no se ve en el archivo
+        assertEquals(List.of("n1"), idsNotificaciones());
+        assertTrue(mongoTemplate.findById("n1", NotificacionArchivada.class).getPendiente());
+        assertTrue(servicio(mongoTemplate).obtenerArchivo("u1", null, null).getElementos().isEmpty());
+        verify(contadoresUsuarioService, never()).sumarNotificaciones(anyString(), anyLong());
+
+        servicio(mongoTemplate).archivarAntiguas();
+
+        assertTrue(idsNotificaciones().isEmpty());
+        assertNull(mongoTemplate.findById("n1", NotificacionArchivada.class).getPendiente());
+        verify(contadoresUsuarioService).sumarNotificaciones("u1", -1L);
+    }
+
+    @Test
+    void unaCopiaPendienteDeUnaLeidaSeDescarta() {
+        insertar("n1", "u1", ANTIGUA);
+        mongoTemplate.insert(copiaPendiente("n1"));
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is("n1")), new Update().set("leida", true),
+                Notificacion.class);
+
+        servicio(mongoTemplate).resolverPendientes();
+
+        assertNull(mongoTemplate.findById("n1", NotificacionArchivada.class));
+        assertEquals(List.of("n1"), idsNotificaciones());
+    }
+
+    @Test
+    void unaCopiaPendienteSinOriginalSeConfirma() {
+        mongoTemplate.insert(copiaPendiente("n1"));
+
+        servicio(mongoTemplate).resolverPendientes();
+
+        assertNull(mongoTemplate.findById("n1", NotificacionArchivada.class).getPendiente());
+        assertEquals(1, servicio(mongoTemplate).obtenerArchivo("u1", null, null).getElementos().size());
+    }
+
+    private RetencionNotificacionesService servicio(MongoTemplate plantilla) {
+        RetencionNotificacionesService servicio = new RetencionNotificacionesService(plantilla,
+                mock(ComunicadoRepository.class), contadoresUsuarioService);
+        ReflectionTestUtils.setField(servicio, "diasLeidas", 30L);
+        ReflectionTestUtils.setField(servicio, "diasDifundidas", 180L);
+        ReflectionTestUtils.setField(servicio, "diasArchivar", 90L);
+        ReflectionTestUtils.setField(servicio, "tamanoLote", 1000);
+        ReflectionTestUtils.setField(servicio, "compresor", "zstd");
+        ReflectionTestUtils.setField(servicio, "tamanoPagina", 30);
+        ReflectionTestUtils.setField(servicio, "tamanoMaximoPagina", 100);
+        return servicio;
+    }
+
+    private void insertar(String id, String usuarioId, LocalDateTime fechaCreacion) {
+        mongoTemplate.insert(Notificacion.builder().id(id).usuarioId(usuarioId).titulo("Aviso " + id)
+                .mensaje("Mensaje " + id).fechaCreacion(fechaCreacion).build());
+    }
+
+    private static NotificacionArchivada copiaPendiente(String id) {
+        return NotificacionArchivada.builder().id(id).usuarioId("u1").titulo("Aviso " + id)
+                .fechaCreacion(ANTIGUA).fechaArchivado(LocalDateTime.now()).pendiente(true).build();
+    }
+
+    private List<String> idsNotificaciones() {
+        return mongoTemplate.findAll(Notificacion.class).stream().map(Notificacion::getId).sorted().toList();
+    }
+}
@@ -0,0 +1,59 @@
+package com.voluntariado.plataforma.service;
+
+import com.voluntariado.plataforma.evento.EstadoBusCambios;
+import com.voluntariado.plataforma.model.Certificado;
+import com.voluntariado.plataforma.repository.CertificadoRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class VerificacionCertificadoServiceTest {
+
+    private final CertificadoRepository certificadoRepository = mock(CertificadoRepository.class);
+    private final EstadoBusCambios estadoBus = mock(EstadoBusCambios.class);
+    private VerificacionCertificadoService servicio;
+
+    @BeforeEach
+    void construirFiltro() {
+        servicio = new VerificacionCertificadoService(certificadoRepository, estadoBus);
+        ReflectionTestUtils.setField(servicio, "elementosEsperados", 1000L);
+        ReflectionTestUtils.setField(servicio, "tamanoCache", 10);
+        servicio.inicializarCache();
+        when(certificadoRepository.count()).thenReturn(1L);
+        when(certificadoRepository.streamCodigosVerificacion()).thenReturn(
+                Stream.of(Certificado.builder().codigoVerificacion("EMITIDO00001").build()));
+        servicio.reconstruirFiltro();
+    }
+
+    @Test
+    void conElBusEntregandoEventosUnCodigoDesconocidoSeDescarta() {
+        when(estadoBus.isDisponible()).thenReturn(true);
+
+        assertTrue(servicio.descartable("NUNCAEMITIDO"));
+        assertFalse(servicio.descartable("EMITIDO00001"));
+    }
+
+    @Test
+    void sinBusDisponibleSiempreSeConsultaLaBaseDeDatos() {
+        when(estadoBus.isDisponible()).thenReturn(false);
+
+        // Pudo emitirse en otra instancia sin que el filtro de esta se enterase
+        assertFalse(servicio.descartable("NUNCAEMITIDO"));
+    }
+
+    @Test
+    void unCodigoEmitidoEnOtraInstanciaDejaDeDescartarseAlLlegarPorElBus() {
+        when(estadoBus.isDisponible()).thenReturn(true);
+
+        servicio.registrarEmitido("OTRAINSTANCIA");
+
+        assertFalse(servicio.descartable("OTRAINSTANCIA"));
+    }
+}
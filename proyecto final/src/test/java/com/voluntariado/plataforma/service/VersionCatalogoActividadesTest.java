@@ -0,0 +1,108 @@
+package com.voluntariado.plataforma.service;
+
+import com.voluntariado.plataforma.evento.ActividadModificadaEvent;
+import com.voluntariado.plataforma.evento.ActividadModificadaEvent.TipoCambio;
+import com.voluntariado.plataforma.evento.CambiosPerdidosEvent;
+import com.voluntariado.plataforma.model.Actividad;
+import com.voluntariado.plataforma.repository.ActividadRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class VersionCatalogoActividadesTest {
+
+    private static final LocalDateTime ANTES = LocalDateTime.of(2026, 5, 10, 9, 0);
+    private static final LocalDateTime DESPUES = ANTES.plusMinutes(1);
+
+    private final ActividadRepository actividadRepository = mock(ActividadRepository.class);
+
+    @BeforeEach
+    void catalogoInicial() {
+        catalogo(ANTES, 3);
+    }
+
+    @Test
+    void dosInstanciasEntreganElMismoEtagParaElMismoCatalogo() {
+        assertEquals(instancia().etagColeccion(), instancia().etagColeccion());
+    }
+
+    @Test
+    void sinCambiosNoVuelveAConsultar() {
+        VersionCatalogoActividades versiones = instancia();
+
+        String primero = versiones.etagColeccion();
+        String segundo = versiones.etagColeccion();
+
+        assertEquals(primero, segundo);
+        verify(actividadRepository, times(1)).count();
+    }
+
+    @Test
+    void unaEscrituraLocalSeVeEnElSiguienteEtag() {
+        VersionCatalogoActividades versiones = instancia();
+        String antes = versiones.etagColeccion();
+
+        catalogo(DESPUES, 3);
+        versiones.alModificarActividad(new ActividadModificadaEvent("a1", TipoCambio.ACTUALIZADA, DESPUES));
+
+        assertNotEquals(antes, versiones.etagColeccion());
+    }
+
+    @Test
+    void unBorradoCambiaElEtagAunqueNoCambieLaUltimaFecha() {
+        VersionCatalogoActividades versiones = instancia();
+        String antes = versiones.etagColeccion();
+
+        catalogo(ANTES, 2);
+        versiones.alModificarActividad(new ActividadModificadaEvent("a2", TipoCambio.ELIMINADA, null));
+
+        assertNotEquals(antes, versiones.etagColeccion());
+    }
+
+    @Test
+    void unaEscrituraDeOtraInstanciaSeDetectaAlSincronizar() {
+        VersionCatalogoActividades versiones = instancia();
+        versiones.sincronizar();
+        String antes = versiones.etagColeccion();
+
+        catalogo(DESPUES, 4);
+        versiones.sincronizar();
+
+        assertNotEquals(antes, versiones.etagColeccion());
+        assertEquals(instancia().etagColeccion(), versiones.etagColeccion());
+    }
+
+    @Test
+    void alPerderCambiosVuelveALeerLaVersion() {
+        VersionCatalogoActividades versiones = instancia();
+        versiones.etagColeccion();
+
+        versiones.alPerderCambios(new CambiosPerdidosEvent("prueba"));
+        versiones.etagColeccion();
+
+        verify(actividadRepository, times(2)).count();
+    }
+
+    private VersionCatalogoActividades instancia() {
+        VersionCatalogoActividades versiones = new VersionCatalogoActividades(actividadRepository);
+        ReflectionTestUtils.setField(versiones, "tamanoVersiones", 100);
+        versiones.inicializar();
+        return versiones;
+    }
+
+    private void catalogo(LocalDateTime ultima, long total) {
+        when(actividadRepository.findUltimaActualizacion())
+                .thenReturn(Optional.of(Actividad.builder().fechaActualizacion(ultima).build()));
+        when(actividadRepository.count()).thenReturn(total);
+    }
+}
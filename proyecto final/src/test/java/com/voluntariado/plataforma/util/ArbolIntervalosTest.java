@@ -0,0 +1,83 @@
+package com.voluntariado.plataforma.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArbolIntervalosTest {
+
+    private record Intervalo(String nombre, int inicio, int fin) {
+    }
+
+    private static ArbolIntervalos<Integer, Intervalo> arbol(List<Intervalo> intervalos) {
+        return new ArbolIntervalos<>(intervalos, Intervalo::inicio, Intervalo::fin);
+    }
+
+    @Test
+    void devuelveLosSolapadosOrdenadosPorInicio() {
+        ArbolIntervalos<Integer, Intervalo> arbol = arbol(List.of(
+                new Intervalo("c", 20, 25), new Intervalo("a", 1, 5), new Intervalo("b", 4, 12),
+                new Intervalo("d", 30, 40)));
+
+        List<String> nombres = arbol.solapados(5, 21).stream().map(Intervalo::nombre).toList();
+
+        assertEquals(List.of("a", "b", "c"), nombres);
+    }
+
+    @Test
+    void losExtremosCuentanComoSolapamiento() {
+        ArbolIntervalos<Integer, Intervalo> arbol = arbol(List.of(new Intervalo("a", 10, 20)));
+
+        assertEquals(1, arbol.solapados(20, 30).size());
+        assertEquals(1, arbol.solapados(0, 10).size());
+        assertTrue(arbol.solapados(21, 30).isEmpty());
+        assertTrue(arbol.solapados(0, 9).isEmpty());
+    }
+
+    @Test
+    void encuentraUnIntervaloLargoQueContieneLaConsulta() {
+        ArbolIntervalos<Integer, Intervalo> arbol = arbol(List.of(
+                new Intervalo("largo", 0, 1000), new Intervalo("a", 1, 2), new Intervalo("b", 3, 4),
+                new Intervalo("c", 5, 6), new Intervalo("d", 7, 8)));
+
+        List<String> nombres = arbol.solapados(500, 600).stream().map(Intervalo::nombre).toList();
+
+        assertEquals(List.of("largo"), nombres);
+    }
+
+    @Test
+    void vacioNoDevuelveNada() {
+        ArbolIntervalos<Integer, Intervalo> arbol = arbol(List.of());
+
+        assertEquals(0, arbol.tamano());
+        assertTrue(arbol.solapados(0, 100).isEmpty());
+    }
+
+    @Test
+    void coincideConUnaBusquedaLineal() {
+        Random azar = new Random(42);
+        List<Intervalo> intervalos = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            int inicio = azar.nextInt(1000);
+            intervalos.add(new Intervalo("i" + i, inicio, inicio + azar.nextInt(i % 10 == 0 ? 300 : 20)));
+        }
+        ArbolIntervalos<Integer, Intervalo> arbol = arbol(intervalos);
+
+        for (int consulta = 0; consulta < 200; consulta++) {
+            int desde = azar.nextInt(1100);
+            int hasta = desde + azar.nextInt(50);
+            List<Intervalo> esperados = intervalos.stream()
+                    .filter(intervalo -> intervalo.inicio() <= hasta && intervalo.fin() >= desde)
+                    .toList();
+            List<Intervalo> obtenidos = arbol.solapados(desde, hasta);
+
+            assertEquals(esperados.size(), obtenidos.size());
+            assertTrue(obtenidos.containsAll(esperados));
+        }
+    }
+}
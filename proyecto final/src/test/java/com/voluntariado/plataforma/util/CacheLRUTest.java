@@ -0,0 +1,46 @@
+package com.voluntariado.plataforma.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class CacheLRUTest {
+
+    @Test
+    void descartaLaEntradaUsadaHaceMasTiempo() {
+        CacheLRU<String, Integer> cache = new CacheLRU<>(2);
+        cache.guardar("a", 1);
+        cache.guardar("b", 2);
+        // Leer "a" la convierte en la más reciente; la próxima en salir es "b"
+        cache.obtener("a");
+        cache.guardar("c", 3);
+
+        assertEquals(1, cache.obtener("a"));
+        assertNull(cache.obtener("b"));
+        assertEquals(3, cache.obtener("c"));
+    }
+
+    @Test
+    void fusionarCombinaConElValorExistente() {
+        CacheLRU<String, Integer> cache = new CacheLRU<>(10);
+        cache.fusionar("a", 1, Integer::sum);
+        cache.fusionar("a", 5, Integer::sum);
+
+        assertEquals(6, cache.obtener("a"));
+    }
+
+    @Test
+    void eliminarYLimpiar() {
+        CacheLRU<String, Integer> cache = new CacheLRU<>(10);
+        cache.guardar("a", 1);
+        cache.guardar("b", 2);
+
+        cache.eliminar("a");
+        assertNull(cache.obtener("a"));
+        assertEquals(2, cache.obtener("b"));
+
+        cache.limpiar();
+        assertNull(cache.obtener("b"));
+    }
+}
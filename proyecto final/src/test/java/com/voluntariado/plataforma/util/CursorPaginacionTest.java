@@ -0,0 +1,40 @@
+package com.voluntariado.plataforma.util;
+
+import com.voluntariado.plataforma.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CursorPaginacionTest {
+
+    @Test
+    void decodificaLoQueCodifica() {
+        LocalDateTime fecha = LocalDateTime.of(2026, 3, 14, 9, 26, 53, 589_000_000);
+        String cursor = CursorPaginacion.codificar(fecha, "65f2a1b3c4d5e6f708192a3b");
+
+        CursorPaginacion.Posicion posicion = CursorPaginacion.decodificar(cursor);
+
+        assertEquals(fecha, posicion.fecha());
+        assertEquals("65f2a1b3c4d5e6f708192a3b", posicion.id());
+    }
+
+    @Test
+    void elCursorEsSeguroEnUnaUrl() {
+        String cursor = CursorPaginacion.codificar(LocalDateTime.of(2026, 1, 1, 0, 0), "a|b?c");
+
+        assertEquals("a|b?c", CursorPaginacion.decodificar(cursor).id());
+        assertEquals(-1, cursor.indexOf('='));
+        assertEquals(-1, cursor.indexOf('/'));
+        assertEquals(-1, cursor.indexOf('+'));
+    }
+
+    @Test
+    void rechazaCursoresMalFormados() {
+        assertThrows(BadRequestException.class, () -> CursorPaginacion.decodificar("no es base64!"));
+        assertThrows(BadRequestException.class, () -> CursorPaginacion.decodificar("c2luLXNlcGFyYWRvcg"));
+        assertThrows(BadRequestException.class, () -> CursorPaginacion.decodificar("bm8tZmVjaGF8aWQ"));
+    }
+}
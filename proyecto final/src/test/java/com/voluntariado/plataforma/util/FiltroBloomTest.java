@@ -0,0 +1,58 @@
+package com.voluntariado.plataforma.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FiltroBloomTest {
+
+    @Test
+    void nuncaDaFalsosNegativos() {
+        FiltroBloom filtro = new FiltroBloom(10_000, 0.01);
+        List<String> codigos = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            codigos.add("CODIGO-" + i);
+        }
+        codigos.forEach(filtro::agregar);
+
+        codigos.forEach(codigo -> assertTrue(filtro.puedeContener(codigo), codigo));
+    }
+
+    @Test
+    void filtroVacioNoContieneNada() {
+        FiltroBloom filtro = new FiltroBloom(100, 0.01);
+
+        assertFalse(filtro.puedeContener("A1B2C3D4E5F6"));
+        assertFalse(filtro.puedeContener(""));
+    }
+
+    @Test
+    void tasaDeFalsosPositivosCercanaALaConfigurada() {
+        FiltroBloom filtro = new FiltroBloom(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filtro.agregar("emitido-" + i);
+        }
+
+        int falsosPositivos = 0;
+        int consultas = 100_000;
+        for (int i = 0; i < consultas; i++) {
+            if (filtro.puedeContener("nunca-emitido-" + i)) {
+                falsosPositivos++;
+            }
+        }
+        // Margen amplio sobre el 1 % configurado para que la prueba no dependa de la distribución exacta
+        assertTrue(falsosPositivos < consultas * 0.02, "falsos positivos: " + falsosPositivos);
+    }
+
+    @Test
+    void admiteElementosEsperadosNoPositivos() {
+        FiltroBloom filtro = new FiltroBloom(0, 0.01);
+        filtro.agregar("unico");
+
+        assertTrue(filtro.puedeContener("unico"));
+    }
+}
@@ -0,0 +1,101 @@
+package com.voluntariado.plataforma.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IndiceInvertidoTest {
+
+    @Test
+    void losTerminosRarosPesanMas() {
+        IndiceInvertido indice = new IndiceInvertido();
+        indice.indexar("a", Set.of("cocina", "idiomas"));
+        indice.indexar("b", Set.of("cocina"));
+        indice.indexar("c", Set.of("cocina"));
+
+        List<IndiceInvertido.Resultado> resultado = indice.buscar(List.of("cocina", "idiomas"), 10, Set.of());
+
+        assertEquals(3, resultado.size());
+        assertEquals("a", resultado.get(0).documentoId());
+        assertTrue(resultado.get(0).puntuacion() > resultado.get(1).puntuacion());
+    }
+
+    @Test
+    void buscarRespetaElLimiteYLosExcluidos() {
+        IndiceInvertido indice = new IndiceInvertido();
+        indice.indexar("a", Set.of("cocina", "idiomas"));
+        indice.indexar("b", Set.of("cocina"));
+        indice.indexar("c", Set.of("idiomas"));
+
+        List<IndiceInvertido.Resultado> resultado = indice.buscar(List.of("cocina", "idiomas"), 1, Set.of("a"));
+
+        assertEquals(1, resultado.size());
+        assertTrue(Set.of("b", "c").contains(resultado.get(0).documentoId()));
+    }
+
+    @Test
+    void reindexarReemplazaLosTerminos() {
+        IndiceInvertido indice = new IndiceInvertido();
+        indice.indexar("a", Set.of("cocina", "idiomas"));
+        indice.indexar("a", Set.of("jardineria"));
+
+        assertEquals(Set.of("jardineria"), indice.terminos("a"));
+        assertTrue(indice.coincidentes(List.of("cocina", "idiomas")).isEmpty());
+        assertEquals(Set.of("a"), indice.coincidentes(List.of("jardineria")));
+    }
+
+    @Test
+    void eliminarYConjuntoVacioQuitanElDocumento() {
+        IndiceInvertido indice = new IndiceInvertido();
+        indice.indexar("a", Set.of("cocina"));
+        indice.indexar("b", Set.of("cocina"));
+
+        indice.eliminar("a");
+        indice.indexar("b", Set.of());
+
+        assertEquals(0, indice.tamano());
+        assertTrue(indice.coincidentes(List.of("cocina")).isEmpty());
+    }
+
+    @Test
+    void coincidentesDevuelveTodosSinLimite() {
+        IndiceInvertido indice = new IndiceInvertido();
+        for (int i = 0; i < 2500; i++) {
+            indice.indexar("v" + i, Set.of(i % 2 == 0 ? "cocina" : "idiomas"));
+        }
+
+        assertEquals(1250, indice.coincidentes(List.of("cocina")).size());
+        assertEquals(2500, indice.coincidentes(List.of("cocina", "idiomas")).size());
+    }
+
+    // Documentos que entran y salen del mismo término a la vez: ninguno se pierde en una lista ya retirada
+    @Test
+    void altasYBajasConcurrentesNoPierdenDocumentos() throws InterruptedException {
+        IndiceInvertido indice = new IndiceInvertido();
+        ExecutorService hilos = Executors.newFixedThreadPool(8);
+        for (int h = 0; h < 8; h++) {
+            int hilo = h;
+            hilos.execute(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    String id = hilo + "-" + i;
+                    indice.indexar(id, Set.of("cocina"));
+                    if (i % 2 == 0) {
+                        indice.eliminar(id);
+                    }
+                }
+            });
+        }
+        hilos.shutdown();
+        assertTrue(hilos.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(8000, indice.tamano());
+        assertEquals(8000, indice.coincidentes(List.of("cocina")).size());
+    }
+}
@@ -0,0 +1,43 @@
+package com.voluntariado.plataforma.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MezclaOrdenadaTest {
+
+    @Test
+    void mezclaListasOrdenadasConservandoElOrden() {
+        List<Integer> resultado = MezclaOrdenada.mezclar(
+                List.of(List.of(9, 5, 1), List.of(8, 2), List.of(7, 6, 3)), Comparator.reverseOrder());
+
+        assertEquals(List.of(9, 8, 7, 6, 5, 3, 2, 1), resultado);
+    }
+
+    @Test
+    void ignoraListasVacias() {
+        List<Integer> resultado = MezclaOrdenada.mezclar(
+                List.of(List.of(), List.of(1, 4), List.of()), Comparator.naturalOrder());
+
+        assertEquals(List.of(1, 4), resultado);
+    }
+
+    @Test
+    void sinListasDevuelveVacio() {
+        assertTrue(MezclaOrdenada.<Integer>mezclar(List.of(), Comparator.naturalOrder()).isEmpty());
+    }
+
+    @Test
+    void conservaLosEmpates() {
+        List<String> resultado = MezclaOrdenada.mezclar(
+                List.of(List.of("a1", "b1"), List.of("a2", "c2")), Comparator.comparing(s -> s.charAt(0)));
+
+        assertEquals(4, resultado.size());
+        assertEquals("c2", resultado.get(3));
+        assertTrue(resultado.subList(0, 2).containsAll(List.of("a1", "a2")));
+    }
+}